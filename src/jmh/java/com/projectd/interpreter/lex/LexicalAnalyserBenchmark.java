@@ -0,0 +1,77 @@
+package com.projectd.interpreter.lex;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexing throughput of the reference and the table-driven lexical analysers on a generated program.
+ * <p>
+ * Run with {@code gradle jmh -PjmhArgs="LexicalAnalyserBenchmark"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class LexicalAnalyserBenchmark {
+
+    private static final String PROGRAM_FRAGMENT = """
+            var bubble := func (arr, n) is
+              for i in 1 .. n-1 loop
+                var temp
+                for j in 1 .. n-i loop
+                  if arr[j] > arr[j+1] then
+                    temp := arr[j]
+                    arr[j] := arr[j+1]
+                    arr[j+1] := temp
+                  end
+                end
+              end
+            end
+            var arr := [221, 113, 37, 15, 11]
+            var t := {name := "tuple", value := 2.75, flag := true}
+            print "sorted:", bubble(arr, 5), t.name, t.2 + 0.25
+            """;
+
+    @Param({"1000", "100000"})
+    private int fragments;
+
+    private List<String> sourceLines;
+
+    @Setup
+    public void setUp() {
+        List<String> fragmentLines = Arrays.asList(PROGRAM_FRAGMENT.split("\n"));
+        sourceLines = new ArrayList<>(fragmentLines.size() * fragments);
+        for (int i = 0; i < fragments; i++) {
+            sourceLines.addAll(fragmentLines);
+        }
+    }
+
+    @Benchmark
+    public List<LexToken> referenceLexer() {
+        return new LexicalAnalyserImpl().analyse(sourceLines);
+    }
+
+    @Benchmark
+    public List<LexToken> tableDrivenLexer() {
+        return new TableDrivenLexicalAnalyser().analyse(sourceLines);
+    }
+
+    @Benchmark
+    public LexTokenBuffer tableDrivenLexerToBuffer() {
+        return new TableDrivenLexicalAnalyser().analyseToBuffer(sourceLines);
+    }
+
+    @Benchmark
+    public LexTokenBuffer sequentialTableDrivenLexerToBuffer() {
+        return new TableDrivenLexicalAnalyser(ForkJoinPool.commonPool(), Integer.MAX_VALUE).analyseToBuffer(sourceLines);
+    }
+}
@@ -0,0 +1,73 @@
+package com.projectd.interpreter.runtime;
+
+import com.projectd.interpreter.lex.TableDrivenLexicalAnalyser;
+import com.projectd.interpreter.syntax.SyntaxAnalyserImpl;
+import com.projectd.interpreter.syntax.SyntaxAnalyserOptions;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution time of the example programs on every {@link ExecutionEngine}, the tree walker being the reference.
+ * The programs are parsed once, compiling engines compile them on every run. Printing is discarded and
+ * {@code readInt} reads 5.
+ * <p>
+ * Run from the project directory with {@code gradle jmh -PjmhArgs="ExecutionEngineBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class ExecutionEngineBenchmark {
+
+    private static final byte[] INPUT = "5\n".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"bubble_sort.txt", "fibonacci.txt", "factorial.txt", "binary_search.txt"})
+    private String program;
+
+    @Param({"TREE", "CLOSURE", "VM", "REGISTER"})
+    private ExecutionEngine engine;
+
+    private AstNode syntaxTree;
+    private PrintStream out;
+    private InputStream in;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntaxAnalyserOptions options = SyntaxAnalyserOptions.builder()
+                .predictive(true)
+                .packrat(SyntaxAnalyserOptions.PackratMode.STATEMENT)
+                .compactExpressions(true)
+                .build();
+        syntaxTree = new SyntaxAnalyserImpl(
+                new TableDrivenLexicalAnalyser().analyseToBuffer(Files.readAllLines(Path.of("example", program))), options)
+                .buildAstTree();
+
+        out = System.out;
+        in = System.in;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(out);
+        System.setIn(in);
+    }
+
+    @Benchmark
+    public void execute() {
+        System.setIn(new ByteArrayInputStream(INPUT));
+        engine.newExecutor().execute(syntaxTree);
+    }
+}
@@ -0,0 +1,53 @@
+package com.projectd.interpreter.runtime;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenCode;
+import com.projectd.interpreter.lex.token.LexTokenSpan;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of single operations of the {@link RuntimeOperationHandler} on small integers, whose results are cached,
+ * so the operand type checks are all that could allocate.
+ * <p>
+ * Run with {@code gradle jmh -PjmhArgs="OperationHandlerBenchmark -prof gc"}, {@code gc.alloc.rate.norm} is the
+ * allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class OperationHandlerBenchmark {
+
+    private final LexToken addition = new LexToken(LexTokenSpan.of(0, 0), LexTokenCode.ADDITION);
+    private final LexToken less = new LexToken(LexTokenSpan.of(0, 0), LexTokenCode.LESS);
+    private final LexToken negation = new LexToken(LexTokenSpan.of(0, 0), LexTokenCode.SUBTRACTION);
+
+    private RuntimeValue left;
+    private RuntimeValue right;
+
+    @Setup
+    public void setUp() {
+        left = RuntimeValue.ofInt(3);
+        right = RuntimeValue.ofInt(4);
+    }
+
+    @Benchmark
+    public RuntimeValue intAddition() {
+        return RuntimeOperationHandler.handleBinaryOperation(addition, left, right);
+    }
+
+    @Benchmark
+    public RuntimeValue intComparison() {
+        return RuntimeOperationHandler.handleBinaryOperation(less, left, right);
+    }
+
+    @Benchmark
+    public RuntimeValue intNegation() {
+        return RuntimeOperationHandler.handleUnaryOperation(negation, left);
+    }
+}
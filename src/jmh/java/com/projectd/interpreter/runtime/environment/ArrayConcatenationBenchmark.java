@@ -0,0 +1,32 @@
+package com.projectd.interpreter.runtime.environment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grows an array to {@code size} elements one concatenation at a time, as {@code arr = arr + [i]} does.
+ * <p>
+ * Run with {@code gradle jmh -PjmhArgs="ArrayConcatenationBenchmark"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class ArrayConcatenationBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    @Benchmark
+    public SparseArray grow() {
+        SparseArray array = new SparseArray();
+        for (int i = 1; i <= size; i++) {
+            array = SparseArray.concatenate(array, SparseArray.fromList(List.of(RuntimeValue.ofInt(i))));
+        }
+        return array;
+    }
+}
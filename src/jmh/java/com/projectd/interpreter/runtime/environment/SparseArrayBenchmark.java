@@ -0,0 +1,83 @@
+package com.projectd.interpreter.runtime.environment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Element access, concatenation and construction of arrays of both layouts. Dense arrays hold the indexes
+ * 1 to {@code size}, sparse ones the same number of elements a thousand indexes apart.
+ * <p>
+ * Run with {@code gradle jmh -PjmhArgs="SparseArrayBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class SparseArrayBenchmark {
+
+    private static final int SPARSE_STRIDE = 1000;
+
+    @Param({"DENSE", "SPARSE"})
+    private String shape;
+
+    @Param({"1000"})
+    private int size;
+
+    private List<RuntimeValue> values;
+    private SparseArray array;
+    private int stride;
+
+    @Setup
+    public void setUp() {
+        values = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            values.add(RuntimeValue.ofInt(i));
+        }
+        stride = shape.equals("DENSE") ? 1 : SPARSE_STRIDE;
+        array = build();
+    }
+
+    @Benchmark
+    public int get() {
+        int sum = 0;
+        for (int i = 1; i <= size; i++) {
+            sum += array.get(RuntimeValue.ofInt(i * stride)).asInt();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public SparseArray set() {
+        for (int i = 1; i <= size; i++) {
+            array.set(RuntimeValue.ofInt(i * stride), values.get(i - 1));
+        }
+        return array;
+    }
+
+    @Benchmark
+    public SparseArray concatenate() {
+        return SparseArray.concatenate(array, array);
+    }
+
+    /** Dense arrays are built from a list, sparse ones by writes */
+    @Benchmark
+    public SparseArray fromList() {
+        return build();
+    }
+
+    private SparseArray build() {
+        if (stride == 1) {
+            return SparseArray.fromList(values);
+        }
+        SparseArray sparse = new SparseArray();
+        for (int i = 1; i <= size; i++) {
+            sparse.set(i * stride, values.get(i - 1));
+        }
+        return sparse;
+    }
+}
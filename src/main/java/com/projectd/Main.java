@@ -2,34 +2,55 @@ package com.projectd;
 
 import com.projectd.interpreter.DInterpreter;
 import com.projectd.interpreter.DInterpreterImpl;
+import com.projectd.interpreter.lex.MappedSourceReader;
+import com.projectd.interpreter.runtime.ExecutionEngine;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 public class Main {
 
-    private static final DInterpreter interpreter = new DInterpreterImpl();
+    private static final String ENGINE_OPTION = "--engine=";
 
     public static void main(String[] args) {
-        if (args.length != 1) {
+        ExecutionEngine engine = ExecutionEngine.TREE;
+        List<String> sources = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(ENGINE_OPTION)) {
+                String name = arg.substring(ENGINE_OPTION.length());
+                try {
+                    engine = ExecutionEngine.valueOf(name.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Unknown engine " + name + ", expected one of " + Arrays.toString(ExecutionEngine.values()).toLowerCase(Locale.ROOT));
+                    return;
+                }
+            } else {
+                sources.add(arg);
+            }
+        }
+
+        if (sources.size() != 1) {
             System.out.println("Specify exactly one file of source code");
             return;
         }
 
-        String sourcePath = args[0];
-        List<String> sourceCodeLines;
-        try {
-            Path path = Paths.get(sourcePath);
-            sourceCodeLines = Files.readAllLines(path);
+        DInterpreter interpreter = new DInterpreterImpl(engine);
+        String sourcePath = sources.get(0);
+        Path path = Paths.get(sourcePath);
+        try (Reader sourceReader = new MappedSourceReader(path)) {
+            interpreter.interpretFromSource(sourceReader);
         } catch (IOException e) {
             System.err.println(e.toString());
-            return;
+        } catch (UncheckedIOException e) {
+            System.err.println(e.getCause().toString());
         }
 
-        interpreter.interpretFromSource(sourceCodeLines);
-
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package com.projectd.interpreter;
+
+import com.projectd.interpreter.runtime.ExecutionEngine;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.closure.OperationProfile;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs many programs at the same time on a fixed pool of threads.
+ * <p>
+ * Every program is lexed, parsed and executed on its own executor of the engine, with an environment and streams of
+ * its own, so programs do not see each other's variables, input or output. Runtime and syntax errors of a program
+ * complete its future exceptionally. Identifiers are interned in the symbol table of the executor, which is dropped
+ * with it when the program ends.
+ */
+public class ConcurrentInterpreter implements AutoCloseable {
+
+    private static final InputStream NO_INPUT = InputStream.nullInputStream();
+
+    private final ExecutionEngine engine;
+    private final ExecutorService pool;
+    /** Operation counters of every program run, when the engine is the closure one */
+    @Getter
+    private final OperationProfile profile = new OperationProfile();
+
+    public ConcurrentInterpreter(ExecutionEngine engine, int threads) {
+        this.engine = engine;
+        this.pool = Executors.newFixedThreadPool(threads);
+    }
+
+    /** Runs the program reading from {@code in} and printing to {@code out} */
+    public CompletableFuture<Void> submit(List<String> sourceLines, InputStream in, PrintStream out) {
+        return CompletableFuture.runAsync(() -> new DInterpreterImpl(engine.newExecutor(new RuntimeIOHandler(in, out), profile))
+                .interpretFromSource(sourceLines), pool);
+    }
+
+    /** Runs the program with no input, the future completes with everything it printed */
+    public CompletableFuture<String> submit(List<String> sourceLines) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        return submit(sourceLines, NO_INPUT, out).thenApply(done -> buffer.toString(StandardCharsets.UTF_8));
+    }
+
+    /** Programs already submitted still run to the end */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -1,8 +1,13 @@
 package com.projectd.interpreter;
 
+import java.io.Reader;
 import java.util.List;
 
 public interface DInterpreter {
 
+    /** Lexes the whole source into a token buffer first, in parallel for long sources; all of it is held in memory */
     void interpretFromSource(List<String> source);
+
+    /** Lexes the source as the parser advances, reading ahead in parallel for long sources; memory use stays bounded */
+    void interpretFromSource(Reader source);
 }
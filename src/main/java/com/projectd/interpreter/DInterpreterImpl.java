@@ -1,26 +1,70 @@
 package com.projectd.interpreter;
 
 import com.projectd.interpreter.lex.LexicalAnalyser;
-import com.projectd.interpreter.lex.LexicalAnalyserImpl;
+import com.projectd.interpreter.lex.TableDrivenLexicalAnalyser;
 import com.projectd.interpreter.lex.token.LexToken;
-import com.projectd.interpreter.runtime.RuntimeExecutorImpl;
+import com.projectd.interpreter.lex.token.LexTokenBuffer;
+import com.projectd.interpreter.runtime.ExecutionEngine;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.closure.OperationProfile;
 import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
 import com.projectd.interpreter.syntax.SyntaxAnalyser;
 import com.projectd.interpreter.syntax.SyntaxAnalyserImpl;
+import com.projectd.interpreter.syntax.SyntaxAnalyserOptions;
 import com.projectd.interpreter.syntax.tree.AstNode;
 
+import java.io.Reader;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class DInterpreterImpl implements DInterpreter {
 
-    private static final LexicalAnalyser lexicalAnalyser = new LexicalAnalyserImpl();
-    private static final RuntimeExecutor executor = new RuntimeExecutorImpl();
+    private static final LexicalAnalyser lexicalAnalyser = new TableDrivenLexicalAnalyser();
+    private static final SyntaxAnalyserOptions syntaxOptions = SyntaxAnalyserOptions.builder()
+            .predictive(true)
+            .packrat(SyntaxAnalyserOptions.PackratMode.STATEMENT)
+            .compactExpressions(true)
+            .build();
+
+    private final Supplier<RuntimeExecutor> executors;
+
+    public DInterpreterImpl() {
+        this(ExecutionEngine.TREE);
+    }
+
+    /** Every program runs on a new executor of the engine, with an environment of its own, on the standard streams */
+    public DInterpreterImpl(ExecutionEngine engine) {
+        this.executors = engine::newExecutor;
+    }
+
+    /** Same as {@link #DInterpreterImpl(ExecutionEngine)}, the closure engine adds its operation counters to the profile */
+    public DInterpreterImpl(ExecutionEngine engine, OperationProfile profile) {
+        this.executors = () -> engine.newExecutor(RuntimeIOHandler.standard(), profile);
+    }
+
+    /** Every program runs on the executor, which is not safe to share between threads */
+    public DInterpreterImpl(RuntimeExecutor executor) {
+        this.executors = () -> executor;
+    }
 
     @Override
     public void interpretFromSource(List<String> sourceLines) {
-        List<LexToken> lexTokens = lexicalAnalyser.analyse(sourceLines);
+        RuntimeExecutor executor = executors.get();
+        LexTokenBuffer lexTokens = lexicalAnalyser.analyseToBuffer(sourceLines, executor.getSymbolTable());
+
+        SyntaxAnalyser syntaxAnalyser = new SyntaxAnalyserImpl(lexTokens, syntaxOptions);
+        AstNode syntaxTree = syntaxAnalyser.buildAstTree();
+
+        executor.execute(syntaxTree);
+    }
+
+    @Override
+    public void interpretFromSource(Reader source) {
+        RuntimeExecutor executor = executors.get();
+        Iterator<LexToken> lexTokens = lexicalAnalyser.analyse(source, executor.getSymbolTable());
 
-        SyntaxAnalyser syntaxAnalyser = new SyntaxAnalyserImpl(lexTokens);
+        SyntaxAnalyser syntaxAnalyser = new SyntaxAnalyserImpl(lexTokens, syntaxOptions);
         AstNode syntaxTree = syntaxAnalyser.buildAstTree();
 
         executor.execute(syntaxTree);
@@ -1,10 +1,45 @@
 package com.projectd.interpreter.lex;
 
+import com.projectd.interpreter.lex.token.LexSymbolTable;
 import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenBuffer;
 
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.Iterator;
 import java.util.List;
 
 public interface LexicalAnalyser {
 
-    List<LexToken> analyse(List<String> sourceLines);
+    /** Tokens of the source, identifiers interned in the table */
+    List<LexToken> analyse(List<String> sourceLines, LexSymbolTable symbols);
+
+    /** Same as {@link #analyse(List, LexSymbolTable)} with a table of its own */
+    default List<LexToken> analyse(List<String> sourceLines) {
+        return analyse(sourceLines, new LexSymbolTable());
+    }
+
+    /** Same tokens as {@link #analyse(List, LexSymbolTable)}, stored in a compact buffer */
+    default LexTokenBuffer analyseToBuffer(List<String> sourceLines, LexSymbolTable symbols) {
+        LexTokenBuffer buffer = new LexTokenBuffer(symbols);
+        analyse(sourceLines, symbols).forEach(buffer::add);
+        return buffer;
+    }
+
+    default LexTokenBuffer analyseToBuffer(List<String> sourceLines) {
+        return analyseToBuffer(sourceLines, new LexSymbolTable());
+    }
+
+    /**
+     * Tokens of the source read from the reader. Lines are split the same way as {@link java.nio.file.Files#readAllLines}.
+     * <p>
+     * Implementations may produce tokens lazily, read failures are then reported as {@link java.io.UncheckedIOException}.
+     */
+    default Iterator<LexToken> analyse(Reader source, LexSymbolTable symbols) {
+        return analyse(new BufferedReader(source).lines().toList(), symbols).iterator();
+    }
+
+    default Iterator<LexToken> analyse(Reader source) {
+        return analyse(source, new LexSymbolTable());
+    }
 }
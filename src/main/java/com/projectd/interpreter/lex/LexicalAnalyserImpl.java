@@ -13,7 +13,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
     private static final Pattern IDENTIFIER_OR_LITERAL_PATTERN = Pattern.compile("^[A-Za-z0-9_.]$");
 
     @Override
-    public List<LexToken> analyse(List<String> sourceLines) {
+    public List<LexToken> analyse(List<String> sourceLines, LexSymbolTable symbols) {
         List<LexToken> lexTokenList = new ArrayList<>();
         for (int i = 0; i < sourceLines.size(); i++) {
 
@@ -104,11 +104,14 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                         j++;
                         StringBuilder literal = new StringBuilder();
                         int counter = 0;
-                        while (sourceLines.get(i).charAt(j) != '\"') {
+                        while (j < sizeOfLine && sourceLines.get(i).charAt(j) != '\"') {
                             literal.append(sourceLines.get(i).charAt(j));
                             counter++;
                             j++;
                         }
+                        if (j == sizeOfLine) {
+                            throw SyntaxExceptionFactory.badIdentifier(i, j - counter - 1);
+                        }
                         lexTokenList.add(LexLiteralToken.ofValue(literal.toString(), LexTokenSpan.of(i, j - counter)));
                         break;
                     case '.':
@@ -169,7 +172,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.READ_STRING));
                             j += 9;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -197,7 +200,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.IS));
                             j += 1;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -214,7 +217,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.BOOLEAN));
                             j += 6;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -230,7 +233,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.STRING));
                             j += 5;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -251,7 +254,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(LexLiteralToken.ofValue(true, LexTokenSpan.of(i, j)));
                             j += 3;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -275,11 +278,11 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                                 && sourceLines.get(i).charAt(j + 2) == 'p'
                                 && sourceLines.get(i).charAt(j + 3) == 't'
                                 && sourceLines.get(i).charAt(j + 4) == 'y'
-                                && charIsSpaceOrEOF(i, j + 3, sourceLines)) {
+                                && charIsSpaceOrEOF(i, j + 5, sourceLines)) {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.EMPTY));
                             j += 4;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -294,7 +297,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.WHILE));
                             j += 4;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -307,7 +310,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.VAR));
                             j += 2;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -321,7 +324,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.LOOP));
                             j += 4;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -349,7 +352,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(LexLiteralToken.ofValue(false, LexTokenSpan.of(i, j)));
                             j += 4;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -364,7 +367,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.PRINT));
                             j += 4;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -376,7 +379,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.OR));
                             j += 1;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -389,7 +392,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.AND));
                             j += 2;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -402,7 +405,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.XOR));
                             j += 2;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -415,7 +418,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             lexTokenList.add(new LexToken(LexTokenSpan.of(i, j), LexTokenCode.NOT));
                             j += 2;
                         } else {
-                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines);
+                            LexIdentifierToken lexIdentifierToken = buildIdentifier(i, j, sourceLines, symbols);
                             lexTokenList.add(lexIdentifierToken);
                             j += lexIdentifierToken.getIdentifier().length() - 1;
                         }
@@ -429,13 +432,16 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
                             count++;
                             j++;
                         }
+                        if (count == 0) {
+                            throw SyntaxExceptionFactory.badIdentifier(i, j);
+                        }
                         String identifierOrLiteralSt = identifierOrLiteralSb.toString();
                         if (identifierOrLiteralSt.matches("\\d+")) {
                             lexTokenList.add(LexLiteralToken.ofValue(Integer.parseInt(identifierOrLiteralSt), LexTokenSpan.of(i, j - count)));
                         } else if (identifierOrLiteralSt.matches("^\\d+(\\.\\d+)*$")) {
                             lexTokenList.add(LexLiteralToken.ofValue(Double.parseDouble(identifierOrLiteralSt), LexTokenSpan.of(i, j - count)));
                         } else if (LITERAL_TOKEN_PATTERN.matcher(identifierOrLiteralSt).matches()) {
-                            lexTokenList.add(new LexIdentifierToken(identifierOrLiteralSt, LexTokenSpan.of(i, j - count)));
+                            lexTokenList.add(new LexIdentifierToken(symbols, identifierOrLiteralSt, LexTokenSpan.of(i, j - count)));
                         } else {
                             throw SyntaxExceptionFactory.badIdentifier(i, j);
                         }
@@ -447,7 +453,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
         return lexTokenList;
     }
 
-    public LexIdentifierToken buildIdentifier(int i, int j, List<String> sourceLines) {
+    public LexIdentifierToken buildIdentifier(int i, int j, List<String> sourceLines, LexSymbolTable symbols) {
         StringBuilder identifier = new StringBuilder();
         int counter = 0;
         while (j != sourceLines.get(i).length()
@@ -458,7 +464,7 @@ public class LexicalAnalyserImpl implements LexicalAnalyser {
         }
 
         if (counter > 0) {
-            return new LexIdentifierToken(identifier.toString(), LexTokenSpan.of(i, j - counter));
+            return new LexIdentifierToken(symbols, identifier.toString(), LexTokenSpan.of(i, j - counter));
         }
 
         throw SyntaxExceptionFactory.badIdentifier(i, j);
@@ -0,0 +1,107 @@
+package com.projectd.interpreter.lex;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader over a memory-mapped source file.
+ * <p>
+ * The file is mapped region by region and decoded as UTF-8 into a small char buffer on demand,
+ * so the source never has to be loaded into the heap as a whole. Malformed input is reported
+ * the same way as by {@link java.nio.file.Files#readAllLines}.
+ */
+public class MappedSourceReader extends Reader {
+
+    private static final long DEFAULT_REGION_SIZE = 64L * 1024 * 1024;
+    private static final int CHUNK_SIZE = 8 * 1024;
+    /** A region must fit any single encoded character, otherwise decoding could not advance */
+    private static final long MIN_REGION_SIZE = 4;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long regionSize;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final CharBuffer chunk = CharBuffer.allocate(CHUNK_SIZE).flip();
+
+    private ByteBuffer region;
+    /** File offset of the first byte of the current region */
+    private long regionStart = 0;
+    private boolean endOfInput = false;
+
+    public MappedSourceReader(Path path) throws IOException {
+        this(path, DEFAULT_REGION_SIZE);
+    }
+
+    MappedSourceReader(Path path, long regionSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.regionSize = Math.max(regionSize, MIN_REGION_SIZE);
+        this.region = map(0);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!chunk.hasRemaining() && !fillChunk()) {
+            return -1;
+        }
+
+        int count = Math.min(length, chunk.remaining());
+        chunk.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+
+    /** @return false if the whole file has been decoded */
+    private boolean fillChunk() throws IOException {
+        if (region == null) {
+            throw new IOException("Stream closed");
+        }
+
+        chunk.clear();
+        while (chunk.position() == 0 && !endOfInput) {
+            long regionEnd = regionStart + region.limit();
+            boolean lastRegion = regionEnd == fileSize;
+
+            CoderResult result = decoder.decode(region, chunk, lastRegion);
+            if (result.isError()) {
+                result.throwException();
+            }
+
+            if (result.isUnderflow()) {
+                if (lastRegion) {
+                    decoder.flush(chunk);
+                    endOfInput = true;
+                } else {
+                    // Bytes of a character split by the region boundary are decoded from the next region
+                    regionStart += region.position();
+                    region = map(regionStart);
+                }
+            }
+        }
+        chunk.flip();
+        return chunk.hasRemaining();
+    }
+
+    private ByteBuffer map(long start) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, fileSize - start));
+    }
+}
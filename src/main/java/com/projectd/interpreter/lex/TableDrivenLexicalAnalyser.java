@@ -0,0 +1,471 @@
+package com.projectd.interpreter.lex;
+
+import com.projectd.interpreter.lex.token.*;
+import com.projectd.interpreter.shared.exception.SyntaxExceptionFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lexical analyser driven by precomputed character-class and keyword tables.
+ * <p>
+ * Produces exactly the same token stream as {@link LexicalAnalyserImpl}, but classifies every character
+ * with a single array lookup and recognises keywords by walking a trie built from {@link LexTokenBinder},
+ * so no objects are allocated per character and no regular expressions are involved.
+ * <p>
+ * No token spans several lines, so sources longer than the parallel threshold are split into line ranges
+ * that are lexed independently on a {@link ForkJoinPool} and concatenated in source order. Sources read from
+ * a {@link Reader} are split the same way as they are read.
+ */
+public class TableDrivenLexicalAnalyser implements LexicalAnalyser {
+
+    private static final int TABLE_SIZE = 128;
+
+    private static final byte SKIP = 0;
+    private static final byte WORD = 1;
+    private static final byte OPERATOR = 2;
+    private static final byte QUOTE = 3;
+    private static final byte UNKNOWN = 4;
+
+    private static final byte[] CHAR_CLASS = new byte[TABLE_SIZE];
+    private static final LexTokenCode[] SINGLE_CHAR_TOKENS = new LexTokenCode[TABLE_SIZE];
+    private static final char[] PAIR_SECOND_CHAR = new char[TABLE_SIZE];
+    private static final LexTokenCode[] PAIR_TOKENS = new LexTokenCode[TABLE_SIZE];
+
+    private static final int DEFAULT_PARALLEL_THRESHOLD_LINES = 20_000;
+    private static final int MIN_CHUNK_LINES = 2_048;
+    /** Chunks per worker, so that a slow chunk does not leave the other workers idle */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /** Read operations are recognised even when they are immediately followed by other characters */
+    private static final Set<LexTokenCode> UNDELIMITED_KEYWORDS = EnumSet.of(
+            LexTokenCode.READ_INT,
+            LexTokenCode.READ_REAL,
+            LexTokenCode.READ_STRING);
+
+    private static final char TRIE_FIRST_CHAR = 'A';
+    private static final int TRIE_ALPHABET = 'z' - TRIE_FIRST_CHAR + 1;
+    private static final int[] TRIE_NEXT;
+    private static final LexTokenCode[] TRIE_ACCEPT;
+
+    static {
+        for (int ch = 0; ch < TABLE_SIZE; ch++) {
+            CHAR_CLASS[ch] = isWordChar((char) ch) ? WORD : UNKNOWN;
+        }
+        CHAR_CLASS[' '] = SKIP;
+        CHAR_CLASS['\t'] = SKIP;
+        CHAR_CLASS['\n'] = SKIP;
+
+        List<int[]> trieNext = new ArrayList<>();
+        List<LexTokenCode> trieAccept = new ArrayList<>();
+        trieNext.add(new int[TRIE_ALPHABET]);
+        trieAccept.add(null);
+
+        for (LexTokenCode code : LexTokenCode.values()) {
+            String binding = LexTokenBinder.lexTokenString(code);
+            if (binding == null || code == LexTokenCode.QUOTES) {
+                continue;
+            }
+
+            if (Character.isLetter(binding.charAt(0))) {
+                int node = 0;
+                for (int i = 0; i < binding.length(); i++) {
+                    int edge = binding.charAt(i) - TRIE_FIRST_CHAR;
+                    if (trieNext.get(node)[edge] == 0) {
+                        trieNext.get(node)[edge] = trieNext.size();
+                        trieNext.add(new int[TRIE_ALPHABET]);
+                        trieAccept.add(null);
+                    }
+                    node = trieNext.get(node)[edge];
+                }
+                trieAccept.set(node, code);
+            } else if (binding.length() == 1) {
+                SINGLE_CHAR_TOKENS[binding.charAt(0)] = code;
+                CHAR_CLASS[binding.charAt(0)] = OPERATOR;
+            } else {
+                PAIR_SECOND_CHAR[binding.charAt(0)] = binding.charAt(1);
+                PAIR_TOKENS[binding.charAt(0)] = code;
+                CHAR_CLASS[binding.charAt(0)] = OPERATOR;
+            }
+        }
+        CHAR_CLASS['"'] = QUOTE;
+
+        TRIE_NEXT = new int[trieNext.size() * TRIE_ALPHABET];
+        for (int node = 0; node < trieNext.size(); node++) {
+            System.arraycopy(trieNext.get(node), 0, TRIE_NEXT, node * TRIE_ALPHABET, TRIE_ALPHABET);
+        }
+        TRIE_ACCEPT = trieAccept.toArray(new LexTokenCode[0]);
+    }
+
+    private final ForkJoinPool pool;
+    private final int parallelThresholdLines;
+
+    public TableDrivenLexicalAnalyser() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD_LINES);
+    }
+
+    /** @param parallelThresholdLines sources with at least this many lines are lexed in parallel on the pool, at least 1 */
+    public TableDrivenLexicalAnalyser(ForkJoinPool pool, int parallelThresholdLines) {
+        if (parallelThresholdLines < 1) {
+            throw new IllegalArgumentException(String.format("Parallel threshold must be at least 1 line, got %d", parallelThresholdLines));
+        }
+        this.pool = pool;
+        this.parallelThresholdLines = parallelThresholdLines;
+    }
+
+    @Override
+    public List<LexToken> analyse(List<String> sourceLines, LexSymbolTable symbols) {
+        if (sourceLines.size() < parallelThresholdLines) {
+            List<LexToken> lexTokenList = new ArrayList<>();
+            analyseLines(sourceLines, 0, sourceLines.size(), new LexTokenListSink(lexTokenList, symbols));
+            return lexTokenList;
+        }
+
+        List<List<LexToken>> chunks = analyseInParallel(sourceLines, ArrayList::new, chunk -> new LexTokenListSink(chunk, symbols));
+        List<LexToken> lexTokenList = new ArrayList<>(chunks.stream().mapToInt(List::size).sum());
+        chunks.forEach(lexTokenList::addAll);
+        return lexTokenList;
+    }
+
+    @Override
+    public LexTokenBuffer analyseToBuffer(List<String> sourceLines, LexSymbolTable symbols) {
+        if (sourceLines.size() < parallelThresholdLines) {
+            LexTokenBuffer buffer = new LexTokenBuffer(symbols);
+            analyseLines(sourceLines, 0, sourceLines.size(), buffer);
+            return buffer;
+        }
+
+        List<LexTokenBuffer> chunks = analyseInParallel(sourceLines, () -> new LexTokenBuffer(symbols), chunk -> chunk);
+        LexTokenBuffer buffer = chunks.get(0);
+        chunks.subList(1, chunks.size()).forEach(buffer::addAll);
+        return buffer;
+    }
+
+    /**
+     * Tokens are produced a chunk of lines at a time as the iterator is advanced. Past the parallel threshold the
+     * next chunks are read ahead and lexed on the pool, so only a window of chunks is held in memory however long
+     * the source is.
+     */
+    @Override
+    public Iterator<LexToken> analyse(Reader source, LexSymbolTable symbols) {
+        return new StreamingTokenIterator(source instanceof BufferedReader reader ? reader : new BufferedReader(source), symbols);
+    }
+
+    /**
+     * Lexes every line range as a separate task and returns the tokens of each range in source order.
+     * An error is reported from the first range that failed, as the sequential lexer would.
+     */
+    private <T> List<T> analyseInParallel(List<String> sourceLines, Supplier<T> newChunk, Function<T, LexTokenSink> sinkOf) {
+        int chunkLines = Math.max(MIN_CHUNK_LINES, sourceLines.size() / (pool.getParallelism() * CHUNKS_PER_WORKER));
+
+        return pool.invoke(new RecursiveTask<>() {
+            @Override
+            protected List<T> compute() {
+                List<ForkJoinTask<ChunkResult<T>>> tasks = new ArrayList<>();
+                for (int from = 0; from < sourceLines.size(); from += chunkLines) {
+                    int to = Math.min(from + chunkLines, sourceLines.size());
+                    int chunkFrom = from;
+                    tasks.add(ForkJoinTask.adapt(() -> {
+                        T chunk = newChunk.get();
+                        try {
+                            analyseLines(sourceLines, chunkFrom, to, sinkOf.apply(chunk));
+                        } catch (RuntimeException e) {
+                            return new ChunkResult<>(chunk, e);
+                        }
+                        return new ChunkResult<>(chunk, null);
+                    }).fork());
+                }
+
+                List<T> chunks = new ArrayList<>(tasks.size());
+                for (ForkJoinTask<ChunkResult<T>> task : tasks) {
+                    ChunkResult<T> result = task.join();
+                    if (result.error() != null) {
+                        throw result.error();
+                    }
+                    chunks.add(result.tokens());
+                }
+                return chunks;
+            }
+        });
+    }
+
+    private void analyseLines(List<String> sourceLines, int from, int to, LexTokenSink out) {
+        for (int i = from; i < to; i++) {
+            analyseLine(sourceLines.get(i), i, out);
+        }
+    }
+
+    void analyseLine(CharSequence line, int lineNum, LexTokenSink out) {
+        int length = line.length();
+        int j = 0;
+        while (j < length) {
+            char ch = line.charAt(j);
+            switch (charClass(ch)) {
+                case SKIP -> j++;
+                case OPERATOR -> j = analyseOperator(line, lineNum, j, out);
+                case QUOTE -> j = analyseString(line, lineNum, j, out);
+                case WORD -> {
+                    if (trieChild(0, ch) == 0) {
+                        j = analyseIdentifierOrNumber(line, lineNum, j, out);
+                    } else {
+                        int keywordEnd = analyseKeyword(line, lineNum, j, out);
+                        j = keywordEnd >= 0 ? keywordEnd : analyseIdentifier(line, lineNum, j, out);
+                    }
+                }
+                default -> throw SyntaxExceptionFactory.badIdentifier(lineNum, j);
+            }
+        }
+    }
+
+    private int analyseOperator(CharSequence line, int lineNum, int j, LexTokenSink out) {
+        char ch = line.charAt(j);
+        if (PAIR_TOKENS[ch] != null && j + 1 < line.length() && line.charAt(j + 1) == PAIR_SECOND_CHAR[ch]) {
+            out.addToken(PAIR_TOKENS[ch], lineNum, j);
+            return j + 2;
+        }
+        if (SINGLE_CHAR_TOKENS[ch] == null) {
+            throw SyntaxExceptionFactory.badIdentifier(lineNum, j);
+        }
+        out.addToken(SINGLE_CHAR_TOKENS[ch], lineNum, j);
+        return j + 1;
+    }
+
+    private int analyseString(CharSequence line, int lineNum, int j, LexTokenSink out) {
+        int start = j + 1;
+        int end = start;
+        while (end < line.length() && line.charAt(end) != '"') {
+            end++;
+        }
+        if (end == line.length()) {
+            throw SyntaxExceptionFactory.badIdentifier(lineNum, j);
+        }
+        out.addLiteral(line.subSequence(start, end).toString(), lineNum, start);
+        return end + 1;
+    }
+
+    /** @return position right after the recognised keyword, or -1 if the word is not a keyword */
+    private int analyseKeyword(CharSequence line, int lineNum, int j, LexTokenSink out) {
+        int length = line.length();
+        int node = 0;
+        for (int k = j; k < length; ) {
+            node = trieChild(node, line.charAt(k++));
+            if (node == 0) {
+                return -1;
+            }
+
+            LexTokenCode code = TRIE_ACCEPT[node];
+            if (code != null && (UNDELIMITED_KEYWORDS.contains(code) || k == length || line.charAt(k) == ' ')) {
+                switch (code) {
+                    case TRUE -> out.addLiteral(true, lineNum, j);
+                    case FALSE -> out.addLiteral(false, lineNum, j);
+                    default -> out.addToken(code, lineNum, j);
+                }
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private int analyseIdentifier(CharSequence line, int lineNum, int j, LexTokenSink out) {
+        int end = j;
+        while (end < line.length() && charClass(line.charAt(end)) == WORD) {
+            end++;
+        }
+        out.addIdentifier(line.subSequence(j, end).toString(), lineNum, j);
+        return end;
+    }
+
+    private int analyseIdentifierOrNumber(CharSequence line, int lineNum, int j, LexTokenSink out) {
+        int length = line.length();
+        int end = j;
+        boolean digitsOnly = true;
+        boolean realNumber = true;
+        boolean hasDot = false;
+        char previous = '.';
+        for (char ch; end < length && (charClass(ch = line.charAt(end)) == WORD || ch == '.'); end++) {
+            if (ch == '.') {
+                hasDot = true;
+                digitsOnly = false;
+                realNumber &= previous != '.';
+            } else if (ch < '0' || ch > '9') {
+                digitsOnly = false;
+                realNumber = false;
+            }
+            previous = ch;
+        }
+        realNumber &= previous != '.';
+
+        if (digitsOnly) {
+            out.addLiteral(Integer.parseInt(line, j, end, 10), lineNum, j);
+        } else if (realNumber) {
+            out.addLiteral(Double.parseDouble(line.subSequence(j, end).toString()), lineNum, j);
+        } else if (!hasDot) {
+            out.addIdentifier(line.subSequence(j, end).toString(), lineNum, j);
+        } else {
+            throw SyntaxExceptionFactory.badIdentifier(lineNum, end);
+        }
+        return end;
+    }
+
+    private static byte charClass(char ch) {
+        return ch < TABLE_SIZE ? CHAR_CLASS[ch] : UNKNOWN;
+    }
+
+    private static int trieChild(int node, char ch) {
+        int edge = ch - TRIE_FIRST_CHAR;
+        if (edge < 0 || edge >= TRIE_ALPHABET) {
+            return 0;
+        }
+        return TRIE_NEXT[node * TRIE_ALPHABET + edge];
+    }
+
+    private static boolean isWordChar(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_';
+    }
+
+    private class StreamingTokenIterator implements Iterator<LexToken> {
+
+        private final BufferedReader source;
+        private final LexSymbolTable symbols;
+        /** Chunks read ahead past the parallel threshold, so that a slow chunk does not stall the parser */
+        private final int window = pool.getParallelism() * CHUNKS_PER_WORKER;
+        private final Deque<ForkJoinTask<StreamedChunk>> ahead = new ArrayDeque<>();
+        private StreamedChunk chunk;
+        private int cursor = 0;
+        private int lineNum = 0;
+        private boolean exhausted = false;
+
+        private StreamingTokenIterator(BufferedReader source, LexSymbolTable symbols) {
+            this.source = source;
+            this.symbols = symbols;
+            this.chunk = new StreamedChunk(new LexTokenBuffer(symbols), 0, null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (cursor == chunk.size()) {
+                if (chunk.error() != null) {
+                    throw chunk.error();
+                }
+
+                readAhead();
+                if (ahead.isEmpty()) {
+                    return false;
+                }
+                chunk = ahead.poll().join();
+                cursor = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public LexToken next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.tokens().get(cursor++);
+        }
+
+        /** Chunks before the parallel threshold are lexed one at a time on the calling thread */
+        private void readAhead() {
+            while (!exhausted && ahead.size() < (lineNum < parallelThresholdLines ? 1 : window)) {
+                int firstLineNum = lineNum;
+                List<String> lines = new ArrayList<>(MIN_CHUNK_LINES);
+                UncheckedIOException readError = null;
+                try {
+                    String line;
+                    while (lines.size() < MIN_CHUNK_LINES && (line = source.readLine()) != null) {
+                        lines.add(line);
+                    }
+                } catch (IOException e) {
+                    readError = new UncheckedIOException(e);
+                }
+                exhausted = lines.size() < MIN_CHUNK_LINES;
+                lineNum += lines.size();
+                if (lines.isEmpty() && readError == null) {
+                    return;
+                }
+
+                RuntimeException chunkReadError = readError;
+                ForkJoinTask<StreamedChunk> task = ForkJoinTask.adapt(() -> analyseChunk(lines, firstLineNum, chunkReadError, symbols));
+                if (firstLineNum < parallelThresholdLines) {
+                    task.invoke();
+                    ahead.add(task);
+                } else {
+                    ahead.add(pool.submit(task));
+                }
+            }
+        }
+    }
+
+    /** Errors, including the read error of the chunk, are raised only after the tokens of the lines before them */
+    private StreamedChunk analyseChunk(List<String> lines, int firstLineNum, RuntimeException readError, LexSymbolTable symbols) {
+        LexTokenBuffer tokens = new LexTokenBuffer(symbols);
+        for (int i = 0; i < lines.size(); i++) {
+            int size = tokens.size();
+            try {
+                analyseLine(lines.get(i), firstLineNum + i, tokens);
+            } catch (RuntimeException e) {
+                return new StreamedChunk(tokens, size, e);
+            }
+        }
+        return new StreamedChunk(tokens, tokens.size(), readError);
+    }
+
+    /** Tokens of a chunk of lines, only the first {@code size} of them precede the error */
+    private record StreamedChunk(LexTokenBuffer tokens, int size, RuntimeException error) {
+    }
+
+    /** Errors are carried as values, so the original exception is rethrown instead of a copy made by the pool */
+    private record ChunkResult<T>(T tokens, RuntimeException error) {
+    }
+
+    private static class LexTokenListSink implements LexTokenSink {
+
+        private final List<LexToken> tokens;
+        private final LexSymbolTable symbols;
+
+        private LexTokenListSink(List<LexToken> tokens, LexSymbolTable symbols) {
+            this.tokens = tokens;
+            this.symbols = symbols;
+        }
+
+        @Override
+        public void addToken(LexTokenCode code, int lineNum, int pos) {
+            tokens.add(new LexToken(LexTokenSpan.of(lineNum, pos), code));
+        }
+
+        @Override
+        public void addIdentifier(String identifier, int lineNum, int pos) {
+            tokens.add(new LexIdentifierToken(symbols, identifier, LexTokenSpan.of(lineNum, pos)));
+        }
+
+        @Override
+        public void addLiteral(int value, int lineNum, int pos) {
+            tokens.add(LexLiteralToken.ofValue(value, LexTokenSpan.of(lineNum, pos)));
+        }
+
+        @Override
+        public void addLiteral(double value, int lineNum, int pos) {
+            tokens.add(LexLiteralToken.ofValue(value, LexTokenSpan.of(lineNum, pos)));
+        }
+
+        @Override
+        public void addLiteral(String value, int lineNum, int pos) {
+            tokens.add(LexLiteralToken.ofValue(value, LexTokenSpan.of(lineNum, pos)));
+        }
+
+        @Override
+        public void addLiteral(boolean value, int lineNum, int pos) {
+            tokens.add(LexLiteralToken.ofValue(value, LexTokenSpan.of(lineNum, pos)));
+        }
+    }
+}
@@ -5,11 +5,25 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = false)
 public class LexIdentifierToken extends LexToken {
     private final String identifier;
+    @EqualsAndHashCode.Exclude
+    private final int symbolId;
 
 
+    /** Token of a name interned in no table, it is compared with other tokens by its name only */
     public LexIdentifierToken(String identifier, LexTokenSpan span) {
         super(span, LexTokenCode.IDENTIFIER);
         this.identifier = identifier;
+        this.symbolId = LexSymbolTable.NO_SYMBOL;
+    }
+
+    public LexIdentifierToken(LexSymbolTable symbols, String identifier, LexTokenSpan span) {
+        this(symbols, symbols.intern(identifier), span);
+    }
+
+    LexIdentifierToken(LexSymbolTable symbols, int symbolId, LexTokenSpan span) {
+        super(span, LexTokenCode.IDENTIFIER);
+        this.identifier = symbols.nameOf(symbolId);
+        this.symbolId = symbolId;
     }
 
     @Override
@@ -24,4 +38,8 @@ public class LexIdentifierToken extends LexToken {
     public String getIdentifier() {
         return identifier;
     }
+
+    public int getSymbolId() {
+        return symbolId;
+    }
 }
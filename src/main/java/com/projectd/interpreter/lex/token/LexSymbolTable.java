@@ -0,0 +1,53 @@
+package com.projectd.interpreter.lex.token;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned identifiers, each assigned a dense integer symbol id in order of first appearance.
+ * <p>
+ * Every executor owns a table, the programs it runs are lexed into it, so a symbol id identifies the same name for
+ * as long as the variables of the executor live and the table is dropped with them. The chunks of a source lexed
+ * in parallel share the table of the source, so it is safe to use from several threads.
+ */
+public final class LexSymbolTable {
+
+    public static final int NO_SYMBOL = -1;
+
+    private final Map<String, Integer> symbolIds = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[256];
+    private int size = 0;
+
+    /** @return symbol id of the identifier, registering it on first use */
+    public int intern(String identifier) {
+        Integer symbolId = symbolIds.get(identifier);
+        if (symbolId != null) {
+            return symbolId;
+        }
+        return symbolIds.computeIfAbsent(identifier, this::register);
+    }
+
+    /** @return symbol id of the identifier, or {@link #NO_SYMBOL} if it has never been interned */
+    public int lookup(String identifier) {
+        return symbolIds.getOrDefault(identifier, NO_SYMBOL);
+    }
+
+    public String nameOf(int symbolId) {
+        String[] currentNames = names;
+        if (symbolId < 0 || symbolId >= currentNames.length || currentNames[symbolId] == null) {
+            throw new IllegalArgumentException(String.format("Unknown symbol id %d", symbolId));
+        }
+        return currentNames[symbolId];
+    }
+
+    private synchronized int register(String identifier) {
+        String[] currentNames = names;
+        if (size == currentNames.length) {
+            currentNames = Arrays.copyOf(currentNames, size * 2);
+        }
+        currentNames[size] = identifier;
+        names = currentNames;
+        return size++;
+    }
+}
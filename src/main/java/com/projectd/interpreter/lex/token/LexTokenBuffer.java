@@ -0,0 +1,202 @@
+package com.projectd.interpreter.lex.token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact token store holding every token as a row of parallel int arrays.
+ * <p>
+ * Token code, line and position are kept for every token. The payload column holds the symbol id of identifiers,
+ * the value of int and boolean literals and an index into the side tables for strings and reals.
+ * {@link LexToken} objects are created only when a token is requested with {@link #get(int)}.
+ */
+public class LexTokenBuffer implements LexTokenSink {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final LexTokenCode[] CODES = LexTokenCode.values();
+    private static final LexLiteralTokenType[] LITERAL_TYPES = LexLiteralTokenType.values();
+    private static final int LITERAL_TYPE_SHIFT = 8;
+    private static final int CODE_MASK = (1 << LITERAL_TYPE_SHIFT) - 1;
+
+    /** Token code ordinal in the low byte, literal type ordinal in the next one */
+    private int[] codes = new int[INITIAL_CAPACITY];
+    private int[] lineNums = new int[INITIAL_CAPACITY];
+    private int[] positions = new int[INITIAL_CAPACITY];
+    private int[] payloads = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private final List<String> strings = new ArrayList<>();
+    private double[] reals = new double[0];
+    private int realCount = 0;
+
+    /** Table the symbol ids of the identifiers refer to */
+    private final LexSymbolTable symbols;
+
+    public LexTokenBuffer() {
+        this(new LexSymbolTable());
+    }
+
+    public LexTokenBuffer(LexSymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public LexSymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LexTokenCode getCode(int index) {
+        checkIndex(index);
+        return CODES[codes[index] & CODE_MASK];
+    }
+
+    public int getLineNum(int index) {
+        checkIndex(index);
+        return lineNums[index];
+    }
+
+    public int getPos(int index) {
+        checkIndex(index);
+        return positions[index];
+    }
+
+    /** @return symbol id of the identifier at the index */
+    public int getSymbolId(int index) {
+        if (getCode(index) != LexTokenCode.IDENTIFIER) {
+            throw new IllegalArgumentException(String.format("Token %d is not an identifier", index));
+        }
+        return payloads[index];
+    }
+
+    public LexToken get(int index) {
+        LexTokenCode code = getCode(index);
+        LexTokenSpan span = LexTokenSpan.of(lineNums[index], positions[index]);
+        int payload = payloads[index];
+        return switch (code) {
+            case IDENTIFIER -> new LexIdentifierToken(symbols, payload, span);
+            case LITERAL -> switch (LITERAL_TYPES[codes[index] >>> LITERAL_TYPE_SHIFT]) {
+                case INT -> LexLiteralToken.ofValue(payload, span);
+                case REAL -> LexLiteralToken.ofValue(reals[payload], span);
+                case STRING -> LexLiteralToken.ofValue(strings.get(payload), span);
+                case BOOLEAN -> LexLiteralToken.ofValue(payload != 0, span);
+            };
+            default -> new LexToken(span, code);
+        };
+    }
+
+    public void add(LexToken token) {
+        LexTokenSpan span = token.getSpan();
+        if (token instanceof LexIdentifierToken identifierToken) {
+            addIdentifier(identifierToken.getIdentifier(), span.getLineNum(), span.getPos());
+        } else if (token instanceof LexLiteralToken literalToken) {
+            switch (literalToken.getType()) {
+                case INT -> addLiteral((int) literalToken.getValue(), span.getLineNum(), span.getPos());
+                case REAL -> addLiteral((double) literalToken.getValue(), span.getLineNum(), span.getPos());
+                case STRING -> addLiteral((String) literalToken.getValue(), span.getLineNum(), span.getPos());
+                case BOOLEAN -> addLiteral((boolean) literalToken.getValue(), span.getLineNum(), span.getPos());
+            }
+        } else {
+            addToken(token.getCode(), span.getLineNum(), span.getPos());
+        }
+    }
+
+    /** Appends all tokens of the other buffer, keeping their order; identifiers of another table are interned in this one */
+    public void addAll(LexTokenBuffer other) {
+        int stringOffset = strings.size();
+        int realOffset = realCount;
+        strings.addAll(other.strings);
+        for (int i = 0; i < other.realCount; i++) {
+            addReal(other.reals[i]);
+        }
+
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.codes, 0, codes, size, other.size);
+        System.arraycopy(other.lineNums, 0, lineNums, size, other.size);
+        System.arraycopy(other.positions, 0, positions, size, other.size);
+        for (int i = 0; i < other.size; i++) {
+            int payload = other.payloads[i];
+            if ((other.codes[i] & CODE_MASK) == LexTokenCode.IDENTIFIER.ordinal() && other.symbols != symbols) {
+                payload = symbols.intern(other.symbols.nameOf(payload));
+            } else if ((other.codes[i] & CODE_MASK) == LexTokenCode.LITERAL.ordinal()) {
+                switch (LITERAL_TYPES[other.codes[i] >>> LITERAL_TYPE_SHIFT]) {
+                    case STRING -> payload += stringOffset;
+                    case REAL -> payload += realOffset;
+                }
+            }
+            payloads[size + i] = payload;
+        }
+        size += other.size;
+    }
+
+    @Override
+    public void addToken(LexTokenCode code, int lineNum, int pos) {
+        append(code.ordinal(), lineNum, pos, 0);
+    }
+
+    @Override
+    public void addIdentifier(String identifier, int lineNum, int pos) {
+        append(LexTokenCode.IDENTIFIER.ordinal(), lineNum, pos, symbols.intern(identifier));
+    }
+
+    @Override
+    public void addLiteral(int value, int lineNum, int pos) {
+        appendLiteral(LexLiteralTokenType.INT, lineNum, pos, value);
+    }
+
+    @Override
+    public void addLiteral(double value, int lineNum, int pos) {
+        appendLiteral(LexLiteralTokenType.REAL, lineNum, pos, addReal(value));
+    }
+
+    @Override
+    public void addLiteral(String value, int lineNum, int pos) {
+        strings.add(value);
+        appendLiteral(LexLiteralTokenType.STRING, lineNum, pos, strings.size() - 1);
+    }
+
+    @Override
+    public void addLiteral(boolean value, int lineNum, int pos) {
+        appendLiteral(LexLiteralTokenType.BOOLEAN, lineNum, pos, value ? 1 : 0);
+    }
+
+    private void appendLiteral(LexLiteralTokenType type, int lineNum, int pos, int payload) {
+        append(LexTokenCode.LITERAL.ordinal() | type.ordinal() << LITERAL_TYPE_SHIFT, lineNum, pos, payload);
+    }
+
+    private int addReal(double value) {
+        if (realCount == reals.length) {
+            reals = Arrays.copyOf(reals, Math.max(16, realCount * 2));
+        }
+        reals[realCount] = value;
+        return realCount++;
+    }
+
+    private void append(int code, int lineNum, int pos, int payload) {
+        ensureCapacity(size + 1);
+        codes[size] = code;
+        lineNums[size] = lineNum;
+        positions[size] = pos;
+        payloads[size] = payload;
+        size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > codes.length) {
+            int newCapacity = Math.max(capacity, codes.length * 2);
+            codes = Arrays.copyOf(codes, newCapacity);
+            lineNums = Arrays.copyOf(lineNums, newCapacity);
+            positions = Arrays.copyOf(positions, newCapacity);
+            payloads = Arrays.copyOf(payloads, newCapacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+}
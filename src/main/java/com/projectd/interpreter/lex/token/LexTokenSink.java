@@ -0,0 +1,20 @@
+package com.projectd.interpreter.lex.token;
+
+/**
+ * Receiver of the tokens recognised by a lexical analyser, so the same lexer can fill
+ * either a list of {@link LexToken} objects or a compact {@link LexTokenBuffer}.
+ */
+public interface LexTokenSink {
+
+    void addToken(LexTokenCode code, int lineNum, int pos);
+
+    void addIdentifier(String identifier, int lineNum, int pos);
+
+    void addLiteral(int value, int lineNum, int pos);
+
+    void addLiteral(double value, int lineNum, int pos);
+
+    void addLiteral(String value, int lineNum, int pos);
+
+    void addLiteral(boolean value, int lineNum, int pos);
+}
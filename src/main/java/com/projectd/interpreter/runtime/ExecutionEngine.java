@@ -0,0 +1,47 @@
+package com.projectd.interpreter.runtime;
+
+import com.projectd.interpreter.runtime.closure.ClosureExecutor;
+import com.projectd.interpreter.runtime.closure.OperationProfile;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import com.projectd.interpreter.runtime.register.RegisterMachine;
+import com.projectd.interpreter.runtime.vm.VirtualMachine;
+
+/** Ways to execute a syntax tree, all of them produce the same output */
+public enum ExecutionEngine {
+    /** Walks the syntax tree on every evaluation */
+    TREE,
+    /** Compiles the syntax tree into closures before execution */
+    CLOSURE,
+    /** Compiles the syntax tree into bytecode run by a stack virtual machine */
+    VM,
+    /** Compiles the syntax tree into code over registers holding the lexically scoped variables */
+    REGISTER;
+
+    /** @return executor on the standard streams */
+    public RuntimeExecutor newExecutor() {
+        return newExecutor(RuntimeIOHandler.standard());
+    }
+
+    /** @return executor with an environment of its own, reading and printing through the handler */
+    public RuntimeExecutor newExecutor(RuntimeIOHandler io) {
+        return newExecutor(io, new OperationProfile());
+    }
+
+    /** Same as {@link #newExecutor(RuntimeIOHandler)}, the closure engine adds its operation counters to the profile */
+    public RuntimeExecutor newExecutor(RuntimeIOHandler io, OperationProfile profile) {
+        switch (this) {
+            case CLOSURE -> {
+                return new ClosureExecutor(io, profile);
+            }
+            case VM -> {
+                return new VirtualMachine(io);
+            }
+            case REGISTER -> {
+                return new RegisterMachine(RegisterMachine.DEFAULT_JIT_THRESHOLD, io);
+            }
+            default -> {
+                return new RuntimeExecutorImpl(io);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.projectd.interpreter.runtime;
+
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Integers from the first to the last one inclusive, counted as they are iterated, so a range takes the same memory
+ * whatever its size. Counted loops read the borders and keep the counter themselves.
+ */
+public final class IntegerRange implements Iterator<RuntimeValue> {
+
+    private final int first;
+    private final int last;
+    /** A long, so a range ending at {@link Integer#MAX_VALUE} ends */
+    private long next;
+
+    IntegerRange(int first, int last) {
+        this.first = first;
+        this.last = last;
+        this.next = first;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getLast() {
+        return last;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next <= last;
+    }
+
+    @Override
+    public RuntimeValue next() {
+        if (next > last) {
+            throw new NoSuchElementException();
+        }
+        return RuntimeValue.ofInt((int) next++);
+    }
+}
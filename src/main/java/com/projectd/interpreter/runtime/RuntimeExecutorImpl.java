@@ -8,6 +8,7 @@ import com.projectd.interpreter.syntax.tree.AstGrammarNode;
 import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
 import com.projectd.interpreter.syntax.tree.AstNode;
 import com.projectd.interpreter.syntax.tree.AstTokenNode;
+import lombok.Getter;
 
 import java.util.*;
 import java.util.function.Consumer;
@@ -16,11 +17,23 @@ import java.util.stream.Collectors;
 public class RuntimeExecutorImpl implements RuntimeExecutor {
 
     private final RuntimeEnvironment runtime = new RuntimeEnvironment();
+    @Getter
+    private final LexSymbolTable symbolTable = new LexSymbolTable();
+    private final RuntimeIOHandler io;
+
+    public RuntimeExecutorImpl() {
+        this(RuntimeIOHandler.standard());
+    }
+
+    public RuntimeExecutorImpl(RuntimeIOHandler io) {
+        this.io = io;
+    }
 
     @Override
     public void execute(AstNode program) {
         assertGrammar(program, AstGrammarNodeType.PROGRAM);
 
+        ScopeAnalyser.analyse(program);
         program.getChildren().forEach(this::executeStatement);
     }
 
@@ -32,7 +45,7 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
                 case ASSIGNMENT -> executeAssignment(grammarNode);
                 case DECLARATION -> executeDeclaration(grammarNode);
                 case PRINT -> executePrint(grammarNode);
-                case EXPRESSION -> calcExpression(grammarNode);
+                case EXPRESSION, BINARY_OPERATION, UNARY_OPERATION, TYPE_CHECK, PRIMARY, LITERAL -> calcExpression(grammarNode);
                 case RETURN -> {
                     return Optional.of(executeReturn(grammarNode));
                 }
@@ -62,17 +75,21 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
 
         List<AstNode> children = iff.getChildren();
         boolean condition = RuntimeOperationHandler.conditionCheck(((AstTokenNode) children.get(0)).getToken(), calcExpression(children.get(1)));
-        Optional<RuntimeValue> result;
-        runtime.nestScope();
         if (condition) {
-            result = executeBody(children.get(3));
-        } else {
-            if (children.size() > 5) {
-                result = executeBody(children.get(5));
-            } else {
-                result = Optional.empty();
-            }
+            return executeScopedBody(children.get(3));
+        } else if (children.size() > 5) {
+            return executeScopedBody(children.get(5));
         }
+        return Optional.empty();
+    }
+
+    /** Executes the body in a scope of its own, unless it declares no variables */
+    private Optional<RuntimeValue> executeScopedBody(AstNode body) {
+        if (!((AstGrammarNode) body).declaresVariables()) {
+            return executeBody(body);
+        }
+        runtime.nestScope();
+        Optional<RuntimeValue> result = executeBody(body);
         runtime.flushScope();
         return result;
     }
@@ -106,7 +123,10 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
         AstNode body = children.get(2).getChildren().get(1);
         boolean condition = RuntimeOperationHandler.conditionCheck(((AstTokenNode) children.get(0)).getToken(), calcExpression(children.get(1)));
         Optional<RuntimeValue> result = Optional.empty();
-        runtime.nestScope();
+        boolean scoped = ((AstGrammarNode) body).declaresVariables();
+        if (scoped) {
+            runtime.nestScope();
+        }
         while (condition) {
             result = executeBody(body);
             if (result.isPresent()) {
@@ -114,7 +134,9 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
             }
             condition = RuntimeOperationHandler.conditionCheck(((AstTokenNode) children.get(0)).getToken(), calcExpression(children.get(1)));
         }
-        runtime.flushScope();
+        if (scoped) {
+            runtime.flushScope();
+        }
         return result;
     }
 
@@ -125,11 +147,11 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
         runtime.nestScope();
         LexIdentifierToken identifier = (LexIdentifierToken) ((AstTokenNode) children.get(1)).getToken();
         runtime.declareVariable(identifier);
-        Iterator<RuntimeValue> it = RuntimeOperationHandler.integerRange(((AstTokenNode) children.get(4)).getToken(),
+        IntegerRange range = RuntimeOperationHandler.integerRange(((AstTokenNode) children.get(4)).getToken(),
                 calcExpression(children.get(3)), calcExpression(children.get(6)));
-        for (; it.hasNext(); ) {
-            RuntimeValue i = it.next();
-            runtime.assignVariable(identifier, i);
+        // Counted loop, functions called from the body may read the variable, so it is assigned on every iteration
+        for (long i = range.getFirst(); i <= range.getLast(); i++) {
+            runtime.assignVariable(identifier, RuntimeValue.ofInt((int) i));
             result = executeBody(body);
             if (result.isPresent()) {
                 break;
@@ -224,7 +246,7 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
         List<RuntimeValue> toPrint = print.getChildren().stream()
                 .filter(e -> e instanceof AstGrammarNode)
                 .map(this::calcExpression).collect(Collectors.toList());
-        RuntimeIOHandler.handlePrint(toPrint);
+        io.handlePrint(toPrint);
     }
 
     public RuntimeValue callFunction(LexToken op, RuntimeFunction func, List<RuntimeValue> args) {
@@ -237,7 +259,10 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
             throw RuntimeExceptionFactory.emptyFunction(op.getSpan());
         }
 
-        runtime.nestScope();
+        boolean scoped = !parameters.isEmpty() || !func.isLambda() && ScopeAnalyser.declaresVariables(body);
+        if (scoped) {
+            runtime.nestScope();
+        }
         RuntimeValue result = RuntimeValue.empty();
         for (int i = 0; i < args.size(); i++) {
             runtime.declareAndAssignVariable(parameters.get(i), args.get(i));
@@ -251,13 +276,59 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
                 break;
             }
         }
-        runtime.flushScope();
+        if (scoped) {
+            runtime.flushScope();
+        }
         return result;
     }
 
 
 
+    /** Expression is either an Expression rule node or a compact operation tree */
     private RuntimeValue calcExpression(AstNode expression) {
+        if (expression instanceof AstGrammarNode grammarNode) {
+            switch (grammarNode.getGrammarType()) {
+                case EXPRESSION -> {
+                    return calcDisjunction(grammarNode);
+                }
+                case BINARY_OPERATION -> {
+                    return calcBinaryOperation(grammarNode);
+                }
+                case UNARY_OPERATION -> {
+                    return calcUnaryOperation(grammarNode);
+                }
+                case TYPE_CHECK -> {
+                    return calcTypeCheck(grammarNode);
+                }
+                case PRIMARY -> {
+                    return calcPrimary(grammarNode);
+                }
+                case LITERAL -> {
+                    return calcLiteral(grammarNode);
+                }
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private RuntimeValue calcBinaryOperation(AstNode operation) {
+        List<AstNode> children = operation.getChildren();
+        RuntimeValue left = calcExpression(children.get(0));
+        RuntimeValue right = calcExpression(children.get(2));
+        return RuntimeOperationHandler.handleBinaryOperation(((AstTokenNode) children.get(1)).getToken(), left, right);
+    }
+
+    private RuntimeValue calcUnaryOperation(AstNode operation) {
+        List<AstNode> children = operation.getChildren();
+        return RuntimeOperationHandler.handleUnaryOperation(((AstTokenNode) children.get(0)).getToken(), calcExpression(children.get(1)));
+    }
+
+    private RuntimeValue calcTypeCheck(AstNode typeCheck) {
+        List<AstNode> children = typeCheck.getChildren();
+        return RuntimeOperationHandler.handleTypeCheck(calcExpression(children.get(0)), calcTypeIndicator(children.get(2)));
+    }
+
+    private RuntimeValue calcDisjunction(AstNode expression) {
         assertGrammar(expression, AstGrammarNodeType.EXPRESSION);
 
         List<AstNode> children = expression.getChildren();
@@ -413,7 +484,7 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
             if (Set.of(LexTokenCode.READ_INT,
                     LexTokenCode.READ_REAL,
                     LexTokenCode.READ_STRING).contains(token.getToken().getCode())) {
-                return RuntimeIOHandler.handleRead(token.getToken());
+                return io.handleRead(token.getToken());
             } else if (token.getToken() instanceof LexIdentifierToken identifier) {
                 RuntimeValue result = runtime.getVariableValue(identifier);
                 for (int i = 1; i < children.size(); i++) {
@@ -451,8 +522,7 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
 
     private RuntimeValue calcTupleTail(LexToken tailOp, LexToken tail, RuntimeValue value) {
         if (tail instanceof LexIdentifierToken identifier) {
-            RuntimeValue namedIndex = RuntimeValue.ofValue(identifier.getIdentifier());
-            return RuntimeOperationHandler.handleBinaryOperation(tailOp, value, namedIndex);
+            return RuntimeOperationHandler.handleNamedTupleIndex(tailOp, value, identifier);
         } else if (tail instanceof LexLiteralToken literalToken) {
             if (literalToken.getType() == LexLiteralTokenType.INT) {
                 RuntimeValue index = RuntimeValue.ofLiteral(literalToken);
@@ -518,7 +588,7 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
         assertGrammar(tupleElement, AstGrammarNodeType.TUPLE_ELEMENT);
         if (tupleElement.getChildren().get(0) instanceof AstTokenNode token) {
             if (token.getToken() instanceof LexIdentifierToken identifier) {
-                builder.addNamedElement(identifier.getIdentifier(), calcExpression(tupleElement.getChildren().get(2)));
+                builder.addNamedElement(identifier, calcExpression(tupleElement.getChildren().get(2)));
             } else fail();
         } else if (tupleElement.getChildren().get(0) instanceof AstGrammarNode grammar) {
             builder.addUnnamedElement(calcExpression(grammar));
@@ -552,10 +622,10 @@ public class RuntimeExecutorImpl implements RuntimeExecutor {
     private RuntimeFunction calcFunBody(AstNode funBody, List<LexIdentifierToken> params) {
         assertGrammar(funBody, AstGrammarNodeType.FUN_BODY);
         if (funBody.getChildren().get(1) instanceof AstGrammarNode grammarNode) {
-            if (grammarNode.getGrammarType() == AstGrammarNodeType.EXPRESSION) {
-                return new RuntimeFunction(params, List.of(grammarNode), true);
-            } else if (grammarNode.getGrammarType() == AstGrammarNodeType.BODY) {
+            if (grammarNode.getGrammarType() == AstGrammarNodeType.BODY) {
                 return new RuntimeFunction(params, grammarNode.getChildren(), false);
+            } else {
+                return new RuntimeFunction(params, List.of(grammarNode), true);
             }
         }
         throw new IllegalStateException();
@@ -3,34 +3,55 @@ package com.projectd.interpreter.runtime;
 import com.projectd.interpreter.lex.token.LexToken;
 import com.projectd.interpreter.runtime.environment.RuntimeValue;
 
-import java.util.Arrays;
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.util.List;
 import java.util.Scanner;
 
+/**
+ * Input and output of one execution. Every execution gets its own handler, so programs running at the same time
+ * can read and print on streams of their own; reads of one execution share one scanner of its input.
+ */
 public class RuntimeIOHandler {
 
-    public static RuntimeValue handleRead(LexToken readToken) {
-        Scanner sc = new Scanner(System.in);
+    private final InputStream in;
+    private final PrintStream out;
+    private Scanner scanner;
+
+    public RuntimeIOHandler(InputStream in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /** @return handler of the standard streams, as they are set when it is created */
+    public static RuntimeIOHandler standard() {
+        return new RuntimeIOHandler(System.in, System.out);
+    }
+
+    public RuntimeValue handleRead(LexToken readToken) {
+        if (scanner == null) {
+            scanner = new Scanner(in);
+        }
         switch (readToken.getCode()) {
             case READ_INT -> {
-                return RuntimeValue.ofValue(sc.nextInt());
+                return RuntimeValue.ofInt(scanner.nextInt());
             }
             case READ_REAL -> {
-                return RuntimeValue.ofValue(sc.nextDouble());
+                return RuntimeValue.ofReal(scanner.nextDouble());
             }
             case READ_STRING -> {
-                return RuntimeValue.ofValue(sc.nextLine());
+                return RuntimeValue.ofValue(scanner.nextLine());
             }
             default -> throw new IllegalStateException();
         }
     }
 
-    public static void handlePrint(List<RuntimeValue> values) {
-        StringBuilder out = new StringBuilder();
+    public void handlePrint(List<RuntimeValue> values) {
+        StringBuilder line = new StringBuilder();
         values.forEach(v -> {
-            out.append(v.toString());
-            out.append(' ');
+            line.append(v.toString());
+            line.append(' ');
         });
-        System.out.println(out.toString());
+        out.println(line);
     }
 }
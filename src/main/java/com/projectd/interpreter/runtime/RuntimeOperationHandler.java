@@ -1,9 +1,11 @@
 package com.projectd.interpreter.runtime;
 
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
 import com.projectd.interpreter.lex.token.LexToken;
 import com.projectd.interpreter.lex.token.LexTokenCode;
 import com.projectd.interpreter.lex.token.LexTokenSpan;
 import com.projectd.interpreter.runtime.environment.ImmutableTuple;
+import com.projectd.interpreter.runtime.environment.NamedElementCache;
 import com.projectd.interpreter.runtime.environment.RuntimeValue;
 import com.projectd.interpreter.runtime.environment.SparseArray;
 import com.projectd.interpreter.shared.exception.RuntimeExceptionFactory;
@@ -12,97 +14,103 @@ import com.projectd.interpreter.syntax.tree.AstNode;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class RuntimeOperationHandler {
 
-    private static LexTokenSpan opSpan;
+    private static final Set<RuntimeValue.RuntimeValueType> BOOLEANS = EnumSet.of(RuntimeValue.RuntimeValueType.BOOLEAN);
+    private static final Set<RuntimeValue.RuntimeValueType> INTEGERS = EnumSet.of(RuntimeValue.RuntimeValueType.INTEGER);
+    private static final Set<RuntimeValue.RuntimeValueType> NUMBERS = EnumSet.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.REAL);
+    private static final Set<RuntimeValue.RuntimeValueType> ARRAYS = EnumSet.of(RuntimeValue.RuntimeValueType.ARRAY);
+    private static final Set<RuntimeValue.RuntimeValueType> TUPLES = EnumSet.of(RuntimeValue.RuntimeValueType.TUPLE);
+    private static final Set<RuntimeValue.RuntimeValueType> TUPLE_INDEXES = EnumSet.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.STRING);
+    private static final Set<RuntimeValue.RuntimeValueType> CONCATENABLE = EnumSet.of(RuntimeValue.RuntimeValueType.ARRAY,
+            RuntimeValue.RuntimeValueType.TUPLE, RuntimeValue.RuntimeValueType.STRING);
 
     public static RuntimeValue handleBinaryOperation(LexToken operation, RuntimeValue left, RuntimeValue right) {
-        opSpan = operation.getSpan();
+        LexTokenSpan span = operation.getSpan();
 
         switch (operation.getCode()) {
             case OR -> {
-                return handleOr(left, right);
+                return handleOr(left, right, span);
             }
             case XOR -> {
-                return handleXor(left, right);
+                return handleXor(left, right, span);
             }
             case AND -> {
-                return handleAnd(left, right);
+                return handleAnd(left, right, span);
             }
             case LESS, LESS_OR_EQUAL, MORE, MORE_OR_EQUAL, EQUAL, NOT_EQUAL -> {
-                return handleComparison(operation.getCode(), left, right);
+                return handleComparison(operation.getCode(), left, right, span);
             }
             case ADDITION -> {
-                return handleAddition(left, right);
+                return handleAddition(left, right, span);
             }
             case SUBTRACTION -> {
-                return handleSubtraction(left, right);
+                return handleSubtraction(left, right, span);
             }
             case MULTIPLICATION -> {
-                return handleMultiplication(left, right);
+                return handleMultiplication(left, right, span);
             }
             case DIVISION -> {
-                return handleDivision(left, right);
+                return handleDivision(left, right, span);
             }
             case OPEN_SQUARE_BRACKET -> {
-                return handleArrayIndex(left, right);
+                return handleArrayIndex(left, right, span);
             }
             case DOT -> {
-                return handleTupleIndex(left, right);
+                return handleTupleIndex(left, right, span);
             }
             default -> throw new IllegalArgumentException(String.format("Operation %s is not supported", operation.getCode().toString()));
         }
     }
 
     public static RuntimeValue handleUnaryOperation(LexToken operation, RuntimeValue value) {
-        opSpan = operation.getSpan();
+        LexTokenSpan span = operation.getSpan();
 
         switch (operation.getCode()) {
             case ADDITION -> {
-                return handleIdentity(value);
+                return handleIdentity(value, span);
             }
             case SUBTRACTION -> {
-                return handleNegation(value);
+                return handleNegation(value, span);
             }
             case NOT -> {
-                return handleLogicNegation(value);
+                return handleLogicNegation(value, span);
             }
             default -> throw new IllegalArgumentException(String.format("Operation %s is not supported", operation.getCode().toString()));
         }
     }
 
     public static RuntimeValue handleTypeCheck(RuntimeValue value, RuntimeValue.RuntimeValueType type) {
-        return RuntimeValue.ofValue(type.equals(value.getType()));
+        return RuntimeValue.ofBoolean(type == value.getType());
     }
 
-    private static RuntimeValue handleOr(RuntimeValue left, RuntimeValue right) {
-        assertOperandsType("or", Set.of(RuntimeValue.RuntimeValueType.BOOLEAN), left, right);
+    private static RuntimeValue handleOr(RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        assertOperandsType("or", BOOLEANS, left, right, span);
 
-        boolean first = (Boolean) left.getValue();
-        boolean second = (Boolean) left.getValue();
-        return RuntimeValue.ofValue(first || second);
+        boolean first = left.asBoolean();
+        boolean second = left.asBoolean();
+        return RuntimeValue.ofBoolean(first || second);
     }
 
-    private static RuntimeValue handleAnd(RuntimeValue left, RuntimeValue right) {
-        assertOperandsType("and", Set.of(RuntimeValue.RuntimeValueType.BOOLEAN), left, right);
+    private static RuntimeValue handleAnd(RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        assertOperandsType("and", BOOLEANS, left, right, span);
 
-        boolean first = (Boolean) left.getValue();
-        boolean second = (Boolean) left.getValue();
-        return RuntimeValue.ofValue(first && second);
+        boolean first = left.asBoolean();
+        boolean second = left.asBoolean();
+        return RuntimeValue.ofBoolean(first && second);
     }
 
-    private static RuntimeValue handleXor(RuntimeValue left, RuntimeValue right) {
-        assertOperandsType("xor", Set.of(RuntimeValue.RuntimeValueType.BOOLEAN), left, right);
+    private static RuntimeValue handleXor(RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        assertOperandsType("xor", BOOLEANS, left, right, span);
 
-        boolean first = (Boolean) left.getValue();
-        boolean second = (Boolean) left.getValue();
-        return RuntimeValue.ofValue(first && !second || !first && second);
+        boolean first = left.asBoolean();
+        boolean second = left.asBoolean();
+        return RuntimeValue.ofBoolean(first && !second || !first && second);
     }
 
-    private static RuntimeValue handleComparison(LexTokenCode compare, RuntimeValue left, RuntimeValue right) {
-        assertOperandsType("comparison", Set.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.REAL), left, right);
+    private static RuntimeValue handleComparison(LexTokenCode compare, RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        assertOperandsType("comparison", NUMBERS, left, right, span);
 
         double first = doubleValue(left);
         double second = doubleValue(right);
@@ -117,33 +125,29 @@ public class RuntimeOperationHandler {
             case NOT_EQUAL -> result = first != second;
             default -> throw new IllegalArgumentException();
         }
-        return RuntimeValue.ofValue(result);
+        return RuntimeValue.ofBoolean(result);
     }
 
-    private static RuntimeValue handleAddition(RuntimeValue left, RuntimeValue right) {
-        if (Set.of(RuntimeValue.RuntimeValueType.STRING,
-                RuntimeValue.RuntimeValueType.ARRAY,
-                RuntimeValue.RuntimeValueType.TUPLE)
-                .contains(left.getType())) {
-            return handleConcatenation(left, right);
+    private static RuntimeValue handleAddition(RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        if (CONCATENABLE.contains(left.getType())) {
+            return handleConcatenation(left, right, span);
         }
 
-        assertOperandsType("addition", Set.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.REAL), left, right);
+        assertOperandsType("addition", NUMBERS, left, right, span);
 
         if (left.getType() == RuntimeValue.RuntimeValueType.INTEGER
                 && right.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
-            return RuntimeValue.ofValue((Integer) left.getValue() + (Integer) right.getValue());
+            return RuntimeValue.ofInt(left.asInt() + right.asInt());
         }
 
         double first = doubleValue(left);
         double second = doubleValue(right);
 
-        return RuntimeValue.ofValue(first + second);
+        return RuntimeValue.ofReal(first + second);
     }
 
-    private static RuntimeValue handleConcatenation(RuntimeValue left, RuntimeValue right) {
-        assertOperandsSameType("concatenation", Set.of(RuntimeValue.RuntimeValueType.ARRAY,
-                RuntimeValue.RuntimeValueType.TUPLE, RuntimeValue.RuntimeValueType.STRING), left, right);
+    private static RuntimeValue handleConcatenation(RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        assertOperandsSameType("concatenation", CONCATENABLE, left, right, span);
 
         RuntimeValue result;
         if (left.getType() == RuntimeValue.RuntimeValueType.ARRAY) {
@@ -155,84 +159,82 @@ public class RuntimeOperationHandler {
             ImmutableTuple second = (ImmutableTuple) right.getValue();
             result = RuntimeValue.ofValue(ImmutableTuple.concatenate(first, second));
         } else {
-            String first = (String) left.getValue();
-            String second = (String) right.getValue();
-            result = RuntimeValue.ofValue(first + second);
+            result = RuntimeValue.concatenate(left, right);
         }
         return result;
     }
 
-    private static RuntimeValue handleSubtraction(RuntimeValue left, RuntimeValue right) {
-        assertOperandsType("subtraction", Set.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.REAL), left, right);
+    private static RuntimeValue handleSubtraction(RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        assertOperandsType("subtraction", NUMBERS, left, right, span);
 
         if (left.getType() == RuntimeValue.RuntimeValueType.INTEGER
                 && right.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
-            return RuntimeValue.ofValue((Integer) left.getValue() - (Integer) right.getValue());
+            return RuntimeValue.ofInt(left.asInt() - right.asInt());
         }
 
         double first = doubleValue(left);
         double second = doubleValue(right);
 
-        return RuntimeValue.ofValue(first - second);
+        return RuntimeValue.ofReal(first - second);
     }
 
-    private static RuntimeValue handleMultiplication(RuntimeValue left, RuntimeValue right) {
-        assertOperandsType("multiplication", Set.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.REAL), left, right);
+    private static RuntimeValue handleMultiplication(RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        assertOperandsType("multiplication", NUMBERS, left, right, span);
 
         if (left.getType() == RuntimeValue.RuntimeValueType.INTEGER
                 && right.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
-            return RuntimeValue.ofValue((Integer) left.getValue() * (Integer) right.getValue());
+            return RuntimeValue.ofInt(left.asInt() * right.asInt());
         }
 
         double first = doubleValue(left);
         double second = doubleValue(right);
 
-        return RuntimeValue.ofValue(first * second);
+        return RuntimeValue.ofReal(first * second);
     }
 
-    private static RuntimeValue handleDivision(RuntimeValue left, RuntimeValue right) {
-        assertOperandsType("division", Set.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.REAL), left, right);
+    private static RuntimeValue handleDivision(RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        assertOperandsType("division", NUMBERS, left, right, span);
 
         if (left.getType() == RuntimeValue.RuntimeValueType.INTEGER
                 && right.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
-            return RuntimeValue.ofValue((Integer) left.getValue() / (Integer) right.getValue());
+            return RuntimeValue.ofInt(left.asInt() / right.asInt());
         }
 
         double first = doubleValue(left);
         double second = doubleValue(right);
 
-        return RuntimeValue.ofValue(first / second);
+        return RuntimeValue.ofReal(first / second);
     }
 
-    private static RuntimeValue handleIdentity(RuntimeValue value) {
-        assertOperandsType("identity", Set.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.REAL), value);
+    private static RuntimeValue handleIdentity(RuntimeValue value, LexTokenSpan span) {
+        assertOperandType("identity", NUMBERS, value, span);
         return value;
     }
 
-    private static RuntimeValue handleNegation(RuntimeValue value) {
-        assertOperandsType("negation", Set.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.REAL), value);
+    private static RuntimeValue handleNegation(RuntimeValue value, LexTokenSpan span) {
+        assertOperandType("negation", NUMBERS, value, span);
 
         if (value.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
-            return RuntimeValue.ofValue(-1 * (Integer) value.getValue());
+            return RuntimeValue.ofInt(-value.asInt());
         } else {
-            return RuntimeValue.ofValue(-1 * (Double) value.getValue());
+            return RuntimeValue.ofReal(-value.asReal());
         }
     }
 
-    private static RuntimeValue handleLogicNegation(RuntimeValue value) {
-        assertOperandsType("logical negation", Set.of(RuntimeValue.RuntimeValueType.BOOLEAN), value);
-        return RuntimeValue.ofValue( !(Boolean) value.getValue() );
+    private static RuntimeValue handleLogicNegation(RuntimeValue value, LexTokenSpan span) {
+        assertOperandType("logical negation", BOOLEANS, value, span);
+        return RuntimeValue.ofBoolean(!value.asBoolean());
     }
 
-    private static RuntimeValue handleArrayIndex(RuntimeValue array, RuntimeValue index) {
-        assertOperandsType("array indexing", Set.of(RuntimeValue.RuntimeValueType.ARRAY), array);
-        assertOperandsType("array indexing", Set.of(RuntimeValue.RuntimeValueType.INTEGER), index);
+    private static RuntimeValue handleArrayIndex(RuntimeValue array, RuntimeValue index, LexTokenSpan span) {
+        assertOperandType("array indexing", ARRAYS, array, span);
+        assertOperandType("array indexing", INTEGERS, index, span);
         return ((SparseArray) array.getValue()).get(index);
     }
 
-    private static RuntimeValue handleTupleIndex(RuntimeValue tuple, RuntimeValue index) {
-        assertOperandsType("tuple indexing", Set.of(RuntimeValue.RuntimeValueType.TUPLE), tuple);
-        assertOperandsType("tuple indexing", Set.of(RuntimeValue.RuntimeValueType.INTEGER, RuntimeValue.RuntimeValueType.STRING), index);
+    private static RuntimeValue handleTupleIndex(RuntimeValue tuple, RuntimeValue index, LexTokenSpan span) {
+        assertOperandType("tuple indexing", TUPLES, tuple, span);
+        assertOperandType("tuple indexing", TUPLE_INDEXES, index, span);
         if (index.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
             return ((ImmutableTuple) tuple.getValue()).getUnnamedElement(index);
         } else {
@@ -240,63 +242,66 @@ public class RuntimeOperationHandler {
         }
     }
 
+    public static RuntimeValue handleNamedTupleIndex(LexToken operation, RuntimeValue tuple, LexIdentifierToken name) {
+        LexTokenSpan span = operation.getSpan();
+        assertOperandType("tuple indexing", TUPLES, tuple, span);
+        return ((ImmutableTuple) tuple.getValue()).getNamedElement(name);
+    }
+
+    /** Named element through the inline cache of the access */
+    public static RuntimeValue handleNamedTupleIndex(LexToken operation, RuntimeValue tuple, NamedElementCache cache) {
+        assertOperandType("tuple indexing", TUPLES, tuple, operation.getSpan());
+        return cache.get((ImmutableTuple) tuple.getValue());
+    }
+
     public static Consumer<RuntimeValue> setterOf(LexToken operation, RuntimeValue object, RuntimeValue index) {
-        opSpan = operation.getSpan();
-        assertOperandsType("assignment", Set.of(RuntimeValue.RuntimeValueType.ARRAY), object);
-        assertOperandsType("assignment", Set.of(RuntimeValue.RuntimeValueType.INTEGER), index);
+        LexTokenSpan span = operation.getSpan();
+        assertOperandType("assignment", ARRAYS, object, span);
+        assertOperandType("assignment", INTEGERS, index, span);
 
         SparseArray arr = (SparseArray) object.getValue();
         return v -> arr.set(index, v);
     }
 
     public static boolean conditionCheck(LexToken operation, RuntimeValue value) {
-        opSpan = operation.getSpan();
-        assertOperandsType("condition check", Set.of(RuntimeValue.RuntimeValueType.BOOLEAN), value);
+        LexTokenSpan span = operation.getSpan();
+        assertOperandType("condition check", BOOLEANS, value, span);
 
-        return (Boolean) value.getValue();
+        return value.asBoolean();
     }
 
-    public static Iterator<RuntimeValue> integerRange(LexToken operation, RuntimeValue from, RuntimeValue to) {
-        opSpan = operation.getSpan();
-        assertOperandsType("range", Set.of(RuntimeValue.RuntimeValueType.INTEGER), from, to);
+    public static IntegerRange integerRange(LexToken operation, RuntimeValue from, RuntimeValue to) {
+        LexTokenSpan span = operation.getSpan();
+        assertOperandsType("range", INTEGERS, from, to, span);
 
-        int left = (Integer) from.getValue();
-        int right = (Integer) to.getValue();
+        int left = from.asInt();
+        int right = to.asInt();
         if (left > right) {
-            throw RuntimeExceptionFactory.generic("Left range border cannot be greater than the right one", opSpan);
-        }
-        List<RuntimeValue> range = new ArrayList<>();
-        for (int i = left; i <= right; i++) {
-            range.add(RuntimeValue.ofValue(i));
+            throw RuntimeExceptionFactory.generic("Left range border cannot be greater than the right one", span);
         }
-        return range.iterator();
+        return new IntegerRange(left, right);
     }
 
 
     private static double doubleValue(RuntimeValue value) {
-        double result;
-        if (value.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
-            result = Double.valueOf((Integer) value.getValue());
-        } else {
-            result = (Double) value.getValue();
+        return value.asNumber();
+    }
+
+    private static void assertOperandType(String op, Set<RuntimeValue.RuntimeValueType> types, RuntimeValue value, LexTokenSpan span) {
+        if (!types.contains(value.getType())) {
+            throw RuntimeExceptionFactory.invalidOperandTypes(op, List.of(value.getType()), span);
         }
-        return result;
     }
 
-    private static void assertOperandsType(String op, Set<RuntimeValue.RuntimeValueType> types, RuntimeValue... values) {
-        List<RuntimeValue.RuntimeValueType> providedTypes = Arrays.stream(values).map(RuntimeValue::getType).collect(Collectors.toList());
-        providedTypes.forEach(t -> {
-            if (!types.contains(t))
-                throw RuntimeExceptionFactory.invalidOperandTypes(op, providedTypes, opSpan);
-        });
+    private static void assertOperandsType(String op, Set<RuntimeValue.RuntimeValueType> types, RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        if (!types.contains(left.getType()) || !types.contains(right.getType())) {
+            throw RuntimeExceptionFactory.invalidOperandTypes(op, List.of(left.getType(), right.getType()), span);
+        }
     }
 
-    private static void assertOperandsSameType(String op, Set<RuntimeValue.RuntimeValueType> types, RuntimeValue... values) {
-        List<RuntimeValue.RuntimeValueType> providedTypes = Arrays.stream(values).map(RuntimeValue::getType).collect(Collectors.toList());
-        RuntimeValue.RuntimeValueType sameType = providedTypes.get(0);
-        providedTypes.forEach(t -> {
-            if (!types.contains(t) || t != sameType)
-                throw RuntimeExceptionFactory.invalidOperandTypes(op, providedTypes, opSpan);
-        });
+    private static void assertOperandsSameType(String op, Set<RuntimeValue.RuntimeValueType> types, RuntimeValue left, RuntimeValue right, LexTokenSpan span) {
+        if (!types.contains(left.getType()) || left.getType() != right.getType()) {
+            throw RuntimeExceptionFactory.invalidOperandTypes(op, List.of(left.getType(), right.getType()), span);
+        }
     }
 }
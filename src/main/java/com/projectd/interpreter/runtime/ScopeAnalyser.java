@@ -0,0 +1,44 @@
+package com.projectd.interpreter.runtime;
+
+import com.projectd.interpreter.syntax.tree.AstGrammarNode;
+import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
+import com.projectd.interpreter.syntax.tree.AstNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Marks the BODY nodes none of whose statements is a declaration. A scope without variables is invisible to lookups
+ * and assignments, so the {@link RuntimeExecutorImpl} does not nest one for such bodies. Nested bodies run in scopes
+ * of their own, only the statements of the body itself count.
+ */
+class ScopeAnalyser {
+
+    private ScopeAnalyser() {
+    }
+
+    static void analyse(AstNode program) {
+        Deque<AstNode> nodes = new ArrayDeque<>();
+        nodes.push(program);
+        while (!nodes.isEmpty()) {
+            if (nodes.pop() instanceof AstGrammarNode grammarNode) {
+                if (grammarNode.getGrammarType() == AstGrammarNodeType.BODY) {
+                    grammarNode.setDeclaresVariables(declaresVariables(grammarNode.getChildren()));
+                }
+                grammarNode.getChildren().forEach(nodes::push);
+            }
+        }
+    }
+
+    static boolean declaresVariables(List<AstNode> statements) {
+        for (AstNode statement : statements) {
+            if (statement instanceof AstGrammarNode && !statement.getChildren().isEmpty()
+                    && statement.getChildren().get(0) instanceof AstGrammarNode grammarNode
+                    && grammarNode.getGrammarType() == AstGrammarNodeType.DECLARATION) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,208 @@
+package com.projectd.interpreter.runtime.closure;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenCode;
+import com.projectd.interpreter.runtime.RuntimeOperationHandler;
+import com.projectd.interpreter.runtime.environment.RuntimeEnvironment;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+import lombok.Getter;
+
+/**
+ * Arithmetic or comparison that specialises itself on the operand types it sees.
+ * <p>
+ * The first evaluation picks the fast path of its operand types: two integers, two reals or, for an addition,
+ * two strings. Operand types the node cannot specialise on leave it generic. Later evaluations check the types
+ * and stay on the fast path while they match; the first mismatch rewrites the node to the generic path of
+ * {@link RuntimeOperationHandler} for good, so a polymorphic node does not flip between states.
+ * Hits count evaluations on the fast path, misses those done by the generic path.
+ */
+public final class BinaryOperationNode implements EvaluableNode {
+
+    public enum Specialisation {
+        UNINITIALISED,
+        INTEGER,
+        REAL,
+        STRING,
+        GENERIC
+    }
+
+    private final LexToken op;
+    private final LexTokenCode code;
+    private final EvaluableNode left;
+    private final EvaluableNode right;
+
+    @Getter
+    private Specialisation specialisation = Specialisation.UNINITIALISED;
+    @Getter
+    private long hits;
+    @Getter
+    private long misses;
+
+    BinaryOperationNode(LexToken op, EvaluableNode left, EvaluableNode right) {
+        this.op = op;
+        this.code = op.getCode();
+        this.left = left;
+        this.right = right;
+    }
+
+    /** @return whether the operation has a specialised path, otherwise the node is generic from the start */
+    static boolean isSpecialisable(LexTokenCode code) {
+        return switch (code) {
+            case ADDITION, SUBTRACTION, MULTIPLICATION, DIVISION,
+                    LESS, LESS_OR_EQUAL, MORE, MORE_OR_EQUAL, EQUAL, NOT_EQUAL -> true;
+            default -> false;
+        };
+    }
+
+    public LexToken getOperation() {
+        return op;
+    }
+
+    @Override
+    public RuntimeValue evaluate(RuntimeEnvironment frame) {
+        RuntimeValue first = left.evaluate(frame);
+        RuntimeValue second = right.evaluate(frame);
+
+        switch (specialisation) {
+            case INTEGER -> {
+                if (first.getType() == RuntimeValue.RuntimeValueType.INTEGER
+                        && second.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
+                    hits++;
+                    return integerOperation(first.asInt(), second.asInt());
+                }
+            }
+            case REAL -> {
+                if (first.getType() == RuntimeValue.RuntimeValueType.REAL
+                        && second.getType() == RuntimeValue.RuntimeValueType.REAL) {
+                    hits++;
+                    return realOperation(first.asReal(), second.asReal());
+                }
+            }
+            case STRING -> {
+                if (first.getType() == RuntimeValue.RuntimeValueType.STRING
+                        && second.getType() == RuntimeValue.RuntimeValueType.STRING) {
+                    hits++;
+                    return RuntimeValue.concatenate(first, second);
+                }
+            }
+            case UNINITIALISED -> {
+                specialisation = specialise(first, second);
+                if (specialisation != Specialisation.GENERIC) {
+                    return evaluateSpecialised(first, second);
+                }
+            }
+            case GENERIC -> {
+                misses++;
+                return RuntimeOperationHandler.handleBinaryOperation(op, first, second);
+            }
+        }
+
+        // The guard of the specialisation failed
+        specialisation = Specialisation.GENERIC;
+        misses++;
+        return RuntimeOperationHandler.handleBinaryOperation(op, first, second);
+    }
+
+    private RuntimeValue evaluateSpecialised(RuntimeValue first, RuntimeValue second) {
+        hits++;
+        return switch (specialisation) {
+            case INTEGER -> integerOperation(first.asInt(), second.asInt());
+            case REAL -> realOperation(first.asReal(), second.asReal());
+            case STRING -> RuntimeValue.concatenate(first, second);
+            default -> throw new IllegalStateException();
+        };
+    }
+
+    private Specialisation specialise(RuntimeValue first, RuntimeValue second) {
+        RuntimeValue.RuntimeValueType type = first.getType();
+        if (type != second.getType()) {
+            return Specialisation.GENERIC;
+        }
+        switch (type) {
+            case INTEGER -> {
+                return Specialisation.INTEGER;
+            }
+            case REAL -> {
+                return Specialisation.REAL;
+            }
+            case STRING -> {
+                return code == LexTokenCode.ADDITION ? Specialisation.STRING : Specialisation.GENERIC;
+            }
+            default -> {
+                return Specialisation.GENERIC;
+            }
+        }
+    }
+
+    private RuntimeValue integerOperation(int first, int second) {
+        switch (code) {
+            case ADDITION -> {
+                return RuntimeValue.ofInt(first + second);
+            }
+            case SUBTRACTION -> {
+                return RuntimeValue.ofInt(first - second);
+            }
+            case MULTIPLICATION -> {
+                return RuntimeValue.ofInt(first * second);
+            }
+            case DIVISION -> {
+                return RuntimeValue.ofInt(first / second);
+            }
+            case LESS -> {
+                return RuntimeValue.ofBoolean(first < second);
+            }
+            case LESS_OR_EQUAL -> {
+                return RuntimeValue.ofBoolean(first <= second);
+            }
+            case MORE -> {
+                return RuntimeValue.ofBoolean(first > second);
+            }
+            case MORE_OR_EQUAL -> {
+                return RuntimeValue.ofBoolean(first >= second);
+            }
+            case EQUAL -> {
+                return RuntimeValue.ofBoolean(first == second);
+            }
+            case NOT_EQUAL -> {
+                return RuntimeValue.ofBoolean(first != second);
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private RuntimeValue realOperation(double first, double second) {
+        switch (code) {
+            case ADDITION -> {
+                return RuntimeValue.ofReal(first + second);
+            }
+            case SUBTRACTION -> {
+                return RuntimeValue.ofReal(first - second);
+            }
+            case MULTIPLICATION -> {
+                return RuntimeValue.ofReal(first * second);
+            }
+            case DIVISION -> {
+                return RuntimeValue.ofReal(first / second);
+            }
+            case LESS -> {
+                return RuntimeValue.ofBoolean(first < second);
+            }
+            case LESS_OR_EQUAL -> {
+                return RuntimeValue.ofBoolean(first <= second);
+            }
+            case MORE -> {
+                return RuntimeValue.ofBoolean(first > second);
+            }
+            case MORE_OR_EQUAL -> {
+                return RuntimeValue.ofBoolean(first >= second);
+            }
+            case EQUAL -> {
+                return RuntimeValue.ofBoolean(first == second);
+            }
+            case NOT_EQUAL -> {
+                return RuntimeValue.ofBoolean(first != second);
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+}
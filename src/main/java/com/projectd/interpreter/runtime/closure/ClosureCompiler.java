@@ -0,0 +1,678 @@
+package com.projectd.interpreter.runtime.closure;
+
+import com.projectd.interpreter.lex.token.*;
+import com.projectd.interpreter.runtime.IntegerRange;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.RuntimeOperationHandler;
+import com.projectd.interpreter.runtime.environment.*;
+import com.projectd.interpreter.shared.exception.RuntimeExceptionFactory;
+import com.projectd.interpreter.syntax.tree.AstGrammarNode;
+import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import com.projectd.interpreter.syntax.tree.AstTokenNode;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Compiles a syntax tree into closures once, before it is executed.
+ * <p>
+ * Grammar checks, child lookups and operator switches of {@link com.projectd.interpreter.runtime.RuntimeExecutorImpl}
+ * are all done here, the compiled nodes only evaluate. Both tree shapes of expressions are accepted.
+ * The order of evaluation and the errors are the same as in the tree walker; conditions, negation and array
+ * indexing skip the generic operation handler when the operand types allow it, arithmetic and comparison are
+ * {@link BinaryOperationNode}s specialising on their operand types.
+ * <p>
+ * Every block runs in a {@link RuntimeFrame}, variables are addressed by the {@link ScopeResolver} where possible.
+ */
+public class ClosureCompiler {
+
+    private static final Set<LexTokenCode> READ_OPERATIONS = EnumSet.of(LexTokenCode.READ_INT, LexTokenCode.READ_REAL, LexTokenCode.READ_STRING);
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final ScopeResolver resolver = new ScopeResolver();
+    private final RuntimeIOHandler io;
+    /** Specialising operation nodes of the last compiled program, for their hit and miss counters */
+    @Getter
+    private List<BinaryOperationNode> operationNodes = List.of();
+
+    public ClosureCompiler(RuntimeIOHandler io) {
+        this.io = io;
+    }
+
+    public ExecutableNode compileProgram(AstNode program) {
+        assertGrammar(program, AstGrammarNodeType.PROGRAM);
+        operationNodes = new ArrayList<>();
+
+        int[] slots = resolver.enterBlock(List.of(), program.getChildren());
+        ExecutableNode[] statements = program.getChildren().stream()
+                .map(this::compileStatement)
+                .toArray(ExecutableNode[]::new);
+        resolver.exitBlock();
+
+        return frame -> {
+            frame.nestFrame(slots);
+            // Same as the tree walker, a return on the top level does not stop the program
+            for (ExecutableNode statement : statements) {
+                statement.execute(frame);
+            }
+            frame.flushScope();
+            return null;
+        };
+    }
+
+    private ExecutableNode compileStatement(AstNode statement) {
+        assertGrammar(statement, AstGrammarNodeType.STATEMENT);
+
+        if (statement.getChildren().get(0) instanceof AstGrammarNode grammarNode) {
+            switch (grammarNode.getGrammarType()) {
+                case ASSIGNMENT -> {
+                    return compileAssignment(grammarNode);
+                }
+                case DECLARATION -> {
+                    return compileDeclaration(grammarNode);
+                }
+                case PRINT -> {
+                    return compilePrint(grammarNode);
+                }
+                case RETURN -> {
+                    return compileReturn(grammarNode);
+                }
+                case IF -> {
+                    return compileIf(grammarNode);
+                }
+                case LOOP -> {
+                    return compileLoop(grammarNode);
+                }
+                default -> {
+                    EvaluableNode expression = compileExpression(grammarNode);
+                    return frame -> {
+                        expression.evaluate(frame);
+                        return null;
+                    };
+                }
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private ExecutableNode compileReturn(AstNode ret) {
+        if (ret.getChildren().size() > 1) {
+            EvaluableNode value = compileExpression(ret.getChildren().get(1));
+            return value::evaluate;
+        }
+        return frame -> RuntimeValue.empty();
+    }
+
+    private ExecutableNode compileIf(AstNode iff) {
+        List<AstNode> children = iff.getChildren();
+        LexToken ifToken = tokenOf(children.get(0));
+        EvaluableNode condition = compileExpression(children.get(1));
+        Block then = compileBlock(children.get(3), List.of());
+        Block otherwise = children.size() > 5 ? compileBlock(children.get(5), List.of()) : new Block(NO_SLOTS, frame -> null);
+
+        return frame -> {
+            Block block = isTrue(ifToken, condition.evaluate(frame)) ? then : otherwise;
+            frame.nestFrame(block.slots());
+            RuntimeValue result = block.body().execute(frame);
+            frame.flushScope();
+            return result;
+        };
+    }
+
+    /** Compiles a body run in a frame of its own, whose first slots are the given variables */
+    private Block compileBlock(AstNode body, List<LexIdentifierToken> variables) {
+        assertGrammar(body, AstGrammarNodeType.BODY);
+
+        int[] slots = resolver.enterBlock(variables, body.getChildren());
+        ExecutableNode statements = compileStatements(body.getChildren());
+        resolver.exitBlock();
+        return new Block(slots, statements);
+    }
+
+    private ExecutableNode compileStatements(List<AstNode> statements) {
+        ExecutableNode[] compiled = statements.stream()
+                .map(this::compileStatement)
+                .toArray(ExecutableNode[]::new);
+
+        return frame -> {
+            for (ExecutableNode statement : compiled) {
+                RuntimeValue result = statement.execute(frame);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return null;
+        };
+    }
+
+    private ExecutableNode compileLoop(AstNode loop) {
+        assertGrammar(loop, AstGrammarNodeType.LOOP);
+
+        List<AstNode> children = loop.getChildren();
+        LexToken loopToken = tokenOf(children.get(0));
+        if (loopToken.getCode() == LexTokenCode.WHILE) {
+            return compileWhile(loopToken, children);
+        } else if (loopToken.getCode() == LexTokenCode.FOR) {
+            return compileFor(children);
+        }
+        throw new IllegalStateException();
+    }
+
+    private ExecutableNode compileWhile(LexToken whileToken, List<AstNode> children) {
+        EvaluableNode condition = compileExpression(children.get(1));
+        AstNode loopBody = children.get(2).getChildren().get(1);
+        assertGrammar(loopBody, AstGrammarNodeType.BODY);
+        int[] slots = resolver.enterBlock(List.of(), loopBody.getChildren());
+        ExecutableNode body = compileStatements(loopBody.getChildren());
+        // From the second iteration on the condition is evaluated in the scope of the loop
+        EvaluableNode nextCondition = compileExpression(children.get(1));
+        resolver.exitBlock();
+
+        return frame -> {
+            boolean check = isTrue(whileToken, condition.evaluate(frame));
+            RuntimeValue result = null;
+            frame.nestFrame(slots);
+            while (check) {
+                result = body.execute(frame);
+                if (result != null) {
+                    break;
+                }
+                check = isTrue(whileToken, nextCondition.evaluate(frame));
+            }
+            frame.flushScope();
+            return result;
+        };
+    }
+
+    private ExecutableNode compileFor(List<AstNode> children) {
+        LexIdentifierToken identifier = (LexIdentifierToken) tokenOf(children.get(1));
+        LexToken rangeToken = tokenOf(children.get(4));
+        AstNode loopBody = children.get(7).getChildren().get(1);
+        assertGrammar(loopBody, AstGrammarNodeType.BODY);
+        // The range is evaluated in the scope of the loop, where the variable is already declared
+        int[] slots = resolver.enterBlock(List.of(identifier), loopBody.getChildren());
+        int slot = resolver.slotOf(identifier);
+        EvaluableNode from = compileExpression(children.get(3));
+        EvaluableNode to = compileExpression(children.get(6));
+        ExecutableNode body = compileStatements(loopBody.getChildren());
+        resolver.exitBlock();
+
+        return frame -> {
+            RuntimeValue result = null;
+            frame.nestFrame(slots);
+            frame.declareVariable(slot);
+            IntegerRange range = RuntimeOperationHandler.integerRange(rangeToken, from.evaluate(frame), to.evaluate(frame));
+            for (long i = range.getFirst(); i <= range.getLast(); i++) {
+                frame.assignVariable(identifier, 0, slot, RuntimeValue.ofInt((int) i));
+                result = body.execute(frame);
+                if (result != null) {
+                    break;
+                }
+            }
+            frame.flushScope();
+            return result;
+        };
+    }
+
+    private ExecutableNode compileDeclaration(AstNode declaration) {
+        ExecutableNode[] definitions = declaration.getChildren().stream()
+                .filter(e -> e instanceof AstGrammarNode)
+                .map(this::compileVariableDefinition)
+                .toArray(ExecutableNode[]::new);
+
+        return frame -> {
+            for (ExecutableNode definition : definitions) {
+                definition.execute(frame);
+            }
+            return null;
+        };
+    }
+
+    private ExecutableNode compileVariableDefinition(AstNode definition) {
+        assertGrammar(definition, AstGrammarNodeType.VARIABLE_DEFINITION);
+
+        List<AstNode> children = definition.getChildren();
+        int slot = resolver.slotOf((LexIdentifierToken) tokenOf(children.get(0)));
+        if (children.size() > 1) {
+            EvaluableNode value = compileExpression(children.get(children.size()-1));
+            return frame -> {
+                frame.declareAndAssignVariable(slot, value.evaluate(frame));
+                return null;
+            };
+        }
+        return frame -> {
+            frame.declareVariable(slot);
+            return null;
+        };
+    }
+
+    private ExecutableNode compileAssignment(AstNode assignment) {
+        List<AstNode> children = assignment.getChildren();
+        EvaluableNode value = compileExpression(children.get(2));
+        AssignmentTarget target = compileAssignmentTarget(children.get(0));
+
+        return frame -> {
+            target.assign(frame, value.evaluate(frame));
+            return null;
+        };
+    }
+
+    private AssignmentTarget compileAssignmentTarget(AstNode primary) {
+        assertGrammar(primary, AstGrammarNodeType.PRIMARY);
+
+        List<AstNode> children = primary.getChildren();
+        LexToken first = tokenOf(children.get(0));
+        if (READ_OPERATIONS.contains(first.getCode())) {
+            return (frame, value) -> {
+                throw RuntimeExceptionFactory.generic("Cannot assign value to a read operation", first.getSpan());
+            };
+        }
+
+        LexIdentifierToken identifier = (LexIdentifierToken) first;
+        if (children.size() == 1) {
+            ScopeResolver.Address address = resolver.resolve(identifier);
+            if (address == null) {
+                return (frame, value) -> frame.assignVariable(identifier, value);
+            }
+            int depth = address.depth();
+            int slot = address.slot();
+            return (frame, value) -> frame.assignVariable(identifier, depth, slot, value);
+        }
+
+        EvaluableNode object = compileIdentifierWithTails(identifier, children.subList(1, children.size()-1));
+        AstNode lastTail = children.get(children.size()-1);
+        assertGrammar(lastTail, AstGrammarNodeType.TAIL);
+        LexToken tailOp = tokenOf(lastTail.getChildren().get(0));
+        switch (tailOp.getCode()) {
+            case DOT -> {
+                return (frame, value) -> {
+                    object.evaluate(frame);
+                    throw RuntimeExceptionFactory.immutableObject(RuntimeValue.RuntimeValueType.TUPLE, tailOp.getSpan());
+                };
+            }
+            case OPEN_SQUARE_BRACKET -> {
+                EvaluableNode index = compileExpression(lastTail.getChildren().get(1));
+                return (frame, value) -> {
+                    RuntimeValue array = object.evaluate(frame);
+                    RuntimeOperationHandler.setterOf(tailOp, array, index.evaluate(frame)).accept(value);
+                };
+            }
+            case OPEN_ROUND_BRACKET -> {
+                return (frame, value) -> {
+                    object.evaluate(frame);
+                    throw RuntimeExceptionFactory.immutableObject(RuntimeValue.RuntimeValueType.FUNCTION, tailOp.getSpan());
+                };
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private ExecutableNode compilePrint(AstNode print) {
+        EvaluableNode[] values = compileExpressions(print.getChildren());
+
+        return frame -> {
+            io.handlePrint(evaluateAll(values, frame));
+            return null;
+        };
+    }
+
+
+
+    private EvaluableNode compileExpression(AstNode expression) {
+        if (expression instanceof AstGrammarNode grammarNode) {
+            switch (grammarNode.getGrammarType()) {
+                case EXPRESSION, CONJUNCTION, RELATION, FACTOR, TERM -> {
+                    return compileOperatorChain(grammarNode);
+                }
+                case UNARY -> {
+                    return compileUnary(grammarNode);
+                }
+                case BINARY_OPERATION -> {
+                    List<AstNode> children = grammarNode.getChildren();
+                    return compileBinaryOperation(tokenOf(children.get(1)),
+                            compileExpression(children.get(0)),
+                            compileExpression(children.get(2)));
+                }
+                case UNARY_OPERATION -> {
+                    List<AstNode> children = grammarNode.getChildren();
+                    return compileUnaryOperation(tokenOf(children.get(0)), compileExpression(children.get(1)));
+                }
+                case TYPE_CHECK -> {
+                    List<AstNode> children = grammarNode.getChildren();
+                    return compileTypeCheck(compileExpression(children.get(0)), children.get(2));
+                }
+                case PRIMARY -> {
+                    return compilePrimary(grammarNode);
+                }
+                case LITERAL -> {
+                    return compileLiteral(grammarNode);
+                }
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /** Expression, Conjunction, Relation, Factor and Term: operands separated by left-associative operators */
+    private EvaluableNode compileOperatorChain(AstNode chain) {
+        List<AstNode> children = chain.getChildren();
+        EvaluableNode result = compileExpression(children.get(0));
+        for (int i = 1; i < children.size(); i += 2) {
+            result = compileBinaryOperation(tokenOf(children.get(i)), result, compileExpression(children.get(i+1)));
+        }
+        return result;
+    }
+
+    /** Unary : [ + | - | not ] Primary [ is TypeIndicator ] | Literal | ( Expression ) */
+    private EvaluableNode compileUnary(AstNode unary) {
+        List<AstNode> children = unary.getChildren();
+        if (children.get(0) instanceof AstGrammarNode grammar && grammar.getGrammarType() == AstGrammarNodeType.LITERAL) {
+            return compileLiteral(grammar);
+        }
+        if (children.get(0) instanceof AstTokenNode token && token.getToken().getCode() == LexTokenCode.OPEN_ROUND_BRACKET) {
+            return compileExpression(children.get(1));
+        }
+
+        EvaluableNode result;
+        if (children.get(0) instanceof AstTokenNode token) {
+            result = compileUnaryOperation(token.getToken(), compilePrimary(children.get(1)));
+        } else {
+            result = compilePrimary(children.get(0));
+        }
+
+        if (children.size() > 2) {
+            result = compileTypeCheck(result, children.get(children.size()-1));
+        }
+        return result;
+    }
+
+    private EvaluableNode compileBinaryOperation(LexToken op, EvaluableNode left, EvaluableNode right) {
+        if (BinaryOperationNode.isSpecialisable(op.getCode())) {
+            BinaryOperationNode node = new BinaryOperationNode(op, left, right);
+            operationNodes.add(node);
+            return node;
+        }
+        return frame -> RuntimeOperationHandler.handleBinaryOperation(op, left.evaluate(frame), right.evaluate(frame));
+    }
+
+    private EvaluableNode compileUnaryOperation(LexToken op, EvaluableNode operand) {
+        if (op.getCode() == LexTokenCode.SUBTRACTION) {
+            return frame -> negate(op, operand.evaluate(frame));
+        }
+        return frame -> RuntimeOperationHandler.handleUnaryOperation(op, operand.evaluate(frame));
+    }
+
+    private EvaluableNode compileTypeCheck(EvaluableNode operand, AstNode typeIndicator) {
+        RuntimeValue.RuntimeValueType type = typeOf(typeIndicator);
+        return frame -> RuntimeOperationHandler.handleTypeCheck(operand.evaluate(frame), type);
+    }
+
+    /** Primary : Identifier { Tail } | readInt | readReal | readString */
+    private EvaluableNode compilePrimary(AstNode primary) {
+        assertGrammar(primary, AstGrammarNodeType.PRIMARY);
+
+        List<AstNode> children = primary.getChildren();
+        LexToken first = tokenOf(children.get(0));
+        if (READ_OPERATIONS.contains(first.getCode())) {
+            return frame -> io.handleRead(first);
+        }
+        return compileIdentifierWithTails((LexIdentifierToken) first, children.subList(1, children.size()));
+    }
+
+    private EvaluableNode compileIdentifierWithTails(LexIdentifierToken identifier, List<AstNode> tails) {
+        EvaluableNode variable = compileVariable(identifier);
+        if (tails.isEmpty()) {
+            return variable;
+        }
+
+        TailNode[] compiled = tails.stream()
+                .map(this::compileTail)
+                .toArray(TailNode[]::new);
+        return frame -> {
+            RuntimeValue result = variable.evaluate(frame);
+            for (TailNode tail : compiled) {
+                result = tail.apply(frame, result);
+            }
+            return result;
+        };
+    }
+
+    private EvaluableNode compileVariable(LexIdentifierToken identifier) {
+        ScopeResolver.Address address = resolver.resolve(identifier);
+        if (address == null) {
+            return frame -> frame.getVariableValue(identifier);
+        }
+        int depth = address.depth();
+        int slot = address.slot();
+        return frame -> frame.getVariableValue(identifier, depth, slot);
+    }
+
+    /** Tail : .IntegerLiteral | .Identifier | [Expression] | (Expression {, Expression}) */
+    private TailNode compileTail(AstNode tail) {
+        assertGrammar(tail, AstGrammarNodeType.TAIL);
+
+        List<AstNode> children = tail.getChildren();
+        LexToken tailOp = tokenOf(children.get(0));
+        switch (tailOp.getCode()) {
+            case DOT -> {
+                LexToken element = tokenOf(children.get(1));
+                if (element instanceof LexIdentifierToken identifier) {
+                    NamedElementCache cache = new NamedElementCache(identifier);
+                    return (frame, value) -> RuntimeOperationHandler.handleNamedTupleIndex(tailOp, value, cache);
+                } else if (element instanceof LexLiteralToken literal && literal.getType() == LexLiteralTokenType.INT) {
+                    RuntimeValue index = RuntimeValue.ofLiteral(literal);
+                    return (frame, value) -> RuntimeOperationHandler.handleBinaryOperation(tailOp, value, index);
+                }
+            }
+            case OPEN_SQUARE_BRACKET -> {
+                EvaluableNode index = compileExpression(children.get(1));
+                return (frame, value) -> index(tailOp, value, index.evaluate(frame));
+            }
+            case OPEN_ROUND_BRACKET -> {
+                EvaluableNode[] args = compileExpressions(children);
+                return (frame, value) -> {
+                    List<RuntimeValue> argValues = evaluateAll(args, frame);
+                    if (value.getType() != RuntimeValue.RuntimeValueType.FUNCTION) {
+                        throw RuntimeExceptionFactory.invalidOperandTypes("function call", List.of(value.getType()), tailOp.getSpan());
+                    }
+                    return ((ClosureFunction) value.getValue()).call(tailOp, argValues, frame);
+                };
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private EvaluableNode compileLiteral(AstNode literal) {
+        assertGrammar(literal, AstGrammarNodeType.LITERAL);
+
+        AstNode child = literal.getChildren().get(0);
+        if (child instanceof AstTokenNode token && token.getToken() instanceof LexLiteralToken literalToken) {
+            RuntimeValue value = RuntimeValue.ofLiteral(literalToken);
+            return frame -> value;
+        } else if (child instanceof AstGrammarNode grammarNode) {
+            switch (grammarNode.getGrammarType()) {
+                case ARRAY_LITERAL -> {
+                    return compileArrayLiteral(grammarNode);
+                }
+                case TUPLE_LITERAL -> {
+                    return compileTupleLiteral(grammarNode);
+                }
+                case FUNCTION_LITERAL -> {
+                    return compileFunctionLiteral(grammarNode);
+                }
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private EvaluableNode compileArrayLiteral(AstNode arrayLiteral) {
+        EvaluableNode[] elements = compileExpressions(arrayLiteral.getChildren());
+        return frame -> RuntimeValue.ofValue(SparseArray.fromList(evaluateAll(elements, frame)));
+    }
+
+    /** TupleLiteral : { TupleElement { , TupleElement } }, the shape is resolved once for every evaluation */
+    private EvaluableNode compileTupleLiteral(AstNode tupleLiteral) {
+        List<AstNode> elements = tupleLiteral.getChildren().stream()
+                .filter(e -> e instanceof AstGrammarNode)
+                .toList();
+        LexIdentifierToken[] names = new LexIdentifierToken[elements.size()];
+        EvaluableNode[] values = new EvaluableNode[elements.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = compileTupleElement(elements.get(i), names, i);
+        }
+        TupleShape shape = TupleShape.of(names);
+
+        return frame -> {
+            RuntimeValue[] tuple = new RuntimeValue[values.length];
+            for (int i = 0; i < values.length; i++) {
+                tuple[i] = values[i].evaluate(frame);
+            }
+            return RuntimeValue.ofValue(ImmutableTuple.of(shape, tuple));
+        };
+    }
+
+    /** TupleElement : [ Identifier := ] Expression, the name goes to names[i] */
+    private EvaluableNode compileTupleElement(AstNode tupleElement, LexIdentifierToken[] names, int i) {
+        assertGrammar(tupleElement, AstGrammarNodeType.TUPLE_ELEMENT);
+
+        List<AstNode> children = tupleElement.getChildren();
+        if (children.get(0) instanceof AstTokenNode token && token.getToken() instanceof LexIdentifierToken identifier) {
+            names[i] = identifier;
+            return compileExpression(children.get(2));
+        }
+        names[i] = null;
+        return compileExpression(children.get(0));
+    }
+
+    /** FunctionLiteral : func [ Parameters ] FunBody, the body is compiled once and shared by every evaluation of the literal */
+    private EvaluableNode compileFunctionLiteral(AstNode functionLiteral) {
+        List<AstNode> children = functionLiteral.getChildren();
+
+        List<LexIdentifierToken> params = new ArrayList<>();
+        if (children.get(1) instanceof AstGrammarNode grammarNode && grammarNode.getGrammarType() == AstGrammarNodeType.PARAMETERS) {
+            params = grammarNode.getChildren().stream()
+                    .map(e -> ((AstTokenNode) e).getToken())
+                    .filter(e -> e instanceof LexIdentifierToken)
+                    .map(e -> (LexIdentifierToken) e)
+                    .toList();
+        }
+
+        AstNode funBody = children.get(children.size()-1);
+        assertGrammar(funBody, AstGrammarNodeType.FUN_BODY);
+        AstNode body = funBody.getChildren().get(1);
+        boolean isLambda = !(body instanceof AstGrammarNode grammarNode && grammarNode.getGrammarType() == AstGrammarNodeType.BODY);
+        int enclosingFunction = resolver.enterFunction();
+        int[] slots = resolver.enterBlock(params, isLambda ? List.of() : body.getChildren());
+        RuntimeFunction function;
+        if (isLambda) {
+            EvaluableNode expression = compileExpression(body);
+            function = new ClosureFunction(params, List.of(body), true, expression::evaluate, slots);
+        } else {
+            function = new ClosureFunction(params, body.getChildren(), false, compileStatements(body.getChildren()), slots);
+        }
+        resolver.exitBlock();
+        resolver.exitFunction(enclosingFunction);
+
+        RuntimeValue value = RuntimeValue.ofValue(function);
+        return frame -> value;
+    }
+
+    private RuntimeValue.RuntimeValueType typeOf(AstNode typeIndicator) {
+        assertGrammar(typeIndicator, AstGrammarNodeType.TYPE_INDICATOR);
+
+        switch (tokenOf(typeIndicator.getChildren().get(0)).getCode()) {
+            case INT -> {
+                return RuntimeValue.RuntimeValueType.INTEGER;
+            }
+            case REAL -> {
+                return RuntimeValue.RuntimeValueType.REAL;
+            }
+            case BOOLEAN -> {
+                return RuntimeValue.RuntimeValueType.BOOLEAN;
+            }
+            case STRING -> {
+                return RuntimeValue.RuntimeValueType.STRING;
+            }
+            case EMPTY -> {
+                return RuntimeValue.RuntimeValueType.EMPTY;
+            }
+            case FUNC -> {
+                return RuntimeValue.RuntimeValueType.FUNCTION;
+            }
+            case OPEN_CURLY_BRACKET -> {
+                return RuntimeValue.RuntimeValueType.ARRAY;
+            }
+            case OPEN_ROUND_BRACKET -> {
+                return RuntimeValue.RuntimeValueType.TUPLE;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /** Compiles the grammar children, skipping separators and brackets */
+    private EvaluableNode[] compileExpressions(List<AstNode> children) {
+        return children.stream()
+                .filter(e -> e instanceof AstGrammarNode)
+                .map(this::compileExpression)
+                .toArray(EvaluableNode[]::new);
+    }
+
+    private static List<RuntimeValue> evaluateAll(EvaluableNode[] expressions, RuntimeEnvironment frame) {
+        List<RuntimeValue> values = new ArrayList<>(expressions.length);
+        for (EvaluableNode expression : expressions) {
+            values.add(expression.evaluate(frame));
+        }
+        return values;
+    }
+
+
+
+    private static boolean isTrue(LexToken op, RuntimeValue condition) {
+        if (condition.getType() == RuntimeValue.RuntimeValueType.BOOLEAN) {
+            return condition.asBoolean();
+        }
+        return RuntimeOperationHandler.conditionCheck(op, condition);
+    }
+
+    private static RuntimeValue negate(LexToken op, RuntimeValue value) {
+        if (value.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
+            return RuntimeValue.ofInt(-value.asInt());
+        }
+        return RuntimeOperationHandler.handleUnaryOperation(op, value);
+    }
+
+    private static RuntimeValue index(LexToken op, RuntimeValue array, RuntimeValue index) {
+        if (array.getType() == RuntimeValue.RuntimeValueType.ARRAY && index.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
+            return ((SparseArray) array.getValue()).get(index);
+        }
+        return RuntimeOperationHandler.handleBinaryOperation(op, array, index);
+    }
+
+    private static LexToken tokenOf(AstNode node) {
+        if (node instanceof AstTokenNode tokenNode) {
+            return tokenNode.getToken();
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void assertGrammar(AstNode node, AstGrammarNodeType expectedType) {
+        if (!(node instanceof AstGrammarNode grammarNode) || grammarNode.getGrammarType() != expectedType) {
+            throw new IllegalStateException();
+        }
+    }
+
+    /** Compiled body with the slots of its frame */
+    private record Block(int[] slots, ExecutableNode body) {
+    }
+
+    @FunctionalInterface
+    private interface TailNode {
+        RuntimeValue apply(RuntimeEnvironment frame, RuntimeValue value);
+    }
+
+    @FunctionalInterface
+    private interface AssignmentTarget {
+        void assign(RuntimeEnvironment frame, RuntimeValue value);
+    }
+}
@@ -0,0 +1,50 @@
+package com.projectd.interpreter.runtime.closure;
+
+import com.projectd.interpreter.lex.token.LexSymbolTable;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import com.projectd.interpreter.runtime.environment.RuntimeEnvironment;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import lombok.Getter;
+
+import java.util.List;
+
+/** Executes a program compiled by {@link ClosureCompiler} */
+public class ClosureExecutor implements RuntimeExecutor {
+
+    private final ClosureCompiler compiler;
+    private final RuntimeEnvironment runtime = new RuntimeEnvironment();
+    @Getter
+    private final LexSymbolTable symbolTable = new LexSymbolTable();
+    @Getter
+    private final OperationProfile profile;
+
+    public ClosureExecutor() {
+        this(RuntimeIOHandler.standard());
+    }
+
+    public ClosureExecutor(RuntimeIOHandler io) {
+        this(io, new OperationProfile());
+    }
+
+    /** @param profile receives the operation counters of every program run, may be shared between executors */
+    public ClosureExecutor(RuntimeIOHandler io, OperationProfile profile) {
+        this.compiler = new ClosureCompiler(io);
+        this.profile = profile;
+    }
+
+    @Override
+    public void execute(AstNode program) {
+        ExecutableNode compiled = compiler.compileProgram(program);
+        try {
+            compiled.execute(runtime);
+        } finally {
+            profile.record(compiler.getOperationNodes());
+        }
+    }
+
+    /** @return specialising operation nodes of the last program run, with their hit and miss counters */
+    public List<BinaryOperationNode> getOperationNodes() {
+        return compiler.getOperationNodes();
+    }
+}
@@ -0,0 +1,52 @@
+package com.projectd.interpreter.runtime.closure;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.runtime.environment.RuntimeEnvironment;
+import com.projectd.interpreter.runtime.environment.RuntimeFunction;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+import com.projectd.interpreter.shared.exception.RuntimeExceptionFactory;
+import com.projectd.interpreter.syntax.tree.AstNode;
+
+import java.util.List;
+
+/** Function whose body has been compiled together with the function literal */
+public class ClosureFunction extends RuntimeFunction {
+
+    private final ExecutableNode compiledBody;
+    /** Symbol ids of the slots of the call frame, the parameters come first */
+    private final int[] frameSlots;
+    private final int[] parameterSlots;
+
+    public ClosureFunction(List<LexIdentifierToken> parameters, List<AstNode> body, boolean isLambda, ExecutableNode compiledBody,
+                           int[] frameSlots) {
+        super(parameters, body, isLambda);
+        this.compiledBody = compiledBody;
+        this.frameSlots = frameSlots;
+        this.parameterSlots = new int[parameters.size()];
+        for (int i = 0; i < parameterSlots.length; i++) {
+            int symbolId = parameters.get(i).getSymbolId();
+            while (frameSlots[parameterSlots[i]] != symbolId) {
+                parameterSlots[i]++;
+            }
+        }
+    }
+
+    public RuntimeValue call(LexToken op, List<RuntimeValue> args, RuntimeEnvironment frame) {
+        List<LexIdentifierToken> parameters = getParameters();
+        if (parameters.size() != args.size()) {
+            throw RuntimeExceptionFactory.argumentsMismatch(parameters.size(), args.size(), op.getSpan());
+        }
+        if (getBody().size() < 1) {
+            throw RuntimeExceptionFactory.emptyFunction(op.getSpan());
+        }
+
+        frame.nestFrame(frameSlots);
+        for (int i = 0; i < args.size(); i++) {
+            frame.declareAndAssignVariable(parameterSlots[i], args.get(i));
+        }
+        RuntimeValue result = compiledBody.execute(frame);
+        frame.flushScope();
+        return result != null ? result : RuntimeValue.empty();
+    }
+}
@@ -0,0 +1,11 @@
+package com.projectd.interpreter.runtime.closure;
+
+import com.projectd.interpreter.runtime.environment.RuntimeEnvironment;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+
+/** Compiled expression */
+@FunctionalInterface
+public interface EvaluableNode {
+
+    RuntimeValue evaluate(RuntimeEnvironment frame);
+}
@@ -0,0 +1,12 @@
+package com.projectd.interpreter.runtime.closure;
+
+import com.projectd.interpreter.runtime.environment.RuntimeEnvironment;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+
+/** Compiled statement */
+@FunctionalInterface
+public interface ExecutableNode {
+
+    /** @return value of the executed return statement, or null if the statement completed without returning */
+    RuntimeValue execute(RuntimeEnvironment frame);
+}
@@ -0,0 +1,53 @@
+package com.projectd.interpreter.runtime.closure;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counters of {@link BinaryOperationNode}s summed over every program recorded.
+ * <p>
+ * Compiled programs are dropped after they run, so a profile shared by the executors of an engine is what keeps
+ * the counters of a whole workload. Executors may record from several threads at once.
+ */
+public final class OperationProfile {
+
+    private final LongAdder programs = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Map<BinaryOperationNode.Specialisation, LongAdder> nodes = new EnumMap<>(BinaryOperationNode.Specialisation.class);
+
+    public OperationProfile() {
+        for (BinaryOperationNode.Specialisation specialisation : BinaryOperationNode.Specialisation.values()) {
+            nodes.put(specialisation, new LongAdder());
+        }
+    }
+
+    /** Adds the counters of the operation nodes of one program, after it has run */
+    public void record(List<BinaryOperationNode> operationNodes) {
+        programs.increment();
+        for (BinaryOperationNode node : operationNodes) {
+            hits.add(node.getHits());
+            misses.add(node.getMisses());
+            nodes.get(node.getSpecialisation()).increment();
+        }
+    }
+
+    public long getPrograms() {
+        return programs.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** @return number of recorded nodes that ended their program in the state */
+    public long getNodes(BinaryOperationNode.Specialisation specialisation) {
+        return nodes.get(specialisation).sum();
+    }
+}
@@ -0,0 +1,93 @@
+package com.projectd.interpreter.runtime.closure;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.syntax.tree.AstGrammarNode;
+import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import com.projectd.interpreter.syntax.tree.AstTokenNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lexical addresses of the variables, resolved by the {@link ClosureCompiler} as it walks the syntax tree.
+ * <p>
+ * Every block runs in a frame whose slots are the variables declared directly in the block. A name resolves to the
+ * innermost enclosing block of the same function declaring it: the depth counts the scopes nested in between, the
+ * slot is the index in that frame. A declaration may come after the use, so a slot is only read once declared and
+ * the lookup by symbol continues outwards until then. Names no enclosing block of the function declares are left to
+ * lookup by symbol, as functions see the variables of their callers.
+ */
+class ScopeResolver {
+
+    /** Lexical address of a resolved variable */
+    record Address(int depth, int slot) {
+    }
+
+    /** Symbol ids of the slots of the open blocks, innermost last */
+    private final List<List<Integer>> blocks = new ArrayList<>();
+    /** Index of the first block of the function being compiled, outer blocks are not visible */
+    private int functionStart = 0;
+
+    /** Starts the blocks of a function body, its variables do not resolve to the blocks around the literal */
+    int enterFunction() {
+        int enclosingStart = functionStart;
+        functionStart = blocks.size();
+        return enclosingStart;
+    }
+
+    void exitFunction(int enclosingStart) {
+        functionStart = enclosingStart;
+    }
+
+    /**
+     * Opens the block of the statements, declaring the given variables first
+     * @return symbol id of every slot of the block frame
+     */
+    int[] enterBlock(List<LexIdentifierToken> variables, List<AstNode> statements) {
+        List<Integer> slots = new ArrayList<>();
+        for (LexIdentifierToken variable : variables) {
+            addSlot(slots, variable);
+        }
+        for (AstNode statement : statements) {
+            if (statement instanceof AstGrammarNode grammarNode && !grammarNode.getChildren().isEmpty()
+                    && grammarNode.getChildren().get(0) instanceof AstGrammarNode declaration
+                    && declaration.getGrammarType() == AstGrammarNodeType.DECLARATION) {
+                for (AstNode definition : declaration.getChildren()) {
+                    if (definition instanceof AstGrammarNode && definition.getChildren().get(0) instanceof AstTokenNode token) {
+                        addSlot(slots, (LexIdentifierToken) token.getToken());
+                    }
+                }
+            }
+        }
+        blocks.add(slots);
+        return slots.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    void exitBlock() {
+        blocks.remove(blocks.size() - 1);
+    }
+
+    /** @return address of the variable, or null if it is looked up by symbol */
+    Address resolve(LexIdentifierToken identifier) {
+        int symbolId = identifier.getSymbolId();
+        for (int i = blocks.size() - 1; i >= functionStart; i--) {
+            int slot = blocks.get(i).indexOf(symbolId);
+            if (slot >= 0) {
+                return new Address(blocks.size() - 1 - i, slot);
+            }
+        }
+        return null;
+    }
+
+    /** @return slot of a variable declared in the innermost block */
+    int slotOf(LexIdentifierToken identifier) {
+        return blocks.get(blocks.size() - 1).indexOf(identifier.getSymbolId());
+    }
+
+    private static void addSlot(List<Integer> slots, LexIdentifierToken variable) {
+        if (!slots.contains(variable.getSymbolId())) {
+            slots.add(variable.getSymbolId());
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.projectd.interpreter.runtime.contract;
 
+import com.projectd.interpreter.lex.token.LexSymbolTable;
 import com.projectd.interpreter.syntax.tree.AstNode;
 
 public interface RuntimeExecutor {
     void execute(AstNode program);
+
+    /** @return table to lex the programs of the executor into, its variables are found by their symbol ids */
+    LexSymbolTable getSymbolTable();
 }
@@ -1,20 +1,27 @@
 package com.projectd.interpreter.runtime.environment;
 
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+
 import java.util.*;
 
+/**
+ * Tuple of the D runtime: its elements in a {@code RuntimeValue[]} and the slots of their names in a shared
+ * {@link TupleShape}. Compiled tuple literals build tuples of the shape of the literal; the {@link Builder}
+ * resolves a new shape for every tuple.
+ */
 public class ImmutableTuple {
 
-    private final List<RuntimeValue> values;
-    private final Map<String, Integer> nameIndex;
+    private final TupleShape shape;
+    private final RuntimeValue[] values;
 
-    private ImmutableTuple(List<RuntimeValue> values, Map<String, Integer> nameIndex) {
+    private ImmutableTuple(TupleShape shape, RuntimeValue[] values) {
+        this.shape = shape;
         this.values = values;
-        this.nameIndex = nameIndex;
     }
 
-    protected ImmutableTuple() {
-        values = new ArrayList<>();
-        nameIndex = new HashMap<>();
+    /** @param values elements in the slots of the shape, owned by the tuple from now on */
+    public static ImmutableTuple of(TupleShape shape, RuntimeValue[] values) {
+        return new ImmutableTuple(shape, values);
     }
 
     public RuntimeValue getUnnamedElement(RuntimeValue index) {
@@ -22,9 +29,9 @@ public class ImmutableTuple {
             throw new IllegalStateException();
         }
 
-        Integer i = (Integer) index.getValue();
+        int i = index.asInt();
         assertIndexRange(i);
-        return values.get(i-1);
+        return values[i-1];
     }
 
     public RuntimeValue getNamedElement(RuntimeValue name) {
@@ -33,45 +40,42 @@ public class ImmutableTuple {
         }
 
         String n = (String) name.getValue();
-        assertKnownName(n);
-        Integer i = nameIndex.get(n);
-        assertIndexRange(i);
-        return values.get(i-1);
+        int slot = shape.slotOf(n);
+        if (slot < 0) {
+            throw unknownName(n);
+        }
+        return values[slot];
     }
 
-    public static ImmutableTuple concatenate(ImmutableTuple first, ImmutableTuple second) {
-        List<RuntimeValue> newValues = new ArrayList<>(first.values);
-        newValues.addAll(second.values);
-        Map<String, Integer> newNameIndex = new HashMap<>(first.nameIndex);
-        for (Map.Entry<String, Integer> entry : second.nameIndex.entrySet()) {
-            newNameIndex.put(entry.getKey(), first.values.size() + entry.getValue());
+    public RuntimeValue getNamedElement(LexIdentifierToken name) {
+        int slot = shape.slotOf(name.getSymbolId());
+        if (slot < 0) {
+            throw unknownName(name.getIdentifier());
         }
-        return new ImmutableTuple(newValues, newNameIndex);
+        return values[slot];
     }
 
-    protected void addUnnamedElement(RuntimeValue value) {
-        Objects.requireNonNull(value);
-
-        values.add(value);
+    TupleShape getShape() {
+        return shape;
     }
 
-    protected void addNamedElement(String name, RuntimeValue value) {
-        Objects.requireNonNull(name);
-        Objects.requireNonNull(value);
+    RuntimeValue getSlot(int slot) {
+        return values[slot];
+    }
 
-        values.add(value);
-        nameIndex.put(name, values.size());
+    public static ImmutableTuple concatenate(ImmutableTuple first, ImmutableTuple second) {
+        RuntimeValue[] newValues = Arrays.copyOf(first.values, first.values.length + second.values.length);
+        System.arraycopy(second.values, 0, newValues, first.values.length, second.values.length);
+        return new ImmutableTuple(TupleShape.concatenate(first.shape, first.values.length, second.shape), newValues);
     }
 
-    private void assertKnownName(String name) {
-        if (!nameIndex.containsKey(name)) {
-            throw new IndexOutOfBoundsException(String.format("Named element %s does not exist", name));
-        }
+    private static IndexOutOfBoundsException unknownName(String name) {
+        return new IndexOutOfBoundsException(String.format("Named element %s does not exist", name));
     }
 
     private void assertIndexRange(Integer i) {
-        if ((i < 1) || (i > values.size())) {
-            throw new IndexOutOfBoundsException(String.format("Tuple index is out of bounds: [1, %d]", values.size()));
+        if ((i < 1) || (i > values.length)) {
+            throw new IndexOutOfBoundsException(String.format("Tuple index is out of bounds: [1, %d]", values.length));
         }
     }
 
@@ -79,10 +83,10 @@ public class ImmutableTuple {
     public String toString() {
         StringBuilder out = new StringBuilder();
         out.append('{');
-        values.forEach(s -> {
-            out.append(s.toString());
+        for (RuntimeValue value : values) {
+            out.append(value.toString());
             out.append(", ");
-        });
+        }
         out.append('}');
         return out.toString();
     }
@@ -92,18 +96,32 @@ public class ImmutableTuple {
     }
 
     public static class Builder {
-        private final ImmutableTuple tuple = new ImmutableTuple();
+        private final List<RuntimeValue> values = new ArrayList<>();
+        /** Name of every element, null for unnamed ones */
+        private LexIdentifierToken[] names = new LexIdentifierToken[4];
 
         public void addUnnamedElement(RuntimeValue v) {
-            tuple.addUnnamedElement(v);
+            addElement(null, v);
+        }
+
+        public void addNamedElement(LexIdentifierToken name, RuntimeValue v) {
+            Objects.requireNonNull(name);
+
+            addElement(name, v);
         }
 
-        public void addNamedElement(String name, RuntimeValue v) {
-            tuple.addNamedElement(name, v);
+        private void addElement(LexIdentifierToken name, RuntimeValue value) {
+            Objects.requireNonNull(value);
+
+            if (values.size() == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+            }
+            names[values.size()] = name;
+            values.add(value);
         }
 
         public ImmutableTuple build() {
-            return tuple;
+            return new ImmutableTuple(TupleShape.of(names, values.size()), values.toArray(new RuntimeValue[0]));
         }
     }
 }
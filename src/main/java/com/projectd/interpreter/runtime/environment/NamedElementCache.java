@@ -0,0 +1,38 @@
+package com.projectd.interpreter.runtime.environment;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+
+/**
+ * Inline cache of one {@code tuple.name} access: the slot of the name in the shape of the last tuple read.
+ * A tuple of the same shape is read with an array load, one of another shape looks the slot up and replaces
+ * the cached one.
+ * <p>
+ * Each access of a compiled program owns its cache, so caches are not shared between threads.
+ */
+public final class NamedElementCache {
+
+    private final LexIdentifierToken name;
+    private TupleShape shape;
+    private int slot;
+
+    public NamedElementCache(LexIdentifierToken name) {
+        this.name = name;
+    }
+
+    public RuntimeValue get(ImmutableTuple tuple) {
+        if (tuple.getShape() != shape) {
+            int newSlot = tuple.getShape().slotOf(name.getSymbolId());
+            if (newSlot < 0) {
+                return tuple.getNamedElement(name);
+            }
+            slot = newSlot;
+            shape = tuple.getShape();
+        }
+        return tuple.getSlot(slot);
+    }
+
+    @Override
+    public String toString() {
+        return name.getIdentifier();
+    }
+}
@@ -0,0 +1,116 @@
+package com.projectd.interpreter.runtime.environment;
+
+import java.util.Arrays;
+
+/**
+ * Immutable vector of values as a trie of 32-wide nodes with the last elements in a separate tail, as the vectors of
+ * Clojure. Appending copies the tail and, once in 32 appends, a path of the trie; setting copies the path to the
+ * element. Either way the new vector shares every other node with the old one, which stays valid.
+ * <p>
+ * Elements may be null. Indexes start at 0.
+ */
+final class PersistentVector {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    static final PersistentVector EMPTY = new PersistentVector(0, BITS, new Object[WIDTH], new Object[0]);
+
+    private final int count;
+    /** Bits of the index consumed by the levels above the leaves */
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int count, int shift, Object[] root, Object[] tail) {
+        this.count = count;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    int size() {
+        return count;
+    }
+
+    RuntimeValue get(int i) {
+        return (RuntimeValue) leafOf(i)[i & MASK];
+    }
+
+    PersistentVector append(RuntimeValue value) {
+        if (count - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = value;
+            return new PersistentVector(count + 1, shift, root, newTail);
+        }
+
+        Object[] newRoot;
+        int newShift = shift;
+        if ((count >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector(count + 1, newShift, newRoot, new Object[]{value});
+    }
+
+    PersistentVector set(int i, RuntimeValue value) {
+        if (i >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[i & MASK] = value;
+            return new PersistentVector(count, shift, root, newTail);
+        }
+        return new PersistentVector(count, shift, assoc(shift, root, i, value), tail);
+    }
+
+    private int tailOffset() {
+        return count < WIDTH ? 0 : ((count - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafOf(int i) {
+        if (i >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(i >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int child = ((count - 1) >>> level) & MASK;
+        Object[] node = parent.clone();
+        if (level == BITS) {
+            node[child] = tailNode;
+        } else {
+            Object[] subtree = (Object[]) parent[child];
+            node[child] = subtree != null ? pushTail(level - BITS, subtree, tailNode) : newPath(level - BITS, tailNode);
+        }
+        return node;
+    }
+
+    private static Object[] newPath(int level, Object[] leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+        Object[] node = new Object[WIDTH];
+        node[0] = newPath(level - BITS, leaf);
+        return node;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int i, RuntimeValue value) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[i & MASK] = value;
+        } else {
+            int child = (i >>> level) & MASK;
+            copy[child] = assoc(level - BITS, (Object[]) node[child], i, value);
+        }
+        return copy;
+    }
+}
@@ -3,59 +3,125 @@ package com.projectd.interpreter.runtime.environment;
 import com.projectd.interpreter.lex.token.LexIdentifierToken;
 import com.projectd.interpreter.shared.exception.RuntimeExceptionFactory;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 
+/**
+ * Stack of the scopes of the running program, the innermost one on top.
+ * <p>
+ * Variables are found by symbol from the innermost scope outwards. Variables resolved before execution to a
+ * depth and a slot of a {@link RuntimeFrame} are read from the frame directly; until the slot is declared the
+ * lookup by symbol continues below the frame.
+ * <p>
+ * Flushed scopes are cleared and left above the top of the stack, the next scope nested at that depth reuses them.
+ */
 public class RuntimeEnvironment {
 
-    private final Deque<RuntimeScope> scopes = new ArrayDeque<>();
+    private RuntimeScope[] scopes = new RuntimeScope[16];
+    private int top = -1;
 
     public RuntimeEnvironment() {
-        scopes.push(new RuntimeScope());
+        push(new RuntimeScope());
     }
 
     public void nestScope() {
-        scopes.push(new RuntimeScope());
+        RuntimeScope flushed = top + 1 < scopes.length ? scopes[top + 1] : null;
+        if (flushed != null && !(flushed instanceof RuntimeFrame)) {
+            top++;
+        } else {
+            push(new RuntimeScope());
+        }
+    }
+
+    /** @param slotSymbolIds symbol id of every slot of the frame */
+    public void nestFrame(int[] slotSymbolIds) {
+        RuntimeScope flushed = top + 1 < scopes.length ? scopes[top + 1] : null;
+        if (flushed instanceof RuntimeFrame frame && frame.hasLayout(slotSymbolIds)) {
+            top++;
+        } else {
+            push(new RuntimeFrame(slotSymbolIds));
+        }
     }
 
     public void flushScope() {
-        scopes.pop();
+        scopes[top--].clear();
     }
 
     public void assignVariable(LexIdentifierToken identifierToken, RuntimeValue value) {
-        String identifier = identifierToken.getIdentifier();
-        for (RuntimeScope scope : scopes) {
-            if (scope.hasIdentifier(identifier)) {
-                scope.storeValueByIdentifier(identifier, value);
-                return;
-            }
+        assignVariable(identifierToken, top, value);
+    }
+
+    /** Assigns a variable resolved to the slot of the frame {@code depth} scopes below the innermost one */
+    public void assignVariable(LexIdentifierToken identifierToken, int depth, int slot, RuntimeValue value) {
+        RuntimeFrame frame = (RuntimeFrame) scopes[top - depth];
+        if (frame.getSlot(slot) != null) {
+            frame.setSlot(slot, value);
+        } else {
+            assignVariable(identifierToken, top - depth - 1, value);
         }
-        throw RuntimeExceptionFactory.undefinedVariable(identifier, identifierToken.getSpan());
     }
 
     public void declareVariable(LexIdentifierToken identifierToken) {
-        String identifier = identifierToken.getIdentifier();
-//        if (scopes.getFirst().hasIdentifier(identifier)) {
-//            throw RuntimeExceptionFactory.alreadyDefined(identifier, identifierToken.getSpan());
+        int symbolId = identifierToken.getSymbolId();
+//        if (scopes.getFirst().hasSymbol(symbolId)) {
+//            throw RuntimeExceptionFactory.alreadyDefined(identifierToken.getIdentifier(), identifierToken.getSpan());
 //        }
-        scopes.getFirst().storeValueByIdentifier(identifier, RuntimeValue.empty());
+        scopes[top].storeValueBySymbol(symbolId, RuntimeValue.empty());
+    }
+
+    /** Declares the variable of a slot of the innermost frame */
+    public void declareVariable(int slot) {
+        ((RuntimeFrame) scopes[top]).setSlot(slot, RuntimeValue.empty());
     }
 
     public void declareAndAssignVariable(LexIdentifierToken identifierToken, RuntimeValue value) {
-        String identifier = identifierToken.getIdentifier();
-//        if (scopes.getFirst().hasIdentifier(identifier)) {
-//            throw RuntimeExceptionFactory.alreadyDefined(identifier, identifierToken.getSpan());
+        int symbolId = identifierToken.getSymbolId();
+//        if (scopes.getFirst().hasSymbol(symbolId)) {
+//            throw RuntimeExceptionFactory.alreadyDefined(identifierToken.getIdentifier(), identifierToken.getSpan());
 //        }
-        scopes.getFirst().storeValueByIdentifier(identifier, value);
+        scopes[top].storeValueBySymbol(symbolId, value);
+    }
+
+    /** Declares the variable of a slot of the innermost frame */
+    public void declareAndAssignVariable(int slot, RuntimeValue value) {
+        ((RuntimeFrame) scopes[top]).setSlot(slot, value);
     }
 
     public RuntimeValue getVariableValue(LexIdentifierToken identifierToken) {
-        String identifier = identifierToken.getIdentifier();
-        for (RuntimeScope scope : scopes) {
-            if (scope.hasIdentifier(identifier)) {
-                return scope.getValueByIdentifier(identifier);
+        return getVariableValue(identifierToken, top);
+    }
+
+    /** Value of a variable resolved to the slot of the frame {@code depth} scopes below the innermost one */
+    public RuntimeValue getVariableValue(LexIdentifierToken identifierToken, int depth, int slot) {
+        RuntimeValue value = ((RuntimeFrame) scopes[top - depth]).getSlot(slot);
+        return value != null ? value : getVariableValue(identifierToken, top - depth - 1);
+    }
+
+    /** Looks the variable up by symbol from the scope at index {@code from} outwards */
+    private RuntimeValue getVariableValue(LexIdentifierToken identifierToken, int from) {
+        int symbolId = identifierToken.getSymbolId();
+        for (int i = from; i >= 0; i--) {
+            RuntimeValue value = scopes[i].getValueBySymbol(symbolId);
+            if (value != null) {
+                return value;
+            }
+        }
+        throw RuntimeExceptionFactory.undefinedVariable(identifierToken.getIdentifier(), identifierToken.getSpan());
+    }
+
+    private void assignVariable(LexIdentifierToken identifierToken, int from, RuntimeValue value) {
+        int symbolId = identifierToken.getSymbolId();
+        for (int i = from; i >= 0; i--) {
+            if (scopes[i].replaceValueBySymbol(symbolId, value)) {
+                return;
             }
         }
-        throw RuntimeExceptionFactory.undefinedVariable(identifier, identifierToken.getSpan());
+        throw RuntimeExceptionFactory.undefinedVariable(identifierToken.getIdentifier(), identifierToken.getSpan());
+    }
+
+    private void push(RuntimeScope scope) {
+        if (++top == scopes.length) {
+            scopes = Arrays.copyOf(scopes, scopes.length * 2);
+        }
+        scopes[top] = scope;
     }
 }
@@ -0,0 +1,83 @@
+package com.projectd.interpreter.runtime.environment;
+
+import java.util.Arrays;
+
+/**
+ * Scope whose variables have been resolved to slots before execution, the slot of a variable holds null until it is
+ * declared. Lookups by symbol, done for the variables of callers, scan the slot layout; symbols outside the layout
+ * are kept by the {@link RuntimeScope} table.
+ */
+public class RuntimeFrame extends RuntimeScope {
+
+    /** Symbol id of every slot, shared by the frames of the same block */
+    private final int[] slotSymbolIds;
+    private final RuntimeValue[] slots;
+
+    public RuntimeFrame(int[] slotSymbolIds) {
+        this.slotSymbolIds = slotSymbolIds;
+        this.slots = new RuntimeValue[slotSymbolIds.length];
+    }
+
+    public RuntimeValue getSlot(int slot) {
+        return slots[slot];
+    }
+
+    public void setSlot(int slot, RuntimeValue value) {
+        slots[slot] = value;
+    }
+
+    /** Whether the frame has the slots of the given layout, so it can be reused for it */
+    public boolean hasLayout(int[] slotSymbolIds) {
+        return this.slotSymbolIds == slotSymbolIds;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, null);
+        super.clear();
+    }
+
+    @Override
+    public RuntimeValue getValueBySymbol(int symbolId) {
+        int slot = slotOf(symbolId);
+        return slot >= 0 ? slots[slot] : super.getValueBySymbol(symbolId);
+    }
+
+    @Override
+    public void storeValueBySymbol(int symbolId, RuntimeValue value) {
+        int slot = slotOf(symbolId);
+        if (slot >= 0) {
+            slots[slot] = value;
+        } else {
+            super.storeValueBySymbol(symbolId, value);
+        }
+    }
+
+    @Override
+    public boolean replaceValueBySymbol(int symbolId, RuntimeValue value) {
+        int slot = slotOf(symbolId);
+        if (slot < 0) {
+            return super.replaceValueBySymbol(symbolId, value);
+        }
+        if (slots[slot] == null) {
+            return false;
+        }
+        slots[slot] = value;
+        return true;
+    }
+
+    @Override
+    public boolean hasSymbol(int symbolId) {
+        int slot = slotOf(symbolId);
+        return slot >= 0 ? slots[slot] != null : super.hasSymbol(symbolId);
+    }
+
+    private int slotOf(int symbolId) {
+        for (int slot = 0; slot < slotSymbolIds.length; slot++) {
+            if (slotSymbolIds[slot] == symbolId) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+}
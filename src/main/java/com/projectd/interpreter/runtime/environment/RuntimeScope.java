@@ -1,21 +1,100 @@
 package com.projectd.interpreter.runtime.environment;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
+/**
+ * Variables of one scope, keyed by the symbol ids of their identifiers.
+ * <p>
+ * Open addressing with linear probing over parallel arrays, so lookups compare ints and never hash strings.
+ * The arrays are allocated by the first store, scopes without variables cost a single object.
+ */
 public class RuntimeScope {
 
-    private final Map<String, RuntimeValue> idValueTable = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int EMPTY_SLOT = -1;
 
-    public RuntimeValue getValueByIdentifier(String identifier) {
-        return idValueTable.get(identifier);
+    private int[] symbolIds;
+    private RuntimeValue[] values;
+    private int size = 0;
+
+    public RuntimeValue getValueBySymbol(int symbolId) {
+        if (size == 0) {
+            return null;
+        }
+        int slot = findSlot(symbolId);
+        return symbolIds[slot] == symbolId ? values[slot] : null;
+    }
+
+    public void storeValueBySymbol(int symbolId, RuntimeValue value) {
+        if (symbolIds == null) {
+            symbolIds = newSymbolIds(INITIAL_CAPACITY);
+            values = new RuntimeValue[INITIAL_CAPACITY];
+        }
+        int slot = findSlot(symbolId);
+        if (symbolIds[slot] == EMPTY_SLOT) {
+            if ((size + 1) * 2 > symbolIds.length) {
+                grow();
+                slot = findSlot(symbolId);
+            }
+            symbolIds[slot] = symbolId;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /** Stores the value only if the symbol is declared in this scope */
+    public boolean replaceValueBySymbol(int symbolId, RuntimeValue value) {
+        if (size == 0) {
+            return false;
+        }
+        int slot = findSlot(symbolId);
+        if (symbolIds[slot] != symbolId) {
+            return false;
+        }
+        values[slot] = value;
+        return true;
+    }
+
+    /** Removes every variable, keeping the allocated table */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(symbolIds, EMPTY_SLOT);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    public boolean hasSymbol(int symbolId) {
+        return size != 0 && symbolIds[findSlot(symbolId)] == symbolId;
+    }
+
+    /** @return slot holding the symbol, or the empty slot where it would be inserted */
+    private int findSlot(int symbolId) {
+        int mask = symbolIds.length - 1;
+        int slot = symbolId & mask;
+        while (symbolIds[slot] != symbolId && symbolIds[slot] != EMPTY_SLOT) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
     }
 
-    public void storeValueByIdentifier(String identifier, RuntimeValue value) {
-        idValueTable.put(identifier, value);
+    private void grow() {
+        int[] oldSymbolIds = symbolIds;
+        RuntimeValue[] oldValues = values;
+        symbolIds = newSymbolIds(oldSymbolIds.length * 2);
+        values = new RuntimeValue[oldValues.length * 2];
+        for (int i = 0; i < oldSymbolIds.length; i++) {
+            if (oldSymbolIds[i] != EMPTY_SLOT) {
+                int slot = findSlot(oldSymbolIds[i]);
+                symbolIds[slot] = oldSymbolIds[i];
+                values[slot] = oldValues[i];
+            }
+        }
     }
 
-    public boolean hasIdentifier(String identifier) {
-        return idValueTable.containsKey(identifier);
+    private static int[] newSymbolIds(int capacity) {
+        int[] symbolIds = new int[capacity];
+        Arrays.fill(symbolIds, EMPTY_SLOT);
+        return symbolIds;
     }
 }
@@ -2,26 +2,85 @@ package com.projectd.interpreter.runtime.environment;
 
 import com.projectd.interpreter.lex.token.LexLiteralToken;
 
+/**
+ * Value of the D runtime.
+ * <p>
+ * Integers, reals and booleans are kept unboxed in a {@code long}: the int itself, the bits of the double or 0 and 1.
+ * Other types reference their object. {@code empty}, both booleans and the small integers are shared instances,
+ * so the arithmetic on them allocates nothing. {@link #getValue()} boxes primitives on demand.
+ * <p>
+ * Long strings made by {@link #concatenate} are kept as a {@link StringRope} until they are read.
+ */
 public class RuntimeValue {
 
+    private static final int SMALL_INTEGER_MIN = -128;
+    private static final int SMALL_INTEGER_MAX = 1023;
+    private static final RuntimeValue[] SMALL_INTEGERS = new RuntimeValue[SMALL_INTEGER_MAX - SMALL_INTEGER_MIN + 1];
+
+    private static final RuntimeValue EMPTY = new RuntimeValue(RuntimeValueType.EMPTY, 0, null);
+    private static final RuntimeValue TRUE = new RuntimeValue(RuntimeValueType.BOOLEAN, 1, null);
+    private static final RuntimeValue FALSE = new RuntimeValue(RuntimeValueType.BOOLEAN, 0, null);
+
+    static {
+        for (int i = 0; i < SMALL_INTEGERS.length; i++) {
+            SMALL_INTEGERS[i] = new RuntimeValue(RuntimeValueType.INTEGER, SMALL_INTEGER_MIN + i, null);
+        }
+    }
+
     private final RuntimeValueType type;
-    private final Object value;
+    /** Integer, bits of a real or boolean as 0 or 1 */
+    private final long bits;
+    /** String or rope, array, tuple or function */
+    private final Object reference;
 
-    private RuntimeValue(RuntimeValueType type, Object value) {
+    private RuntimeValue(RuntimeValueType type, long bits, Object reference) {
         this.type = type;
-        this.value = value;
+        this.bits = bits;
+        this.reference = reference;
     }
 
     public RuntimeValueType getType() {
         return type;
     }
 
+    /** @return the value as an object, integers, reals and booleans are boxed and ropes flattened */
     public Object getValue() {
-        return value;
+        if (reference instanceof StringRope rope) {
+            return rope.toString();
+        }
+        if (reference != null) {
+            return reference;
+        }
+        return switch (type) {
+            case INTEGER -> (int) bits;
+            case REAL -> Double.longBitsToDouble(bits);
+            case BOOLEAN -> bits != 0;
+            default -> null;
+        };
+    }
+
+    /** Only for INTEGER values */
+    public int asInt() {
+        return (int) bits;
+    }
+
+    /** Only for REAL values */
+    public double asReal() {
+        return Double.longBitsToDouble(bits);
+    }
+
+    /** Only for INTEGER and REAL values */
+    public double asNumber() {
+        return type == RuntimeValueType.INTEGER ? (int) bits : Double.longBitsToDouble(bits);
+    }
+
+    /** Only for BOOLEAN values */
+    public boolean asBoolean() {
+        return bits != 0;
     }
 
     public static RuntimeValue empty() {
-        return new RuntimeValue(RuntimeValueType.EMPTY, null);
+        return EMPTY;
     }
 
     public static RuntimeValue ofValue(Object obj) {
@@ -29,39 +88,65 @@ public class RuntimeValue {
             throw new IllegalArgumentException("Cannot construct RuntimeValue from null, for EMPTY use static empty() method");
         }
         if (obj instanceof Boolean bool) {
-            return new RuntimeValue(RuntimeValueType.BOOLEAN, bool);
+            return ofBoolean(bool);
         } else if (obj instanceof Integer integer) {
-            return new RuntimeValue(RuntimeValueType.INTEGER, integer);
+            return ofInt(integer);
         } else if (obj instanceof Double doubl) {
-            return new RuntimeValue(RuntimeValueType.REAL, doubl);
+            return ofReal(doubl);
         } else if (obj instanceof String str) {
-            return new RuntimeValue(RuntimeValueType.STRING, str);
+            return new RuntimeValue(RuntimeValueType.STRING, 0, str);
         } else if (obj instanceof SparseArray arr) {
-            return new RuntimeValue(RuntimeValueType.ARRAY, arr);
+            return new RuntimeValue(RuntimeValueType.ARRAY, 0, arr);
         } else if (obj instanceof ImmutableTuple tuple) {
-            return new RuntimeValue(RuntimeValueType.TUPLE, tuple);
+            return new RuntimeValue(RuntimeValueType.TUPLE, 0, tuple);
         } else if (obj instanceof RuntimeFunction func) {
-            return new RuntimeValue(RuntimeValueType.FUNCTION, func);
+            return new RuntimeValue(RuntimeValueType.FUNCTION, 0, func);
         } else {
             throw new IllegalArgumentException("Cannot construct RuntimeValue from object " + obj.toString());
         }
     }
 
+    public static RuntimeValue ofInt(int value) {
+        if (value >= SMALL_INTEGER_MIN && value <= SMALL_INTEGER_MAX) {
+            return SMALL_INTEGERS[value - SMALL_INTEGER_MIN];
+        }
+        return new RuntimeValue(RuntimeValueType.INTEGER, value, null);
+    }
+
+    public static RuntimeValue ofReal(double value) {
+        return new RuntimeValue(RuntimeValueType.REAL, Double.doubleToRawLongBits(value), null);
+    }
+
+    public static RuntimeValue ofBoolean(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    /** Only for STRING values */
+    public static RuntimeValue concatenate(RuntimeValue first, RuntimeValue second) {
+        if ((long) StringRope.lengthOf(first.reference) + StringRope.lengthOf(second.reference) < StringRope.MIN_LENGTH) {
+            return new RuntimeValue(RuntimeValueType.STRING, 0, first.reference.toString() + second.reference);
+        }
+        return new RuntimeValue(RuntimeValueType.STRING, 0, new StringRope(first.reference, second.reference));
+    }
+
     public static RuntimeValue ofLiteral(LexLiteralToken token) {
-        RuntimeValueType typ;
         switch (token.getType()) {
-            case INT -> typ = RuntimeValueType.INTEGER;
-            case REAL -> typ = RuntimeValueType.REAL;
-            case STRING -> typ = RuntimeValueType.STRING;
-            case BOOLEAN -> typ = RuntimeValueType.BOOLEAN;
+            case INT, REAL, STRING, BOOLEAN -> {
+                return ofValue(token.getValue());
+            }
             default -> throw new IllegalStateException();
         }
-        return new RuntimeValue(typ, token.getValue());
     }
 
     @Override
     public String toString() {
-        return type == RuntimeValueType.EMPTY ? "empty" : value.toString();
+        return switch (type) {
+            case EMPTY -> "empty";
+            case INTEGER -> Integer.toString((int) bits);
+            case REAL -> Double.toString(Double.longBitsToDouble(bits));
+            case BOOLEAN -> Boolean.toString(bits != 0);
+            default -> reference.toString();
+        };
     }
 
     public enum RuntimeValueType {
@@ -1,75 +1,366 @@
 package com.projectd.interpreter.runtime.environment;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * Array of the D runtime, indexed from 1; unset indexes read as empty.
+ * <p>
+ * Elements are kept in a Java array while the indexes stay dense. An array whose indexes 1 to its length are all
+ * integers or all reals keeps them unboxed in an {@code int[]} or a {@code double[]}; writing a value of another
+ * type or leaving an index unset generalises it to a {@code RuntimeValue[]}, where unset indexes are nulls.
+ * A write far past the highest index, as set by the {@link SparseArrayOptions}, moves the elements to a map.
+ * <p>
+ * Concatenations longer than {@link SparseArrayOptions#getMinVectorLength()} give a {@link PersistentVector}, which
+ * a concatenation with a vector on the left shares instead of copying, so growing an array by {@code arr + [x]} is
+ * amortised constant time. Writes to a vector copy the path to the element and leave the vectors shared with
+ * other arrays unchanged. Apart from the vector, layouts are only ever generalised.
+ */
 public class SparseArray {
 
-    private final Map<Integer, RuntimeValue> map;
+    /** Storage of the elements, from the most specialised */
+    enum Layout {
+        INTEGERS,
+        REALS,
+        VALUES,
+        VECTOR,
+        MAP
+    }
+
+    private static final RuntimeValue[] NO_ELEMENTS = new RuntimeValue[0];
+
+    private final SparseArrayOptions options;
+    private Layout layout;
+    /** Element of index i at i-1 in the array of the layout */
+    private int[] integers;
+    private double[] reals;
+    private RuntimeValue[] elements;
+    private PersistentVector vector;
+    /** Highest index set */
+    private int length;
+    /** Elements by index in the map layout */
+    private Map<Integer, RuntimeValue> map;
 
     public SparseArray() {
-        map = new HashMap<>();
+        this(SparseArrayOptions.DEFAULT);
+    }
+
+    public SparseArray(SparseArrayOptions options) {
+        this.options = options;
+        this.layout = Layout.VALUES;
+        this.elements = NO_ELEMENTS;
     }
 
     public SparseArray(Map<Integer, RuntimeValue> map) {
+        this.options = SparseArrayOptions.DEFAULT;
+        this.layout = Layout.MAP;
         this.map = map;
+        this.length = map.keySet().stream().max(Integer::compareTo).orElse(0);
     }
 
     public RuntimeValue get(RuntimeValue index) {
         if (index.getType() != RuntimeValue.RuntimeValueType.INTEGER) {
             throw new IllegalStateException();
         }
+        return get(index.asInt());
+    }
 
-        Integer i = (Integer) index.getValue();
+    public RuntimeValue get(int i) {
         assertIndexRange(i);
-        return map.getOrDefault(i, RuntimeValue.empty());
+        switch (layout) {
+            case INTEGERS -> {
+                return i <= length ? RuntimeValue.ofInt(integers[i - 1]) : RuntimeValue.empty();
+            }
+            case REALS -> {
+                return i <= length ? RuntimeValue.ofReal(reals[i - 1]) : RuntimeValue.empty();
+            }
+            case VALUES -> {
+                RuntimeValue value = i <= length ? elements[i - 1] : null;
+                return value != null ? value : RuntimeValue.empty();
+            }
+            case VECTOR -> {
+                RuntimeValue value = i <= length ? vector.get(i - 1) : null;
+                return value != null ? value : RuntimeValue.empty();
+            }
+            default -> {
+                return map.getOrDefault(i, RuntimeValue.empty());
+            }
+        }
     }
 
     public void set(RuntimeValue index, RuntimeValue value) {
-        Objects.requireNonNull(value);
         if (index.getType() != RuntimeValue.RuntimeValueType.INTEGER) {
             throw new IllegalStateException();
         }
+        set(index.asInt(), value);
+    }
 
-        Integer i = (Integer) index.getValue();
+    public void set(int i, RuntimeValue value) {
+        Objects.requireNonNull(value);
         assertIndexRange(i);
-        map.put(i, value);
+        if (length == 0 && i == 1 && layout == Layout.VALUES) {
+            specialiseFor(value);
+        }
+
+        switch (layout) {
+            case INTEGERS -> {
+                if (value.getType() == RuntimeValue.RuntimeValueType.INTEGER && i <= length + 1) {
+                    if (i > integers.length) {
+                        integers = Arrays.copyOf(integers, capacityFor(i, integers.length));
+                    }
+                    integers[i - 1] = value.asInt();
+                    length = Math.max(length, i);
+                    return;
+                }
+            }
+            case REALS -> {
+                if (value.getType() == RuntimeValue.RuntimeValueType.REAL && i <= length + 1) {
+                    if (i > reals.length) {
+                        reals = Arrays.copyOf(reals, capacityFor(i, reals.length));
+                    }
+                    reals[i - 1] = value.asReal();
+                    length = Math.max(length, i);
+                    return;
+                }
+            }
+            case VECTOR -> {
+                if (i <= length) {
+                    vector = vector.set(i - 1, value);
+                    return;
+                }
+                if (i - length - 1 <= options.allowedGap(length)) {
+                    while (length < i - 1) {
+                        vector = vector.append(null);
+                        length++;
+                    }
+                    vector = vector.append(value);
+                    length = i;
+                    return;
+                }
+                toMap();
+            }
+        }
+        if (layout == Layout.MAP) {
+            map.put(i, value);
+            length = Math.max(length, i);
+            return;
+        }
+
+        if (layout != Layout.VALUES) {
+            toValues();
+        }
+        if (i > elements.length) {
+            if (i - length - 1 > options.allowedGap(length)) {
+                toMap();
+                map.put(i, value);
+                length = i;
+                return;
+            }
+            elements = Arrays.copyOf(elements, capacityFor(i, elements.length));
+        }
+        elements[i - 1] = value;
+        length = Math.max(length, i);
+    }
+
+    Layout getLayout() {
+        return layout;
     }
 
     public static SparseArray concatenate(SparseArray first, SparseArray second) {
-        int maxIndex = first.map.keySet().stream()
-                .max(Integer::compareTo).orElse(0);
-        Map<Integer, RuntimeValue> newMap = new HashMap<>(first.map);
-        for (Map.Entry<Integer, RuntimeValue> entry : second.map.entrySet()) {
-            newMap.put(maxIndex + entry.getKey(), entry.getValue());
+        int offset = first.length;
+        int length = offset + second.length;
+        if (first.layout != Layout.MAP && second.layout != Layout.MAP
+                && (first.layout == Layout.VECTOR || length >= first.options.getMinVectorLength())) {
+            PersistentVector vector = first.layout == Layout.VECTOR ? first.vector : first.appendTo(PersistentVector.EMPTY);
+            return ofVector(first.options, second.appendTo(vector));
+        }
+        if (first.layout == second.layout && first.layout == Layout.INTEGERS) {
+            int[] integers = Arrays.copyOf(first.integers, length);
+            System.arraycopy(second.integers, 0, integers, offset, second.length);
+            return ofIntegers(first.options, integers);
+        }
+        if (first.layout == second.layout && first.layout == Layout.REALS) {
+            double[] reals = Arrays.copyOf(first.reals, length);
+            System.arraycopy(second.reals, 0, reals, offset, second.length);
+            return ofReals(first.options, reals);
+        }
+        if (first.layout != Layout.MAP && second.layout != Layout.MAP) {
+            RuntimeValue[] elements = new RuntimeValue[length];
+            first.copyValues(elements, 0);
+            second.copyValues(elements, offset);
+            return ofValues(first.options, elements);
         }
-        return new SparseArray(newMap);
+
+        Map<Integer, RuntimeValue> map = first.mapOfElements();
+        second.mapOfElements().forEach((index, value) -> map.put(offset + index, value));
+        return new SparseArray(map);
     }
 
     public static SparseArray fromList(List<RuntimeValue> list) {
-        SparseArray arr = new SparseArray();
-        for (int i = 0; i < list.size(); i++) {
-            arr.map.put(i+1, list.get(i));
+        RuntimeValue.RuntimeValueType type = list.isEmpty() ? null : list.get(0).getType();
+        for (RuntimeValue value : list) {
+            if (value.getType() != type) {
+                type = null;
+                break;
+            }
+        }
+
+        if (type == RuntimeValue.RuntimeValueType.INTEGER) {
+            int[] integers = new int[list.size()];
+            for (int i = 0; i < integers.length; i++) {
+                integers[i] = list.get(i).asInt();
+            }
+            return ofIntegers(SparseArrayOptions.DEFAULT, integers);
+        }
+        if (type == RuntimeValue.RuntimeValueType.REAL) {
+            double[] reals = new double[list.size()];
+            for (int i = 0; i < reals.length; i++) {
+                reals[i] = list.get(i).asReal();
+            }
+            return ofReals(SparseArrayOptions.DEFAULT, reals);
         }
-        return arr;
+        return ofValues(SparseArrayOptions.DEFAULT, list.toArray(NO_ELEMENTS));
     }
 
-    private static void assertIndexRange(Integer i) {
+    private static SparseArray ofIntegers(SparseArrayOptions options, int[] integers) {
+        SparseArray array = new SparseArray(options);
+        array.layout = Layout.INTEGERS;
+        array.elements = null;
+        array.integers = integers;
+        array.length = integers.length;
+        return array;
+    }
+
+    private static SparseArray ofReals(SparseArrayOptions options, double[] reals) {
+        SparseArray array = new SparseArray(options);
+        array.layout = Layout.REALS;
+        array.elements = null;
+        array.reals = reals;
+        array.length = reals.length;
+        return array;
+    }
+
+    private static SparseArray ofValues(SparseArrayOptions options, RuntimeValue[] elements) {
+        SparseArray array = new SparseArray(options);
+        array.elements = elements;
+        array.length = elements.length;
+        return array;
+    }
+
+    private static SparseArray ofVector(SparseArrayOptions options, PersistentVector vector) {
+        SparseArray array = new SparseArray(options);
+        array.layout = Layout.VECTOR;
+        array.elements = null;
+        array.vector = vector;
+        array.length = vector.size();
+        return array;
+    }
+
+    private static void assertIndexRange(int i) {
         if (i < 1) {
             throw new IndexOutOfBoundsException("Array index must be greater than 0");
         }
     }
 
+    /** Picks the layout of an empty array by the type of its first element */
+    private void specialiseFor(RuntimeValue value) {
+        if (value.getType() == RuntimeValue.RuntimeValueType.INTEGER) {
+            layout = Layout.INTEGERS;
+            integers = new int[Math.max(elements.length, 8)];
+            elements = null;
+        } else if (value.getType() == RuntimeValue.RuntimeValueType.REAL) {
+            layout = Layout.REALS;
+            reals = new double[Math.max(elements.length, 8)];
+            elements = null;
+        }
+    }
+
+    /** Grows by half, as ArrayList does, which bounds the unused slots of large arrays */
+    private static int capacityFor(int index, int capacity) {
+        return Math.max(index, capacity + (capacity >> 1));
+    }
+
+    /** @return element of index i+1 of an array layout, null if it is unset */
+    private RuntimeValue valueAt(int i) {
+        return switch (layout) {
+            case INTEGERS -> RuntimeValue.ofInt(integers[i]);
+            case REALS -> RuntimeValue.ofReal(reals[i]);
+            case VECTOR -> vector.get(i);
+            default -> elements[i];
+        };
+    }
+
+    private void copyValues(RuntimeValue[] target, int offset) {
+        if (layout == Layout.VALUES) {
+            System.arraycopy(elements, 0, target, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            target[offset + i] = valueAt(i);
+        }
+    }
+
+    /** @return the vector with the elements of an array layout appended, unset ones as nulls */
+    private PersistentVector appendTo(PersistentVector target) {
+        PersistentVector result = target;
+        for (int i = 0; i < length; i++) {
+            result = result.append(valueAt(i));
+        }
+        return result;
+    }
+
+    private void toValues() {
+        RuntimeValue[] values = new RuntimeValue[Math.max(length, 8)];
+        copyValues(values, 0);
+        elements = values;
+        integers = null;
+        reals = null;
+        vector = null;
+        layout = Layout.VALUES;
+    }
+
+    private void toMap() {
+        map = mapOfElements();
+        integers = null;
+        reals = null;
+        elements = null;
+        vector = null;
+        layout = Layout.MAP;
+    }
+
+    /** @return a new map of the set elements */
+    private Map<Integer, RuntimeValue> mapOfElements() {
+        if (layout == Layout.MAP) {
+            return new HashMap<>(map);
+        }
+        Map<Integer, RuntimeValue> result = new HashMap<>();
+        for (int i = 0; i < length; i++) {
+            RuntimeValue value = valueAt(i);
+            if (value != null) {
+                result.put(i + 1, value);
+            }
+        }
+        return result;
+    }
+
+    /** Set elements as {@code index=value} in the order of the indexes */
     @Override
     public String toString() {
         StringBuilder out = new StringBuilder();
         out.append('[');
-        map.entrySet().forEach(s -> {
-            out.append(s);
-            out.append(", ");
-        });
+        if (layout != Layout.MAP) {
+            for (int i = 0; i < length; i++) {
+                RuntimeValue value = valueAt(i);
+                if (value != null) {
+                    out.append(i + 1).append('=').append(value).append(", ");
+                }
+            }
+        } else {
+            map.keySet().stream().sorted().forEach(index -> out.append(index).append('=').append(map.get(index)).append(", "));
+        }
         out.append(']');
         return out.toString();
     }
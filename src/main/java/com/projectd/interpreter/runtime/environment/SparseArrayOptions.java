@@ -0,0 +1,32 @@
+package com.projectd.interpreter.runtime.environment;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Thresholds of the dense layout of {@link SparseArray}. A write past the highest index keeps the array dense while
+ * the gap it leaves is at most {@link #maxGap} or {@link #maxGapRatio} of the length, whichever is larger;
+ * a write further away moves the array to a map for good.
+ */
+@Getter
+@Builder
+public class SparseArrayOptions {
+
+    public static final SparseArrayOptions DEFAULT = SparseArrayOptions.builder().build();
+
+    /** Indexes left unset by a single write that are always allowed in the dense layout */
+    @Builder.Default
+    private final int maxGap = 64;
+
+    /** Indexes left unset by a single write allowed in the dense layout, relative to its length */
+    @Builder.Default
+    private final double maxGapRatio = 0.5;
+
+    /** Concatenations at least this long give a persistent vector, which later concatenations share */
+    @Builder.Default
+    private final int minVectorLength = 256;
+
+    int allowedGap(int length) {
+        return Math.max(maxGap, (int) (length * maxGapRatio));
+    }
+}
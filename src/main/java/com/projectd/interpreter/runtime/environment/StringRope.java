@@ -0,0 +1,63 @@
+package com.projectd.interpreter.runtime.environment;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * String of the D runtime built by concatenation, as a binary tree over the strings concatenated. Concatenating
+ * only allocates a node; the characters are copied once, when the string is first read, and the tree is then
+ * dropped for the flat string.
+ * <p>
+ * Ropes concatenated in a loop are as deep as the loop is long, so flattening walks the tree without recursion.
+ */
+final class StringRope {
+
+    /** Concatenations shorter than this copy the characters, which is cheaper than a node for them */
+    static final int MIN_LENGTH = 64;
+
+    private final int length;
+    /** Each is a String or a StringRope, null once flattened */
+    private Object left;
+    private Object right;
+    private String flat;
+
+    StringRope(Object left, Object right) {
+        this.length = Math.addExact(lengthOf(left), lengthOf(right));
+        this.left = left;
+        this.right = right;
+    }
+
+    static int lengthOf(Object string) {
+        return string instanceof StringRope rope ? rope.length : ((String) string).length();
+    }
+
+    int length() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        if (flat == null) {
+            flat = flatten();
+            left = null;
+            right = null;
+        }
+        return flat;
+    }
+
+    private String flatten() {
+        StringBuilder out = new StringBuilder(length);
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            Object part = pending.pop();
+            if (part instanceof StringRope rope && rope.flat == null) {
+                pending.push(rope.right);
+                pending.push(rope.left);
+            } else {
+                out.append(part);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,150 @@
+package com.projectd.interpreter.runtime.environment;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Names of the elements of an {@link ImmutableTuple}, each with the slot of its last element, as later names
+ * shadow earlier ones on concatenation. The compilers resolve the shape of every tuple literal once, so the
+ * tuples built at one literal share it and {@link NamedElementCache} can compare shapes by reference. Unnamed
+ * tuples of any length share {@link #UNNAMED}.
+ * <p>
+ * A shape remembers the shapes of its last concatenations, so concatenating tuples of the same shapes again gives
+ * the same shape. The remembered shapes live as long as the shape, which lives as long as the compiled program or
+ * the tuples of the shape, and at most {@link #MAX_CONCATENATIONS} are remembered. Only the shapes of one
+ * execution remember concatenations, never {@link #UNNAMED}, so the tables need no synchronisation.
+ */
+public final class TupleShape {
+
+    static final int MAX_CONCATENATIONS = 8;
+
+    public static final TupleShape UNNAMED = new TupleShape(new LexIdentifierToken[0], new int[0]);
+
+    /** Names in the order of their slots, the symbol ids of the names are compared */
+    private final LexIdentifierToken[] names;
+    private final int[] slots;
+    /** Shapes of concatenations with this shape on the left, or on the right of an unnamed tuple */
+    private Map<Concatenation, TupleShape> concatenations;
+
+    private record Concatenation(int firstCount, TupleShape other) {
+    }
+
+    private TupleShape(LexIdentifierToken[] names, int[] slots) {
+        this.names = names;
+        this.slots = slots;
+    }
+
+    /** @param elementNames name of every element, null for unnamed elements */
+    public static TupleShape of(LexIdentifierToken[] elementNames) {
+        return of(elementNames, elementNames.length);
+    }
+
+    static TupleShape of(LexIdentifierToken[] elementNames, int count) {
+        LexIdentifierToken[] names = new LexIdentifierToken[count];
+        int[] slots = new int[count];
+        int named = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            if (elementNames[i] != null && indexOf(names, named, elementNames[i].getSymbolId()) < 0) {
+                names[named] = elementNames[i];
+                slots[named] = i;
+                named++;
+            }
+        }
+        return named == 0 ? UNNAMED : new TupleShape(reversed(names, named), reversed(slots, named));
+    }
+
+    static TupleShape concatenate(TupleShape first, int firstCount, TupleShape second) {
+        if (second == UNNAMED) {
+            return first;
+        }
+        // UNNAMED is shared by every program, so its concatenations are remembered by the other shape
+        TupleShape owner = first == UNNAMED ? second : first;
+        Concatenation key = new Concatenation(firstCount, first == UNNAMED ? UNNAMED : second);
+        TupleShape shape = owner.concatenations != null ? owner.concatenations.get(key) : null;
+        if (shape == null) {
+            shape = concatenated(first, firstCount, second);
+            if (owner.concatenations == null) {
+                owner.concatenations = new HashMap<>();
+            }
+            if (owner.concatenations.size() < MAX_CONCATENATIONS) {
+                owner.concatenations.put(key, shape);
+            }
+        }
+        return shape;
+    }
+
+    private static TupleShape concatenated(TupleShape first, int firstCount, TupleShape second) {
+        LexIdentifierToken[] names = new LexIdentifierToken[first.names.length + second.names.length];
+        int[] slots = new int[names.length];
+        int named = 0;
+        for (int i = 0; i < first.names.length; i++) {
+            if (indexOf(second.names, second.names.length, first.names[i].getSymbolId()) < 0) {
+                names[named] = first.names[i];
+                slots[named] = first.slots[i];
+                named++;
+            }
+        }
+        for (int i = 0; i < second.names.length; i++) {
+            names[named] = second.names[i];
+            slots[named] = firstCount + second.slots[i];
+            named++;
+        }
+        return new TupleShape(Arrays.copyOf(names, named), Arrays.copyOf(slots, named));
+    }
+
+    /** @return slot of the last element of the name, -1 if there is none */
+    int slotOf(int symbolId) {
+        int i = indexOf(names, names.length, symbolId);
+        return i >= 0 ? slots[i] : -1;
+    }
+
+    /** Same as {@link #slotOf(int)} for a name computed at runtime, which has no symbol id */
+    int slotOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].getIdentifier().equals(name)) {
+                return slots[i];
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(LexIdentifierToken[] names, int length, int symbolId) {
+        for (int i = 0; i < length; i++) {
+            if (names[i].getSymbolId() == symbolId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static LexIdentifierToken[] reversed(LexIdentifierToken[] array, int length) {
+        LexIdentifierToken[] result = new LexIdentifierToken[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = array[length - 1 - i];
+        }
+        return result;
+    }
+
+    private static int[] reversed(int[] array, int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = array[length - 1 - i];
+        }
+        return result;
+    }
+
+    /** Names with their slots, as the disassembler lists them */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append('{');
+        for (int i = 0; i < names.length; i++) {
+            out.append(names[i].getIdentifier()).append('=').append(slots[i] + 1).append(", ");
+        }
+        out.append('}');
+        return out.toString();
+    }
+}
@@ -0,0 +1,369 @@
+package com.projectd.interpreter.runtime.register;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer of the few class files the {@link JitCompiler} needs: a final class with methods and no fields.
+ * <p>
+ * Classes are written in version 49, which is verified by type inference, so no stack map frames are needed.
+ */
+class ClassFileWriter {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49;
+    private static final int ACC_PUBLIC_FINAL_SUPER = 0x0031;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> poolIndexes = new HashMap<>();
+    private int poolSize = 1;
+
+    private final int thisClass;
+    private final int superClass;
+    private final int[] interfaces;
+    private final List<Code> methods = new ArrayList<>();
+
+    /** Class names are internal ones, like {@code java/lang/Object} */
+    ClassFileWriter(String name, String superName, String... interfaceNames) {
+        thisClass = classRef(name);
+        superClass = classRef(superName);
+        interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaces[i] = classRef(interfaceNames[i]);
+        }
+    }
+
+    /** Adds a method, its instructions are written to the returned code */
+    Code method(int access, String name, String descriptor, int maxStack, int maxLocals) {
+        Code code = new Code(access, utf8(name), utf8(descriptor), maxStack, maxLocals);
+        methods.add(code);
+        return code;
+    }
+
+    byte[] toByteArray() {
+        int codeAttribute = utf8("Code");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolSize);
+            out.write(poolBytes.toByteArray());
+            out.writeShort(ACC_PUBLIC_FINAL_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int anInterface : interfaces) {
+                out.writeShort(anInterface);
+            }
+            out.writeShort(0);
+            out.writeShort(methods.size());
+            for (Code method : methods) {
+                method.write(out, codeAttribute);
+            }
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+
+
+    int utf8(String value) {
+        return poolEntry("U" + value, () -> {
+            pool.writeByte(CONSTANT_UTF8);
+            pool.writeUTF(value);
+        });
+    }
+
+    int integer(int value) {
+        return poolEntry("I" + value, () -> {
+            pool.writeByte(CONSTANT_INTEGER);
+            pool.writeInt(value);
+        });
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return poolEntry("C" + internalName, () -> {
+            pool.writeByte(CONSTANT_CLASS);
+            pool.writeShort(name);
+        });
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor);
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerClass = classRef(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int nameAndType = poolEntry("N" + name + ' ' + descriptor, () -> {
+            pool.writeByte(CONSTANT_NAME_AND_TYPE);
+            pool.writeShort(nameIndex);
+            pool.writeShort(descriptorIndex);
+        });
+        return poolEntry(tag + owner + '.' + name + ' ' + descriptor, () -> {
+            pool.writeByte(tag);
+            pool.writeShort(ownerClass);
+            pool.writeShort(nameAndType);
+        });
+    }
+
+    private int poolEntry(String key, PoolEntryWriter writer) {
+        Integer index = poolIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            writer.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        poolIndexes.put(key, poolSize);
+        return poolSize++;
+    }
+
+    private interface PoolEntryWriter {
+        void write() throws IOException;
+    }
+
+
+
+    /** Branch target inside a method */
+    static class Label {
+        private int position = -1;
+        /** Positions of the branch instructions waiting for the label, and of their offsets */
+        private final List<int[]> fixups = new ArrayList<>();
+    }
+
+    /** Instructions of one method */
+    class Code {
+
+        static final int ACONST_NULL = 0x01;
+        static final int ICONST_0 = 0x03;
+        static final int AALOAD = 0x32;
+        static final int AASTORE = 0x53;
+        static final int DUP = 0x59;
+        static final int IADD = 0x60;
+        static final int ISUB = 0x64;
+        static final int IMUL = 0x68;
+        static final int INEG = 0x74;
+        static final int IFEQ = 0x99;
+        static final int IFNE = 0x9a;
+        static final int IF_ICMPEQ = 0x9f;
+        static final int IF_ICMPNE = 0xa0;
+        static final int IF_ICMPLT = 0xa1;
+        static final int IF_ICMPGE = 0xa2;
+        static final int IF_ICMPGT = 0xa3;
+        static final int IF_ICMPLE = 0xa4;
+        static final int IF_ACMPEQ = 0xa5;
+        static final int IF_ACMPNE = 0xa6;
+        static final int GOTO = 0xa7;
+        static final int ARETURN = 0xb0;
+        static final int RETURN = 0xb1;
+        static final int ATHROW = 0xbf;
+
+        private static final int BIPUSH = 0x10;
+        private static final int SIPUSH = 0x11;
+        private static final int LDC_W = 0x13;
+        private static final int ILOAD = 0x15;
+        private static final int ALOAD = 0x19;
+        private static final int ISTORE = 0x36;
+        private static final int ASTORE = 0x3a;
+        private static final int GETSTATIC = 0xb2;
+        private static final int INVOKEVIRTUAL = 0xb6;
+        private static final int INVOKESPECIAL = 0xb7;
+        private static final int INVOKESTATIC = 0xb8;
+        private static final int INVOKEINTERFACE = 0xb9;
+        private static final int ANEWARRAY = 0xbd;
+        private static final int CHECKCAST = 0xc0;
+        private static final int WIDE = 0xc4;
+
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final int maxStack;
+        private final int maxLocals;
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final List<Label> labels = new ArrayList<>();
+
+        private Code(int access, int name, int descriptor, int maxStack, int maxLocals) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        int size() {
+            return code.size();
+        }
+
+        void op(int opcode) {
+            code.write(opcode);
+        }
+
+        void pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                op(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                op(BIPUSH);
+                code.write(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                op(SIPUSH);
+                writeShort(value);
+            } else {
+                op(LDC_W);
+                writeShort(integer(value));
+            }
+        }
+
+        void iload(int local) {
+            localOp(ILOAD, local);
+        }
+
+        void istore(int local) {
+            localOp(ISTORE, local);
+        }
+
+        void aload(int local) {
+            localOp(ALOAD, local);
+        }
+
+        void astore(int local) {
+            localOp(ASTORE, local);
+        }
+
+        void getStatic(String owner, String fieldName, String fieldDescriptor) {
+            op(GETSTATIC);
+            writeShort(fieldRef(owner, fieldName, fieldDescriptor));
+        }
+
+        void invokeVirtual(String owner, String methodName, String methodDescriptor) {
+            op(INVOKEVIRTUAL);
+            writeShort(methodRef(owner, methodName, methodDescriptor));
+        }
+
+        void invokeSpecial(String owner, String methodName, String methodDescriptor) {
+            op(INVOKESPECIAL);
+            writeShort(methodRef(owner, methodName, methodDescriptor));
+        }
+
+        void invokeStatic(String owner, String methodName, String methodDescriptor) {
+            op(INVOKESTATIC);
+            writeShort(methodRef(owner, methodName, methodDescriptor));
+        }
+
+        /** @param argumentSlots slots taken by the arguments, without the receiver */
+        void invokeInterface(String owner, String methodName, String methodDescriptor, int argumentSlots) {
+            op(INVOKEINTERFACE);
+            writeShort(interfaceMethodRef(owner, methodName, methodDescriptor));
+            code.write(argumentSlots + 1);
+            code.write(0);
+        }
+
+        void checkCast(String internalName) {
+            op(CHECKCAST);
+            writeShort(classRef(internalName));
+        }
+
+        void newArray(String elementInternalName) {
+            op(ANEWARRAY);
+            writeShort(classRef(elementInternalName));
+        }
+
+        /** Jump offsets are 16 bits, so methods longer than {@link Short#MAX_VALUE} cannot be written */
+        void jump(int opcode, Label label) {
+            int position = code.size();
+            op(opcode);
+            label.fixups.add(new int[]{position, code.size()});
+            writeShort(0);
+        }
+
+        void place(Label label) {
+            label.position = code.size();
+        }
+
+        private void localOp(int opcode, int local) {
+            if (local > 255) {
+                op(WIDE);
+                op(opcode);
+                writeShort(local);
+            } else {
+                op(opcode);
+                code.write(local);
+            }
+        }
+
+        private void writeShort(int value) {
+            code.write(value >>> 8);
+            code.write(value);
+        }
+
+        private void write(DataOutputStream out, int codeAttribute) throws IOException {
+            byte[] bytes = code.toByteArray();
+            patchLabels(bytes);
+
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + bytes.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+
+        Label newLabel() {
+            Label label = new Label();
+            labels.add(label);
+            return label;
+        }
+
+        private void patchLabels(byte[] bytes) {
+            for (Label label : labels) {
+                if (label.position < 0 && !label.fixups.isEmpty()) {
+                    throw new IllegalStateException("Jump to a label that is not placed");
+                }
+                for (int[] fixup : label.fixups) {
+                    int offset = label.position - fixup[0];
+                    if (offset != (short) offset) {
+                        throw new IllegalStateException("Jump offset does not fit in 16 bits");
+                    }
+                    bytes[fixup[1]] = (byte) (offset >>> 8);
+                    bytes[fixup[1] + 1] = (byte) offset;
+                }
+            }
+        }
+    }
+}
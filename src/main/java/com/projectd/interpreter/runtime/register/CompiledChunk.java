@@ -0,0 +1,13 @@
+package com.projectd.interpreter.runtime.register;
+
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+
+/** Function body translated to a JVM class by the {@link JitCompiler} */
+interface CompiledChunk {
+
+    /**
+     * Runs the body on the frame of the call, whose first registers hold the arguments
+     * @return value returned by the function, or by the interpreter if the code had to deoptimize
+     */
+    RuntimeValue run(RegisterMachine machine, RegisterFunction function, RuntimeValue[] registers);
+}
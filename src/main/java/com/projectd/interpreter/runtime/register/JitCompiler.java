@@ -0,0 +1,448 @@
+package com.projectd.interpreter.runtime.register;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.runtime.register.ClassFileWriter.Code;
+import com.projectd.interpreter.runtime.register.ClassFileWriter.Label;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the register code of a function into a JVM class implementing {@link CompiledChunk}, defined as a
+ * hidden class so it is unloaded together with the function.
+ * <p>
+ * Every register becomes a local variable of the generated method. Integer arithmetic, comparison and array
+ * indexing are inlined behind guards on the types of the operands. When a guard fails the locals are written back
+ * to the frame and the {@link RegisterMachine} resumes interpreting at the failed instruction. The remaining
+ * instructions call the same operations as the interpreter.
+ */
+class JitCompiler {
+
+    private static final String VALUE = "com/projectd/interpreter/runtime/environment/RuntimeValue";
+    private static final String VALUE_TYPE = VALUE + "$RuntimeValueType";
+    private static final String SPARSE_ARRAY = "com/projectd/interpreter/runtime/environment/SparseArray";
+    private static final String MACHINE = "com/projectd/interpreter/runtime/register/RegisterMachine";
+    private static final String FUNCTION = "com/projectd/interpreter/runtime/register/RegisterFunction";
+    private static final String CHUNK = "com/projectd/interpreter/runtime/register/RegisterChunk";
+    private static final String OPERATIONS = "com/projectd/interpreter/runtime/register/RegisterOperations";
+    private static final String COMPILED_CHUNK = "com/projectd/interpreter/runtime/register/CompiledChunk";
+    private static final String ITERATOR = "java/util/Iterator";
+    private static final String OBJECT = "java/lang/Object";
+
+    private static final String VALUE_DESCRIPTOR = "L" + VALUE + ";";
+    private static final String VALUE_TYPE_DESCRIPTOR = "L" + VALUE_TYPE + ";";
+    private static final String VALUES_DESCRIPTOR = "[" + VALUE_DESCRIPTOR;
+    private static final String RUN_DESCRIPTOR = "(L" + MACHINE + ";L" + FUNCTION + ";" + VALUES_DESCRIPTOR + ")" + VALUE_DESCRIPTOR;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int MAX_STACK = 10;
+
+    private static final int MACHINE_LOCAL = 1;
+    private static final int FUNCTION_LOCAL = 2;
+    private static final int REGISTERS_LOCAL = 3;
+    private static final int CONSTANTS_LOCAL = 4;
+    private static final int DEOPTIMIZED_PC_LOCAL = 5;
+    private static final int FIRST_REGISTER_LOCAL = 6;
+
+    /**
+     * @return compiled body, or null if the function is too large for a JVM method or the JVM rejects the class,
+     * in which case the function stays interpreted
+     */
+    public CompiledChunk compile(RegisterChunk chunk) {
+        ClassFileWriter writer = new ClassFileWriter("com/projectd/interpreter/runtime/register/JitCompiledChunk", OBJECT, COMPILED_CHUNK);
+
+        Code constructor = writer.method(ACC_PUBLIC, "<init>", "()V", 1, 1);
+        constructor.aload(0);
+        constructor.invokeSpecial(OBJECT, "<init>", "()V");
+        constructor.op(Code.RETURN);
+
+        int maxLocals = FIRST_REGISTER_LOCAL + chunk.getValueRegisters() + chunk.getIteratorRegisters();
+        Code code = writer.method(ACC_PUBLIC, "run", RUN_DESCRIPTOR, MAX_STACK, maxLocals);
+        new MethodTranslator(chunk, code).translate();
+        if (code.size() > Short.MAX_VALUE) {
+            return null;
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(writer.toByteArray(), true);
+            return (CompiledChunk) lookup.lookupClass().getDeclaredConstructor().newInstance();
+        } catch (LinkageError | ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /** Writes the run method of one chunk */
+    private static class MethodTranslator {
+
+        private final RegisterChunk chunk;
+        private final int[] registerCode;
+        private final Code code;
+        private final Label[] instructionLabels;
+        private final Label deoptimize;
+        /** Labels of the failed guards and the instructions to resume at */
+        private final List<Label> guardLabels = new ArrayList<>();
+        private final List<Integer> guardPcs = new ArrayList<>();
+
+        private MethodTranslator(RegisterChunk chunk, Code code) {
+            this.chunk = chunk;
+            this.registerCode = chunk.getCode();
+            this.code = code;
+            this.instructionLabels = new Label[registerCode.length + 1];
+            this.deoptimize = code.newLabel();
+        }
+
+        private void translate() {
+            code.aload(FUNCTION_LOCAL);
+            code.invokeVirtual(FUNCTION, "getChunk", "()L" + CHUNK + ";");
+            code.invokeVirtual(CHUNK, "getConstants", "()[L" + OBJECT + ";");
+            code.astore(CONSTANTS_LOCAL);
+            code.pushInt(0);
+            code.istore(DEOPTIMIZED_PC_LOCAL);
+            for (int i = 0; i < chunk.getValueRegisters(); i++) {
+                code.aload(REGISTERS_LOCAL);
+                code.pushInt(i);
+                code.op(Code.AALOAD);
+                code.astore(register(i));
+            }
+            for (int i = 0; i < chunk.getIteratorRegisters(); i++) {
+                code.op(Code.ACONST_NULL);
+                code.astore(iterator(i));
+            }
+
+            int pc = 0;
+            while (pc < registerCode.length) {
+                code.place(labelAt(pc));
+                RegisterOpCode op = RegisterOpCode.of(registerCode[pc]);
+                translateInstruction(op, pc);
+                pc += 1 + op.getOperands();
+            }
+
+            for (int i = 0; i < guardLabels.size(); i++) {
+                code.place(guardLabels.get(i));
+                code.pushInt(guardPcs.get(i));
+                code.istore(DEOPTIMIZED_PC_LOCAL);
+                code.jump(Code.GOTO, deoptimize);
+            }
+            translateDeoptimization();
+        }
+
+        private void translateInstruction(RegisterOpCode op, int pc) {
+            int a = operand(pc, 1);
+            int b = operand(pc, 2);
+            int c = operand(pc, 3);
+            int d = operand(pc, 4);
+            int e = operand(pc, 5);
+            int next = pc + 1 + op.getOperands();
+
+            switch (op) {
+                case LOAD_CONST -> {
+                    constant(b);
+                    code.checkCast(VALUE);
+                    code.astore(register(a));
+                }
+                case MOVE -> {
+                    code.aload(register(b));
+                    code.astore(register(a));
+                }
+                case GET_VAR -> {
+                    code.aload(MACHINE_LOCAL);
+                    constant(b);
+                    code.invokeVirtual(MACHINE, "getVariable", "(L" + OBJECT + ";)" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case SET_VAR -> {
+                    code.aload(MACHINE_LOCAL);
+                    constant(a);
+                    code.aload(register(b));
+                    code.invokeVirtual(MACHINE, "assignVariable", "(L" + OBJECT + ";" + VALUE_DESCRIPTOR + ")V");
+                }
+                case DECLARE_VAR -> {
+                    code.aload(MACHINE_LOCAL);
+                    constant(a);
+                    code.invokeVirtual(MACHINE, "declareVariable", "(L" + OBJECT + ";)V");
+                }
+                case DECLARE_VAR_SET -> {
+                    code.aload(MACHINE_LOCAL);
+                    constant(a);
+                    code.aload(register(b));
+                    code.invokeVirtual(MACHINE, "declareAndAssignVariable", "(L" + OBJECT + ";" + VALUE_DESCRIPTOR + ")V");
+                }
+
+                case ADD, SUBTRACT, MULTIPLY -> {
+                    Label failed = guard(pc);
+                    guardType(b, "INTEGER", failed);
+                    guardType(c, "INTEGER", failed);
+                    loadInteger(b);
+                    loadInteger(c);
+                    code.op(op == RegisterOpCode.ADD ? Code.IADD : op == RegisterOpCode.SUBTRACT ? Code.ISUB : Code.IMUL);
+                    code.invokeStatic(VALUE, "ofInt", "(I)" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case COMPARE -> {
+                    Label failed = guard(pc);
+                    guardType(b, "INTEGER", failed);
+                    guardType(c, "INTEGER", failed);
+                    loadInteger(b);
+                    loadInteger(c);
+                    Label isTrue = code.newLabel();
+                    Label end = code.newLabel();
+                    code.jump(comparisonOf((LexToken) chunk.getConstants()[d]), isTrue);
+                    code.pushInt(0);
+                    code.jump(Code.GOTO, end);
+                    code.place(isTrue);
+                    code.pushInt(1);
+                    code.place(end);
+                    code.invokeStatic(VALUE, "ofBoolean", "(Z)" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case INDEX -> {
+                    Label failed = guard(pc);
+                    guardType(b, "ARRAY", failed);
+                    guardType(c, "INTEGER", failed);
+                    code.aload(register(b));
+                    code.invokeVirtual(VALUE, "getValue", "()L" + OBJECT + ";");
+                    code.checkCast(SPARSE_ARRAY);
+                    code.aload(register(c));
+                    code.invokeVirtual(SPARSE_ARRAY, "get", "(" + VALUE_DESCRIPTOR + ")" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case BINARY -> {
+                    constant(d);
+                    code.aload(register(b));
+                    code.aload(register(c));
+                    code.invokeStatic(OPERATIONS, "binary", "(L" + OBJECT + ";" + VALUE_DESCRIPTOR + VALUE_DESCRIPTOR + ")" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case NEGATE -> {
+                    guardType(b, "INTEGER", guard(pc));
+                    loadInteger(b);
+                    code.op(Code.INEG);
+                    code.invokeStatic(VALUE, "ofInt", "(I)" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case UNARY -> {
+                    constant(c);
+                    code.aload(register(b));
+                    code.invokeStatic(OPERATIONS, "unary", "(L" + OBJECT + ";" + VALUE_DESCRIPTOR + ")" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case TYPE_CHECK -> {
+                    code.aload(register(b));
+                    code.pushInt(c);
+                    code.invokeStatic(OPERATIONS, "typeCheck", "(" + VALUE_DESCRIPTOR + "I)" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case TUPLE_GET -> {
+                    constant(c);
+                    code.aload(register(b));
+                    constant(d);
+                    code.invokeStatic(OPERATIONS, "tupleGet", "(L" + OBJECT + ";" + VALUE_DESCRIPTOR + "L" + OBJECT + ";)" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case READ -> {
+                    code.aload(MACHINE_LOCAL);
+                    constant(b);
+                    code.invokeVirtual(MACHINE, "read", "(L" + OBJECT + ";)" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+
+                case ARRAY -> {
+                    loadRegisters(b, c);
+                    code.invokeStatic(OPERATIONS, "array", "(" + VALUES_DESCRIPTOR + ")" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case TUPLE -> {
+                    loadRegisters(b, c);
+                    constant(d);
+                    code.invokeStatic(OPERATIONS, "tuple", "(" + VALUES_DESCRIPTOR + "L" + OBJECT + ";)" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case CALL -> {
+                    code.aload(MACHINE_LOCAL);
+                    constant(e);
+                    code.aload(register(b));
+                    loadRegisters(c, d);
+                    code.invokeVirtual(MACHINE, "call", "(L" + OBJECT + ";" + VALUE_DESCRIPTOR + VALUES_DESCRIPTOR + ")" + VALUE_DESCRIPTOR);
+                    code.astore(register(a));
+                }
+                case RETURN -> {
+                    flushScopes(b);
+                    code.aload(register(a));
+                    code.op(Code.ARETURN);
+                }
+                case PRINT -> {
+                    code.aload(MACHINE_LOCAL);
+                    loadRegisters(a, b);
+                    code.invokeVirtual(MACHINE, "print", "(" + VALUES_DESCRIPTOR + ")V");
+                }
+
+                case JUMP -> code.jump(Code.GOTO, labelAt(next + a));
+                case JUMP_IF_FALSE, JUMP_IF_TRUE -> {
+                    code.aload(register(a));
+                    constant(b);
+                    code.invokeStatic(OPERATIONS, "isTrue", "(" + VALUE_DESCRIPTOR + "L" + OBJECT + ";)Z");
+                    code.jump(op == RegisterOpCode.JUMP_IF_FALSE ? Code.IFEQ : Code.IFNE, labelAt(next + c));
+                }
+                case NEST_SCOPE -> {
+                    code.aload(MACHINE_LOCAL);
+                    code.invokeVirtual(MACHINE, "nestScope", "()V");
+                }
+                case FLUSH_SCOPES -> flushScopes(a);
+                case RANGE -> {
+                    constant(d);
+                    code.aload(register(b));
+                    code.aload(register(c));
+                    code.invokeStatic(OPERATIONS, "range", "(L" + OBJECT + ";" + VALUE_DESCRIPTOR + VALUE_DESCRIPTOR + ")L" + ITERATOR + ";");
+                    code.astore(iterator(a));
+                }
+                case FOR_NEXT, FOR_NEXT_VAR -> {
+                    Label exhausted = code.newLabel();
+                    code.aload(iterator(a));
+                    code.invokeInterface(ITERATOR, "hasNext", "()Z", 0);
+                    code.jump(Code.IFEQ, exhausted);
+                    if (op == RegisterOpCode.FOR_NEXT) {
+                        nextElement(a);
+                        code.astore(register(b));
+                    } else {
+                        code.aload(MACHINE_LOCAL);
+                        constant(b);
+                        nextElement(a);
+                        code.invokeVirtual(MACHINE, "assignVariable", "(L" + OBJECT + ";" + VALUE_DESCRIPTOR + ")V");
+                    }
+                    code.jump(Code.GOTO, labelAt(next));
+                    code.place(exhausted);
+                    code.op(Code.ACONST_NULL);
+                    code.astore(iterator(a));
+                    code.jump(Code.GOTO, labelAt(next + c));
+                }
+
+                case SET_INDEX -> {
+                    constant(d);
+                    code.aload(register(a));
+                    code.aload(register(b));
+                    code.aload(register(c));
+                    code.invokeStatic(OPERATIONS, "setIndex", "(L" + OBJECT + ";" + VALUE_DESCRIPTOR + VALUE_DESCRIPTOR + VALUE_DESCRIPTOR + ")V");
+                }
+                case ASSIGN_TO_READ -> {
+                    constant(a);
+                    code.invokeStatic(OPERATIONS, "assignToRead", "(L" + OBJECT + ";)Ljava/lang/RuntimeException;");
+                    code.op(Code.ATHROW);
+                }
+                case ASSIGN_TO_IMMUTABLE -> {
+                    constant(a);
+                    code.pushInt(b);
+                    code.invokeStatic(OPERATIONS, "assignToImmutable", "(L" + OBJECT + ";I)Ljava/lang/RuntimeException;");
+                    code.op(Code.ATHROW);
+                }
+            }
+        }
+
+        /** Writes the locals back to the frame and lets the machine continue from the failed instruction */
+        private void translateDeoptimization() {
+            code.place(deoptimize);
+            for (int i = 0; i < chunk.getValueRegisters(); i++) {
+                code.aload(REGISTERS_LOCAL);
+                code.pushInt(i);
+                code.aload(register(i));
+                code.op(Code.AASTORE);
+            }
+            code.aload(MACHINE_LOCAL);
+            code.aload(FUNCTION_LOCAL);
+            code.aload(REGISTERS_LOCAL);
+            code.pushInt(chunk.getIteratorRegisters());
+            code.newArray(ITERATOR);
+            for (int i = 0; i < chunk.getIteratorRegisters(); i++) {
+                code.op(Code.DUP);
+                code.pushInt(i);
+                code.aload(iterator(i));
+                code.op(Code.AASTORE);
+            }
+            code.iload(DEOPTIMIZED_PC_LOCAL);
+            code.invokeVirtual(MACHINE, "resume", "(L" + FUNCTION + ";" + VALUES_DESCRIPTOR + "[L" + ITERATOR + ";I)" + VALUE_DESCRIPTOR);
+            code.op(Code.ARETURN);
+        }
+
+        private Label guard(int pc) {
+            Label label = code.newLabel();
+            guardLabels.add(label);
+            guardPcs.add(pc);
+            return label;
+        }
+
+        private void guardType(int register, String type, Label failed) {
+            code.aload(register(register));
+            code.invokeVirtual(VALUE, "getType", "()" + VALUE_TYPE_DESCRIPTOR);
+            code.getStatic(VALUE_TYPE, type, VALUE_TYPE_DESCRIPTOR);
+            code.jump(Code.IF_ACMPNE, failed);
+        }
+
+        private void loadInteger(int register) {
+            code.aload(register(register));
+            code.invokeVirtual(VALUE, "asInt", "()I");
+        }
+
+        /** Pushes a new array of the consecutive registers */
+        private void loadRegisters(int first, int count) {
+            code.pushInt(count);
+            code.newArray(VALUE);
+            for (int i = 0; i < count; i++) {
+                code.op(Code.DUP);
+                code.pushInt(i);
+                code.aload(register(first + i));
+                code.op(Code.AASTORE);
+            }
+        }
+
+        private void nextElement(int iterator) {
+            code.aload(iterator(iterator));
+            code.invokeInterface(ITERATOR, "next", "()L" + OBJECT + ";", 0);
+            code.checkCast(VALUE);
+        }
+
+        private void flushScopes(int count) {
+            if (count > 0) {
+                code.aload(MACHINE_LOCAL);
+                code.pushInt(count);
+                code.invokeVirtual(MACHINE, "flushScopes", "(I)V");
+            }
+        }
+
+        private void constant(int index) {
+            code.aload(CONSTANTS_LOCAL);
+            code.pushInt(index);
+            code.op(Code.AALOAD);
+        }
+
+        private int operand(int pc, int index) {
+            return pc + index < registerCode.length ? registerCode[pc + index] : 0;
+        }
+
+        private Label labelAt(int pc) {
+            if (instructionLabels[pc] == null) {
+                instructionLabels[pc] = code.newLabel();
+            }
+            return instructionLabels[pc];
+        }
+
+        private int register(int register) {
+            return FIRST_REGISTER_LOCAL + register;
+        }
+
+        private int iterator(int iterator) {
+            return FIRST_REGISTER_LOCAL + chunk.getValueRegisters() + iterator;
+        }
+
+        private static int comparisonOf(LexToken op) {
+            return switch (op.getCode()) {
+                case LESS -> Code.IF_ICMPLT;
+                case LESS_OR_EQUAL -> Code.IF_ICMPLE;
+                case MORE -> Code.IF_ICMPGT;
+                case MORE_OR_EQUAL -> Code.IF_ICMPGE;
+                case EQUAL -> Code.IF_ICMPEQ;
+                case NOT_EQUAL -> Code.IF_ICMPNE;
+                default -> throw new IllegalStateException();
+            };
+        }
+    }
+}
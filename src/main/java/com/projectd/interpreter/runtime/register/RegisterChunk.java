@@ -0,0 +1,24 @@
+package com.projectd.interpreter.runtime.register;
+
+import lombok.Getter;
+
+/** Register code of the program or of a function body, with the size of its register files */
+@Getter
+public class RegisterChunk {
+
+    private final String name;
+    private final int[] code;
+    private final Object[] constants;
+    /** Value registers, the parameters of a function take the first ones */
+    private final int valueRegisters;
+    /** Registers holding the range iterators of for loops */
+    private final int iteratorRegisters;
+
+    public RegisterChunk(String name, int[] code, Object[] constants, int valueRegisters, int iteratorRegisters) {
+        this.name = name;
+        this.code = code;
+        this.constants = constants;
+        this.valueRegisters = valueRegisters;
+        this.iteratorRegisters = iteratorRegisters;
+    }
+}
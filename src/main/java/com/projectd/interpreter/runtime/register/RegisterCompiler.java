@@ -0,0 +1,713 @@
+package com.projectd.interpreter.runtime.register;
+
+import com.projectd.interpreter.lex.token.*;
+import com.projectd.interpreter.runtime.environment.NamedElementCache;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+import com.projectd.interpreter.runtime.environment.TupleShape;
+import com.projectd.interpreter.syntax.tree.AstGrammarNode;
+import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import com.projectd.interpreter.syntax.tree.AstTokenNode;
+
+import java.util.*;
+
+/**
+ * Compiles a syntax tree into register code for the {@link RegisterMachine}.
+ * <p>
+ * Variables that {@link VariableResolver} proves to be lexically scoped get a register of their function,
+ * the others stay in the environment. Block scopes are only opened in the environment when the block declares
+ * such a variable. Temporaries are allocated above the variables of the current block and are released after
+ * every statement; an operation writes its destination only after reading all of its operands.
+ */
+public class RegisterCompiler {
+
+    private static final Set<LexTokenCode> READ_OPERATIONS = EnumSet.of(LexTokenCode.READ_INT, LexTokenCode.READ_REAL, LexTokenCode.READ_STRING);
+    private static final int NO_REGISTER = -1;
+    private static final RuntimeValue EMPTY = RuntimeValue.empty();
+
+    public RegisterChunk compileProgram(AstNode program) {
+        assertGrammar(program, AstGrammarNodeType.PROGRAM);
+
+        Set<Integer> dynamicSymbols = new VariableResolver().resolveDynamicSymbols(program);
+        UnitCompiler compiler = new UnitCompiler("<program>", false, dynamicSymbols);
+        // Top-level variables of the environment live in its root scope
+        compiler.blocks.push(new Block(0, false));
+        for (AstNode statement : program.getChildren()) {
+            compiler.compileStatement(statement);
+            compiler.patchJumps(compiler.topLevelReturns);
+            compiler.topLevelReturns.clear();
+        }
+        compiler.emit(RegisterOpCode.RETURN, compiler.constantRegister(EMPTY), 0);
+        return compiler.toChunk();
+    }
+
+    /** Variables declared in a block, and whether the block has a scope in the environment */
+    private static class Block {
+        private final Map<Integer, Integer> registers = new HashMap<>();
+        private final int enclosingLocals;
+        private final boolean scoped;
+
+        private Block(int enclosingLocals, boolean scoped) {
+            this.enclosingLocals = enclosingLocals;
+            this.scoped = scoped;
+        }
+    }
+
+    /** Compiles the program or a function body, a function literal is compiled by a nested one */
+    private static class UnitCompiler {
+
+        private final String name;
+        private final boolean function;
+        private final Set<Integer> dynamicSymbols;
+        private int[] code = new int[64];
+        private int size = 0;
+        private final List<Object> constants = new ArrayList<>();
+        private final Map<Object, Integer> constantIndexes = new IdentityHashMap<>();
+        private final Deque<Block> blocks = new ArrayDeque<>();
+        /** Registers held by variables, temporaries start right above them */
+        private int locals = 0;
+        private int top = 0;
+        private int maxRegisters = 0;
+        private int iterators = 0;
+        private int maxIterators = 0;
+        /** Environment scopes opened in this unit around the current instruction */
+        private int scopeDepth = 0;
+        /** Jumps of top-level returns, they lead to the end of the current top-level statement */
+        private final List<Integer> topLevelReturns = new ArrayList<>();
+
+        private UnitCompiler(String name, boolean function, Set<Integer> dynamicSymbols) {
+            this.name = name;
+            this.function = function;
+            this.dynamicSymbols = dynamicSymbols;
+        }
+
+        private RegisterChunk toChunk() {
+            return new RegisterChunk(name, Arrays.copyOf(code, size), constants.toArray(), maxRegisters, maxIterators);
+        }
+
+        /** The arguments are passed in the first registers, the ones of dynamic parameters are declared in a new scope */
+        private RegisterChunk compileFunction(List<LexIdentifierToken> params, AstNode body, boolean lambda) {
+            List<AstNode> statements = lambda ? List.of() : body.getChildren();
+            boolean scoped = params.stream().anyMatch(this::isDynamic) || declaresDynamic(statements);
+            enterBlock(scoped);
+
+            List<Integer> registers = new ArrayList<>();
+            params.forEach(param -> registers.add(allocateLocal()));
+            for (int i = 0; i < params.size(); i++) {
+                if (isDynamic(params.get(i))) {
+                    emit(RegisterOpCode.DECLARE_VAR_SET, constant(params.get(i)), registers.get(i));
+                } else {
+                    blocks.peek().registers.put(params.get(i).getSymbolId(), registers.get(i));
+                }
+            }
+
+            if (lambda) {
+                emit(RegisterOpCode.RETURN, compileExpression(body), scopeDepth);
+            } else {
+                statements.forEach(this::compileStatement);
+                emit(RegisterOpCode.RETURN, constantRegister(EMPTY), scopeDepth);
+            }
+            return toChunk();
+        }
+
+
+
+        private void compileStatement(AstNode statement) {
+            assertGrammar(statement, AstGrammarNodeType.STATEMENT);
+
+            if (statement.getChildren().get(0) instanceof AstGrammarNode grammarNode) {
+                switch (grammarNode.getGrammarType()) {
+                    case ASSIGNMENT -> compileAssignment(grammarNode);
+                    case DECLARATION -> compileDeclaration(grammarNode);
+                    case PRINT -> compilePrint(grammarNode);
+                    case RETURN -> compileReturn(grammarNode);
+                    case IF -> compileIf(grammarNode);
+                    case LOOP -> compileLoop(grammarNode);
+                    default -> compileExpression(grammarNode);
+                }
+                top = locals;
+                return;
+            }
+            throw new IllegalStateException();
+        }
+
+        private void compileReturn(AstNode ret) {
+            if (function) {
+                int value = ret.getChildren().size() > 1 ? compileExpression(ret.getChildren().get(1)) : constantRegister(EMPTY);
+                emit(RegisterOpCode.RETURN, value, scopeDepth);
+            } else {
+                if (ret.getChildren().size() > 1) {
+                    compileExpression(ret.getChildren().get(1));
+                }
+                if (scopeDepth > 0) {
+                    emit(RegisterOpCode.FLUSH_SCOPES, scopeDepth);
+                }
+                topLevelReturns.add(emitJump(RegisterOpCode.JUMP));
+            }
+        }
+
+        private void compileIf(AstNode iff) {
+            List<AstNode> children = iff.getChildren();
+            int ifToken = constant(tokenOf(children.get(0)));
+
+            int condition = compileExpression(children.get(1));
+            int toElse = emitJump(RegisterOpCode.JUMP_IF_FALSE, condition, ifToken);
+            top = locals;
+            compileBlock(children.get(3));
+            if (children.size() > 5) {
+                int toEnd = emitJump(RegisterOpCode.JUMP);
+                patchJump(toElse);
+                compileBlock(children.get(5));
+                patchJump(toEnd);
+            } else {
+                patchJump(toElse);
+            }
+        }
+
+        private void compileBlock(AstNode body) {
+            assertGrammar(body, AstGrammarNodeType.BODY);
+
+            enterBlock(declaresDynamic(body.getChildren()));
+            body.getChildren().forEach(this::compileStatement);
+            exitBlock();
+        }
+
+        private void compileLoop(AstNode loop) {
+            assertGrammar(loop, AstGrammarNodeType.LOOP);
+
+            List<AstNode> children = loop.getChildren();
+            LexToken loopToken = tokenOf(children.get(0));
+            if (loopToken.getCode() == LexTokenCode.WHILE) {
+                compileWhile(constant(loopToken), children);
+            } else if (loopToken.getCode() == LexTokenCode.FOR) {
+                compileFor(children);
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+        /** The condition is checked before the loop block is entered, the block lives for all the iterations */
+        private void compileWhile(int whileToken, List<AstNode> children) {
+            int condition = compileExpression(children.get(1));
+            int toEnd = emitJump(RegisterOpCode.JUMP_IF_FALSE, condition, whileToken);
+            top = locals;
+
+            List<AstNode> statements = children.get(2).getChildren().get(1).getChildren();
+            enterBlock(declaresDynamic(statements));
+            int loopStart = size;
+            statements.forEach(this::compileStatement);
+            condition = compileExpression(children.get(1));
+            emitJumpBack(RegisterOpCode.JUMP_IF_TRUE, loopStart, condition, whileToken);
+            top = locals;
+            exitBlock();
+
+            patchJump(toEnd);
+        }
+
+        /** The loop variable is declared before the borders are evaluated */
+        private void compileFor(List<AstNode> children) {
+            LexIdentifierToken identifier = (LexIdentifierToken) tokenOf(children.get(1));
+            List<AstNode> statements = children.get(7).getChildren().get(1).getChildren();
+
+            enterBlock(isDynamic(identifier) || declaresDynamic(statements));
+            int variable = declareVariable(identifier, null);
+            int iterator = iterators++;
+            maxIterators = Math.max(maxIterators, iterators);
+            int from = compileExpression(children.get(3));
+            int to = compileExpression(children.get(6));
+            emit(RegisterOpCode.RANGE, iterator, from, to, constant(tokenOf(children.get(4))));
+            top = locals;
+
+            int loopStart = size;
+            int toEnd = variable == NO_REGISTER
+                    ? emitJump(RegisterOpCode.FOR_NEXT_VAR, iterator, constant(identifier))
+                    : emitJump(RegisterOpCode.FOR_NEXT, iterator, variable);
+            statements.forEach(this::compileStatement);
+            emitJumpBack(RegisterOpCode.JUMP, loopStart);
+            patchJump(toEnd);
+
+            iterators--;
+            exitBlock();
+        }
+
+        private void compileDeclaration(AstNode declaration) {
+            for (AstNode definition : declaration.getChildren()) {
+                if (definition instanceof AstGrammarNode) {
+                    assertGrammar(definition, AstGrammarNodeType.VARIABLE_DEFINITION);
+
+                    List<AstNode> children = definition.getChildren();
+                    AstNode value = children.size() > 1 ? children.get(children.size()-1) : null;
+                    declareVariable((LexIdentifierToken) tokenOf(children.get(0)), value);
+                    top = locals;
+                }
+            }
+        }
+
+        /** @return register of the declared variable, or {@link #NO_REGISTER} if it is declared in the environment */
+        private int declareVariable(LexIdentifierToken identifier, AstNode value) {
+            if (isDynamic(identifier)) {
+                if (value != null) {
+                    emit(RegisterOpCode.DECLARE_VAR_SET, constant(identifier), compileExpression(value));
+                } else {
+                    emit(RegisterOpCode.DECLARE_VAR, constant(identifier));
+                }
+                return NO_REGISTER;
+            }
+
+            // Declaring a variable again in the same block overwrites it
+            Integer declared = blocks.peek().registers.get(identifier.getSymbolId());
+            int register = declared != null ? declared : allocateLocal();
+            if (value != null) {
+                compileExpressionInto(value, register);
+            } else {
+                emit(RegisterOpCode.LOAD_CONST, register, constant(EMPTY));
+            }
+            blocks.peek().registers.put(identifier.getSymbolId(), register);
+            return register;
+        }
+
+        /** The value is evaluated first, then the path to the assigned element */
+        private void compileAssignment(AstNode assignment) {
+            List<AstNode> children = assignment.getChildren();
+            AstNode primary = children.get(0);
+            assertGrammar(primary, AstGrammarNodeType.PRIMARY);
+            List<AstNode> path = primary.getChildren();
+            LexToken first = tokenOf(path.get(0));
+
+            if (path.size() == 1 && !READ_OPERATIONS.contains(first.getCode())) {
+                int register = registerOf(first);
+                if (register != NO_REGISTER) {
+                    compileExpressionInto(children.get(2), register);
+                } else {
+                    emit(RegisterOpCode.SET_VAR, constant(first), compileExpression(children.get(2)));
+                }
+                return;
+            }
+
+            int value = compileExpression(children.get(2));
+            if (READ_OPERATIONS.contains(first.getCode())) {
+                emit(RegisterOpCode.ASSIGN_TO_READ, constant(first));
+                return;
+            }
+            int object = compilePath(first, path.subList(1, path.size()-1), NO_REGISTER);
+
+            AstNode lastTail = path.get(path.size()-1);
+            assertGrammar(lastTail, AstGrammarNodeType.TAIL);
+            LexToken tailOp = tokenOf(lastTail.getChildren().get(0));
+            switch (tailOp.getCode()) {
+                case DOT -> emit(RegisterOpCode.ASSIGN_TO_IMMUTABLE, constant(tailOp), RuntimeValue.RuntimeValueType.TUPLE.ordinal());
+                case OPEN_SQUARE_BRACKET -> {
+                    int index = compileExpression(lastTail.getChildren().get(1));
+                    emit(RegisterOpCode.SET_INDEX, object, index, value, constant(tailOp));
+                }
+                case OPEN_ROUND_BRACKET -> emit(RegisterOpCode.ASSIGN_TO_IMMUTABLE, constant(tailOp), RuntimeValue.RuntimeValueType.FUNCTION.ordinal());
+                default -> throw new IllegalStateException();
+            }
+        }
+
+        private void compilePrint(AstNode print) {
+            List<AstNode> values = grammarChildren(print.getChildren());
+            emit(RegisterOpCode.PRINT, compileConsecutive(values), values.size());
+        }
+
+
+
+        /** @return register holding the value, the register of a variable or a new temporary */
+        private int compileExpression(AstNode expression) {
+            AstNode node = unwrap(expression);
+            if (node instanceof AstGrammarNode grammarNode && grammarNode.getGrammarType() == AstGrammarNodeType.PRIMARY
+                    && node.getChildren().size() == 1) {
+                int register = registerOf(tokenOf(node.getChildren().get(0)));
+                if (register != NO_REGISTER) {
+                    return register;
+                }
+            }
+
+            int dst = allocateTemp();
+            compileExpressionInto(node, dst);
+            return dst;
+        }
+
+        private void compileExpressionInto(AstNode expression, int dst) {
+            AstNode node = unwrap(expression);
+            if (!(node instanceof AstGrammarNode grammarNode)) {
+                throw new IllegalStateException();
+            }
+
+            List<AstNode> children = grammarNode.getChildren();
+            switch (grammarNode.getGrammarType()) {
+                case EXPRESSION, CONJUNCTION, RELATION, FACTOR, TERM -> {
+                    int left = compileExpression(children.get(0));
+                    for (int i = 1; i < children.size(); i += 2) {
+                        int right = compileExpression(children.get(i+1));
+                        int result = i + 2 < children.size() ? allocateTemp() : dst;
+                        emitBinaryOperation(tokenOf(children.get(i)), result, left, right);
+                        left = result;
+                    }
+                }
+                case UNARY -> compileUnaryInto(grammarNode, dst);
+                case BINARY_OPERATION -> {
+                    int left = compileExpression(children.get(0));
+                    int right = compileExpression(children.get(2));
+                    emitBinaryOperation(tokenOf(children.get(1)), dst, left, right);
+                }
+                case UNARY_OPERATION -> emitUnaryOperation(tokenOf(children.get(0)), dst, compileExpression(children.get(1)));
+                case TYPE_CHECK -> emit(RegisterOpCode.TYPE_CHECK, dst, compileExpression(children.get(0)), typeOf(children.get(2)).ordinal());
+                case PRIMARY -> compilePath(tokenOf(children.get(0)), children.subList(1, children.size()), dst);
+                case LITERAL -> compileLiteralInto(grammarNode, dst);
+                default -> throw new IllegalStateException();
+            }
+        }
+
+        /** Unary : [ + | - | not ] Primary [ is TypeIndicator ] */
+        private void compileUnaryInto(AstNode unary, int dst) {
+            List<AstNode> children = unary.getChildren();
+            boolean typeCheck = children.size() > 2;
+            if (children.get(0) instanceof AstTokenNode token) {
+                int operand = compileExpression(children.get(1));
+                if (typeCheck) {
+                    int result = allocateTemp();
+                    emitUnaryOperation(token.getToken(), result, operand);
+                    emit(RegisterOpCode.TYPE_CHECK, dst, result, typeOf(children.get(children.size()-1)).ordinal());
+                } else {
+                    emitUnaryOperation(token.getToken(), dst, operand);
+                }
+            } else if (typeCheck) {
+                emit(RegisterOpCode.TYPE_CHECK, dst, compileExpression(children.get(0)), typeOf(children.get(children.size()-1)).ordinal());
+            } else {
+                compileExpressionInto(children.get(0), dst);
+            }
+        }
+
+        private void emitBinaryOperation(LexToken op, int dst, int left, int right) {
+            RegisterOpCode opCode = switch (op.getCode()) {
+                case ADDITION -> RegisterOpCode.ADD;
+                case SUBTRACTION -> RegisterOpCode.SUBTRACT;
+                case MULTIPLICATION -> RegisterOpCode.MULTIPLY;
+                case LESS, LESS_OR_EQUAL, MORE, MORE_OR_EQUAL, EQUAL, NOT_EQUAL -> RegisterOpCode.COMPARE;
+                default -> RegisterOpCode.BINARY;
+            };
+            emit(opCode, dst, left, right, constant(op));
+        }
+
+        private void emitUnaryOperation(LexToken op, int dst, int operand) {
+            emit(op.getCode() == LexTokenCode.SUBTRACTION ? RegisterOpCode.NEGATE : RegisterOpCode.UNARY, dst, operand, constant(op));
+        }
+
+        /**
+         * Primary : Identifier { Tail } | readInt | readReal | readString
+         * @param dst register for the result, or {@link #NO_REGISTER} to use the register of the variable or a temporary
+         * @return register holding the result
+         */
+        private int compilePath(LexToken first, List<AstNode> tails, int dst) {
+            if (READ_OPERATIONS.contains(first.getCode())) {
+                int result = dst != NO_REGISTER ? dst : allocateTemp();
+                emit(RegisterOpCode.READ, result, constant(first));
+                return result;
+            }
+
+            int value = registerOf(first);
+            if (value == NO_REGISTER) {
+                value = tails.isEmpty() && dst != NO_REGISTER ? dst : allocateTemp();
+                emit(RegisterOpCode.GET_VAR, value, constant(first));
+            }
+            for (int i = 0; i < tails.size(); i++) {
+                int result = i == tails.size()-1 && dst != NO_REGISTER ? dst : allocateTemp();
+                compileTail(tails.get(i), value, result);
+                value = result;
+            }
+            if (dst != NO_REGISTER && value != dst) {
+                emit(RegisterOpCode.MOVE, dst, value);
+                return dst;
+            }
+            return value;
+        }
+
+        /** Tail : .IntegerLiteral | .Identifier | [Expression] | (Expression {, Expression}) */
+        private void compileTail(AstNode tail, int value, int dst) {
+            assertGrammar(tail, AstGrammarNodeType.TAIL);
+
+            List<AstNode> children = tail.getChildren();
+            LexToken tailOp = tokenOf(children.get(0));
+            switch (tailOp.getCode()) {
+                case DOT -> {
+                    LexToken element = tokenOf(children.get(1));
+                    if (element instanceof LexIdentifierToken identifier) {
+                        emit(RegisterOpCode.TUPLE_GET, dst, value, constant(tailOp), constant(new NamedElementCache(identifier)));
+                    } else if (element instanceof LexLiteralToken literal && literal.getType() == LexLiteralTokenType.INT) {
+                        int index = constantRegister(RuntimeValue.ofLiteral(literal));
+                        emit(RegisterOpCode.BINARY, dst, value, index, constant(tailOp));
+                    } else {
+                        throw new IllegalStateException();
+                    }
+                }
+                case OPEN_SQUARE_BRACKET -> emit(RegisterOpCode.INDEX, dst, value, compileExpression(children.get(1)), constant(tailOp));
+                case OPEN_ROUND_BRACKET -> {
+                    List<AstNode> args = grammarChildren(children);
+                    emit(RegisterOpCode.CALL, dst, value, compileConsecutive(args), args.size(), constant(tailOp));
+                }
+                default -> throw new IllegalStateException();
+            }
+        }
+
+        private void compileLiteralInto(AstNode literal, int dst) {
+            AstNode child = literal.getChildren().get(0);
+            if (child instanceof AstTokenNode token && token.getToken() instanceof LexLiteralToken literalToken) {
+                emit(RegisterOpCode.LOAD_CONST, dst, constant(RuntimeValue.ofLiteral(literalToken)));
+                return;
+            }
+            if (child instanceof AstGrammarNode grammarNode) {
+                switch (grammarNode.getGrammarType()) {
+                    case ARRAY_LITERAL -> {
+                        List<AstNode> elements = grammarChildren(grammarNode.getChildren());
+                        emit(RegisterOpCode.ARRAY, dst, compileConsecutive(elements), elements.size());
+                    }
+                    case TUPLE_LITERAL -> compileTupleLiteralInto(grammarNode, dst);
+                    case FUNCTION_LITERAL -> compileFunctionLiteralInto(grammarNode, dst);
+                    default -> throw new IllegalStateException();
+                }
+                return;
+            }
+            throw new IllegalStateException();
+        }
+
+        /** TupleElement : [ Identifier := ] Expression */
+        private void compileTupleLiteralInto(AstNode tupleLiteral, int dst) {
+            List<AstNode> elements = grammarChildren(tupleLiteral.getChildren());
+            LexIdentifierToken[] names = new LexIdentifierToken[elements.size()];
+            List<AstNode> values = new ArrayList<>();
+            for (int i = 0; i < elements.size(); i++) {
+                AstNode element = elements.get(i);
+                assertGrammar(element, AstGrammarNodeType.TUPLE_ELEMENT);
+
+                List<AstNode> children = element.getChildren();
+                if (children.get(0) instanceof AstTokenNode token && token.getToken() instanceof LexIdentifierToken identifier) {
+                    names[i] = identifier;
+                    values.add(children.get(2));
+                } else {
+                    names[i] = null;
+                    values.add(children.get(0));
+                }
+            }
+            emit(RegisterOpCode.TUPLE, dst, compileConsecutive(values), values.size(), constant(TupleShape.of(names)));
+        }
+
+        /** FunctionLiteral : func [ Parameters ] FunBody, the body is compiled into a chunk of its own */
+        private void compileFunctionLiteralInto(AstNode functionLiteral, int dst) {
+            List<AstNode> children = functionLiteral.getChildren();
+
+            List<LexIdentifierToken> params = new ArrayList<>();
+            if (children.get(1) instanceof AstGrammarNode grammarNode && grammarNode.getGrammarType() == AstGrammarNodeType.PARAMETERS) {
+                params = grammarNode.getChildren().stream()
+                        .map(e -> ((AstTokenNode) e).getToken())
+                        .filter(e -> e instanceof LexIdentifierToken)
+                        .map(e -> (LexIdentifierToken) e)
+                        .toList();
+            }
+
+            AstNode funBody = children.get(children.size()-1);
+            assertGrammar(funBody, AstGrammarNodeType.FUN_BODY);
+            AstNode body = funBody.getChildren().get(1);
+            LexTokenSpan span = tokenOf(children.get(0)).getSpan();
+            UnitCompiler compiler = new UnitCompiler(String.format("<func at lineNum=%d, pos=%d>", span.getLineNum(), span.getPos()), true, dynamicSymbols);
+
+            RegisterFunction function;
+            if (body instanceof AstGrammarNode grammarNode && grammarNode.getGrammarType() == AstGrammarNodeType.BODY) {
+                function = new RegisterFunction(params, grammarNode.getChildren(), false, compiler.compileFunction(params, body, false));
+            } else {
+                function = new RegisterFunction(params, List.of(body), true, compiler.compileFunction(params, body, true));
+            }
+            emit(RegisterOpCode.LOAD_CONST, dst, constant(RuntimeValue.ofValue(function)));
+        }
+
+        /** @return first of the consecutive temporaries the values are compiled into */
+        private int compileConsecutive(List<AstNode> values) {
+            int first = top;
+            top += values.size();
+            maxRegisters = Math.max(maxRegisters, top);
+            for (int i = 0; i < values.size(); i++) {
+                compileExpressionInto(values.get(i), first + i);
+            }
+            return first;
+        }
+
+
+
+        private boolean isDynamic(LexIdentifierToken identifier) {
+            return dynamicSymbols.contains(identifier.getSymbolId());
+        }
+
+        private boolean declaresDynamic(List<AstNode> statements) {
+            for (AstNode statement : statements) {
+                AstNode child = statement.getChildren().get(0);
+                if (child instanceof AstGrammarNode grammarNode && grammarNode.getGrammarType() == AstGrammarNodeType.DECLARATION) {
+                    for (AstNode definition : grammarChildren(grammarNode.getChildren())) {
+                        if (isDynamic((LexIdentifierToken) tokenOf(definition.getChildren().get(0)))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /** @return register of the variable, or {@link #NO_REGISTER} if it is looked up in the environment */
+        private int registerOf(LexToken token) {
+            if (!(token instanceof LexIdentifierToken identifier) || isDynamic(identifier)) {
+                return NO_REGISTER;
+            }
+            for (Block block : blocks) {
+                Integer register = block.registers.get(identifier.getSymbolId());
+                if (register != null) {
+                    return register;
+                }
+            }
+            throw new IllegalStateException(String.format("Variable %s is not resolved", identifier.getIdentifier()));
+        }
+
+        private void enterBlock(boolean scoped) {
+            blocks.push(new Block(locals, scoped));
+            if (scoped) {
+                emit(RegisterOpCode.NEST_SCOPE);
+                scopeDepth++;
+            }
+        }
+
+        private void exitBlock() {
+            Block block = blocks.pop();
+            locals = block.enclosingLocals;
+            top = locals;
+            if (block.scoped) {
+                scopeDepth--;
+                emit(RegisterOpCode.FLUSH_SCOPES, 1);
+            }
+        }
+
+        private int allocateLocal() {
+            int register = locals++;
+            top = locals;
+            maxRegisters = Math.max(maxRegisters, top);
+            return register;
+        }
+
+        private int allocateTemp() {
+            int register = top++;
+            maxRegisters = Math.max(maxRegisters, top);
+            return register;
+        }
+
+        private int constantRegister(Object value) {
+            int register = allocateTemp();
+            emit(RegisterOpCode.LOAD_CONST, register, constant(value));
+            return register;
+        }
+
+        private int constant(Object value) {
+            return constantIndexes.computeIfAbsent(value, v -> {
+                constants.add(v);
+                return constants.size() - 1;
+            });
+        }
+
+        private void emit(RegisterOpCode op, int... operands) {
+            if (operands.length != op.getOperands()) {
+                throw new IllegalArgumentException(String.format("%s takes %d operands", op, op.getOperands()));
+            }
+            ensureCapacity(1 + operands.length);
+            code[size++] = op.ordinal();
+            for (int operand : operands) {
+                code[size++] = operand;
+            }
+        }
+
+        /** @return position of the offset operand to patch */
+        private int emitJump(RegisterOpCode op, int... operands) {
+            int[] withOffset = Arrays.copyOf(operands, operands.length + 1);
+            emit(op, withOffset);
+            return size - 1;
+        }
+
+        private void emitJumpBack(RegisterOpCode op, int target, int... operands) {
+            int[] withOffset = Arrays.copyOf(operands, operands.length + 1);
+            withOffset[operands.length] = target - (size + 1 + withOffset.length);
+            emit(op, withOffset);
+        }
+
+        private void patchJump(int offsetPosition) {
+            code[offsetPosition] = size - (offsetPosition + 1);
+        }
+
+        private void patchJumps(List<Integer> offsetPositions) {
+            offsetPositions.forEach(this::patchJump);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > code.length) {
+                code = Arrays.copyOf(code, Math.max(code.length * 2, size + extra));
+            }
+        }
+    }
+
+
+
+    /** Strips the rule nodes of the chain expression tree that only wrap a single operand or parentheses */
+    private static AstNode unwrap(AstNode node) {
+        while (node instanceof AstGrammarNode grammarNode) {
+            List<AstNode> children = grammarNode.getChildren();
+            switch (grammarNode.getGrammarType()) {
+                case EXPRESSION, CONJUNCTION, RELATION, FACTOR, TERM -> {
+                    if (children.size() != 1) {
+                        return node;
+                    }
+                    node = children.get(0);
+                }
+                case UNARY -> {
+                    if (children.get(0) instanceof AstTokenNode token && token.getToken().getCode() == LexTokenCode.OPEN_ROUND_BRACKET) {
+                        node = children.get(1);
+                    } else if (children.size() == 1) {
+                        node = children.get(0);
+                    } else {
+                        return node;
+                    }
+                }
+                default -> {
+                    return node;
+                }
+            }
+        }
+        return node;
+    }
+
+    private static List<AstNode> grammarChildren(List<AstNode> children) {
+        return children.stream().filter(child -> child instanceof AstGrammarNode).toList();
+    }
+
+    private static RuntimeValue.RuntimeValueType typeOf(AstNode typeIndicator) {
+        assertGrammar(typeIndicator, AstGrammarNodeType.TYPE_INDICATOR);
+
+        return switch (tokenOf(typeIndicator.getChildren().get(0)).getCode()) {
+            case INT -> RuntimeValue.RuntimeValueType.INTEGER;
+            case REAL -> RuntimeValue.RuntimeValueType.REAL;
+            case BOOLEAN -> RuntimeValue.RuntimeValueType.BOOLEAN;
+            case STRING -> RuntimeValue.RuntimeValueType.STRING;
+            case EMPTY -> RuntimeValue.RuntimeValueType.EMPTY;
+            case FUNC -> RuntimeValue.RuntimeValueType.FUNCTION;
+            case OPEN_CURLY_BRACKET -> RuntimeValue.RuntimeValueType.ARRAY;
+            case OPEN_ROUND_BRACKET -> RuntimeValue.RuntimeValueType.TUPLE;
+            default -> throw new IllegalStateException();
+        };
+    }
+
+    private static LexToken tokenOf(AstNode node) {
+        if (node instanceof AstTokenNode tokenNode) {
+            return tokenNode.getToken();
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void assertGrammar(AstNode node, AstGrammarNodeType expectedType) {
+        if (!(node instanceof AstGrammarNode grammarNode) || grammarNode.getGrammarType() != expectedType) {
+            throw new IllegalStateException();
+        }
+    }
+}
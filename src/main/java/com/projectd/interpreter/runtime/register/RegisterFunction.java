@@ -0,0 +1,25 @@
+package com.projectd.interpreter.runtime.register;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.runtime.environment.RuntimeFunction;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import lombok.Getter;
+
+import java.util.List;
+
+/** Function whose body has been compiled to register code, the arguments are passed in its first registers */
+public class RegisterFunction extends RuntimeFunction {
+
+    @Getter
+    private final RegisterChunk chunk;
+
+    /* State of the JIT compilation, owned by the RegisterMachine */
+    int calls;
+    CompiledChunk compiled;
+    int deoptimizations;
+
+    public RegisterFunction(List<LexIdentifierToken> parameters, List<AstNode> body, boolean isLambda, RegisterChunk chunk) {
+        super(parameters, body, isLambda);
+        this.chunk = chunk;
+    }
+}
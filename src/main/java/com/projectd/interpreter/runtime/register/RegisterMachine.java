@@ -0,0 +1,330 @@
+package com.projectd.interpreter.runtime.register;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.lex.token.LexSymbolTable;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import com.projectd.interpreter.runtime.environment.RuntimeEnvironment;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+import com.projectd.interpreter.runtime.environment.SparseArray;
+import com.projectd.interpreter.shared.exception.RuntimeExceptionFactory;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Register machine running the code of {@link RegisterCompiler}.
+ * <p>
+ * Every call gets register files of the sizes computed for its chunk: one of values and one of range iterators.
+ * Only the variables of dynamic scoping go through the {@link RuntimeEnvironment}.
+ * <p>
+ * Functions called as many times as the JIT threshold are translated to JVM classes by the {@link JitCompiler}.
+ * Compiled code that meets operands of unexpected types resumes in the interpreter, and is dropped after
+ * {@link #MAX_DEOPTIMIZATIONS} such failures.
+ */
+public class RegisterMachine implements RuntimeExecutor {
+
+    public static final int DEFAULT_JIT_THRESHOLD = 500;
+    private static final int MAX_DEOPTIMIZATIONS = 8;
+
+    private final RegisterCompiler compiler = new RegisterCompiler();
+    private final JitCompiler jitCompiler = new JitCompiler();
+    private final RuntimeEnvironment runtime = new RuntimeEnvironment();
+    @Getter
+    private final LexSymbolTable symbolTable = new LexSymbolTable();
+    private final RuntimeIOHandler io;
+    /** Calls after which a function is compiled, 0 disables compilation */
+    private final int jitThreshold;
+    @Getter
+    private int compiledFunctions;
+
+    public RegisterMachine() {
+        this(DEFAULT_JIT_THRESHOLD);
+    }
+
+    public RegisterMachine(int jitThreshold) {
+        this(jitThreshold, RuntimeIOHandler.standard());
+    }
+
+    public RegisterMachine(int jitThreshold, RuntimeIOHandler io) {
+        this.jitThreshold = jitThreshold;
+        this.io = io;
+    }
+
+    @Override
+    public void execute(AstNode program) {
+        RegisterChunk chunk = compiler.compileProgram(program);
+        run(chunk, new RuntimeValue[chunk.getValueRegisters()], newIterators(chunk), 0);
+    }
+
+    /** Continues the call of a compiled function in the interpreter, from the instruction whose guard failed */
+    RuntimeValue resume(RegisterFunction func, RuntimeValue[] registers, Iterator<RuntimeValue>[] iterators, int pc) {
+        if (++func.deoptimizations >= MAX_DEOPTIMIZATIONS) {
+            func.compiled = null;
+        }
+        return run(func.getChunk(), registers, iterators, pc);
+    }
+
+    /** @return value returned by the chunk */
+    private RuntimeValue run(RegisterChunk chunk, RuntimeValue[] registers, Iterator<RuntimeValue>[] iterators, int pc) {
+        int[] code = chunk.getCode();
+        Object[] constants = chunk.getConstants();
+
+        while (true) {
+            switch (RegisterOpCode.of(code[pc])) {
+                case LOAD_CONST -> {
+                    registers[code[pc+1]] = (RuntimeValue) constants[code[pc+2]];
+                    pc += 3;
+                }
+                case MOVE -> {
+                    registers[code[pc+1]] = registers[code[pc+2]];
+                    pc += 3;
+                }
+                case GET_VAR -> {
+                    registers[code[pc+1]] = runtime.getVariableValue((LexIdentifierToken) constants[code[pc+2]]);
+                    pc += 3;
+                }
+                case SET_VAR -> {
+                    runtime.assignVariable((LexIdentifierToken) constants[code[pc+1]], registers[code[pc+2]]);
+                    pc += 3;
+                }
+                case DECLARE_VAR -> {
+                    runtime.declareVariable((LexIdentifierToken) constants[code[pc+1]]);
+                    pc += 2;
+                }
+                case DECLARE_VAR_SET -> {
+                    runtime.declareAndAssignVariable((LexIdentifierToken) constants[code[pc+1]], registers[code[pc+2]]);
+                    pc += 3;
+                }
+
+                case ADD -> {
+                    RuntimeValue left = registers[code[pc+2]];
+                    RuntimeValue right = registers[code[pc+3]];
+                    registers[code[pc+1]] = bothIntegers(left, right)
+                            ? RuntimeValue.ofInt(left.asInt() + right.asInt())
+                            : RegisterOperations.binary(constants[code[pc+4]], left, right);
+                    pc += 5;
+                }
+                case SUBTRACT -> {
+                    RuntimeValue left = registers[code[pc+2]];
+                    RuntimeValue right = registers[code[pc+3]];
+                    registers[code[pc+1]] = bothIntegers(left, right)
+                            ? RuntimeValue.ofInt(left.asInt() - right.asInt())
+                            : RegisterOperations.binary(constants[code[pc+4]], left, right);
+                    pc += 5;
+                }
+                case MULTIPLY -> {
+                    RuntimeValue left = registers[code[pc+2]];
+                    RuntimeValue right = registers[code[pc+3]];
+                    registers[code[pc+1]] = bothIntegers(left, right)
+                            ? RuntimeValue.ofInt(left.asInt() * right.asInt())
+                            : RegisterOperations.binary(constants[code[pc+4]], left, right);
+                    pc += 5;
+                }
+                case COMPARE -> {
+                    registers[code[pc+1]] = compare((LexToken) constants[code[pc+4]], registers[code[pc+2]], registers[code[pc+3]]);
+                    pc += 5;
+                }
+                case INDEX -> {
+                    RuntimeValue array = registers[code[pc+2]];
+                    RuntimeValue index = registers[code[pc+3]];
+                    registers[code[pc+1]] = array.getType() == RuntimeValue.RuntimeValueType.ARRAY && index.getType() == RuntimeValue.RuntimeValueType.INTEGER
+                            ? ((SparseArray) array.getValue()).get(index)
+                            : RegisterOperations.binary(constants[code[pc+4]], array, index);
+                    pc += 5;
+                }
+                case BINARY -> {
+                    registers[code[pc+1]] = RegisterOperations.binary(constants[code[pc+4]], registers[code[pc+2]], registers[code[pc+3]]);
+                    pc += 5;
+                }
+                case NEGATE -> {
+                    RuntimeValue value = registers[code[pc+2]];
+                    registers[code[pc+1]] = value.getType() == RuntimeValue.RuntimeValueType.INTEGER
+                            ? RuntimeValue.ofInt(-value.asInt())
+                            : RegisterOperations.unary(constants[code[pc+3]], value);
+                    pc += 4;
+                }
+                case UNARY -> {
+                    registers[code[pc+1]] = RegisterOperations.unary(constants[code[pc+3]], registers[code[pc+2]]);
+                    pc += 4;
+                }
+                case TYPE_CHECK -> {
+                    registers[code[pc+1]] = RegisterOperations.typeCheck(registers[code[pc+2]], code[pc+3]);
+                    pc += 4;
+                }
+                case TUPLE_GET -> {
+                    registers[code[pc+1]] = RegisterOperations.tupleGet(constants[code[pc+3]], registers[code[pc+2]], constants[code[pc+4]]);
+                    pc += 5;
+                }
+                case READ -> {
+                    registers[code[pc+1]] = read(constants[code[pc+2]]);
+                    pc += 3;
+                }
+
+                case ARRAY -> {
+                    registers[code[pc+1]] = RegisterOperations.array(valuesOf(registers, code[pc+2], code[pc+3]));
+                    pc += 4;
+                }
+                case TUPLE -> {
+                    registers[code[pc+1]] = RegisterOperations.tuple(valuesOf(registers, code[pc+2], code[pc+3]), constants[code[pc+4]]);
+                    pc += 5;
+                }
+                case CALL -> {
+                    registers[code[pc+1]] = call(constants[code[pc+5]], registers[code[pc+2]], valuesOf(registers, code[pc+3], code[pc+4]));
+                    pc += 6;
+                }
+                case RETURN -> {
+                    flushScopes(code[pc+2]);
+                    return registers[code[pc+1]];
+                }
+                case PRINT -> {
+                    print(valuesOf(registers, code[pc+1], code[pc+2]));
+                    pc += 3;
+                }
+
+                case JUMP -> pc += 2 + code[pc+1];
+                case JUMP_IF_FALSE -> pc += RegisterOperations.isTrue(registers[code[pc+1]], constants[code[pc+2]]) ? 4 : 4 + code[pc+3];
+                case JUMP_IF_TRUE -> pc += RegisterOperations.isTrue(registers[code[pc+1]], constants[code[pc+2]]) ? 4 + code[pc+3] : 4;
+                case NEST_SCOPE -> {
+                    runtime.nestScope();
+                    pc += 1;
+                }
+                case FLUSH_SCOPES -> {
+                    flushScopes(code[pc+1]);
+                    pc += 2;
+                }
+                case RANGE -> {
+                    iterators[code[pc+1]] = RegisterOperations.range(constants[code[pc+4]], registers[code[pc+2]], registers[code[pc+3]]);
+                    pc += 5;
+                }
+                case FOR_NEXT -> {
+                    Iterator<RuntimeValue> it = iterators[code[pc+1]];
+                    if (it.hasNext()) {
+                        registers[code[pc+2]] = it.next();
+                        pc += 4;
+                    } else {
+                        iterators[code[pc+1]] = null;
+                        pc += 4 + code[pc+3];
+                    }
+                }
+                case FOR_NEXT_VAR -> {
+                    Iterator<RuntimeValue> it = iterators[code[pc+1]];
+                    if (it.hasNext()) {
+                        runtime.assignVariable((LexIdentifierToken) constants[code[pc+2]], it.next());
+                        pc += 4;
+                    } else {
+                        iterators[code[pc+1]] = null;
+                        pc += 4 + code[pc+3];
+                    }
+                }
+
+                case SET_INDEX -> {
+                    RegisterOperations.setIndex(constants[code[pc+4]], registers[code[pc+1]], registers[code[pc+2]], registers[code[pc+3]]);
+                    pc += 5;
+                }
+                case ASSIGN_TO_READ -> throw RegisterOperations.assignToRead(constants[code[pc+1]]);
+                case ASSIGN_TO_IMMUTABLE -> throw RegisterOperations.assignToImmutable(constants[code[pc+1]], code[pc+2]);
+            }
+        }
+    }
+
+    /** Calls a function value, also called by compiled code */
+    RuntimeValue call(Object callOp, RuntimeValue function, RuntimeValue[] args) {
+        LexToken op = (LexToken) callOp;
+        if (function.getType() != RuntimeValue.RuntimeValueType.FUNCTION) {
+            throw RuntimeExceptionFactory.invalidOperandTypes("function call", List.of(function.getType()), op.getSpan());
+        }
+        RegisterFunction func = (RegisterFunction) function.getValue();
+        if (func.getParameters().size() != args.length) {
+            throw RuntimeExceptionFactory.argumentsMismatch(func.getParameters().size(), args.length, op.getSpan());
+        }
+        if (func.getBody().size() < 1) {
+            throw RuntimeExceptionFactory.emptyFunction(op.getSpan());
+        }
+
+        RegisterChunk chunk = func.getChunk();
+        RuntimeValue[] frame = Arrays.copyOf(args, chunk.getValueRegisters());
+        if (func.compiled == null && jitThreshold > 0 && ++func.calls == jitThreshold) {
+            func.compiled = jitCompiler.compile(chunk);
+            if (func.compiled != null) {
+                compiledFunctions++;
+            }
+        }
+        CompiledChunk compiled = func.compiled;
+        if (compiled != null) {
+            return compiled.run(this, func, frame);
+        }
+        return run(chunk, frame, newIterators(chunk), 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Iterator<RuntimeValue>[] newIterators(RegisterChunk chunk) {
+        return (Iterator<RuntimeValue>[]) new Iterator<?>[chunk.getIteratorRegisters()];
+    }
+
+    /* Environment operations of the compiled code, the names are LexIdentifierTokens */
+
+    RuntimeValue getVariable(Object name) {
+        return runtime.getVariableValue((LexIdentifierToken) name);
+    }
+
+    void assignVariable(Object name, RuntimeValue value) {
+        runtime.assignVariable((LexIdentifierToken) name, value);
+    }
+
+    void declareVariable(Object name) {
+        runtime.declareVariable((LexIdentifierToken) name);
+    }
+
+    void declareAndAssignVariable(Object name, RuntimeValue value) {
+        runtime.declareAndAssignVariable((LexIdentifierToken) name, value);
+    }
+
+    void nestScope() {
+        runtime.nestScope();
+    }
+
+    void flushScopes(int count) {
+        for (int scopes = count; scopes > 0; scopes--) {
+            runtime.flushScope();
+        }
+    }
+
+    RuntimeValue read(Object op) {
+        return io.handleRead((LexToken) op);
+    }
+
+    void print(RuntimeValue[] values) {
+        io.handlePrint(Arrays.asList(values));
+    }
+
+    private static RuntimeValue[] valuesOf(RuntimeValue[] registers, int first, int count) {
+        return Arrays.copyOfRange(registers, first, first + count);
+    }
+
+    private static RuntimeValue compare(LexToken op, RuntimeValue left, RuntimeValue right) {
+        if (!bothIntegers(left, right)) {
+            return RegisterOperations.binary(op, left, right);
+        }
+
+        int first = left.asInt();
+        int second = right.asInt();
+        return switch (op.getCode()) {
+            case LESS -> RuntimeValue.ofBoolean(first < second);
+            case LESS_OR_EQUAL -> RuntimeValue.ofBoolean(first <= second);
+            case MORE -> RuntimeValue.ofBoolean(first > second);
+            case MORE_OR_EQUAL -> RuntimeValue.ofBoolean(first >= second);
+            case EQUAL -> RuntimeValue.ofBoolean(first == second);
+            case NOT_EQUAL -> RuntimeValue.ofBoolean(first != second);
+            default -> throw new IllegalStateException();
+        };
+    }
+
+    private static boolean bothIntegers(RuntimeValue left, RuntimeValue right) {
+        return left.getType() == RuntimeValue.RuntimeValueType.INTEGER && right.getType() == RuntimeValue.RuntimeValueType.INTEGER;
+    }
+}
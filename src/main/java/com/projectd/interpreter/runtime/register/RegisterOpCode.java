@@ -0,0 +1,87 @@
+package com.projectd.interpreter.runtime.register;
+
+/**
+ * Instructions of the register machine. Every instruction is one int followed by its int operands.
+ * Registers index the value registers of the frame unless named iterator, constants index the constant pool
+ * of the chunk and jump offsets are relative to the next instruction.
+ */
+public enum RegisterOpCode {
+    /** dst, constant */
+    LOAD_CONST(2),
+    /** dst, src */
+    MOVE(2),
+    /** dst, identifier: load the variable from the environment */
+    GET_VAR(2),
+    /** identifier, src: assign the variable in the environment */
+    SET_VAR(2),
+    /** identifier: declare the variable in the innermost environment scope */
+    DECLARE_VAR(1),
+    /** identifier, src */
+    DECLARE_VAR_SET(2),
+
+    /** dst, left, right, operator */
+    ADD(4),
+    SUBTRACT(4),
+    MULTIPLY(4),
+    COMPARE(4),
+    INDEX(4),
+    BINARY(4),
+    /** dst, src, operator */
+    NEGATE(3),
+    UNARY(3),
+    /** dst, src, type ordinal */
+    TYPE_CHECK(3),
+    /** dst, src, operator, cache: named element through the inline cache of the access */
+    TUPLE_GET(4),
+    /** dst, operator */
+    READ(2),
+
+    /** dst, first, count: array of the consecutive registers */
+    ARRAY(3),
+    /** dst, first, count, shape: tuple of the consecutive registers, the shape constant is resolved once for the literal */
+    TUPLE(4),
+    /** dst, function, first argument, count, operator */
+    CALL(5),
+    /** src, scopes: flush the environment scopes opened in the function and return */
+    RETURN(2),
+    /** first, count */
+    PRINT(2),
+
+    /** offset */
+    JUMP(1),
+    /** condition, operator, offset */
+    JUMP_IF_FALSE(3),
+    JUMP_IF_TRUE(3),
+    NEST_SCOPE(0),
+    /** count */
+    FLUSH_SCOPES(1),
+    /** iterator, from, to, operator */
+    RANGE(4),
+    /** iterator, dst, offset: move the next element to dst, or jump when there is none */
+    FOR_NEXT(3),
+    /** iterator, identifier, offset: assign the next element to the variable, or jump when there is none */
+    FOR_NEXT_VAR(3),
+
+    /** array, index, value, operator */
+    SET_INDEX(4),
+    /** operator */
+    ASSIGN_TO_READ(1),
+    /** operator, type ordinal */
+    ASSIGN_TO_IMMUTABLE(2);
+
+    private static final RegisterOpCode[] VALUES = values();
+
+    private final int operands;
+
+    RegisterOpCode(int operands) {
+        this.operands = operands;
+    }
+
+    public int getOperands() {
+        return operands;
+    }
+
+    public static RegisterOpCode of(int code) {
+        return VALUES[code];
+    }
+}
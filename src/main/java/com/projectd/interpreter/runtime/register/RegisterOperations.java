@@ -0,0 +1,74 @@
+package com.projectd.interpreter.runtime.register;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.runtime.RuntimeOperationHandler;
+import com.projectd.interpreter.runtime.environment.ImmutableTuple;
+import com.projectd.interpreter.runtime.environment.NamedElementCache;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+import com.projectd.interpreter.runtime.environment.SparseArray;
+import com.projectd.interpreter.runtime.environment.TupleShape;
+import com.projectd.interpreter.shared.exception.RuntimeExceptionFactory;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Operations of the register instructions that do not touch the environment, shared by the {@link RegisterMachine}
+ * and the code of the {@link JitCompiler}. Constant operands are taken as objects, as the compiled code loads them
+ * from the constant pool of the chunk.
+ */
+final class RegisterOperations {
+
+    private static final RuntimeValue.RuntimeValueType[] TYPES = RuntimeValue.RuntimeValueType.values();
+
+    private RegisterOperations() {
+    }
+
+    public static RuntimeValue binary(Object op, RuntimeValue left, RuntimeValue right) {
+        return RuntimeOperationHandler.handleBinaryOperation((LexToken) op, left, right);
+    }
+
+    public static RuntimeValue unary(Object op, RuntimeValue value) {
+        return RuntimeOperationHandler.handleUnaryOperation((LexToken) op, value);
+    }
+
+    public static RuntimeValue typeCheck(RuntimeValue value, int type) {
+        return RuntimeOperationHandler.handleTypeCheck(value, TYPES[type]);
+    }
+
+    public static RuntimeValue tupleGet(Object op, RuntimeValue tuple, Object cache) {
+        return RuntimeOperationHandler.handleNamedTupleIndex((LexToken) op, tuple, (NamedElementCache) cache);
+    }
+
+    public static RuntimeValue array(RuntimeValue[] elements) {
+        return RuntimeValue.ofValue(SparseArray.fromList(Arrays.asList(elements)));
+    }
+
+    /** @param shape {@link TupleShape} of the literal */
+    public static RuntimeValue tuple(RuntimeValue[] elements, Object shape) {
+        return RuntimeValue.ofValue(ImmutableTuple.of((TupleShape) shape, elements));
+    }
+
+    public static boolean isTrue(RuntimeValue condition, Object op) {
+        if (condition.getType() == RuntimeValue.RuntimeValueType.BOOLEAN) {
+            return condition.asBoolean();
+        }
+        return RuntimeOperationHandler.conditionCheck((LexToken) op, condition);
+    }
+
+    public static Iterator<RuntimeValue> range(Object op, RuntimeValue from, RuntimeValue to) {
+        return RuntimeOperationHandler.integerRange((LexToken) op, from, to);
+    }
+
+    public static void setIndex(Object op, RuntimeValue array, RuntimeValue index, RuntimeValue value) {
+        RuntimeOperationHandler.setterOf((LexToken) op, array, index).accept(value);
+    }
+
+    public static RuntimeException assignToRead(Object op) {
+        return RuntimeExceptionFactory.generic("Cannot assign value to a read operation", ((LexToken) op).getSpan());
+    }
+
+    public static RuntimeException assignToImmutable(Object op, int type) {
+        return RuntimeExceptionFactory.immutableObject(TYPES[type], ((LexToken) op).getSpan());
+    }
+}
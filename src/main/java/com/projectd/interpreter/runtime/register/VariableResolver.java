@@ -0,0 +1,218 @@
+package com.projectd.interpreter.runtime.register;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenCode;
+import com.projectd.interpreter.syntax.tree.AstGrammarNode;
+import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import com.projectd.interpreter.syntax.tree.AstTokenNode;
+
+import java.util.*;
+
+/**
+ * Finds the variables that have to stay in the {@link com.projectd.interpreter.runtime.environment.RuntimeEnvironment}.
+ * <p>
+ * Scoping in D is dynamic: a function sees the variables of its callers. A name can only live in a register
+ * if every use of it, in the whole program, resolves to a declaration before it in an enclosing block of the same
+ * function. A name that is free in some function or is used before its declaration is dynamic everywhere.
+ * <p>
+ * A loop keeps its scope for all the iterations, so a name declared in a loop body is dynamic as well if the body,
+ * or the condition of a while loop, uses it before the declaration: from the second iteration on it is the loop one.
+ */
+class VariableResolver {
+
+    /** Blocks of the function being resolved, innermost last */
+    private List<Set<Integer>> blocks = new ArrayList<>();
+    /** Loops of the function being resolved */
+    private List<Loop> loops = new ArrayList<>();
+    private final Set<Integer> dynamicSymbols = new HashSet<>();
+
+    /** @return symbol ids of the variables to be looked up by name */
+    public Set<Integer> resolveDynamicSymbols(AstNode program) {
+        blocks.add(new HashSet<>());
+        program.getChildren().forEach(this::resolveStatement);
+        return dynamicSymbols;
+    }
+
+    private void resolveStatement(AstNode statement) {
+        AstNode child = statement.getChildren().get(0);
+        if (!(child instanceof AstGrammarNode grammarNode)) {
+            throw new IllegalStateException();
+        }
+
+        List<AstNode> children = grammarNode.getChildren();
+        switch (grammarNode.getGrammarType()) {
+            case DECLARATION -> {
+                for (AstNode definition : children) {
+                    if (definition instanceof AstGrammarNode) {
+                        List<AstNode> definitionChildren = definition.getChildren();
+                        if (definitionChildren.size() > 1) {
+                            resolveExpression(definitionChildren.get(definitionChildren.size()-1));
+                        }
+                        declare(definitionChildren.get(0));
+                    }
+                }
+            }
+            case ASSIGNMENT -> {
+                resolveExpression(children.get(2));
+                resolveExpression(children.get(0));
+            }
+            case IF -> {
+                resolveExpression(children.get(1));
+                resolveBlock(children.get(3));
+                if (children.size() > 5) {
+                    resolveBlock(children.get(5));
+                }
+            }
+            case LOOP -> {
+                if (tokenOf(children.get(0)).getCode() == LexTokenCode.WHILE) {
+                    resolveWhile(children);
+                } else {
+                    resolveFor(children);
+                }
+            }
+            default -> resolveExpression(grammarNode);
+        }
+    }
+
+    private void resolveWhile(List<AstNode> children) {
+        AstNode condition = children.get(1);
+        resolveExpression(condition);
+
+        Loop loop = enterLoop();
+        children.get(2).getChildren().get(1).getChildren().forEach(this::resolveStatement);
+        loop.usedBeforeDeclaration.addAll(referencedSymbols(condition));
+        exitLoop(loop);
+    }
+
+    private void resolveFor(List<AstNode> children) {
+        Loop loop = enterLoop();
+        declare(children.get(1));
+        resolveExpression(children.get(3));
+        resolveExpression(children.get(6));
+        children.get(7).getChildren().get(1).getChildren().forEach(this::resolveStatement);
+        exitLoop(loop);
+    }
+
+    private void resolveBlock(AstNode body) {
+        blocks.add(new HashSet<>());
+        body.getChildren().forEach(this::resolveStatement);
+        blocks.remove(blocks.size()-1);
+    }
+
+    private Loop enterLoop() {
+        Loop loop = new Loop(blocks.size());
+        loops.add(loop);
+        blocks.add(new HashSet<>());
+        return loop;
+    }
+
+    private void exitLoop(Loop loop) {
+        Set<Integer> loopScope = blocks.remove(blocks.size()-1);
+        loops.remove(loops.size()-1);
+        for (Integer symbolId : loop.usedBeforeDeclaration) {
+            if (loopScope.contains(symbolId)) {
+                dynamicSymbols.add(symbolId);
+            }
+        }
+    }
+
+    /** Resolves the identifiers in the expression, function literals are resolved as functions of their own */
+    private void resolveExpression(AstNode node) {
+        if (!(node instanceof AstGrammarNode grammarNode)) {
+            return;
+        }
+
+        switch (grammarNode.getGrammarType()) {
+            case PRIMARY -> {
+                if (tokenOf(node.getChildren().get(0)) instanceof LexIdentifierToken identifier) {
+                    reference(identifier);
+                }
+                node.getChildren().forEach(this::resolveExpression);
+            }
+            case TAIL -> {
+                // .Identifier names a tuple element, not a variable
+                node.getChildren().forEach(this::resolveExpression);
+            }
+            case FUNCTION_LITERAL -> resolveFunction(node.getChildren());
+            default -> node.getChildren().forEach(this::resolveExpression);
+        }
+    }
+
+    private void resolveFunction(List<AstNode> children) {
+        List<Set<Integer>> enclosingBlocks = blocks;
+        List<Loop> enclosingLoops = loops;
+        blocks = new ArrayList<>();
+        loops = new ArrayList<>();
+        blocks.add(new HashSet<>());
+
+        if (children.get(1) instanceof AstGrammarNode parameters && parameters.getGrammarType() == AstGrammarNodeType.PARAMETERS) {
+            parameters.getChildren().forEach(this::declare);
+        }
+        AstNode body = children.get(children.size()-1).getChildren().get(1);
+        if (body instanceof AstGrammarNode grammarNode && grammarNode.getGrammarType() == AstGrammarNodeType.BODY) {
+            body.getChildren().forEach(this::resolveStatement);
+        } else {
+            resolveExpression(body);
+        }
+
+        blocks = enclosingBlocks;
+        loops = enclosingLoops;
+    }
+
+    private void declare(AstNode node) {
+        if (tokenOf(node) instanceof LexIdentifierToken identifier) {
+            blocks.get(blocks.size()-1).add(identifier.getSymbolId());
+        }
+    }
+
+    private void reference(LexIdentifierToken identifier) {
+        int symbolId = identifier.getSymbolId();
+        for (int i = blocks.size()-1; i >= 0; i--) {
+            if (blocks.get(i).contains(symbolId)) {
+                // The loops between the use and the declaration may declare the name later on
+                for (Loop loop : loops) {
+                    if (loop.blockIndex > i) {
+                        loop.usedBeforeDeclaration.add(symbolId);
+                    }
+                }
+                return;
+            }
+        }
+        dynamicSymbols.add(symbolId);
+    }
+
+    private static Set<Integer> referencedSymbols(AstNode node) {
+        Set<Integer> symbols = new HashSet<>();
+        collectReferencedSymbols(node, symbols);
+        return symbols;
+    }
+
+    private static void collectReferencedSymbols(AstNode node, Set<Integer> symbols) {
+        if (node instanceof AstGrammarNode grammarNode) {
+            if (grammarNode.getGrammarType() == AstGrammarNodeType.PRIMARY
+                    && tokenOf(node.getChildren().get(0)) instanceof LexIdentifierToken identifier) {
+                symbols.add(identifier.getSymbolId());
+            }
+            node.getChildren().forEach(child -> collectReferencedSymbols(child, symbols));
+        }
+    }
+
+    /** Loop body block, with the names used in the loop that resolved outside of it */
+    private static class Loop {
+        private final int blockIndex;
+        private final Set<Integer> usedBeforeDeclaration = new HashSet<>();
+
+        private Loop(int blockIndex) {
+            this.blockIndex = blockIndex;
+        }
+    }
+
+    private static LexToken tokenOf(AstNode node) {
+        if (node instanceof AstTokenNode tokenNode) {
+            return tokenNode.getToken();
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,555 @@
+package com.projectd.interpreter.runtime.vm;
+
+import com.projectd.interpreter.lex.token.*;
+import com.projectd.interpreter.runtime.environment.NamedElementCache;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+import com.projectd.interpreter.runtime.environment.TupleShape;
+import com.projectd.interpreter.syntax.tree.AstGrammarNode;
+import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import com.projectd.interpreter.syntax.tree.AstTokenNode;
+
+import java.util.*;
+
+/**
+ * Compiles a syntax tree into bytecode chunks for the {@link VirtualMachine}.
+ * <p>
+ * The bytecode keeps the order of evaluation and the scopes of the tree walker. A return inside a function
+ * flushes the scopes opened since the call, a return on the top level only leaves the current top-level statement.
+ */
+public class BytecodeCompiler {
+
+    private static final Set<LexTokenCode> READ_OPERATIONS = EnumSet.of(LexTokenCode.READ_INT, LexTokenCode.READ_REAL, LexTokenCode.READ_STRING);
+    private static final RuntimeValue EMPTY = RuntimeValue.empty();
+
+    public Chunk compileProgram(AstNode program) {
+        assertGrammar(program, AstGrammarNodeType.PROGRAM);
+
+        ChunkCompiler compiler = new ChunkCompiler("<program>", false);
+        for (AstNode statement : program.getChildren()) {
+            compiler.compileStatement(statement);
+            compiler.patchJumps(compiler.topLevelReturns);
+            compiler.topLevelReturns.clear();
+        }
+        compiler.emit(OpCode.CONST, compiler.constant(EMPTY));
+        compiler.emit(OpCode.RETURN, 0);
+        return compiler.toChunk();
+    }
+
+    /** Compiles a single chunk, a function literal is compiled by a nested one */
+    private static class ChunkCompiler {
+
+        private final String name;
+        private final boolean function;
+        private int[] code = new int[64];
+        private int size = 0;
+        private final List<Object> constants = new ArrayList<>();
+        private final Map<Object, Integer> constantIndexes = new IdentityHashMap<>();
+        private int stackDepth = 0;
+        private int maxStack = 0;
+        /** Scopes opened in this chunk around the current instruction */
+        private int scopeDepth = 0;
+        /** Jumps of top-level returns, they lead to the end of the current top-level statement */
+        private final List<Integer> topLevelReturns = new ArrayList<>();
+
+        private ChunkCompiler(String name, boolean function) {
+            this.name = name;
+            this.function = function;
+        }
+
+        private Chunk toChunk() {
+            return new Chunk(name, Arrays.copyOf(code, size), constants.toArray(), maxStack);
+        }
+
+
+
+        private void compileStatement(AstNode statement) {
+            assertGrammar(statement, AstGrammarNodeType.STATEMENT);
+
+            if (statement.getChildren().get(0) instanceof AstGrammarNode grammarNode) {
+                switch (grammarNode.getGrammarType()) {
+                    case ASSIGNMENT -> compileAssignment(grammarNode);
+                    case DECLARATION -> compileDeclaration(grammarNode);
+                    case PRINT -> compilePrint(grammarNode);
+                    case RETURN -> compileReturn(grammarNode);
+                    case IF -> compileIf(grammarNode);
+                    case LOOP -> compileLoop(grammarNode);
+                    default -> {
+                        compileExpression(grammarNode);
+                        emit(OpCode.POP);
+                    }
+                }
+                return;
+            }
+            throw new IllegalStateException();
+        }
+
+        private void compileReturn(AstNode ret) {
+            int depth = stackDepth;
+            if (function) {
+                if (ret.getChildren().size() > 1) {
+                    compileExpression(ret.getChildren().get(1));
+                } else {
+                    emit(OpCode.CONST, constant(EMPTY));
+                }
+                emit(OpCode.RETURN, scopeDepth);
+            } else {
+                if (ret.getChildren().size() > 1) {
+                    compileExpression(ret.getChildren().get(1));
+                    emit(OpCode.POP);
+                }
+                // Iterators of the enclosing for loops
+                for (int i = 0; i < depth; i++) {
+                    emit(OpCode.POP);
+                }
+                if (scopeDepth > 0) {
+                    emit(OpCode.FLUSH_SCOPES, scopeDepth);
+                }
+                topLevelReturns.add(emitJump(OpCode.JUMP));
+            }
+            stackDepth = depth;
+        }
+
+        private void compileIf(AstNode iff) {
+            List<AstNode> children = iff.getChildren();
+            int ifToken = constant(tokenOf(children.get(0)));
+
+            compileExpression(children.get(1));
+            int toElse = emitJump(OpCode.JUMP_IF_FALSE, ifToken);
+            compileScopedBody(children.get(3));
+            if (children.size() > 5) {
+                int toEnd = emitJump(OpCode.JUMP);
+                patchJump(toElse);
+                compileScopedBody(children.get(5));
+                patchJump(toEnd);
+            } else {
+                patchJump(toElse);
+            }
+        }
+
+        private void compileScopedBody(AstNode body) {
+            emit(OpCode.NEST_SCOPE);
+            scopeDepth++;
+            compileBody(body);
+            scopeDepth--;
+            emit(OpCode.FLUSH_SCOPES, 1);
+        }
+
+        private void compileBody(AstNode body) {
+            assertGrammar(body, AstGrammarNodeType.BODY);
+            body.getChildren().forEach(this::compileStatement);
+        }
+
+        private void compileLoop(AstNode loop) {
+            assertGrammar(loop, AstGrammarNodeType.LOOP);
+
+            List<AstNode> children = loop.getChildren();
+            LexToken loopToken = tokenOf(children.get(0));
+            if (loopToken.getCode() == LexTokenCode.WHILE) {
+                compileWhile(constant(loopToken), children);
+            } else if (loopToken.getCode() == LexTokenCode.FOR) {
+                compileFor(children);
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+        /** The condition is checked before the loop scope is opened, the scope lives for all the iterations */
+        private void compileWhile(int whileToken, List<AstNode> children) {
+            compileExpression(children.get(1));
+            int toEnd = emitJump(OpCode.JUMP_IF_FALSE, whileToken);
+
+            emit(OpCode.NEST_SCOPE);
+            scopeDepth++;
+            int loopStart = size;
+            compileBody(children.get(2).getChildren().get(1));
+            compileExpression(children.get(1));
+            emitJumpBack(OpCode.JUMP_IF_TRUE, loopStart, whileToken);
+            scopeDepth--;
+            emit(OpCode.FLUSH_SCOPES, 1);
+
+            patchJump(toEnd);
+        }
+
+        private void compileFor(List<AstNode> children) {
+            int identifier = constant(tokenOf(children.get(1)));
+
+            emit(OpCode.NEST_SCOPE);
+            scopeDepth++;
+            emit(OpCode.DECLARE, identifier);
+            compileExpression(children.get(3));
+            compileExpression(children.get(6));
+            emit(OpCode.RANGE, constant(tokenOf(children.get(4))));
+
+            int loopStart = size;
+            int toEnd = emitJump(OpCode.FOR_NEXT, identifier);
+            compileBody(children.get(7).getChildren().get(1));
+            emitJumpBack(OpCode.JUMP, loopStart);
+            patchJump(toEnd);
+            // The iterator is popped by the last FOR_NEXT
+            stackDepth--;
+
+            scopeDepth--;
+            emit(OpCode.FLUSH_SCOPES, 1);
+        }
+
+        private void compileDeclaration(AstNode declaration) {
+            for (AstNode definition : declaration.getChildren()) {
+                if (definition instanceof AstGrammarNode) {
+                    compileVariableDefinition(definition);
+                }
+            }
+        }
+
+        private void compileVariableDefinition(AstNode definition) {
+            assertGrammar(definition, AstGrammarNodeType.VARIABLE_DEFINITION);
+
+            List<AstNode> children = definition.getChildren();
+            int identifier = constant(tokenOf(children.get(0)));
+            if (children.size() > 1) {
+                compileExpression(children.get(children.size()-1));
+                emit(OpCode.DECLARE_ASSIGN, identifier);
+            } else {
+                emit(OpCode.DECLARE, identifier);
+            }
+        }
+
+        /** The value is evaluated first, then the path to the assigned element */
+        private void compileAssignment(AstNode assignment) {
+            List<AstNode> children = assignment.getChildren();
+            compileExpression(children.get(2));
+
+            AstNode primary = children.get(0);
+            assertGrammar(primary, AstGrammarNodeType.PRIMARY);
+            List<AstNode> path = primary.getChildren();
+            LexToken first = tokenOf(path.get(0));
+            if (READ_OPERATIONS.contains(first.getCode())) {
+                emit(OpCode.ASSIGN_TO_READ, constant(first));
+                return;
+            }
+            if (path.size() == 1) {
+                emit(OpCode.STORE, constant(first));
+                return;
+            }
+
+            emit(OpCode.LOAD, constant(first));
+            path.subList(1, path.size()-1).forEach(this::compileTail);
+
+            AstNode lastTail = path.get(path.size()-1);
+            assertGrammar(lastTail, AstGrammarNodeType.TAIL);
+            LexToken tailOp = tokenOf(lastTail.getChildren().get(0));
+            switch (tailOp.getCode()) {
+                case DOT -> emit(OpCode.ASSIGN_TO_IMMUTABLE, constant(tailOp), RuntimeValue.RuntimeValueType.TUPLE.ordinal());
+                case OPEN_SQUARE_BRACKET -> {
+                    compileExpression(lastTail.getChildren().get(1));
+                    emit(OpCode.SET_INDEX, constant(tailOp));
+                }
+                case OPEN_ROUND_BRACKET -> emit(OpCode.ASSIGN_TO_IMMUTABLE, constant(tailOp), RuntimeValue.RuntimeValueType.FUNCTION.ordinal());
+                default -> throw new IllegalStateException();
+            }
+        }
+
+        private void compilePrint(AstNode print) {
+            emit(OpCode.PRINT, compileExpressions(print.getChildren()));
+        }
+
+
+
+        private void compileExpression(AstNode expression) {
+            if (!(expression instanceof AstGrammarNode grammarNode)) {
+                throw new IllegalStateException();
+            }
+
+            List<AstNode> children = grammarNode.getChildren();
+            switch (grammarNode.getGrammarType()) {
+                case EXPRESSION, CONJUNCTION, RELATION, FACTOR, TERM -> {
+                    compileExpression(children.get(0));
+                    for (int i = 1; i < children.size(); i += 2) {
+                        compileExpression(children.get(i+1));
+                        emitBinaryOperation(tokenOf(children.get(i)));
+                    }
+                }
+                case UNARY -> compileUnary(grammarNode);
+                case BINARY_OPERATION -> {
+                    compileExpression(children.get(0));
+                    compileExpression(children.get(2));
+                    emitBinaryOperation(tokenOf(children.get(1)));
+                }
+                case UNARY_OPERATION -> {
+                    compileExpression(children.get(1));
+                    emitUnaryOperation(tokenOf(children.get(0)));
+                }
+                case TYPE_CHECK -> {
+                    compileExpression(children.get(0));
+                    emit(OpCode.TYPE_CHECK, typeOf(children.get(2)).ordinal());
+                }
+                case PRIMARY -> compilePrimary(grammarNode);
+                case LITERAL -> compileLiteral(grammarNode);
+                default -> throw new IllegalStateException();
+            }
+        }
+
+        /** Unary : [ + | - | not ] Primary [ is TypeIndicator ] | Literal | ( Expression ) */
+        private void compileUnary(AstNode unary) {
+            List<AstNode> children = unary.getChildren();
+            if (children.get(0) instanceof AstGrammarNode grammar && grammar.getGrammarType() == AstGrammarNodeType.LITERAL) {
+                compileLiteral(grammar);
+                return;
+            }
+            if (children.get(0) instanceof AstTokenNode token && token.getToken().getCode() == LexTokenCode.OPEN_ROUND_BRACKET) {
+                compileExpression(children.get(1));
+                return;
+            }
+
+            if (children.get(0) instanceof AstTokenNode token) {
+                compilePrimary(children.get(1));
+                emitUnaryOperation(token.getToken());
+            } else {
+                compilePrimary(children.get(0));
+            }
+            if (children.size() > 2) {
+                emit(OpCode.TYPE_CHECK, typeOf(children.get(children.size()-1)).ordinal());
+            }
+        }
+
+        private void emitBinaryOperation(LexToken op) {
+            OpCode opCode = switch (op.getCode()) {
+                case ADDITION -> OpCode.ADD;
+                case SUBTRACTION -> OpCode.SUBTRACT;
+                case MULTIPLICATION -> OpCode.MULTIPLY;
+                case LESS, LESS_OR_EQUAL, MORE, MORE_OR_EQUAL, EQUAL, NOT_EQUAL -> OpCode.COMPARE;
+                default -> OpCode.BINARY;
+            };
+            emit(opCode, constant(op));
+        }
+
+        private void emitUnaryOperation(LexToken op) {
+            emit(op.getCode() == LexTokenCode.SUBTRACTION ? OpCode.NEGATE : OpCode.UNARY, constant(op));
+        }
+
+        /** Primary : Identifier { Tail } | readInt | readReal | readString */
+        private void compilePrimary(AstNode primary) {
+            assertGrammar(primary, AstGrammarNodeType.PRIMARY);
+
+            List<AstNode> children = primary.getChildren();
+            LexToken first = tokenOf(children.get(0));
+            if (READ_OPERATIONS.contains(first.getCode())) {
+                emit(OpCode.READ, constant(first));
+                return;
+            }
+            emit(OpCode.LOAD, constant(first));
+            children.subList(1, children.size()).forEach(this::compileTail);
+        }
+
+        /** Tail : .IntegerLiteral | .Identifier | [Expression] | (Expression {, Expression}) */
+        private void compileTail(AstNode tail) {
+            assertGrammar(tail, AstGrammarNodeType.TAIL);
+
+            List<AstNode> children = tail.getChildren();
+            LexToken tailOp = tokenOf(children.get(0));
+            switch (tailOp.getCode()) {
+                case DOT -> {
+                    LexToken element = tokenOf(children.get(1));
+                    if (element instanceof LexIdentifierToken identifier) {
+                        emit(OpCode.TUPLE_GET, constant(tailOp), constant(new NamedElementCache(identifier)));
+                    } else if (element instanceof LexLiteralToken literal && literal.getType() == LexLiteralTokenType.INT) {
+                        emit(OpCode.CONST, constant(RuntimeValue.ofLiteral(literal)));
+                        emit(OpCode.BINARY, constant(tailOp));
+                    } else {
+                        throw new IllegalStateException();
+                    }
+                }
+                case OPEN_SQUARE_BRACKET -> {
+                    compileExpression(children.get(1));
+                    emit(OpCode.INDEX, constant(tailOp));
+                }
+                case OPEN_ROUND_BRACKET -> {
+                    int count = compileExpressions(children);
+                    emit(OpCode.CALL, constant(tailOp), count);
+                }
+                default -> throw new IllegalStateException();
+            }
+        }
+
+        private void compileLiteral(AstNode literal) {
+            assertGrammar(literal, AstGrammarNodeType.LITERAL);
+
+            AstNode child = literal.getChildren().get(0);
+            if (child instanceof AstTokenNode token && token.getToken() instanceof LexLiteralToken literalToken) {
+                emit(OpCode.CONST, constant(RuntimeValue.ofLiteral(literalToken)));
+                return;
+            }
+            if (child instanceof AstGrammarNode grammarNode) {
+                switch (grammarNode.getGrammarType()) {
+                    case ARRAY_LITERAL -> emit(OpCode.ARRAY, compileExpressions(grammarNode.getChildren()));
+                    case TUPLE_LITERAL -> compileTupleLiteral(grammarNode);
+                    case FUNCTION_LITERAL -> compileFunctionLiteral(grammarNode);
+                    default -> throw new IllegalStateException();
+                }
+                return;
+            }
+            throw new IllegalStateException();
+        }
+
+        /** TupleElement : [ Identifier := ] Expression */
+        private void compileTupleLiteral(AstNode tupleLiteral) {
+            List<LexIdentifierToken> names = new ArrayList<>();
+            for (AstNode element : tupleLiteral.getChildren()) {
+                if (!(element instanceof AstGrammarNode)) {
+                    continue;
+                }
+                assertGrammar(element, AstGrammarNodeType.TUPLE_ELEMENT);
+
+                List<AstNode> children = element.getChildren();
+                if (children.get(0) instanceof AstTokenNode token && token.getToken() instanceof LexIdentifierToken identifier) {
+                    names.add(identifier);
+                    compileExpression(children.get(2));
+                } else {
+                    names.add(null);
+                    compileExpression(children.get(0));
+                }
+            }
+            emit(OpCode.TUPLE, names.size(), constant(TupleShape.of(names.toArray(new LexIdentifierToken[0]))));
+        }
+
+        /** FunctionLiteral : func [ Parameters ] FunBody, the body is compiled into a chunk of its own */
+        private void compileFunctionLiteral(AstNode functionLiteral) {
+            List<AstNode> children = functionLiteral.getChildren();
+
+            List<LexIdentifierToken> params = new ArrayList<>();
+            if (children.get(1) instanceof AstGrammarNode grammarNode && grammarNode.getGrammarType() == AstGrammarNodeType.PARAMETERS) {
+                params = grammarNode.getChildren().stream()
+                        .map(e -> ((AstTokenNode) e).getToken())
+                        .filter(e -> e instanceof LexIdentifierToken)
+                        .map(e -> (LexIdentifierToken) e)
+                        .toList();
+            }
+
+            AstNode funBody = children.get(children.size()-1);
+            assertGrammar(funBody, AstGrammarNodeType.FUN_BODY);
+            AstNode body = funBody.getChildren().get(1);
+            LexTokenSpan span = tokenOf(children.get(0)).getSpan();
+            ChunkCompiler compiler = new ChunkCompiler(String.format("<func at lineNum=%d, pos=%d>", span.getLineNum(), span.getPos()), true);
+
+            BytecodeFunction function;
+            if (body instanceof AstGrammarNode grammarNode && grammarNode.getGrammarType() == AstGrammarNodeType.BODY) {
+                grammarNode.getChildren().forEach(compiler::compileStatement);
+                compiler.emit(OpCode.CONST, compiler.constant(EMPTY));
+                compiler.emit(OpCode.RETURN, 0);
+                function = new BytecodeFunction(params, grammarNode.getChildren(), false, compiler.toChunk());
+            } else {
+                compiler.compileExpression(body);
+                compiler.emit(OpCode.RETURN, 0);
+                function = new BytecodeFunction(params, List.of(body), true, compiler.toChunk());
+            }
+            emit(OpCode.CONST, constant(RuntimeValue.ofValue(function)));
+        }
+
+        /** Compiles the grammar children, skipping separators and brackets */
+        private int compileExpressions(List<AstNode> children) {
+            int count = 0;
+            for (AstNode child : children) {
+                if (child instanceof AstGrammarNode) {
+                    compileExpression(child);
+                    count++;
+                }
+            }
+            return count;
+        }
+
+
+
+        private int constant(Object value) {
+            return constantIndexes.computeIfAbsent(value, v -> {
+                constants.add(v);
+                return constants.size() - 1;
+            });
+        }
+
+        private void emit(OpCode op, int... operands) {
+            if (operands.length != op.getOperands()) {
+                throw new IllegalArgumentException(String.format("%s takes %d operands", op, op.getOperands()));
+            }
+            ensureCapacity(1 + operands.length);
+            code[size++] = op.ordinal();
+            for (int operand : operands) {
+                code[size++] = operand;
+            }
+
+            stackDepth += stackEffect(op, operands);
+            maxStack = Math.max(maxStack, stackDepth);
+        }
+
+        /** @return position of the offset operand to patch */
+        private int emitJump(OpCode op, int... operands) {
+            int[] withOffset = Arrays.copyOf(operands, operands.length + 1);
+            emit(op, withOffset);
+            return size - 1;
+        }
+
+        private void emitJumpBack(OpCode op, int target, int... operands) {
+            int[] withOffset = Arrays.copyOf(operands, operands.length + 1);
+            withOffset[operands.length] = target - (size + 1 + withOffset.length);
+            emit(op, withOffset);
+        }
+
+        private void patchJump(int offsetPosition) {
+            code[offsetPosition] = size - (offsetPosition + 1);
+        }
+
+        private void patchJumps(List<Integer> offsetPositions) {
+            offsetPositions.forEach(this::patchJump);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > code.length) {
+                code = Arrays.copyOf(code, Math.max(code.length * 2, size + extra));
+            }
+        }
+
+        private static int stackEffect(OpCode op, int[] operands) {
+            return switch (op) {
+                case CONST, LOAD, READ -> 1;
+                case STORE, DECLARE_ASSIGN, POP, RETURN, JUMP_IF_FALSE, JUMP_IF_TRUE, RANGE, ASSIGN_TO_READ -> -1;
+                case ADD, SUBTRACT, MULTIPLY, COMPARE, INDEX, BINARY -> -1;
+                case ARRAY, TUPLE -> 1 - operands[0];
+                case CALL -> -operands[1];
+                case PRINT -> -operands[0];
+                case SET_INDEX -> -3;
+                case ASSIGN_TO_IMMUTABLE -> -2;
+                default -> 0;
+            };
+        }
+    }
+
+
+
+    private static RuntimeValue.RuntimeValueType typeOf(AstNode typeIndicator) {
+        assertGrammar(typeIndicator, AstGrammarNodeType.TYPE_INDICATOR);
+
+        return switch (tokenOf(typeIndicator.getChildren().get(0)).getCode()) {
+            case INT -> RuntimeValue.RuntimeValueType.INTEGER;
+            case REAL -> RuntimeValue.RuntimeValueType.REAL;
+            case BOOLEAN -> RuntimeValue.RuntimeValueType.BOOLEAN;
+            case STRING -> RuntimeValue.RuntimeValueType.STRING;
+            case EMPTY -> RuntimeValue.RuntimeValueType.EMPTY;
+            case FUNC -> RuntimeValue.RuntimeValueType.FUNCTION;
+            case OPEN_CURLY_BRACKET -> RuntimeValue.RuntimeValueType.ARRAY;
+            case OPEN_ROUND_BRACKET -> RuntimeValue.RuntimeValueType.TUPLE;
+            default -> throw new IllegalStateException();
+        };
+    }
+
+    private static LexToken tokenOf(AstNode node) {
+        if (node instanceof AstTokenNode tokenNode) {
+            return tokenNode.getToken();
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void assertGrammar(AstNode node, AstGrammarNodeType expectedType) {
+        if (!(node instanceof AstGrammarNode grammarNode) || grammarNode.getGrammarType() != expectedType) {
+            throw new IllegalStateException();
+        }
+    }
+}
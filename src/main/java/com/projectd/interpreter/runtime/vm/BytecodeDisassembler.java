@@ -0,0 +1,90 @@
+package com.projectd.interpreter.runtime.vm;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.lex.token.LexLiteralToken;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+
+/**
+ * Human readable listing of a {@link Chunk}: one instruction per line with its offset, constants resolved
+ * and jump targets as absolute offsets. The chunks of function literals are listed after the chunk using them.
+ */
+public class BytecodeDisassembler {
+
+    public String disassemble(Chunk chunk) {
+        StringBuilder builder = new StringBuilder();
+        disassemble(chunk, builder);
+        return builder.toString();
+    }
+
+    private void disassemble(Chunk chunk, StringBuilder builder) {
+        builder.append("== ").append(chunk.getName()).append(" ==\n");
+        int[] code = chunk.getCode();
+        int pc = 0;
+        while (pc < code.length) {
+            pc = disassembleInstruction(chunk, pc, builder);
+        }
+
+        for (Object constant : chunk.getConstants()) {
+            if (constant instanceof RuntimeValue value && value.getValue() instanceof BytecodeFunction function) {
+                builder.append('\n');
+                disassemble(function.getChunk(), builder);
+            }
+        }
+    }
+
+    /** @return offset of the next instruction */
+    private int disassembleInstruction(Chunk chunk, int offset, StringBuilder builder) {
+        int[] code = chunk.getCode();
+        OpCode op = OpCode.of(code[offset]);
+        int next = offset + 1 + op.getOperands();
+
+        builder.append(String.format("%04d %-20s", offset, op.name()));
+        StringBuilder comment = new StringBuilder();
+        for (int i = 0; i < op.getOperands(); i++) {
+            int operand = code[offset + 1 + i];
+            builder.append(' ').append(operand);
+            switch (kindOf(op, i)) {
+                case CONSTANT -> comment.append(' ').append(describe(chunk.getConstants()[operand]));
+                case JUMP -> comment.append(" -> ").append(String.format("%04d", next + operand));
+                case TYPE -> comment.append(' ').append(RuntimeValue.RuntimeValueType.values()[operand].name().toLowerCase());
+                case COUNT -> { }
+            }
+        }
+        if (!comment.isEmpty()) {
+            builder.append("  ;").append(comment);
+        }
+        builder.append('\n');
+        return next;
+    }
+
+    private enum OperandKind { CONSTANT, JUMP, TYPE, COUNT }
+
+    private static OperandKind kindOf(OpCode op, int operand) {
+        return switch (op) {
+            case ARRAY, PRINT, RETURN, FLUSH_SCOPES -> OperandKind.COUNT;
+            case JUMP -> OperandKind.JUMP;
+            case TYPE_CHECK -> OperandKind.TYPE;
+            case CALL -> operand == 0 ? OperandKind.CONSTANT : OperandKind.COUNT;
+            case TUPLE -> operand == 0 ? OperandKind.COUNT : OperandKind.CONSTANT;
+            case JUMP_IF_FALSE, JUMP_IF_TRUE, FOR_NEXT -> operand == 0 ? OperandKind.CONSTANT : OperandKind.JUMP;
+            case ASSIGN_TO_IMMUTABLE -> operand == 0 ? OperandKind.CONSTANT : OperandKind.TYPE;
+            default -> OperandKind.CONSTANT;
+        };
+    }
+
+    private static String describe(Object constant) {
+        if (constant instanceof LexIdentifierToken identifier) {
+            return identifier.getIdentifier();
+        } else if (constant instanceof LexLiteralToken literal) {
+            return String.valueOf(literal.getValue());
+        } else if (constant instanceof LexToken token) {
+            return token.getCode().name();
+        } else if (constant instanceof RuntimeValue value && value.getValue() instanceof BytecodeFunction function) {
+            return function.getChunk().getName();
+        } else if (constant instanceof RuntimeValue value && value.getType() == RuntimeValue.RuntimeValueType.STRING) {
+            return '"' + value.toString() + '"';
+        }
+        return String.valueOf(constant);
+    }
+}
@@ -0,0 +1,20 @@
+package com.projectd.interpreter.runtime.vm;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.runtime.environment.RuntimeFunction;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import lombok.Getter;
+
+import java.util.List;
+
+/** Function whose body has been compiled to bytecode together with the function literal */
+public class BytecodeFunction extends RuntimeFunction {
+
+    @Getter
+    private final Chunk chunk;
+
+    public BytecodeFunction(List<LexIdentifierToken> parameters, List<AstNode> body, boolean isLambda, Chunk chunk) {
+        super(parameters, body, isLambda);
+        this.chunk = chunk;
+    }
+}
@@ -0,0 +1,21 @@
+package com.projectd.interpreter.runtime.vm;
+
+import lombok.Getter;
+
+/** Compiled bytecode of the program or of a function body */
+@Getter
+public class Chunk {
+
+    private final String name;
+    private final int[] code;
+    private final Object[] constants;
+    /** Deepest the operand stack gets while the chunk runs */
+    private final int maxStack;
+
+    public Chunk(String name, int[] code, Object[] constants, int maxStack) {
+        this.name = name;
+        this.code = code;
+        this.constants = constants;
+        this.maxStack = maxStack;
+    }
+}
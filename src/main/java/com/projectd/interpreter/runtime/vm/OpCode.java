@@ -0,0 +1,84 @@
+package com.projectd.interpreter.runtime.vm;
+
+/**
+ * Instructions of the stack virtual machine. Every instruction is one int followed by its int operands;
+ * constant operands index the constant pool of the chunk, jump offsets are relative to the next instruction.
+ */
+public enum OpCode {
+    /** constant: push the constant value */
+    CONST(1),
+    /** identifier: push the value of the variable */
+    LOAD(1),
+    /** identifier: pop a value and assign it to the variable */
+    STORE(1),
+    /** identifier: declare the variable in the innermost scope */
+    DECLARE(1),
+    /** identifier: pop a value and declare the variable with it */
+    DECLARE_ASSIGN(1),
+    POP(0),
+
+    /** operator: pop right and left operands, push the result */
+    ADD(1),
+    SUBTRACT(1),
+    MULTIPLY(1),
+    COMPARE(1),
+    INDEX(1),
+    BINARY(1),
+    /** operator: replace the top of the stack with the result */
+    NEGATE(1),
+    UNARY(1),
+    /** type ordinal: replace the top of the stack with whether it has the type */
+    TYPE_CHECK(1),
+    /** operator, cache: replace the tuple on the top of the stack with its named element, through the inline cache of the access */
+    TUPLE_GET(2),
+    /** operator: push the value read from the input */
+    READ(1),
+
+    /** count: pop the elements, push the array of them */
+    ARRAY(1),
+    /** count, shape: pop the elements, push the tuple of them, the shape constant is resolved once for the literal */
+    TUPLE(2),
+    /** operator, count: pop the arguments and the function, push the result of the call */
+    CALL(2),
+    /** scopes: pop the result, flush the scopes opened in the function and return */
+    RETURN(1),
+    /** count: pop the values and print them */
+    PRINT(1),
+
+    /** offset */
+    JUMP(1),
+    /** operator, offset: pop the condition, jump if it is false */
+    JUMP_IF_FALSE(2),
+    /** operator, offset: pop the condition, jump if it is true */
+    JUMP_IF_TRUE(2),
+    NEST_SCOPE(0),
+    /** count */
+    FLUSH_SCOPES(1),
+    /** operator: pop the borders, push an iterator over the range */
+    RANGE(1),
+    /** identifier, offset: assign the next element of the iterator on the top of the stack, or pop it and jump */
+    FOR_NEXT(2),
+
+    /** operator: pop the index, the array and the value, store the value at the index */
+    SET_INDEX(1),
+    /** operator: pop the value and fail, a read operation cannot be assigned */
+    ASSIGN_TO_READ(1),
+    /** operator, type ordinal: pop the object and the value and fail, the object is immutable */
+    ASSIGN_TO_IMMUTABLE(2);
+
+    private static final OpCode[] VALUES = values();
+
+    private final int operands;
+
+    OpCode(int operands) {
+        this.operands = operands;
+    }
+
+    public int getOperands() {
+        return operands;
+    }
+
+    public static OpCode of(int code) {
+        return VALUES[code];
+    }
+}
@@ -0,0 +1,276 @@
+package com.projectd.interpreter.runtime.vm;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.lex.token.LexSymbolTable;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.RuntimeOperationHandler;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import com.projectd.interpreter.runtime.environment.*;
+import com.projectd.interpreter.shared.exception.RuntimeExceptionFactory;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Stack virtual machine running the bytecode of {@link BytecodeCompiler}.
+ * <p>
+ * All the chunks share one operand stack, a called function gets the part above its arguments.
+ * Variables live in the same {@link RuntimeEnvironment} as in the tree walker, operations that are not
+ * plain integer arithmetic, comparison or indexing go through {@link RuntimeOperationHandler}.
+ */
+public class VirtualMachine implements RuntimeExecutor {
+
+    private static final RuntimeValue.RuntimeValueType[] TYPES = RuntimeValue.RuntimeValueType.values();
+
+    private final BytecodeCompiler compiler = new BytecodeCompiler();
+    private final RuntimeEnvironment runtime = new RuntimeEnvironment();
+    @Getter
+    private final LexSymbolTable symbolTable = new LexSymbolTable();
+    private final RuntimeIOHandler io;
+    private Object[] stack = new Object[256];
+
+    public VirtualMachine() {
+        this(RuntimeIOHandler.standard());
+    }
+
+    public VirtualMachine(RuntimeIOHandler io) {
+        this.io = io;
+    }
+
+    @Override
+    public void execute(AstNode program) {
+        run(compiler.compileProgram(program), 0);
+    }
+
+    /** @return value returned by the chunk, its operand stack starts at the given base */
+    private RuntimeValue run(Chunk chunk, int base) {
+        ensureStackCapacity(base + chunk.getMaxStack());
+        Object[] stack = this.stack;
+        int[] code = chunk.getCode();
+        Object[] constants = chunk.getConstants();
+        int sp = base;
+        int pc = 0;
+
+        while (true) {
+            switch (OpCode.of(code[pc++])) {
+                case CONST -> stack[sp++] = constants[code[pc++]];
+                case LOAD -> stack[sp++] = runtime.getVariableValue((LexIdentifierToken) constants[code[pc++]]);
+                case STORE -> runtime.assignVariable((LexIdentifierToken) constants[code[pc++]], (RuntimeValue) stack[--sp]);
+                case DECLARE -> runtime.declareVariable((LexIdentifierToken) constants[code[pc++]]);
+                case DECLARE_ASSIGN -> runtime.declareAndAssignVariable((LexIdentifierToken) constants[code[pc++]], (RuntimeValue) stack[--sp]);
+                case POP -> sp--;
+
+                case ADD -> {
+                    RuntimeValue right = (RuntimeValue) stack[--sp];
+                    RuntimeValue left = (RuntimeValue) stack[sp-1];
+                    stack[sp-1] = bothIntegers(left, right)
+                            ? RuntimeValue.ofInt(left.asInt() + right.asInt())
+                            : RuntimeOperationHandler.handleBinaryOperation((LexToken) constants[code[pc]], left, right);
+                    pc++;
+                }
+                case SUBTRACT -> {
+                    RuntimeValue right = (RuntimeValue) stack[--sp];
+                    RuntimeValue left = (RuntimeValue) stack[sp-1];
+                    stack[sp-1] = bothIntegers(left, right)
+                            ? RuntimeValue.ofInt(left.asInt() - right.asInt())
+                            : RuntimeOperationHandler.handleBinaryOperation((LexToken) constants[code[pc]], left, right);
+                    pc++;
+                }
+                case MULTIPLY -> {
+                    RuntimeValue right = (RuntimeValue) stack[--sp];
+                    RuntimeValue left = (RuntimeValue) stack[sp-1];
+                    stack[sp-1] = bothIntegers(left, right)
+                            ? RuntimeValue.ofInt(left.asInt() * right.asInt())
+                            : RuntimeOperationHandler.handleBinaryOperation((LexToken) constants[code[pc]], left, right);
+                    pc++;
+                }
+                case COMPARE -> {
+                    RuntimeValue right = (RuntimeValue) stack[--sp];
+                    RuntimeValue left = (RuntimeValue) stack[sp-1];
+                    stack[sp-1] = compare((LexToken) constants[code[pc++]], left, right);
+                }
+                case INDEX -> {
+                    RuntimeValue index = (RuntimeValue) stack[--sp];
+                    RuntimeValue array = (RuntimeValue) stack[sp-1];
+                    stack[sp-1] = array.getType() == RuntimeValue.RuntimeValueType.ARRAY && index.getType() == RuntimeValue.RuntimeValueType.INTEGER
+                            ? ((SparseArray) array.getValue()).get(index)
+                            : RuntimeOperationHandler.handleBinaryOperation((LexToken) constants[code[pc]], array, index);
+                    pc++;
+                }
+                case BINARY -> {
+                    RuntimeValue right = (RuntimeValue) stack[--sp];
+                    stack[sp-1] = RuntimeOperationHandler.handleBinaryOperation((LexToken) constants[code[pc++]], (RuntimeValue) stack[sp-1], right);
+                }
+                case NEGATE -> {
+                    RuntimeValue value = (RuntimeValue) stack[sp-1];
+                    stack[sp-1] = value.getType() == RuntimeValue.RuntimeValueType.INTEGER
+                            ? RuntimeValue.ofInt(-value.asInt())
+                            : RuntimeOperationHandler.handleUnaryOperation((LexToken) constants[code[pc]], value);
+                    pc++;
+                }
+                case UNARY -> stack[sp-1] = RuntimeOperationHandler.handleUnaryOperation((LexToken) constants[code[pc++]], (RuntimeValue) stack[sp-1]);
+                case TYPE_CHECK -> stack[sp-1] = RuntimeOperationHandler.handleTypeCheck((RuntimeValue) stack[sp-1], TYPES[code[pc++]]);
+                case TUPLE_GET -> {
+                    LexToken op = (LexToken) constants[code[pc++]];
+                    NamedElementCache cache = (NamedElementCache) constants[code[pc++]];
+                    stack[sp-1] = RuntimeOperationHandler.handleNamedTupleIndex(op, (RuntimeValue) stack[sp-1], cache);
+                }
+                case READ -> stack[sp++] = io.handleRead((LexToken) constants[code[pc++]]);
+
+                case ARRAY -> {
+                    int count = code[pc++];
+                    sp -= count;
+                    RuntimeValue array = RuntimeValue.ofValue(SparseArray.fromList(valuesOf(stack, sp, count)));
+                    stack[sp++] = array;
+                }
+                case TUPLE -> {
+                    int count = code[pc++];
+                    TupleShape shape = (TupleShape) constants[code[pc++]];
+                    sp -= count;
+                    RuntimeValue[] values = new RuntimeValue[count];
+                    System.arraycopy(stack, sp, values, 0, count);
+                    stack[sp++] = RuntimeValue.ofValue(ImmutableTuple.of(shape, values));
+                }
+                case CALL -> {
+                    LexToken op = (LexToken) constants[code[pc++]];
+                    int count = code[pc++];
+                    sp -= count;
+                    List<RuntimeValue> args = valuesOf(stack, sp, count);
+                    RuntimeValue func = (RuntimeValue) stack[sp-1];
+                    if (func.getType() != RuntimeValue.RuntimeValueType.FUNCTION) {
+                        throw RuntimeExceptionFactory.invalidOperandTypes("function call", List.of(func.getType()), op.getSpan());
+                    }
+                    RuntimeValue result = call(op, (BytecodeFunction) func.getValue(), args, sp);
+                    // The callee may have grown the stack
+                    stack = this.stack;
+                    stack[sp-1] = result;
+                }
+                case RETURN -> {
+                    RuntimeValue result = (RuntimeValue) stack[--sp];
+                    for (int scopes = code[pc]; scopes > 0; scopes--) {
+                        runtime.flushScope();
+                    }
+                    return result;
+                }
+                case PRINT -> {
+                    int count = code[pc++];
+                    sp -= count;
+                    io.handlePrint(valuesOf(stack, sp, count));
+                }
+
+                case JUMP -> pc += code[pc] + 1;
+                case JUMP_IF_FALSE -> {
+                    boolean condition = isTrue((LexToken) constants[code[pc++]], (RuntimeValue) stack[--sp]);
+                    pc += condition ? 1 : code[pc] + 1;
+                }
+                case JUMP_IF_TRUE -> {
+                    boolean condition = isTrue((LexToken) constants[code[pc++]], (RuntimeValue) stack[--sp]);
+                    pc += condition ? code[pc] + 1 : 1;
+                }
+                case NEST_SCOPE -> runtime.nestScope();
+                case FLUSH_SCOPES -> {
+                    for (int scopes = code[pc++]; scopes > 0; scopes--) {
+                        runtime.flushScope();
+                    }
+                }
+                case RANGE -> {
+                    RuntimeValue to = (RuntimeValue) stack[--sp];
+                    stack[sp-1] = RuntimeOperationHandler.integerRange((LexToken) constants[code[pc++]], (RuntimeValue) stack[sp-1], to);
+                }
+                case FOR_NEXT -> {
+                    @SuppressWarnings("unchecked")
+                    Iterator<RuntimeValue> it = (Iterator<RuntimeValue>) stack[sp-1];
+                    LexIdentifierToken identifier = (LexIdentifierToken) constants[code[pc++]];
+                    if (it.hasNext()) {
+                        runtime.assignVariable(identifier, it.next());
+                        pc++;
+                    } else {
+                        sp--;
+                        pc += code[pc] + 1;
+                    }
+                }
+
+                case SET_INDEX -> {
+                    RuntimeValue index = (RuntimeValue) stack[--sp];
+                    RuntimeValue array = (RuntimeValue) stack[--sp];
+                    RuntimeValue value = (RuntimeValue) stack[--sp];
+                    RuntimeOperationHandler.setterOf((LexToken) constants[code[pc++]], array, index).accept(value);
+                }
+                case ASSIGN_TO_READ -> {
+                    LexToken op = (LexToken) constants[code[pc]];
+                    throw RuntimeExceptionFactory.generic("Cannot assign value to a read operation", op.getSpan());
+                }
+                case ASSIGN_TO_IMMUTABLE -> {
+                    LexToken op = (LexToken) constants[code[pc++]];
+                    throw RuntimeExceptionFactory.immutableObject(TYPES[code[pc]], op.getSpan());
+                }
+            }
+        }
+    }
+
+    private RuntimeValue call(LexToken op, BytecodeFunction func, List<RuntimeValue> args, int base) {
+        List<LexIdentifierToken> parameters = func.getParameters();
+        if (parameters.size() != args.size()) {
+            throw RuntimeExceptionFactory.argumentsMismatch(parameters.size(), args.size(), op.getSpan());
+        }
+        if (func.getBody().size() < 1) {
+            throw RuntimeExceptionFactory.emptyFunction(op.getSpan());
+        }
+
+        runtime.nestScope();
+        for (int i = 0; i < args.size(); i++) {
+            runtime.declareAndAssignVariable(parameters.get(i), args.get(i));
+        }
+        RuntimeValue result = run(func.getChunk(), base);
+        runtime.flushScope();
+        return result;
+    }
+
+    private void ensureStackCapacity(int capacity) {
+        if (capacity > stack.length) {
+            stack = Arrays.copyOf(stack, Math.max(stack.length * 2, capacity));
+        }
+    }
+
+    private static List<RuntimeValue> valuesOf(Object[] stack, int from, int count) {
+        List<RuntimeValue> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add((RuntimeValue) stack[from + i]);
+        }
+        return values;
+    }
+
+    private static boolean isTrue(LexToken op, RuntimeValue condition) {
+        if (condition.getType() == RuntimeValue.RuntimeValueType.BOOLEAN) {
+            return condition.asBoolean();
+        }
+        return RuntimeOperationHandler.conditionCheck(op, condition);
+    }
+
+    private static RuntimeValue compare(LexToken op, RuntimeValue left, RuntimeValue right) {
+        if (!bothIntegers(left, right)) {
+            return RuntimeOperationHandler.handleBinaryOperation(op, left, right);
+        }
+
+        int first = left.asInt();
+        int second = right.asInt();
+        return switch (op.getCode()) {
+            case LESS -> RuntimeValue.ofBoolean(first < second);
+            case LESS_OR_EQUAL -> RuntimeValue.ofBoolean(first <= second);
+            case MORE -> RuntimeValue.ofBoolean(first > second);
+            case MORE_OR_EQUAL -> RuntimeValue.ofBoolean(first >= second);
+            case EQUAL -> RuntimeValue.ofBoolean(first == second);
+            case NOT_EQUAL -> RuntimeValue.ofBoolean(first != second);
+            default -> throw new IllegalStateException();
+        };
+    }
+
+    private static boolean bothIntegers(RuntimeValue left, RuntimeValue right) {
+        return left.getType() == RuntimeValue.RuntimeValueType.INTEGER && right.getType() == RuntimeValue.RuntimeValueType.INTEGER;
+    }
+}
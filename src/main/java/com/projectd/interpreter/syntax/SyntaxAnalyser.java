@@ -4,20 +4,40 @@ import com.projectd.interpreter.lex.token.*;
 import com.projectd.interpreter.shared.exception.SyntaxExceptionFactory;
 import com.projectd.interpreter.shared.exception.SyntaxAnalyzerParseException;
 import com.projectd.interpreter.syntax.iterator.LexTokenIterator;
+import com.projectd.interpreter.syntax.iterator.RollbackableIterator;
 import com.projectd.interpreter.syntax.tree.AstNode;
 import com.projectd.interpreter.syntax.tree.AstTokenNode;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 public abstract class SyntaxAnalyser {
 
-    protected final LexTokenIterator iterator;
+    protected final RollbackableIterator<LexToken> iterator;
+    protected final SyntaxAnalyserOptions options;
+    private final Map<Long, Memo> memos = new HashMap<>();
 
     public SyntaxAnalyser(List<LexToken> tokens) {
-        this.iterator = new LexTokenIterator(tokens);
+        this(new LexTokenIterator(tokens), SyntaxAnalyserOptions.DEFAULT);
+    }
+
+    public SyntaxAnalyser(Iterator<LexToken> tokens) {
+        this(new LexTokenIterator(tokens), SyntaxAnalyserOptions.DEFAULT);
+    }
+
+    public SyntaxAnalyser(RollbackableIterator<LexToken> iterator) {
+        this(iterator, SyntaxAnalyserOptions.DEFAULT);
+    }
+
+    public SyntaxAnalyser(RollbackableIterator<LexToken> iterator, SyntaxAnalyserOptions options) {
+        this.iterator = iterator;
+        this.options = options;
     }
 
     abstract public AstNode buildAstTree();
@@ -42,6 +62,73 @@ public abstract class SyntaxAnalyser {
         return parseResult;
     }
 
+    /**
+     * Same as {@link #parseAnyOf(AstNode, Function[])}. In predictive mode alternatives that cannot start
+     * with the lookahead token are not tried at all.
+     */
+    protected final AstNode parseAnyOf(AstNode parent, Alternative... alternatives) {
+        boolean predictive = options.isPredictive();
+        LexToken lookahead = predictive && iterator.hasNext() ? iterator.peek() : null;
+        AstNode parseResult = null;
+        for (Alternative alternative : alternatives) {
+            if (predictive && (lookahead == null || !alternative.first().test(lookahead))) {
+                continue;
+            }
+
+            iterator.checkpoint();
+            try {
+                parseResult = alternative.parse().apply(parent);
+                iterator.discardCheckpoint();
+            } catch (SyntaxAnalyzerParseException e) {
+                iterator.rollback();
+                continue;
+            }
+
+            if (parseResult != null) {
+                break;
+            }
+        }
+        return parseResult;
+    }
+
+    /**
+     * Parses the rule, or reuses the result of parsing it at the same position before if packrat parsing is on.
+     * Failures are memoized too, a reused subtree is moved under the new parent.
+     */
+    protected final AstNode parseMemoized(int rule, AstNode parent, Function<AstNode, AstNode> parse) {
+        if (options.getPackrat() == SyntaxAnalyserOptions.PackratMode.NONE) {
+            return parse.apply(parent);
+        }
+
+        long key = (long) iterator.position() << Integer.SIZE | rule;
+        Memo memo = memos.get(key);
+        if (memo != null) {
+            if (memo.failure() != null) {
+                throw memo.failure();
+            }
+            iterator.seek(memo.end());
+            memo.node().setParent(parent);
+            return memo.node();
+        }
+
+        AstNode node;
+        try {
+            node = parse.apply(parent);
+        } catch (SyntaxAnalyzerParseException e) {
+            memos.put(key, new Memo(null, -1, e));
+            throw e;
+        }
+        memos.put(key, new Memo(node, iterator.position(), null));
+        return node;
+    }
+
+    /** Called after each top-level statement, drops memoized results when they are kept per statement */
+    protected final void endTopLevelStatement() {
+        if (options.getPackrat() == SyntaxAnalyserOptions.PackratMode.STATEMENT) {
+            memos.clear();
+        }
+    }
+
     @SafeVarargs
     protected final List<AstNode> parseSeries(AstNode parent, Function<AstNode, AstNode>... parseSeries) {
         List<AstNode> parseResult = new ArrayList<>();
@@ -72,6 +159,15 @@ public abstract class SyntaxAnalyser {
         return parseResult;
     }
 
+    /** Same as {@link #parseOptionalSeries(AstNode, Function[])}, skipped without a try in predictive mode */
+    @SafeVarargs
+    protected final List<AstNode> parseOptionalSeriesIf(AstNode parent, Predicate<LexToken> first, Function<AstNode, AstNode>... parseSeries) {
+        if (options.isPredictive() && !startsWith(first)) {
+            return new ArrayList<>();
+        }
+        return parseOptionalSeries(parent, parseSeries);
+    }
+
     @SafeVarargs
     protected final List<AstNode> parseRepeated(AstNode parent, Function<AstNode, AstNode>... parsePattern) {
         List<AstNode> parseResult = new ArrayList<>();
@@ -88,6 +184,31 @@ public abstract class SyntaxAnalyser {
         return parseResult;
     }
 
+    /** Same as {@link #parseRepeated(AstNode, Function[])}, stops without a try in predictive mode */
+    @SafeVarargs
+    protected final List<AstNode> parseRepeatedWhile(AstNode parent, Predicate<LexToken> first, Function<AstNode, AstNode>... parsePattern) {
+        if (!options.isPredictive()) {
+            return parseRepeated(parent, parsePattern);
+        }
+
+        List<AstNode> parseResult = new ArrayList<>();
+        while (startsWith(first)) {
+            iterator.checkpoint();
+            try {
+                parseResult.addAll(parseSeries(parent, parsePattern));
+                iterator.discardCheckpoint();
+            } catch (SyntaxAnalyzerParseException e) {
+                iterator.rollback();
+                break;
+            }
+        }
+        return parseResult;
+    }
+
+    private boolean startsWith(Predicate<LexToken> first) {
+        return iterator.hasNext() && first.test(iterator.peek());
+    }
+
     protected AstTokenNode parseToken(Set<LexTokenCode> expectedTokens, AstNode parent) {
         if (!iterator.hasNext()) {
             throw SyntaxExceptionFactory.noToken(expectedTokens);
@@ -129,4 +250,27 @@ public abstract class SyntaxAnalyser {
     protected Function<AstNode, AstNode> parseLiteralToken(LexLiteralTokenType expectedLiteralTokenType) {
         return parent -> parseLiteralToken(Set.of(expectedLiteralTokenType), parent);
     }
+
+    protected static Predicate<LexToken> first(Set<LexTokenCode> codes) {
+        return token -> codes.contains(token.getCode());
+    }
+
+    protected static Predicate<LexToken> first(LexTokenCode code) {
+        return token -> token.getCode() == code;
+    }
+
+    protected static Predicate<LexToken> firstLiteral(LexLiteralTokenType literalType) {
+        return token -> token instanceof LexLiteralToken literalToken && literalToken.getType() == literalType;
+    }
+
+    protected static Alternative alternative(Predicate<LexToken> first, Function<AstNode, AstNode> parse) {
+        return new Alternative(first, parse);
+    }
+
+    private record Memo(AstNode node, int end, SyntaxAnalyzerParseException failure) {
+    }
+
+    /** Alternative of a grammar rule together with the tokens it can start with */
+    protected record Alternative(Predicate<LexToken> first, Function<AstNode, AstNode> parse) {
+    }
 }
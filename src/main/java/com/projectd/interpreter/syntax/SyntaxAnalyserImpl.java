@@ -1,28 +1,108 @@
 package com.projectd.interpreter.syntax;
 
 import com.projectd.interpreter.syntax.contract.SyntaxAnalyserParseGrammar;
+import com.projectd.interpreter.syntax.iterator.LexTokenBufferIterator;
+import com.projectd.interpreter.syntax.iterator.LexTokenIterator;
 import com.projectd.interpreter.syntax.tree.AstGrammarNode;
 import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
 import com.projectd.interpreter.syntax.tree.AstNode;
+import com.projectd.interpreter.syntax.tree.AstTokenNode;
 import com.projectd.interpreter.lex.token.*;
+import com.projectd.interpreter.shared.exception.SyntaxAnalyzerParseException;
 import com.projectd.interpreter.shared.exception.SyntaxExceptionFactory;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.stream.StreamSupport;
 
 public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
+    /** Rules memoized by packrat parsing: an assignment parses its Primary again as an expression when it fails */
+    private static final int EXPRESSION_RULE = 0;
+    private static final int PRIMARY_RULE = 1;
+
+    private static final Set<LexTokenCode> READ_OPERATIONS = EnumSet.of(LexTokenCode.READ_INT, LexTokenCode.READ_REAL, LexTokenCode.READ_STRING);
+    private static final Set<LexTokenCode> UNARY_OPERATORS = EnumSet.of(LexTokenCode.ADDITION, LexTokenCode.SUBTRACTION, LexTokenCode.NOT);
+    private static final Set<LexTokenCode> PRIMARY_FIRST = union(EnumSet.of(LexTokenCode.IDENTIFIER), READ_OPERATIONS);
+    private static final Set<LexTokenCode> UNARY_PRIMARY_FIRST = union(UNARY_OPERATORS, PRIMARY_FIRST);
+    private static final Set<LexTokenCode> LITERAL_FIRST = EnumSet.of(LexTokenCode.LITERAL,
+            LexTokenCode.OPEN_SQUARE_BRACKET,
+            LexTokenCode.OPEN_CURLY_BRACKET,
+            LexTokenCode.FUNC);
+    private static final Set<LexTokenCode> EXPRESSION_FIRST = union(UNARY_OPERATORS, PRIMARY_FIRST, LITERAL_FIRST,
+            EnumSet.of(LexTokenCode.OPEN_ROUND_BRACKET));
+    private static final Set<LexTokenCode> STATEMENT_FIRST = union(EXPRESSION_FIRST, EnumSet.of(LexTokenCode.VAR,
+            LexTokenCode.PRINT,
+            LexTokenCode.RETURN,
+            LexTokenCode.IF,
+            LexTokenCode.FOR,
+            LexTokenCode.WHILE));
+    private static final Set<LexTokenCode> TAIL_FIRST = EnumSet.of(LexTokenCode.DOT,
+            LexTokenCode.OPEN_SQUARE_BRACKET,
+            LexTokenCode.OPEN_ROUND_BRACKET);
+    private static final Set<LexTokenCode> DISJUNCTION_OPERATORS = EnumSet.of(LexTokenCode.OR, LexTokenCode.XOR);
+    private static final Set<LexTokenCode> RELATION_OPERATORS = EnumSet.of(LexTokenCode.LESS,
+            LexTokenCode.LESS_OR_EQUAL,
+            LexTokenCode.MORE,
+            LexTokenCode.MORE_OR_EQUAL,
+            LexTokenCode.EQUAL,
+            LexTokenCode.NOT_EQUAL);
+    private static final Set<LexTokenCode> ADDITIVE_OPERATORS = EnumSet.of(LexTokenCode.ADDITION, LexTokenCode.SUBTRACTION);
+    private static final Set<LexTokenCode> MULTIPLICATIVE_OPERATORS = EnumSet.of(LexTokenCode.MULTIPLICATION, LexTokenCode.DIVISION);
+    /** Binding power of binary operators in compact expressions, relations are not associative */
+    private static final Map<LexTokenCode, Integer> BINARY_PRECEDENCE = precedence(
+            DISJUNCTION_OPERATORS, Set.of(LexTokenCode.AND), RELATION_OPERATORS, ADDITIVE_OPERATORS, MULTIPLICATIVE_OPERATORS);
+    private static final int NO_PRECEDENCE = 0;
+    private static final int LOWEST_PRECEDENCE = 1;
+    private static final int RELATION_PRECEDENCE = BINARY_PRECEDENCE.get(LexTokenCode.LESS);
+    private static final Set<LexTokenCode> BASIC_TYPES = EnumSet.of(LexTokenCode.INT,
+            LexTokenCode.REAL,
+            LexTokenCode.BOOLEAN,
+            LexTokenCode.STRING,
+            LexTokenCode.EMPTY,
+            LexTokenCode.FUNC);
+
     private final SyntaxAnalyserParseGrammar parseLoop = new ParseLoop();
     private final SyntaxAnalyserParseGrammar parsePrimary = new ParsePrimary();
     private final SyntaxAnalyserParseGrammar parseTail = new ParseTail();
-    private final SyntaxAnalyserParseGrammar parseUnary = new ParseUnary();
+    private final ParseUnary parseUnary = new ParseUnary();
+    private final SyntaxAnalyserParseGrammar parseCompactExpression = new ParseCompactExpression();
     private final SyntaxAnalyserParseGrammar parseFunBody = new ParseFunBody();
     private final SyntaxAnalyserParseGrammar parseTypeIndicator = new ParseTypeIndicator();
 
+    private final Alternative[] statementAlternatives = {
+            alternative(first(PRIMARY_FIRST), this::parseAssignment),
+            alternative(first(LexTokenCode.VAR), this::parseDeclaration),
+            alternative(first(LexTokenCode.PRINT), this::parsePrint),
+            alternative(first(LexTokenCode.RETURN), this::parseReturn),
+            alternative(first(LexTokenCode.IF), this::parseIf),
+            alternative(first(EnumSet.of(LexTokenCode.FOR, LexTokenCode.WHILE)), this.parseLoop::parse),
+            alternative(first(EXPRESSION_FIRST), this::parseExpression)};
+
     public SyntaxAnalyserImpl(List<LexToken> tokens) {
-        super(tokens.stream().filter(t -> !t.getCode().equals(LexTokenCode.SEMICOLON)).collect(Collectors.toList()));
+        this(tokens, SyntaxAnalyserOptions.DEFAULT);
+    }
+
+    public SyntaxAnalyserImpl(List<LexToken> tokens, SyntaxAnalyserOptions options) {
+        this(tokens.iterator(), options);
+    }
+
+    public SyntaxAnalyserImpl(Iterator<LexToken> tokens) {
+        this(tokens, SyntaxAnalyserOptions.DEFAULT);
+    }
+
+    /** Tokens are pulled from the source only as far as the parser has advanced */
+    public SyntaxAnalyserImpl(Iterator<LexToken> tokens, SyntaxAnalyserOptions options) {
+        super(new LexTokenIterator(StreamSupport.stream(Spliterators.spliteratorUnknownSize(tokens, Spliterator.ORDERED), false)
+                .filter(t -> !t.getCode().equals(LexTokenCode.SEMICOLON))
+                .iterator()), options);
+    }
+
+    public SyntaxAnalyserImpl(LexTokenBuffer tokens) {
+        this(tokens, SyntaxAnalyserOptions.DEFAULT);
+    }
+
+    public SyntaxAnalyserImpl(LexTokenBuffer tokens, SyntaxAnalyserOptions options) {
+        super(new LexTokenBufferIterator(tokens, Set.of(LexTokenCode.SEMICOLON)), options);
     }
 
     @Override
@@ -31,6 +111,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
         while (iterator.hasNext()) {
             program.addChild(parseStatement(program));
+            endTopLevelStatement();
         }
 
         return program;
@@ -40,14 +121,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
     private AstNode parseStatement(AstNode parent) {
         AstGrammarNode statement = new AstGrammarNode(AstGrammarNodeType.STATEMENT, parent);
 
-        AstNode child = parseAnyOf(statement,
-                this::parseAssignment,
-                this::parseDeclaration,
-                this::parsePrint,
-                this::parseReturn,
-                this::parseIf,
-                this.parseLoop::parse,
-                this::parseExpression);
+        AstNode child = parseAnyOf(statement, statementAlternatives);
 
         if (child == null) {
             if (!iterator.hasNext()) {
@@ -83,7 +157,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
                 parseToken(LexTokenCode.VAR),
                 this::parseVariableDefinition));
 
-        children.addAll(parseRepeated(declaration,
+        children.addAll(parseRepeatedWhile(declaration, first(LexTokenCode.COMMA),
                 parseToken(LexTokenCode.COMMA),
                 this::parseVariableDefinition));
 
@@ -99,7 +173,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
         children.addAll(parseSeries(variableDefinition,
                 parseToken(LexTokenCode.IDENTIFIER)));
 
-        children.addAll(parseOptionalSeries(variableDefinition,
+        children.addAll(parseOptionalSeriesIf(variableDefinition, first(LexTokenCode.ASSIGNMENT),
                 parseToken(LexTokenCode.ASSIGNMENT),
                 this::parseExpression));
 
@@ -115,7 +189,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
         children.addAll(parseSeries(print,
                 parseToken(LexTokenCode.PRINT),
                 this::parseExpression));
-        children.addAll(parseRepeated(print,
+        children.addAll(parseRepeatedWhile(print, first(LexTokenCode.COMMA),
                 parseToken(LexTokenCode.COMMA),
                 this::parseExpression));
 
@@ -131,7 +205,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
         children.addAll(parseSeries(returnNode,
                 parseToken(LexTokenCode.RETURN)));
 
-        children.addAll(parseOptionalSeries(returnNode,
+        children.addAll(parseOptionalSeriesIf(returnNode, first(EXPRESSION_FIRST),
                 this::parseExpression));
 
         returnNode.addChildren(children);
@@ -149,7 +223,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
                 parseToken(LexTokenCode.THEN),
                 this::parseBody));
 
-        children.addAll(parseOptionalSeries(ifNode,
+        children.addAll(parseOptionalSeriesIf(ifNode, first(LexTokenCode.ELSE),
                 parseToken(LexTokenCode.ELSE),
                 this::parseBody));
 
@@ -165,11 +239,13 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
     private class ParseLoop implements SyntaxAnalyserParseGrammar {
 
+        private final Alternative[] alternatives = {
+                alternative(first(LexTokenCode.FOR), this::parseLoopFor),
+                alternative(first(LexTokenCode.WHILE), this::parseLoopWhile)};
+
         /** Loop : while Expression LoopBody | for Identifier in Expression .. Expression LoopBody */
         public AstNode parse(AstNode parent) {
-            AstNode loop = parseAnyOf(parent,
-                    this::parseLoopFor,
-                    this::parseLoopWhile);
+            AstNode loop = parseAnyOf(parent, alternatives);
 
             if (loop == null) {
                 if (!iterator.hasNext()) {
@@ -235,7 +311,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
         AstGrammarNode body = new AstGrammarNode(AstGrammarNodeType.BODY, parent);
 
         List<AstNode> children = new ArrayList<>();
-        children.addAll(parseRepeated(body,
+        children.addAll(parseRepeatedWhile(body, first(STATEMENT_FIRST),
                 this::parseStatement));
 
         body.addChildren(children);
@@ -281,11 +357,17 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
     private class ParsePrimary implements SyntaxAnalyserParseGrammar {
 
-        /** Primary : Identifier { Tail } | readInt | readReal | readString */
+        private final Alternative[] alternatives = {
+                alternative(first(LexTokenCode.IDENTIFIER), this::parsePrimaryIdentifier),
+                alternative(first(READ_OPERATIONS), this::parsePrimaryTokens)};
+
         public AstNode parse(AstNode parent) {
-            AstNode primary = parseAnyOf(parent,
-                    this::parsePrimaryIdentifier,
-                    this::parsePrimaryTokens);
+            return parseMemoized(PRIMARY_RULE, parent, this::parseUncached);
+        }
+
+        /** Primary : Identifier { Tail } | readInt | readReal | readString */
+        private AstNode parseUncached(AstNode parent) {
+            AstNode primary = parseAnyOf(parent, alternatives);
 
             if (primary == null) {
                 if(!iterator.hasNext()) {
@@ -305,7 +387,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
             List<AstNode> children = new ArrayList<>();
             children.addAll(parseSeries(primary,
                     parseToken(LexTokenCode.IDENTIFIER)));
-            children.addAll(parseRepeated(primary,
+            children.addAll(parseRepeatedWhile(primary, first(TAIL_FIRST),
                     SyntaxAnalyserImpl.this.parseTail::parse));
 
             primary.addChildren(children);
@@ -315,10 +397,8 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
         /** Primary : readInt | readReal | readString */
         private AstNode parsePrimaryTokens(AstNode parent) {
             AstGrammarNode primary = new AstGrammarNode(AstGrammarNodeType.PRIMARY, parent);
-            Set<LexTokenCode> expectedCodes = Set.of(LexTokenCode.READ_INT, LexTokenCode.READ_REAL, LexTokenCode.READ_STRING);
-
             List<AstNode> children = parseSeries(primary,
-                    parseToken(expectedCodes));
+                    parseToken(READ_OPERATIONS));
 
             primary.addChildren(children);
             return primary;
@@ -330,13 +410,15 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
     private class ParseTail implements SyntaxAnalyserParseGrammar {
 
+        private final Alternative[] alternatives = {
+                alternative(first(LexTokenCode.DOT), this::parseTailUnnamedTupleElement),
+                alternative(first(LexTokenCode.DOT), this::parseTailNamedTupleElement),
+                alternative(first(LexTokenCode.OPEN_SQUARE_BRACKET), this::parseTailArrayElement),
+                alternative(first(LexTokenCode.OPEN_ROUND_BRACKET), this::parseTailFunctionCall)};
+
         /** Tail : .IntegerLiteral | .Identifier | [Expression] | (Expression {, Expression}) */
         public AstNode parse(AstNode parent) {
-            AstNode tail = parseAnyOf(parent,
-                    this::parseTailUnnamedTupleElement,
-                    this::parseTailNamedTupleElement,
-                    this::parseTailArrayElement,
-                    this::parseTailFunctionCall);
+            AstNode tail = parseAnyOf(parent, alternatives);
 
             if (tail == null) {
                 if(!iterator.hasNext()) {
@@ -388,7 +470,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
                     parseToken(LexTokenCode.OPEN_ROUND_BRACKET),
                     SyntaxAnalyserImpl.this::parseExpression));
 
-            children.addAll(parseRepeated(tail,
+            children.addAll(parseRepeatedWhile(tail, first(LexTokenCode.COMMA),
                     parseToken(LexTokenCode.COMMA),
                     SyntaxAnalyserImpl.this::parseExpression));
 
@@ -403,15 +485,21 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
 
 
-    /** Expression : Conjunction { ( or | xor ) Conjunction } */
     private AstNode parseExpression(AstNode parent) {
+        return parseMemoized(EXPRESSION_RULE, parent, options.isCompactExpressions()
+                ? this.parseCompactExpression::parse
+                : this::parseExpressionUncached);
+    }
+
+    /** Expression : Conjunction { ( or | xor ) Conjunction } */
+    private AstNode parseExpressionUncached(AstNode parent) {
         AstNode expression = new AstGrammarNode(AstGrammarNodeType.EXPRESSION, parent);
 
         List<AstNode> children = new ArrayList<>();
         children.addAll(parseSeries(expression,
                 this::parseConjunction));
-        children.addAll(parseRepeated(expression,
-                parseToken(Set.of(LexTokenCode.OR, LexTokenCode.XOR)),
+        children.addAll(parseRepeatedWhile(expression, first(DISJUNCTION_OPERATORS),
+                parseToken(DISJUNCTION_OPERATORS),
                 this::parseConjunction));
 
         expression.addChildren(children);
@@ -426,7 +514,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
         children.addAll(parseSeries(conjunction,
                 this::parseRelation));
 
-        children.addAll(parseRepeated(conjunction,
+        children.addAll(parseRepeatedWhile(conjunction, first(LexTokenCode.AND),
                 parseToken(LexTokenCode.AND),
                 this::parseRelation));
 
@@ -442,14 +530,8 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
         children.addAll(parseSeries(relation,
                 this::parseFactor));
 
-        Set<LexTokenCode> codes = Set.of(LexTokenCode.LESS,
-                LexTokenCode.LESS_OR_EQUAL,
-                LexTokenCode.MORE,
-                LexTokenCode.MORE_OR_EQUAL,
-                LexTokenCode.EQUAL,
-                LexTokenCode.NOT_EQUAL);
-        children.addAll(parseOptionalSeries(relation,
-                parseToken(codes),
+        children.addAll(parseOptionalSeriesIf(relation, first(RELATION_OPERATORS),
+                parseToken(RELATION_OPERATORS),
                 this::parseFactor));
 
         relation.addChildren(children);
@@ -464,9 +546,8 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
         children.addAll(parseSeries(factor,
                 this::parseTerm));
 
-        Set<LexTokenCode> codes = Set.of(LexTokenCode.ADDITION, LexTokenCode.SUBTRACTION);
-        children.addAll(parseRepeated(factor,
-                parseToken(codes),
+        children.addAll(parseRepeatedWhile(factor, first(ADDITIVE_OPERATORS),
+                parseToken(ADDITIVE_OPERATORS),
                 this::parseTerm));
 
         factor.addChildren(children);
@@ -481,9 +562,8 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
         children.addAll(parseSeries(term,
                 this.parseUnary::parse));
 
-        Set<LexTokenCode> codes = Set.of(LexTokenCode.MULTIPLICATION, LexTokenCode.DIVISION);
-        children.addAll(parseRepeated(term,
-                parseToken(codes),
+        children.addAll(parseRepeatedWhile(term, first(MULTIPLICATIVE_OPERATORS),
+                parseToken(MULTIPLICATIVE_OPERATORS),
                 this.parseUnary::parse));
 
         term.addChildren(children);
@@ -493,14 +573,145 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
 
 
+    /**
+     * Expression parsed by precedence climbing. Accepts the same language as the Expression rule, but builds
+     * one BINARY_OPERATION node (left operand, operator, right operand) per operator and keeps operands unwrapped.
+     */
+    private class ParseCompactExpression implements SyntaxAnalyserParseGrammar {
+
+        private final Alternative[] operandAlternatives = {
+                alternative(first(UNARY_PRIMARY_FIRST), this::parseOperandPrimary),
+                alternative(first(LITERAL_FIRST), SyntaxAnalyserImpl.this.parseUnary::parseLiteral),
+                alternative(first(LexTokenCode.OPEN_ROUND_BRACKET), this::parseOperandExpression)};
+
+        public AstNode parse(AstNode parent) {
+            return parseOperation(parent, LOWEST_PRECEDENCE);
+        }
+
+        /** Operation : Operand { BinaryOperator Operation }, with operators binding at least as tight as given */
+        private AstNode parseOperation(AstNode parent, int minPrecedence) {
+            AstNode left = parseOperand(parent);
+
+            while (iterator.hasNext()) {
+                int precedence = precedenceOf(iterator.peek());
+                if (precedence == NO_PRECEDENCE || precedence < minPrecedence) {
+                    break;
+                }
+
+                // An operator without a valid right operand ends the expression before it, as in the Expression rule
+                iterator.checkpoint();
+                AstNode right;
+                AstTokenNode operator = new AstTokenNode(iterator.next(), parent);
+                try {
+                    right = parseOperation(parent, precedence + 1);
+                    iterator.discardCheckpoint();
+                } catch (SyntaxAnalyzerParseException e) {
+                    iterator.rollback();
+                    break;
+                }
+
+                left = operation(AstGrammarNodeType.BINARY_OPERATION, parent, left, operator, right);
+                if (endsAfter(precedence)) {
+                    break;
+                }
+            }
+
+            return left;
+        }
+
+        /** Operand : [ + | - | not ] Primary [ is TypeIndicator ] | Literal | ( Expression ) */
+        private AstNode parseOperand(AstNode parent) {
+            AstNode operand = parseAnyOf(parent, operandAlternatives);
+
+            if (operand == null) {
+                if(!iterator.hasNext()) {
+                    throw SyntaxExceptionFactory.noToken();
+                }
+                LexTokenSpan span = iterator.next().getSpan();
+                throw SyntaxExceptionFactory.ambiguousGrammar(AstGrammarNodeType.UNARY, span.getLineNum(), span.getPos());
+            }
+
+            return operand;
+        }
+
+        /** Operand : [ + | - | not ] Primary [ is TypeIndicator ] */
+        private AstNode parseOperandPrimary(AstNode parent) {
+            List<AstNode> operator = parseOptionalSeriesIf(parent, first(UNARY_OPERATORS),
+                    parseToken(UNARY_OPERATORS));
+
+            AstNode operand = SyntaxAnalyserImpl.this.parsePrimary.parse(parent);
+            if (!operator.isEmpty()) {
+                operand = operation(AstGrammarNodeType.UNARY_OPERATION, parent, operator.get(0), operand);
+            }
+
+            List<AstNode> typeCheck = parseOptionalSeriesIf(parent, first(LexTokenCode.IS),
+                    parseToken(LexTokenCode.IS),
+                    SyntaxAnalyserImpl.this.parseTypeIndicator::parse);
+            if (!typeCheck.isEmpty()) {
+                operand = operation(AstGrammarNodeType.TYPE_CHECK, parent, operand, typeCheck.get(0), typeCheck.get(1));
+            }
+
+            return operand;
+        }
+
+        /** Operand : ( Expression ) */
+        private AstNode parseOperandExpression(AstNode parent) {
+            List<AstNode> children = parseSeries(parent,
+                    parseToken(LexTokenCode.OPEN_ROUND_BRACKET),
+                    SyntaxAnalyserImpl.this::parseExpression,
+                    parseToken(LexTokenCode.CLOSED_ROUND_BRACKET));
+
+            return children.get(1);
+        }
+
+        /**
+         * Whether the expression must end after an operation of the given precedence: either a second relation follows,
+         * or a tighter operator is left over because its right operand failed to parse.
+         */
+        private boolean endsAfter(int precedence) {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            int next = precedenceOf(iterator.peek());
+            return next > precedence || next == RELATION_PRECEDENCE && precedence == RELATION_PRECEDENCE;
+        }
+
+        private int precedenceOf(LexToken token) {
+            return BINARY_PRECEDENCE.getOrDefault(token.getCode(), NO_PRECEDENCE);
+        }
+
+        private AstNode operation(AstGrammarNodeType type, AstNode parent, AstNode... operands) {
+            AstNode operation = new AstGrammarNode(type, parent);
+            for (AstNode operand : operands) {
+                operand.setParent(operation);
+                operation.addChild(operand);
+            }
+            return operation;
+        }
+    }
+
+
+
+
     private class ParseUnary implements SyntaxAnalyserParseGrammar {
 
+        private final Alternative[] literalAlternatives = {
+                alternative(firstLiteral(LexLiteralTokenType.INT), this::parseUnaryIntegerLiteral),
+                alternative(firstLiteral(LexLiteralTokenType.REAL), this::parseUnaryRealLiteral),
+                alternative(firstLiteral(LexLiteralTokenType.BOOLEAN), this::parseUnaryBooleanLiteral),
+                alternative(firstLiteral(LexLiteralTokenType.STRING), this::parseUnaryStringLiteral),
+                alternative(first(LexTokenCode.OPEN_SQUARE_BRACKET), this::parseUnaryArrayLiteral),
+                alternative(first(LexTokenCode.OPEN_CURLY_BRACKET), this::parseUnaryTupleLiteral),
+                alternative(first(LexTokenCode.FUNC), this::parseUnaryFunctionLiteral)};
+
+        private final Alternative[] unaryAlternatives = {
+                alternative(first(UNARY_PRIMARY_FIRST), this::parseUnaryTypePrimary),
+                alternative(first(LITERAL_FIRST), this::parseUnaryLiteral),
+                alternative(first(LexTokenCode.OPEN_ROUND_BRACKET), this::parseUnaryTypeExpression)};
+
         /** Unary : [ + | - | not ] Primary [ is TypeIndicator ] | Literal | ( Expression ) */
         public AstNode parse(AstNode parent) {
-            AstNode unary = parseAnyOf(parent,
-                    this::parseUnaryTypePrimary,
-                    this::parseUnaryLiteral,
-                    this::parseUnaryTypeExpression);
+            AstNode unary = parseAnyOf(parent, unaryAlternatives);
 
             if (unary == null) {
                 if(!iterator.hasNext()) {
@@ -518,14 +729,13 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
             AstNode unary = new AstGrammarNode(AstGrammarNodeType.UNARY, parent);
 
             List<AstNode> children = new ArrayList<>();
-            Set<LexTokenCode> codes = Set.of(LexTokenCode.ADDITION, LexTokenCode.SUBTRACTION, LexTokenCode.NOT);
-            children.addAll(parseOptionalSeries(unary,
-                    parseToken(codes)));
+            children.addAll(parseOptionalSeriesIf(unary, first(UNARY_OPERATORS),
+                    parseToken(UNARY_OPERATORS)));
 
             children.addAll(parseSeries(unary,
                     SyntaxAnalyserImpl.this.parsePrimary::parse));
 
-            children.addAll(parseOptionalSeries(unary,
+            children.addAll(parseOptionalSeriesIf(unary, first(LexTokenCode.IS),
                     parseToken(LexTokenCode.IS),
                     SyntaxAnalyserImpl.this.parseTypeIndicator::parse));
 
@@ -552,15 +762,14 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
          | FunctionLiteral */
         private AstNode parseUnaryLiteral(AstNode parent) {
             AstNode unary = new AstGrammarNode(AstGrammarNodeType.UNARY, parent);
+            unary.addChild(parseLiteral(parent));
+            return unary;
+        }
 
-            AstNode child = parseAnyOf(parent,
-                    this::parseUnaryIntegerLiteral,
-                    this::parseUnaryRealLiteral,
-                    this::parseUnaryBooleanLiteral,
-                    this::parseUnaryStringLiteral,
-                    this::parseUnaryArrayLiteral,
-                    this::parseUnaryTupleLiteral,
-                    this::parseUnaryFunctionLiteral);
+        /** Literal : IntegerLiteral | RealLiteral | BooleanLiteral | StringLiteral | ArrayLiteral | TupleLiteral
+         | FunctionLiteral */
+        private AstNode parseLiteral(AstNode parent) {
+            AstNode child = parseAnyOf(parent, literalAlternatives);
 
             if (child == null) {
                 if(!iterator.hasNext()) {
@@ -570,8 +779,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
                 throw SyntaxExceptionFactory.ambiguousGrammar(AstGrammarNodeType.LITERAL, span.getLineNum(), span.getPos());
             }
 
-            unary.addChild(child);
-            return unary;
+            return child;
         }
 
         /** Literal : IntegerLiteral */
@@ -627,9 +835,9 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
             children.addAll(parseSeries(unaryArray,
                     parseToken(LexTokenCode.OPEN_SQUARE_BRACKET)));
 
-            children.addAll(parseOptionalSeries(unaryArray,
+            children.addAll(parseOptionalSeriesIf(unaryArray, first(EXPRESSION_FIRST),
                     SyntaxAnalyserImpl.this::parseExpression));
-            children.addAll(parseRepeated(unaryArray,
+            children.addAll(parseRepeatedWhile(unaryArray, first(LexTokenCode.COMMA),
                     parseToken(LexTokenCode.COMMA),
                     SyntaxAnalyserImpl.this::parseExpression));
 
@@ -650,9 +858,9 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
             children.addAll(parseSeries(unaryTuple,
                     parseToken(LexTokenCode.OPEN_CURLY_BRACKET)));
 
-            children.addAll(parseOptionalSeries(unaryTuple,
+            children.addAll(parseOptionalSeriesIf(unaryTuple, first(EXPRESSION_FIRST),
                     this::parseUnaryUnaryTupleElement));
-            children.addAll(parseRepeated(unaryTuple,
+            children.addAll(parseRepeatedWhile(unaryTuple, first(LexTokenCode.COMMA),
                     parseToken(LexTokenCode.COMMA),
                     this::parseUnaryUnaryTupleElement));
 
@@ -669,7 +877,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
             AstNode tupleElement = new AstGrammarNode(AstGrammarNodeType.TUPLE_ELEMENT, parent);
 
             List<AstNode> children = new ArrayList<>();
-            children.addAll(parseOptionalSeries(tupleElement,
+            children.addAll(parseOptionalSeriesIf(tupleElement, first(LexTokenCode.IDENTIFIER),
                     parseToken(LexTokenCode.IDENTIFIER),
                     parseToken(LexTokenCode.ASSIGNMENT)));
             children.addAll(parseSeries(tupleElement,
@@ -688,7 +896,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
             children.addAll(parseSeries(unaryFunction,
                     parseToken(LexTokenCode.FUNC)));
 
-            children.addAll(parseOptionalSeries(unaryFunction,
+            children.addAll(parseOptionalSeriesIf(unaryFunction, first(LexTokenCode.OPEN_ROUND_BRACKET),
                     SyntaxAnalyserImpl.this::parseFunctionParameters));
 
             children.addAll(parseSeries(unaryFunction,
@@ -712,7 +920,7 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
                 parseToken(LexTokenCode.OPEN_ROUND_BRACKET),
                 parseToken(LexTokenCode.IDENTIFIER)));
 
-        children.addAll(parseRepeated(parameters,
+        children.addAll(parseRepeatedWhile(parameters, first(LexTokenCode.COMMA),
                 parseToken(LexTokenCode.COMMA),
                 parseToken(LexTokenCode.IDENTIFIER)));
 
@@ -728,11 +936,13 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
     private class ParseFunBody implements SyntaxAnalyserParseGrammar {
 
+        private final Alternative[] alternatives = {
+                alternative(first(LexTokenCode.IS), this::parseFunctionBodyWithContent),
+                alternative(first(LexTokenCode.LAMBDA), this::parseFunctionBodyExpression)};
+
         /** FunBody : is Body end | => Expression */
         public AstNode parse(AstNode parent) {
-            AstNode funBody = parseAnyOf(parent,
-                    this::parseFunctionBodyWithContent,
-                    this::parseFunctionBodyExpression);
+            AstNode funBody = parseAnyOf(parent, alternatives);
 
             if (funBody == null) {
                 if(!iterator.hasNext()) {
@@ -777,12 +987,14 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
     private class ParseTypeIndicator implements SyntaxAnalyserParseGrammar {
 
+        private final Alternative[] alternatives = {
+                alternative(first(BASIC_TYPES), this::parseTypeIndicatorBasicKeywords),
+                alternative(first(LexTokenCode.OPEN_SQUARE_BRACKET), this::parseTypeIndicatorArray),
+                alternative(first(LexTokenCode.OPEN_CURLY_BRACKET), this::parseTypeIndicatorTuple)};
+
         /** TypeIndicator: int | real | bool | string | empty | [ ] | { } | func */
         public AstNode parse(AstNode parent) {
-            AstNode typeIndicator = parseAnyOf(parent,
-                    this::parseTypeIndicatorBasicKeywords,
-                    this::parseTypeIndicatorArray,
-                    this::parseTypeIndicatorTuple);
+            AstNode typeIndicator = parseAnyOf(parent, alternatives);
 
             if (typeIndicator == null) {
                 if(!iterator.hasNext()) {
@@ -800,15 +1012,8 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
             AstNode typeIndicator = new AstGrammarNode(AstGrammarNodeType.TYPE_INDICATOR, parent);
 
             List<AstNode> children = new ArrayList<>();
-            Set<LexTokenCode> codes = Set.of(
-                    LexTokenCode.INT,
-                    LexTokenCode.REAL,
-                    LexTokenCode.BOOLEAN,
-                    LexTokenCode.STRING,
-                    LexTokenCode.EMPTY,
-                    LexTokenCode.FUNC);
             children.addAll(parseSeries(typeIndicator,
-                    parseToken(codes)));
+                    parseToken(BASIC_TYPES)));
 
             typeIndicator.addChildren(children);
             return typeIndicator;
@@ -842,4 +1047,24 @@ public class SyntaxAnalyserImpl extends SyntaxAnalyser {
 
     }
 
-}
\ No newline at end of file
+    @SafeVarargs
+    private static Set<LexTokenCode> union(Set<LexTokenCode>... sets) {
+        Set<LexTokenCode> union = EnumSet.noneOf(LexTokenCode.class);
+        for (Set<LexTokenCode> set : sets) {
+            union.addAll(set);
+        }
+        return union;
+    }
+
+    /** Operator sets from the loosest to the tightest binding one */
+    @SafeVarargs
+    private static Map<LexTokenCode, Integer> precedence(Set<LexTokenCode>... levels) {
+        Map<LexTokenCode, Integer> precedence = new EnumMap<>(LexTokenCode.class);
+        for (int level = 0; level < levels.length; level++) {
+            for (LexTokenCode code : levels[level]) {
+                precedence.put(code, LOWEST_PRECEDENCE + level);
+            }
+        }
+        return precedence;
+    }
+}
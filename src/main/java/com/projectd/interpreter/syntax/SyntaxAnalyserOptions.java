@@ -0,0 +1,34 @@
+package com.projectd.interpreter.syntax;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/** Parsing strategies of the syntax analyser, only {@link #compactExpressions} changes the resulting tree */
+@Getter
+@Builder
+public class SyntaxAnalyserOptions {
+
+    public static final SyntaxAnalyserOptions DEFAULT = SyntaxAnalyserOptions.builder().build();
+
+    /** Choose alternatives and optional parts by the FIRST sets of the lookahead token instead of trying them in turn */
+    @Builder.Default
+    private final boolean predictive = false;
+
+    /** Memoize results of the expensive rules by token position, so that backtracking does not parse them again */
+    @Builder.Default
+    private final PackratMode packrat = PackratMode.NONE;
+
+    /**
+     * Parse expressions by precedence climbing into binary, unary and type check operation nodes
+     * instead of the Expression, Conjunction, Relation, Factor, Term and Unary levels
+     */
+    @Builder.Default
+    private final boolean compactExpressions = false;
+
+    public enum PackratMode {
+        NONE,
+        /** Memoized results are dropped after every top-level statement, so memory does not grow with the source */
+        STATEMENT,
+        UNBOUNDED
+    }
+}
@@ -0,0 +1,110 @@
+package com.projectd.interpreter.syntax.iterator;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenBuffer;
+import com.projectd.interpreter.lex.token.LexTokenCode;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Rollbackable cursor over a {@link LexTokenBuffer}.
+ * <p>
+ * Checkpoints are plain buffer indices, so nothing is copied, and tokens with one of the skipped codes are stepped over.
+ */
+public class LexTokenBufferIterator implements RollbackableIterator<LexToken> {
+
+    private final LexTokenBuffer tokens;
+    private final Set<LexTokenCode> skippedCodes;
+    private int cursor = 0;
+    private int[] cursorStack = new int[16];
+    private int cursorStackSize = 0;
+    /** Token at the cursor once it has been peeked, so it is materialized only once */
+    private LexToken peeked;
+
+    public LexTokenBufferIterator(LexTokenBuffer tokens) {
+        this(tokens, EnumSet.noneOf(LexTokenCode.class));
+    }
+
+    public LexTokenBufferIterator(LexTokenBuffer tokens, Set<LexTokenCode> skippedCodes) {
+        this.tokens = tokens;
+        this.skippedCodes = skippedCodes.isEmpty() ? EnumSet.noneOf(LexTokenCode.class) : EnumSet.copyOf(skippedCodes);
+        skipTokens();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < tokens.size();
+    }
+
+    @Override
+    public LexToken next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        LexToken token = peek();
+        cursor++;
+        peeked = null;
+        skipTokens();
+        return token;
+    }
+
+    @Override
+    public LexToken peek() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (peeked == null) {
+            peeked = tokens.get(cursor);
+        }
+        return peeked;
+    }
+
+    @Override
+    public void checkpoint() {
+        if (cursorStackSize == cursorStack.length) {
+            cursorStack = Arrays.copyOf(cursorStack, cursorStackSize * 2);
+        }
+        cursorStack[cursorStackSize++] = cursor;
+    }
+
+    @Override
+    public void discardCheckpoint() {
+        if (cursorStackSize == 0) {
+            throw new IllegalStateException("No checkpoints to discard");
+        }
+        cursorStackSize--;
+    }
+
+    @Override
+    public void rollback() {
+        if (cursorStackSize == 0) {
+            throw new IllegalStateException("No more checkpoints to rollback to");
+        }
+        cursor = cursorStack[--cursorStackSize];
+        peeked = null;
+    }
+
+    /** Position is the buffer index, skipped tokens included */
+    @Override
+    public int position() {
+        return cursor;
+    }
+
+    @Override
+    public void seek(int position) {
+        if (position < 0 || position > tokens.size()) {
+            throw new IllegalArgumentException(String.format("Position %d is out of the buffer", position));
+        }
+        cursor = position;
+        peeked = null;
+    }
+
+    private void skipTokens() {
+        while (cursor < tokens.size() && skippedCodes.contains(tokens.getCode(cursor))) {
+            cursor++;
+        }
+    }
+}
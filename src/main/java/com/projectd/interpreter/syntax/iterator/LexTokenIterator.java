@@ -4,27 +4,67 @@ import com.projectd.interpreter.lex.token.LexToken;
 
 import java.util.*;
 
+/**
+ * Rollbackable iterator over a possibly lazy token source.
+ * <p>
+ * Only tokens that may still be revisited are buffered: everything before the oldest open checkpoint
+ * is dropped, so the buffer is bounded by the longest construct the parser backtracks over, not the source size.
+ */
 public class LexTokenIterator implements RollbackableIterator<LexToken> {
 
-    private final List<LexToken> tokens;
+    private final Iterator<LexToken> source;
+    private final List<LexToken> window = new ArrayList<>();
+    /** Absolute position of the first buffered token */
+    private int windowStart = 0;
     private int cursor = 0;
     private final Stack<Integer> cursorStack = new Stack<>();
 
     public LexTokenIterator(List<LexToken> tokens) {
-        this.tokens = List.copyOf(tokens);
+        this(List.copyOf(tokens).iterator());
+    }
+
+    public LexTokenIterator(Iterator<LexToken> source) {
+        this.source = source;
     }
 
     @Override
     public boolean hasNext() {
-        return this.tokens.size() > cursor;
+        return cursor - windowStart < window.size() || source.hasNext();
     }
 
     @Override
     public LexToken next() {
-        if (!hasNext()) {
+        int windowCursor = cursor - windowStart;
+        if (windowCursor < window.size()) {
+            cursor++;
+            LexToken token = window.get(windowCursor);
+            trimWindow();
+            return token;
+        }
+
+        if (!source.hasNext()) {
             throw new NoSuchElementException();
         }
-        return tokens.get(cursor++);
+        LexToken token = source.next();
+        cursor++;
+        if (cursorStack.empty()) {
+            windowStart = cursor;
+        } else {
+            window.add(token);
+        }
+        return token;
+    }
+
+    @Override
+    public LexToken peek() {
+        int windowCursor = cursor - windowStart;
+        if (windowCursor == window.size()) {
+            if (!source.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            window.add(source.next());
+        }
+        return window.get(windowCursor);
     }
 
     @Override
@@ -32,11 +72,13 @@ public class LexTokenIterator implements RollbackableIterator<LexToken> {
         cursorStack.push(cursor);
     }
 
+    @Override
     public void discardCheckpoint() {
         if (cursorStack.empty()) {
             throw new IllegalStateException("No checkpoints to discard");
         }
         cursorStack.pop();
+        trimWindow();
     }
 
     @Override
@@ -45,6 +87,29 @@ public class LexTokenIterator implements RollbackableIterator<LexToken> {
             throw new IllegalStateException("No more checkpoints to rollback to");
         }
         cursor = cursorStack.pop();
+        trimWindow();
+    }
+
+    @Override
+    public int position() {
+        return cursor;
+    }
+
+    @Override
+    public void seek(int position) {
+        if (position < windowStart || position > windowStart + window.size()) {
+            throw new IllegalArgumentException(String.format("Position %d is not buffered", position));
+        }
+        cursor = position;
+        trimWindow();
     }
 
+    /** Drops the tokens that no open checkpoint can return to */
+    private void trimWindow() {
+        int keepFrom = cursorStack.empty() ? cursor : cursorStack.firstElement();
+        if (keepFrom > windowStart) {
+            window.subList(0, keepFrom - windowStart).clear();
+            windowStart = keepFrom;
+        }
+    }
 }
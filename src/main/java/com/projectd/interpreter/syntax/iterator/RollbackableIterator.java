@@ -3,7 +3,18 @@ package com.projectd.interpreter.syntax.iterator;
 import java.util.Iterator;
 
 public interface RollbackableIterator<E> extends Iterator<E> {
+    /** @return the element the next call to {@link #next()} returns, without advancing */
+    E peek();
+
     void checkpoint();
 
+    void discardCheckpoint();
+
     void rollback();
+
+    /** @return position of the cursor, to be passed to {@link #seek(int)} later */
+    int position();
+
+    /** Moves to a position that has been reached before and is still buffered */
+    void seek(int position);
 }
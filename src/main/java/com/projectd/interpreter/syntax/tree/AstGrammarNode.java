@@ -9,6 +9,9 @@ import java.util.List;
 public class AstGrammarNode extends AstNode {
     @Getter
     private final AstGrammarNodeType type;
+    /** Whether a statement of a BODY node declares a variable, cleared by the scope analysis of the executor */
+    @EqualsAndHashCode.Exclude
+    private boolean declaresVariables = true;
 
     public AstGrammarNode(AstGrammarNodeType type, AstNode parent) {
         super(parent);
@@ -24,6 +27,14 @@ public class AstGrammarNode extends AstNode {
         return type;
     }
 
+    public boolean declaresVariables() {
+        return declaresVariables;
+    }
+
+    public void setDeclaresVariables(boolean declaresVariables) {
+        this.declaresVariables = declaresVariables;
+    }
+
     @Override
     public String getContent() {
         return type.toString();
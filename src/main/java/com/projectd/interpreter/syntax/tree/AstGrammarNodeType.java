@@ -27,5 +27,8 @@ public enum AstGrammarNodeType {
     ARRAY_LITERAL,
     TUPLE_LITERAL,
     TUPLE_ELEMENT,
-    TYPE_INDICATOR;
+    TYPE_INDICATOR,
+    BINARY_OPERATION,
+    UNARY_OPERATION,
+    TYPE_CHECK;
 }
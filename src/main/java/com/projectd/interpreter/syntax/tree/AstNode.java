@@ -8,7 +8,7 @@ import java.util.List;
 
 @EqualsAndHashCode
 public abstract class AstNode {
-    private final AstNode parent;
+    private AstNode parent;
     private final List<AstNode> children;
 
     public AstNode(AstNode parent) {
@@ -21,6 +21,11 @@ public abstract class AstNode {
         this.children = children;
     }
 
+    /** Moves the node under another parent, used when a memoized subtree is reused */
+    public void setParent(AstNode parent) {
+        this.parent = parent;
+    }
+
     public List<AstNode> getChildren() {
         return this.children;
     }
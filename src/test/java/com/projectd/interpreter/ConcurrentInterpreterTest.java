@@ -0,0 +1,81 @@
+package com.projectd.interpreter;
+
+import com.projectd.interpreter.runtime.ExecutionEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class ConcurrentInterpreterTest {
+
+    private static final List<String> PROGRAM = List.of(
+            "var n := readInt, total := 0",
+            "var add := func (a, b) => a + b",
+            "for i in 1 .. 2000 loop total := add(total, i * n) end",
+            "print n, total");
+
+    @Test
+    public void testProgramsRunConcurrentlyWithOwnStreams() throws Exception {
+        for (ExecutionEngine engine : ExecutionEngine.values()) {
+            // Given
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            List<ByteArrayOutputStream> outputs = new ArrayList<>();
+
+            // When
+            try (ConcurrentInterpreter interpreter = new ConcurrentInterpreter(engine, 4)) {
+                for (int n = 0; n < 16; n++) {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    outputs.add(output);
+                    futures.add(interpreter.submit(PROGRAM,
+                            new ByteArrayInputStream((n + "\n").getBytes(StandardCharsets.UTF_8)),
+                            new PrintStream(output, true, StandardCharsets.UTF_8)));
+                }
+                for (CompletableFuture<Void> future : futures) {
+                    future.get();
+                }
+            }
+
+            // Then
+            for (int n = 0; n < 16; n++) {
+                String expected = n + " " + n * 2001000 + " " + System.lineSeparator();
+                assert (outputs.get(n).toString(StandardCharsets.UTF_8).equals(expected));
+            }
+        }
+    }
+
+    @Test
+    public void testOutputAndErrorsAreReportedPerProgram() throws Exception {
+        // Given
+        List<String> printing = List.of("var x := 0", "for i in 1 .. 1000 loop x := x + i end", "print x");
+        List<String> failing = List.of("var x := 1", "print x - \"s\"");
+
+        try (ConcurrentInterpreter interpreter = new ConcurrentInterpreter(ExecutionEngine.CLOSURE, 4)) {
+            // When
+            List<CompletableFuture<String>> printed = new ArrayList<>();
+            List<CompletableFuture<String>> failed = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                printed.add(interpreter.submit(printing));
+                failed.add(interpreter.submit(failing));
+            }
+
+            // Then
+            for (CompletableFuture<String> future : printed) {
+                assert (future.get().equals("500500 " + System.lineSeparator()));
+            }
+            for (CompletableFuture<String> future : failed) {
+                try {
+                    future.get();
+                    assert (false);
+                } catch (ExecutionException e) {
+                    assert (e.getCause().getMessage().contains("subtraction"));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.projectd.interpreter.lex;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class LexerMappedSourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testExamplesMatchListLexing() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        assert (!examples.isEmpty());
+        for (Path example : examples) {
+            List<LexToken> expected = new TableDrivenLexicalAnalyser().analyse(Files.readAllLines(example));
+            List<LexToken> result = new ArrayList<>();
+            try (MappedSourceReader reader = new MappedSourceReader(example)) {
+                new TableDrivenLexicalAnalyser().analyse(reader).forEachRemaining(result::add);
+            }
+
+            assert (expected.stream().map(LexToken::toString).toList()
+                    .equals(result.stream().map(LexToken::toString).toList()));
+        }
+    }
+
+    @Test
+    public void testCharactersSplitByRegionBoundary() throws IOException {
+        // Given
+        String source = "print \"привет, 世界 😀\"\r\nvar x := 1\n\nprint x";
+        Path file = tempDir.resolve("source.d");
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+
+        // When
+        List<String> expected = Files.readAllLines(file);
+        List<List<String>> results = new ArrayList<>();
+        for (long regionSize = 1; regionSize <= 16; regionSize++) {
+            try (BufferedReader reader = new BufferedReader(new MappedSourceReader(file, regionSize))) {
+                results.add(reader.lines().toList());
+            }
+        }
+
+        // Then
+        assert (results.stream().allMatch(expected::equals));
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        // Given
+        Path file = Files.createFile(tempDir.resolve("empty.d"));
+
+        // Then
+        try (MappedSourceReader reader = new MappedSourceReader(file)) {
+            assert (reader.read() == -1);
+        }
+    }
+
+    @Test
+    public void testMalformedInput() throws IOException {
+        // Given
+        Path file = tempDir.resolve("malformed.d");
+        Files.write(file, new byte[]{'x', ' ', (byte) 0xC3, '('});
+
+        // Then
+        boolean failed = false;
+        try (MappedSourceReader reader = new MappedSourceReader(file)) {
+            reader.read(new char[16]);
+        } catch (MalformedInputException e) {
+            failed = true;
+        }
+        assert (failed);
+    }
+}
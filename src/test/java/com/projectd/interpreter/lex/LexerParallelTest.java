@@ -0,0 +1,140 @@
+package com.projectd.interpreter.lex;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenBuffer;
+import com.projectd.interpreter.shared.exception.LexBadIdentifierException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public class LexerParallelTest {
+
+    private static final int COPIES = 500;
+
+    @Test
+    public void testParallelLexingMatchesSequential() throws IOException {
+        // Given
+        List<String> sourceLines = generatedSource();
+        TableDrivenLexicalAnalyser sequential = new TableDrivenLexicalAnalyser(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        TableDrivenLexicalAnalyser parallel = new TableDrivenLexicalAnalyser(new ForkJoinPool(4), 1);
+
+        // When
+        List<String> expected = sequential.analyse(sourceLines).stream().map(LexToken::toString).toList();
+        List<String> result = parallel.analyse(sourceLines).stream().map(LexToken::toString).toList();
+        LexTokenBuffer buffer = parallel.analyseToBuffer(sourceLines);
+
+        // Then
+        assert (expected.equals(result));
+        assert (buffer.size() == expected.size());
+        for (int i = 0; i < buffer.size(); i++) {
+            assert (buffer.get(i).toString().equals(expected.get(i)));
+        }
+    }
+
+    @Test
+    public void testFirstErrorIsReported() throws IOException {
+        // Given
+        List<String> sourceLines = generatedSource();
+        int firstBadLine = sourceLines.size() / 3;
+        sourceLines.set(firstBadLine, "var x := 1 ! 2");
+        sourceLines.set(sourceLines.size() - 1, "var y := \"unterminated");
+        TableDrivenLexicalAnalyser parallel = new TableDrivenLexicalAnalyser(new ForkJoinPool(4), 1);
+
+        // When
+        String error = null;
+        try {
+            parallel.analyseToBuffer(sourceLines);
+        } catch (LexBadIdentifierException e) {
+            error = e.toString();
+        }
+
+        // Then
+        assert (error != null);
+        assert (error.contains("lineNum=" + (firstBadLine + 1) + ","));
+    }
+
+    @Test
+    public void testStreamedChunksMatchSequential() throws IOException {
+        // Given
+        List<String> sourceLines = generatedSource();
+        TableDrivenLexicalAnalyser sequential = new TableDrivenLexicalAnalyser(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        TableDrivenLexicalAnalyser parallel = new TableDrivenLexicalAnalyser(new ForkJoinPool(4), 1);
+
+        // When
+        List<String> expected = sequential.analyse(sourceLines).stream().map(LexToken::toString).toList();
+        List<String> result = new ArrayList<>();
+        parallel.analyse(new StringReader(String.join("\n", sourceLines))).forEachRemaining(t -> result.add(t.toString()));
+
+        // Then
+        assert (expected.equals(result));
+    }
+
+    @Test
+    public void testStreamedErrorFollowsTheTokensBeforeIt() throws IOException {
+        // Given
+        List<String> sourceLines = generatedSource();
+        int firstBadLine = sourceLines.size() / 3;
+        sourceLines.set(firstBadLine, "var x := 1 ! 2");
+        sourceLines.set(sourceLines.size() - 1, "var y := \"unterminated");
+        TableDrivenLexicalAnalyser parallel = new TableDrivenLexicalAnalyser(new ForkJoinPool(4), 1);
+
+        // When
+        Iterator<LexToken> tokens = parallel.analyse(new StringReader(String.join("\n", sourceLines)));
+        int lastLineNum = -1;
+        String error = null;
+        try {
+            while (tokens.hasNext()) {
+                lastLineNum = tokens.next().getSpan().getLineNum();
+            }
+        } catch (LexBadIdentifierException e) {
+            error = e.toString();
+        }
+
+        // Then
+        assert (error != null);
+        assert (error.contains("lineNum=" + (firstBadLine + 1) + ","));
+        assert (lastLineNum < firstBadLine + 1);
+    }
+
+    @Test
+    public void testEmptySourceIsLexedBelowAnyThreshold() {
+        // Given
+        TableDrivenLexicalAnalyser parallel = new TableDrivenLexicalAnalyser(new ForkJoinPool(4), 1);
+
+        // When
+        LexTokenBuffer buffer = parallel.analyseToBuffer(List.of());
+        boolean rejected = false;
+        try {
+            new TableDrivenLexicalAnalyser(ForkJoinPool.commonPool(), 0);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+
+        // Then
+        assert (buffer.size() == 0);
+        assert (rejected);
+    }
+
+    private static List<String> generatedSource() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        List<String> sourceLines = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            for (Path example : examples) {
+                sourceLines.addAll(Files.readAllLines(example));
+            }
+        }
+        return sourceLines;
+    }
+}
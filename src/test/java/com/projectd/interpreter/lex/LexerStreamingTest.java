@@ -0,0 +1,59 @@
+package com.projectd.interpreter.lex;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class LexerStreamingTest {
+
+    @Test
+    public void testExamplesMatchListLexing() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        assert (!examples.isEmpty());
+        for (Path example : examples) {
+            List<LexToken> expected = new TableDrivenLexicalAnalyser().analyse(Files.readAllLines(example));
+            List<LexToken> result;
+            try (Reader reader = Files.newBufferedReader(example)) {
+                result = drain(new TableDrivenLexicalAnalyser().analyse(reader));
+            }
+
+            assert (expected.stream().map(LexToken::toString).toList()
+                    .equals(result.stream().map(LexToken::toString).toList()));
+        }
+    }
+
+    @Test
+    public void testLineSeparatorsAndEmptyLines() {
+        // Given
+        String input = "var x := 1\r\n\r\nprint x\rprint \"a\"\n\n";
+
+        // When
+        List<LexToken> result = drain(new TableDrivenLexicalAnalyser().analyse(new StringReader(input)));
+        List<LexToken> defaultResult = drain(new LexicalAnalyserImpl().analyse(new StringReader(input)));
+
+        // Then
+        assert (result.stream().map(LexToken::toString).toList()
+                .equals(defaultResult.stream().map(LexToken::toString).toList()));
+        assert (result.size() == 8);
+        assert (result.get(7).getSpan().getLineNum() == 3);
+    }
+
+    private static List<LexToken> drain(Iterator<LexToken> tokens) {
+        List<LexToken> result = new ArrayList<>();
+        tokens.forEachRemaining(result::add);
+        return result;
+    }
+}
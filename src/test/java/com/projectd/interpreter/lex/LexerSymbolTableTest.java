@@ -0,0 +1,89 @@
+package com.projectd.interpreter.lex;
+
+import com.projectd.interpreter.DInterpreterImpl;
+import com.projectd.interpreter.lex.token.*;
+import com.projectd.interpreter.runtime.ExecutionEngine;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class LexerSymbolTableTest {
+
+    @Test
+    public void testIdentifiersShareSymbolIds() {
+        // Given
+        List<String> input = List.of("var counter := 1", "counter := counter + other");
+
+        LexSymbolTable symbols = new LexSymbolTable();
+
+        // When
+        List<LexIdentifierToken> identifiers = new TableDrivenLexicalAnalyser().analyse(input, symbols).stream()
+                .filter(t -> t instanceof LexIdentifierToken)
+                .map(t -> (LexIdentifierToken) t)
+                .toList();
+
+        // Then
+        assert (identifiers.size() == 4);
+        assert (identifiers.get(0).getSymbolId() == identifiers.get(1).getSymbolId());
+        assert (identifiers.get(1).getSymbolId() == identifiers.get(2).getSymbolId());
+        assert (identifiers.get(0).getIdentifier() == identifiers.get(2).getIdentifier());
+        assert (identifiers.get(3).getSymbolId() != identifiers.get(0).getSymbolId());
+        assert (symbols.nameOf(identifiers.get(3).getSymbolId()).equals("other"));
+    }
+
+    @Test
+    public void testBufferCarriesSymbolIds() {
+        // Given
+        List<String> input = List.of("print someName, 2");
+
+        // When
+        LexTokenBuffer buffer = new TableDrivenLexicalAnalyser().analyseToBuffer(input);
+
+        // Then
+        assert (buffer.getSymbolId(1) == buffer.getSymbols().intern("someName"));
+        assert (((LexIdentifierToken) buffer.get(1)).getSymbolId() == buffer.getSymbolId(1));
+    }
+
+    @Test
+    public void testLookupDoesNotIntern() {
+        // Given
+        String name = "neverLexedIdentifier";
+        LexSymbolTable symbols = new LexSymbolTable();
+
+        // Then
+        assert (symbols.lookup(name) == LexSymbolTable.NO_SYMBOL);
+        int symbolId = symbols.intern(name);
+        assert (symbols.lookup(name) == symbolId);
+    }
+
+    @Test
+    public void testExecutorsKeepTablesOfTheirOwn() {
+        for (ExecutionEngine engine : ExecutionEngine.values()) {
+            // Given
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            RuntimeIOHandler io = new RuntimeIOHandler(InputStream.nullInputStream(),
+                    new PrintStream(output, true, StandardCharsets.UTF_8));
+            RuntimeExecutor executor = engine.newExecutor(io);
+            RuntimeExecutor other = engine.newExecutor(io);
+
+            // When
+            new DInterpreterImpl(executor).interpretFromSource(List.of("var first := 1"));
+            new DInterpreterImpl(executor).interpretFromSource(List.of("var second := 2", "print second + 1"));
+            new DInterpreterImpl(other).interpretFromSource(List.of("var third := 3"));
+
+            // Then
+            assert (output.toString(StandardCharsets.UTF_8).equals("3 " + System.lineSeparator()));
+            assert (executor.getSymbolTable().lookup("first") == 0);
+            assert (executor.getSymbolTable().lookup("second") == 1);
+            assert (executor.getSymbolTable().lookup("third") == LexSymbolTable.NO_SYMBOL);
+            assert (other.getSymbolTable().lookup("third") == 0);
+            assert (other.getSymbolTable().lookup("first") == LexSymbolTable.NO_SYMBOL);
+        }
+    }
+}
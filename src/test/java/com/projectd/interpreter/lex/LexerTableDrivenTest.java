@@ -0,0 +1,80 @@
+package com.projectd.interpreter.lex;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.shared.exception.LexBadIdentifierException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class LexerTableDrivenTest {
+
+    @Test
+    public void testExamplesMatchReferenceLexer() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        assert (!examples.isEmpty());
+        for (Path example : examples) {
+            assertSameTokens(Files.readAllLines(example));
+        }
+    }
+
+    @Test
+    public void testEdgeCasesMatchReferenceLexer() {
+        // Given
+        String input = """
+                var emptyVar := x is empty
+                if readIntx then readString readReal1 end
+                var t := {a := 1, b := true, c := false}
+                print t.1 + t.b, 12.5 + 3, "" + "spaced  string"
+                endx := loop1 + int2 - real_ + in + is + iff
+                x/=y >= z <= w => v += 1 -= 2 ; a.b.c
+                trueish falsey boolean string func return while for not xor and or
+                	then	else
+                """;
+
+        // Then
+        assertSameTokens(Arrays.stream(input.split("\\r?\\n")).toList());
+    }
+
+    @Test
+    public void testBadIdentifiers() {
+        // Given
+        List<String> inputs = List.of("x := 1a.b", "a : b", "print \"unterminated", "x := 1 ! 2");
+
+        // Then
+        for (String input : inputs) {
+            assertBothFail(List.of(input));
+        }
+    }
+
+    private static void assertSameTokens(List<String> sourceLines) {
+        List<LexToken> expected = new LexicalAnalyserImpl().analyse(sourceLines);
+        List<LexToken> result = new TableDrivenLexicalAnalyser().analyse(sourceLines);
+
+        // LexToken equality ignores spans of identifiers and literals, so compare the full textual form
+        assert (expected.stream().map(LexToken::toString).toList()
+                .equals(result.stream().map(LexToken::toString).toList()));
+    }
+
+    private static void assertBothFail(List<String> sourceLines) {
+        assert (failsWithBadIdentifier(new LexicalAnalyserImpl(), sourceLines));
+        assert (failsWithBadIdentifier(new TableDrivenLexicalAnalyser(), sourceLines));
+    }
+
+    private static boolean failsWithBadIdentifier(LexicalAnalyser lexer, List<String> sourceLines) {
+        try {
+            lexer.analyse(sourceLines);
+        } catch (LexBadIdentifierException e) {
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package com.projectd.interpreter.lex;
+
+import com.projectd.interpreter.lex.token.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class LexerTokenBufferTest {
+
+    @Test
+    public void testExamplesMatchListLexing() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        assert (!examples.isEmpty());
+        for (Path example : examples) {
+            List<String> sourceLines = Files.readAllLines(example);
+            List<LexToken> expected = new TableDrivenLexicalAnalyser().analyse(sourceLines);
+
+            assertSameTokens(expected, new TableDrivenLexicalAnalyser().analyseToBuffer(sourceLines));
+            assertSameTokens(expected, new LexicalAnalyserImpl().analyseToBuffer(sourceLines));
+        }
+    }
+
+    @Test
+    public void testLiteralPayloads() {
+        // Given
+        List<LexToken> tokens = List.of(
+                LexLiteralToken.ofValue(-7, LexTokenSpan.of(0, 0)),
+                LexLiteralToken.ofValue(Integer.MAX_VALUE, LexTokenSpan.of(0, 3)),
+                LexLiteralToken.ofValue(2.5, LexTokenSpan.of(1, 0)),
+                LexLiteralToken.ofValue("text", LexTokenSpan.of(1, 4)),
+                LexLiteralToken.ofValue(true, LexTokenSpan.of(2, 0)),
+                LexLiteralToken.ofValue(false, LexTokenSpan.of(2, 5)),
+                new LexIdentifierToken("name", LexTokenSpan.of(3, 1)),
+                new LexToken(LexTokenSpan.of(3, 6), LexTokenCode.SEMICOLON)
+        );
+
+        // When
+        LexTokenBuffer buffer = new LexTokenBuffer();
+        tokens.forEach(buffer::add);
+
+        // Then
+        assertSameTokens(tokens, buffer);
+        assert (buffer.getCode(6) == LexTokenCode.IDENTIFIER);
+        assert (buffer.getLineNum(7) == 3 && buffer.getPos(7) == 6);
+    }
+
+    private static void assertSameTokens(List<LexToken> expected, LexTokenBuffer buffer) {
+        List<LexToken> result = new ArrayList<>();
+        for (int i = 0; i < buffer.size(); i++) {
+            result.add(buffer.get(i));
+        }
+
+        assert (expected.stream().map(LexToken::toString).toList()
+                .equals(result.stream().map(LexToken::toString).toList()));
+    }
+}
@@ -0,0 +1,122 @@
+package com.projectd.interpreter.runtime;
+
+import com.projectd.interpreter.DInterpreterImpl;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Runs the same programs on the tree walker and on the engine under test, which must print the same output and
+ * fail with the same errors. Every run reads "5" and prints into a buffer of its own, so tests can run in parallel.
+ */
+public abstract class EngineComparisonTest {
+
+    /** @return executor of the engine under test, reading and printing through the handler */
+    protected abstract RuntimeExecutor newExecutor(RuntimeIOHandler io);
+
+    /** @return programs that must fail on the engine as on the tree walker, besides the common ones */
+    protected List<String> engineRuntimeErrors() {
+        return List.of();
+    }
+
+    @Test
+    public void testExamplesPrintSameOutput() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        assert (!examples.isEmpty());
+        for (Path example : examples) {
+            assertSameOutput(Files.readAllLines(example));
+        }
+    }
+
+    @Test
+    public void testConstructsPrintSameOutput() {
+        // Given
+        String input = """
+                var a := [1, 2.5, "s"], t := {x := 1, 2, y := func (p, q) => p + q}
+                a[4] := -t.x + t.2 * (3 / 4.5) - 7
+                print a, (a[4] is real ), t.y(1, 2), t.1, (t.x is int ), a + ["u"]
+                var f := func (n) is
+                  if n <= 1 then return 1 else return n * f(n - 1) end
+                end
+                var i := 0
+                while i < 3 loop i := i + 1; var b := i = 2; print i, f(i), not b, -i end
+                for j in 1 .. 3 loop var k := j; print k /= 2, "s" + "t" end
+                var g := func (x) is print "no return", x end
+                print g(0), (g is func ), {a := 1} + {b := 2}
+                return 1
+                print "after return"
+                """;
+
+        // Then
+        assertSameOutput(lines(input));
+    }
+
+    @Test
+    public void testRuntimeErrorsAreIdentical() {
+        // Given
+        List<String> inputs = new ArrayList<>(List.of(
+                "print x",
+                "var t := {a := 1}; t.a := 2",
+                "var f := func => 1; f(1)",
+                "var f := func (p) => p; f(1) := 1",
+                "print 1 + \"s\"",
+                "var a := [1]; print a[0]",
+                "readInt := 1",
+                "for i in 3 .. 1 loop print i end",
+                "if 1 then print 1 end",
+                "print -\"s\"",
+                "var f := 1; f(2)"));
+        inputs.addAll(engineRuntimeErrors());
+
+        // Then
+        for (String input : inputs) {
+            assertSameOutput(List.of(input));
+        }
+    }
+
+    protected void assertSameOutput(List<String> sourceLines) {
+        assertSameOutput(this::newExecutor, sourceLines);
+    }
+
+    protected static void assertSameOutput(Function<RuntimeIOHandler, RuntimeExecutor> executors, List<String> sourceLines) {
+        String expected = run(ExecutionEngine.TREE::newExecutor, sourceLines);
+        String result = run(executors, sourceLines);
+
+        assert (!expected.isEmpty());
+        assert (expected.equals(result));
+    }
+
+    protected static List<String> lines(String input) {
+        return Arrays.stream(input.split("\\r?\\n")).toList();
+    }
+
+    /** @return printed output, followed by the class and message of the exception the program failed with */
+    private static String run(Function<RuntimeIOHandler, RuntimeExecutor> executors, List<String> sourceLines) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        InputStream in = new ByteArrayInputStream("5\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            new DInterpreterImpl(executors.apply(new RuntimeIOHandler(in, out))).interpretFromSource(sourceLines);
+        } catch (RuntimeException e) {
+            out.println(e.getClass().getName() + ": " + e.getMessage());
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,45 @@
+package com.projectd.interpreter.runtime;
+
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenCode;
+import com.projectd.interpreter.lex.token.LexTokenSpan;
+import com.projectd.interpreter.runtime.environment.RuntimeValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IntegerRangeTest {
+
+    private static final LexToken RANGE = new LexToken(LexTokenSpan.of(0, 0), LexTokenCode.DOT);
+
+    @Test
+    public void testHugeRangeIsCountedLazily() {
+        // Given
+        IntegerRange range = RuntimeOperationHandler.integerRange(RANGE, RuntimeValue.ofInt(1), RuntimeValue.ofInt(Integer.MAX_VALUE - 1));
+
+        // When
+        int first = range.next().asInt();
+        int second = range.next().asInt();
+
+        // Then
+        assert (first == 1);
+        assert (second == 2);
+        assert (range.hasNext());
+        assert (range.getLast() == Integer.MAX_VALUE - 1);
+    }
+
+    @Test
+    public void testRangeEndingAtMaxValueEnds() {
+        // Given
+        IntegerRange range = RuntimeOperationHandler.integerRange(RANGE, RuntimeValue.ofInt(Integer.MAX_VALUE - 2), RuntimeValue.ofInt(Integer.MAX_VALUE));
+
+        // When
+        List<Integer> values = new ArrayList<>();
+        range.forEachRemaining(value -> values.add(value.asInt()));
+
+        // Then
+        assert (values.equals(List.of(Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE)));
+        assert (!range.hasNext());
+    }
+}
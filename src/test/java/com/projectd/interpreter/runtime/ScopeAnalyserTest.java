@@ -0,0 +1,54 @@
+package com.projectd.interpreter.runtime;
+
+import com.projectd.interpreter.lex.TableDrivenLexicalAnalyser;
+import com.projectd.interpreter.syntax.SyntaxAnalyserImpl;
+import com.projectd.interpreter.syntax.SyntaxAnalyserOptions;
+import com.projectd.interpreter.syntax.tree.AstGrammarNode;
+import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ScopeAnalyserTest {
+
+    @Test
+    public void testBodiesWithoutDeclarationsAreMarked() {
+        // Given
+        String input = """
+                var i := 0
+                while i < 3 loop
+                  if i = 1 then var k := i else print i end
+                  i := i + 1
+                end
+                var f := func (n) is
+                  for j in 1 .. n loop if j = 2 then print j end end
+                  var r := n
+                  return r
+                end
+                """;
+        AstNode program = new SyntaxAnalyserImpl(new TableDrivenLexicalAnalyser().analyseToBuffer(
+                Arrays.stream(input.split("\\r?\\n")).toList()), SyntaxAnalyserOptions.builder().build()).buildAstTree();
+
+        // When
+        ScopeAnalyser.analyse(program);
+
+        // Then
+        List<AstGrammarNode> bodies = new ArrayList<>();
+        collectBodies(program, bodies);
+        List<Boolean> marks = bodies.stream().map(AstGrammarNode::declaresVariables).toList();
+        assert (marks.equals(List.of(false, true, false, true, false, false)));
+    }
+
+    /** Bodies in the order of their first token */
+    private static void collectBodies(AstNode node, List<AstGrammarNode> bodies) {
+        if (node instanceof AstGrammarNode grammarNode) {
+            if (grammarNode.getGrammarType() == AstGrammarNodeType.BODY) {
+                bodies.add(grammarNode);
+            }
+            grammarNode.getChildren().forEach(child -> collectBodies(child, bodies));
+        }
+    }
+}
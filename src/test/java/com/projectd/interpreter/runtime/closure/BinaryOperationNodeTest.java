@@ -0,0 +1,112 @@
+package com.projectd.interpreter.runtime.closure;
+
+import com.projectd.interpreter.ConcurrentInterpreter;
+import com.projectd.interpreter.DInterpreterImpl;
+import com.projectd.interpreter.runtime.ExecutionEngine;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class BinaryOperationNodeTest {
+
+    @Test
+    public void testNodesSpecialiseAndFallBackOnNewTypes() {
+        // Given
+        List<String> input = List.of(
+                "var add := func (a, b) => a + b",
+                "var s := 0, r := 0.5",
+                "for i in 0 .. 9 loop s := s + add(i, 1); r := r * 2.0 end",
+                "print s, r, add(1.5, 2.5), add(\"x\", \"y\"), add(2, 3), \"a\" + \"b\"");
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ClosureExecutor executor = executorPrintingTo(buffer);
+
+        // When
+        String output = run(executor, buffer, input);
+
+        // Then
+        assert (output.startsWith("55 512.0 4.0 xy 5 ab"));
+        List<BinaryOperationNode> nodes = executor.getOperationNodes();
+        assert (nodes.size() == 4);
+
+        BinaryOperationNode add = nodes.get(0);
+        assert (add.getSpecialisation() == BinaryOperationNode.Specialisation.GENERIC);
+        assert (add.getHits() == 10);
+        assert (add.getMisses() == 3);
+
+        BinaryOperationNode sum = nodes.get(1);
+        assert (sum.getSpecialisation() == BinaryOperationNode.Specialisation.INTEGER);
+        assert (sum.getHits() == 10);
+        assert (sum.getMisses() == 0);
+
+        BinaryOperationNode product = nodes.get(2);
+        assert (product.getSpecialisation() == BinaryOperationNode.Specialisation.REAL);
+        assert (product.getHits() == 10);
+
+        BinaryOperationNode concatenation = nodes.get(3);
+        assert (concatenation.getSpecialisation() == BinaryOperationNode.Specialisation.STRING);
+        assert (concatenation.getHits() == 1);
+    }
+
+    @Test
+    public void testInvalidOperandsFailAsGeneric() {
+        // Given
+        List<String> input = List.of("var f := func (a, b) => a - b", "print f(3, 1)", "print f(\"s\", 1)");
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ClosureExecutor executor = executorPrintingTo(buffer);
+
+        // When
+        String output = run(executor, buffer, input);
+
+        // Then
+        assert (output.startsWith("2 "));
+        assert (output.contains("Exception"));
+        assert (executor.getOperationNodes().get(0).getSpecialisation() == BinaryOperationNode.Specialisation.GENERIC);
+    }
+
+    @Test
+    public void testCountersOfEveryProgramAreKeptInTheProfile() {
+        // Given
+        List<String> input = List.of("var s := 0", "for i in 1 .. 5 loop s := s + i end", "print s");
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ClosureExecutor reused = executorPrintingTo(buffer);
+        OperationProfile profile;
+
+        // When
+        run(reused, buffer, input);
+        run(reused, buffer, input);
+        try (ConcurrentInterpreter perRun = new ConcurrentInterpreter(ExecutionEngine.CLOSURE, 2)) {
+            CompletableFuture.allOf(perRun.submit(input), perRun.submit(input)).join();
+            profile = perRun.getProfile();
+        }
+
+        // Then
+        assert (reused.getOperationNodes().size() == 1);
+        assert (reused.getOperationNodes().get(0).getHits() == 5);
+        assert (reused.getProfile().getPrograms() == 2);
+        assert (reused.getProfile().getHits() == 10);
+        assert (profile.getPrograms() == 2);
+        assert (profile.getHits() == 10);
+        assert (profile.getMisses() == 0);
+        assert (profile.getNodes(BinaryOperationNode.Specialisation.INTEGER) == 2);
+    }
+
+    private static ClosureExecutor executorPrintingTo(ByteArrayOutputStream buffer) {
+        return new ClosureExecutor(new RuntimeIOHandler(InputStream.nullInputStream(),
+                new PrintStream(buffer, true, StandardCharsets.UTF_8)));
+    }
+
+    private static String run(ClosureExecutor executor, ByteArrayOutputStream buffer, List<String> sourceLines) {
+        try {
+            new DInterpreterImpl(executor).interpretFromSource(sourceLines);
+        } catch (RuntimeException e) {
+            buffer.writeBytes((e.getClass().getName() + ": " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
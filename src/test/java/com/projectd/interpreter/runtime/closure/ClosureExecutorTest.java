@@ -0,0 +1,61 @@
+package com.projectd.interpreter.runtime.closure;
+
+import com.projectd.interpreter.runtime.EngineComparisonTest;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ClosureExecutorTest extends EngineComparisonTest {
+
+    @Override
+    protected RuntimeExecutor newExecutor(RuntimeIOHandler io) {
+        return new ClosureExecutor(io);
+    }
+
+    @Override
+    protected List<String> engineRuntimeErrors() {
+        return List.of(
+                "var x := 1; if x = 1 then var u := 2 end print u",
+                "for i in 1 .. i loop print i end",
+                "var g := func (p) => p + v; g(1)",
+                "var i := 0; while i < 2 loop i := i + 1; var w := 1 end w := 2");
+    }
+
+    @Test
+    public void testResolvedVariablesKeepDynamicScoping() {
+        // Given
+        String input = """
+                var show := func (p) is print "sees", x, p end
+                var caller := func (q) is var x := q * 2; show(q); x := x + 1; show(x) end
+                caller(1)
+                var x := "top"
+                show(0)
+                var i := 0, k := 10
+                while i < 3 loop
+                  print "k", k
+                  var k := i; i := i + 1
+                end
+                var j := 0, n := 3
+                while j < n loop print j, n; var j := j + 5; var n := 7 end
+                var y := 1
+                if y = 1 then var y := 2; print y; y := y + 1; print y else var z := 0 end
+                print y
+                for m in 1 .. 3 loop var y := y + m; print y end
+                var z := 1, w := z + 1, z := w * 3
+                print z, w
+                var twice := func (a, a) is var b := a; var a := a + 1; return a + b end
+                print twice(1, 2)
+                var outer := func (r) is
+                  var nested := func (u) => r + s + u
+                  var s := 1
+                  return nested(1)
+                end
+                print outer(4)
+                """;
+
+        // Then
+        assertSameOutput(lines(input));
+    }
+}
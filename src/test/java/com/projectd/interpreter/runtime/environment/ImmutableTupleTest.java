@@ -0,0 +1,121 @@
+package com.projectd.interpreter.runtime.environment;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.lex.token.LexSymbolTable;
+import com.projectd.interpreter.lex.token.LexTokenSpan;
+import org.junit.jupiter.api.Test;
+
+public class ImmutableTupleTest {
+
+    private static final LexSymbolTable SYMBOLS = new LexSymbolTable();
+
+    @Test
+    public void testTuplesOfOneLiteralShareItsShape() {
+        // Given
+        TupleShape shape = TupleShape.of(new LexIdentifierToken[]{name("x"), null});
+
+        // When
+        ImmutableTuple first = ImmutableTuple.of(shape, new RuntimeValue[]{RuntimeValue.ofInt(1), RuntimeValue.ofInt(2)});
+        ImmutableTuple second = ImmutableTuple.of(shape, new RuntimeValue[]{RuntimeValue.ofInt(3), RuntimeValue.ofInt(4)});
+        ImmutableTuple unnamed = tuple(RuntimeValue.ofInt(1));
+        ImmutableTuple longerUnnamed = ImmutableTuple.concatenate(unnamed, unnamed);
+
+        // Then
+        assert (first.getShape() == second.getShape());
+        assert (second.getNamedElement(RuntimeValue.ofValue("x")).asInt() == 3);
+        assert (unnamed.getShape() == TupleShape.UNNAMED);
+        assert (longerUnnamed.getShape() == TupleShape.UNNAMED);
+    }
+
+    @Test
+    public void testConcatenationsOfTheSameShapesShareAShape() {
+        // Given
+        ImmutableTuple left = point(1, 2);
+        ImmutableTuple right = point(3, 4);
+
+        // When
+        ImmutableTuple first = ImmutableTuple.concatenate(left, right);
+        ImmutableTuple second = ImmutableTuple.concatenate(left, right);
+        ImmutableTuple firstPrefixed = ImmutableTuple.concatenate(tuple(RuntimeValue.ofInt(0)), right);
+        ImmutableTuple secondPrefixed = ImmutableTuple.concatenate(tuple(RuntimeValue.ofInt(5)), right);
+        ImmutableTuple suffixed = ImmutableTuple.concatenate(left, tuple(RuntimeValue.ofInt(0)));
+
+        // Then
+        assert (first.getShape() == second.getShape());
+        assert (first.getNamedElement(RuntimeValue.ofValue("x")).asInt() == 3);
+        assert (firstPrefixed.getShape() == secondPrefixed.getShape());
+        assert (secondPrefixed.getNamedElement(RuntimeValue.ofValue("y")).asInt() == 4);
+        assert (suffixed.getShape() == left.getShape());
+    }
+
+    @Test
+    public void testLaterNamesShadowEarlierOnes() {
+        // Given
+        ImmutableTuple.Builder builder = ImmutableTuple.builder();
+        builder.addNamedElement(name("x"), RuntimeValue.ofInt(1));
+        builder.addUnnamedElement(RuntimeValue.ofInt(2));
+        builder.addNamedElement(name("x"), RuntimeValue.ofInt(3));
+        ImmutableTuple shadowed = builder.build();
+
+        // When
+        ImmutableTuple concatenated = ImmutableTuple.concatenate(point(5, 6), shadowed);
+
+        // Then
+        assert (shadowed.getNamedElement(RuntimeValue.ofValue("x")).asInt() == 3);
+        assert (concatenated.getNamedElement(RuntimeValue.ofValue("x")).asInt() == 3);
+        assert (concatenated.getNamedElement(RuntimeValue.ofValue("y")).asInt() == 6);
+        assert (concatenated.getUnnamedElement(RuntimeValue.ofInt(3)).asInt() == 1);
+        assert (concatenated.toString().equals("{5, 6, 1, 2, 3, }"));
+    }
+
+    @Test
+    public void testCacheFollowsTheShape() {
+        // Given
+        NamedElementCache cache = new NamedElementCache(name("y"));
+        ImmutableTuple other = ImmutableTuple.concatenate(tuple(RuntimeValue.ofInt(0)), point(7, 8));
+
+        // When
+        RuntimeValue fromFirst = cache.get(point(1, 2));
+        RuntimeValue fromSameShape = cache.get(point(3, 4));
+        RuntimeValue fromOtherShape = cache.get(other);
+
+        // Then
+        assert (fromFirst.asInt() == 2);
+        assert (fromSameShape.asInt() == 4);
+        assert (fromOtherShape.asInt() == 8);
+    }
+
+    @Test
+    public void testUnknownNameFails() {
+        // Given
+        ImmutableTuple unnamed = tuple(RuntimeValue.ofInt(1));
+
+        // When
+        boolean failed = false;
+        try {
+            unnamed.getNamedElement(RuntimeValue.ofValue("x"));
+        } catch (IndexOutOfBoundsException e) {
+            failed = true;
+        }
+
+        // Then
+        assert (failed);
+    }
+
+    private static ImmutableTuple point(int x, int y) {
+        ImmutableTuple.Builder builder = ImmutableTuple.builder();
+        builder.addNamedElement(name("x"), RuntimeValue.ofInt(x));
+        builder.addNamedElement(name("y"), RuntimeValue.ofInt(y));
+        return builder.build();
+    }
+
+    private static LexIdentifierToken name(String name) {
+        return new LexIdentifierToken(SYMBOLS, name, LexTokenSpan.of(0, 0));
+    }
+
+    private static ImmutableTuple tuple(RuntimeValue value) {
+        ImmutableTuple.Builder builder = ImmutableTuple.builder();
+        builder.addUnnamedElement(value);
+        return builder.build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.projectd.interpreter.runtime.environment;
+
+import org.junit.jupiter.api.Test;
+
+public class PersistentVectorTest {
+
+    @Test
+    public void testAppendBeyondSeveralLevels() {
+        // Given
+        PersistentVector vector = PersistentVector.EMPTY;
+
+        // When
+        for (int i = 0; i < 40_000; i++) {
+            vector = vector.append(RuntimeValue.ofInt(i));
+        }
+
+        // Then
+        assert (vector.size() == 40_000);
+        for (int i = 0; i < 40_000; i++) {
+            assert (vector.get(i).asInt() == i);
+        }
+    }
+
+    @Test
+    public void testOlderVersionsAreUnchanged() {
+        // Given
+        PersistentVector vector = PersistentVector.EMPTY;
+        for (int i = 0; i < 100; i++) {
+            vector = vector.append(RuntimeValue.ofInt(i));
+        }
+
+        // When
+        PersistentVector set = vector.set(3, RuntimeValue.ofInt(-3)).set(99, RuntimeValue.ofInt(-99));
+        PersistentVector appended = vector.append(null);
+
+        // Then
+        assert (vector.size() == 100);
+        assert (vector.get(3).asInt() == 3);
+        assert (vector.get(99).asInt() == 99);
+        assert (set.get(3).asInt() == -3);
+        assert (set.get(99).asInt() == -99);
+        assert (appended.size() == 101);
+        assert (appended.get(100) == null);
+    }
+}
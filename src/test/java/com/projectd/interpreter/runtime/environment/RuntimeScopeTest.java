@@ -0,0 +1,90 @@
+package com.projectd.interpreter.runtime.environment;
+
+import com.projectd.interpreter.lex.token.LexIdentifierToken;
+import com.projectd.interpreter.lex.token.LexSymbolTable;
+import com.projectd.interpreter.lex.token.LexTokenSpan;
+import com.projectd.interpreter.shared.exception.UndefinedVariableException;
+import org.junit.jupiter.api.Test;
+
+public class RuntimeScopeTest {
+
+    @Test
+    public void testStoreAndReplaceAcrossGrowth() {
+        // Given
+        RuntimeScope scope = new RuntimeScope();
+
+        // When
+        for (int symbolId = 0; symbolId < 1000; symbolId += 7) {
+            scope.storeValueBySymbol(symbolId, RuntimeValue.ofValue(symbolId));
+        }
+        boolean replaced = scope.replaceValueBySymbol(700, RuntimeValue.ofValue(-1));
+        boolean replacedUndeclared = scope.replaceValueBySymbol(701, RuntimeValue.ofValue(-1));
+
+        // Then
+        assert (replaced);
+        assert (!replacedUndeclared);
+        assert (!scope.hasSymbol(701));
+        assert (scope.getValueBySymbol(701) == null);
+        assert ((Integer) scope.getValueBySymbol(700).getValue() == -1);
+        for (int symbolId = 0; symbolId < 1000; symbolId += 7) {
+            assert (scope.hasSymbol(symbolId));
+            if (symbolId != 700) {
+                assert ((Integer) scope.getValueBySymbol(symbolId).getValue() == symbolId);
+            }
+        }
+    }
+
+    @Test
+    public void testFrameSlotsAreFoundBySymbol() {
+        // Given
+        RuntimeFrame frame = new RuntimeFrame(new int[]{3, 9});
+
+        // When
+        boolean replacedUndeclared = frame.replaceValueBySymbol(9, RuntimeValue.ofValue(1));
+        frame.setSlot(1, RuntimeValue.ofValue(2));
+        boolean replaced = frame.replaceValueBySymbol(9, RuntimeValue.ofValue(3));
+        frame.storeValueBySymbol(5, RuntimeValue.ofValue(4));
+
+        // Then
+        assert (!replacedUndeclared);
+        assert (replaced);
+        assert (!frame.hasSymbol(3));
+        assert (frame.getValueBySymbol(3) == null);
+        assert ((Integer) frame.getSlot(1).getValue() == 3);
+        assert ((Integer) frame.getValueBySymbol(5).getValue() == 4);
+    }
+
+    @Test
+    public void testFlushedScopesAreReusedEmpty() {
+        // Given
+        RuntimeEnvironment environment = new RuntimeEnvironment();
+        LexIdentifierToken x = new LexIdentifierToken(new LexSymbolTable(), "x", LexTokenSpan.of(0, 0));
+        int[] slots = {x.getSymbolId()};
+
+        // When
+        environment.nestScope();
+        environment.declareAndAssignVariable(x, RuntimeValue.ofValue(1));
+        environment.flushScope();
+        environment.nestScope();
+        boolean visibleInScope = tryGet(environment, x);
+        environment.flushScope();
+        environment.nestFrame(slots);
+        environment.declareAndAssignVariable(0, RuntimeValue.ofValue(2));
+        environment.flushScope();
+        environment.nestFrame(slots);
+        boolean visibleInFrame = tryGet(environment, x);
+
+        // Then
+        assert (!visibleInScope);
+        assert (!visibleInFrame);
+    }
+
+    private static boolean tryGet(RuntimeEnvironment environment, LexIdentifierToken identifier) {
+        try {
+            environment.getVariableValue(identifier);
+            return true;
+        } catch (UndefinedVariableException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.projectd.interpreter.runtime.environment;
+
+import org.junit.jupiter.api.Test;
+
+public class RuntimeValueTest {
+
+    @Test
+    public void testSmallIntegersBooleansAndEmptyAreShared() {
+        // Given
+        RuntimeValue small = RuntimeValue.ofInt(5);
+        RuntimeValue large = RuntimeValue.ofInt(100_000);
+
+        // When
+        RuntimeValue boxedSmall = RuntimeValue.ofValue(5);
+        RuntimeValue boxedLarge = RuntimeValue.ofValue(100_000);
+
+        // Then
+        assert (small == boxedSmall);
+        assert (large != boxedLarge);
+        assert (large.asInt() == boxedLarge.asInt());
+        assert (RuntimeValue.ofBoolean(true) == RuntimeValue.ofValue(true));
+        assert (RuntimeValue.ofBoolean(false) == RuntimeValue.ofValue(false));
+        assert (RuntimeValue.empty() == RuntimeValue.empty());
+    }
+
+    @Test
+    public void testPrimitivesAreBoxedOnDemand() {
+        // Given
+        RuntimeValue integer = RuntimeValue.ofInt(-42);
+        RuntimeValue real = RuntimeValue.ofReal(3.5);
+        RuntimeValue bool = RuntimeValue.ofBoolean(true);
+
+        // When
+        Object integerValue = integer.getValue();
+        Object realValue = real.getValue();
+        Object boolValue = bool.getValue();
+
+        // Then
+        assert (integerValue.equals(-42));
+        assert (realValue.equals(3.5));
+        assert (boolValue.equals(true));
+        assert (integer.asNumber() == -42.0);
+        assert (real.asNumber() == 3.5);
+        assert (RuntimeValue.empty().getValue() == null);
+    }
+
+    @Test
+    public void testToStringOfPrimitives() {
+        // Given, When, Then
+        assert (RuntimeValue.ofInt(7).toString().equals("7"));
+        assert (RuntimeValue.ofReal(3.5).toString().equals("3.5"));
+        assert (RuntimeValue.ofBoolean(false).toString().equals("false"));
+        assert (RuntimeValue.empty().toString().equals("empty"));
+        assert (RuntimeValue.ofValue("text").toString().equals("text"));
+    }
+
+    @Test
+    public void testRepeatedConcatenationFlattensOnRead() {
+        // Given
+        RuntimeValue text = RuntimeValue.ofValue("");
+        StringBuilder expected = new StringBuilder();
+
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            text = RuntimeValue.concatenate(text, RuntimeValue.ofValue(i + ","));
+            expected.append(i).append(',');
+        }
+        RuntimeValue prefixed = RuntimeValue.concatenate(RuntimeValue.ofValue(">"), text);
+
+        // Then
+        assert (text.getType() == RuntimeValue.RuntimeValueType.STRING);
+        assert (text.getValue().equals(expected.toString()));
+        assert (text.toString().equals(expected.toString()));
+        assert (prefixed.getValue().equals(">" + expected));
+        assert (RuntimeValue.concatenate(RuntimeValue.ofValue("a"), RuntimeValue.ofValue("b")).getValue().equals("ab"));
+    }
+}
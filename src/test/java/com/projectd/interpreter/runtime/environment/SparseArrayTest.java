@@ -0,0 +1,158 @@
+package com.projectd.interpreter.runtime.environment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class SparseArrayTest {
+
+    @Test
+    public void testDenseArrayGrowsWithHoles() {
+        // Given
+        SparseArray array = SparseArray.fromList(List.of(RuntimeValue.ofInt(1), RuntimeValue.ofInt(2)));
+
+        // When
+        array.set(3, RuntimeValue.ofInt(3));
+        array.set(10, RuntimeValue.ofInt(10));
+
+        // Then
+        assert (array.getLayout() == SparseArray.Layout.VALUES);
+        assert (array.get(3).asInt() == 3);
+        assert (array.get(5).getType() == RuntimeValue.RuntimeValueType.EMPTY);
+        assert (array.get(11).getType() == RuntimeValue.RuntimeValueType.EMPTY);
+        assert (array.toString().equals("[1=1, 2=2, 3=3, 10=10, ]"));
+    }
+
+    @Test
+    public void testFarWriteMovesToMap() {
+        // Given
+        SparseArrayOptions options = SparseArrayOptions.builder().maxGap(4).maxGapRatio(0).build();
+        SparseArray array = new SparseArray(options);
+        array.set(1, RuntimeValue.ofValue("1"));
+        array.set(6, RuntimeValue.ofValue("6"));
+
+        // When
+        SparseArray.Layout before = array.getLayout();
+        array.set(12, RuntimeValue.ofInt(12));
+
+        // Then
+        assert (before == SparseArray.Layout.VALUES);
+        assert (array.getLayout() == SparseArray.Layout.MAP);
+        assert (array.get(1).getValue().equals("1"));
+        assert (array.get(6).getValue().equals("6"));
+        assert (array.get(12).asInt() == 12);
+        assert (array.get(7).getType() == RuntimeValue.RuntimeValueType.EMPTY);
+        assert (array.toString().equals("[1=1, 6=6, 12=12, ]"));
+    }
+
+    @Test
+    public void testConcatenationShiftsBySecondHighestIndex() {
+        // Given
+        SparseArray dense = SparseArray.fromList(List.of(RuntimeValue.ofInt(1), RuntimeValue.ofInt(2)));
+        SparseArray sparse = new SparseArray();
+        sparse.set(1, RuntimeValue.ofInt(3));
+        sparse.set(100_000, RuntimeValue.ofInt(4));
+
+        // When
+        SparseArray denseAndDense = SparseArray.concatenate(dense, dense);
+        SparseArray sparseAndDense = SparseArray.concatenate(sparse, dense);
+
+        // Then
+        assert (denseAndDense.getLayout() == SparseArray.Layout.INTEGERS);
+        assert (denseAndDense.toString().equals("[1=1, 2=2, 3=1, 4=2, ]"));
+        assert (sparseAndDense.getLayout() == SparseArray.Layout.MAP);
+        assert (sparseAndDense.toString().equals("[1=3, 100000=4, 100001=1, 100002=2, ]"));
+    }
+
+    @Test
+    public void testIndexesStartAtOne() {
+        // Given
+        SparseArray array = new SparseArray();
+
+        // When
+        boolean failed = false;
+        try {
+            array.get(0);
+        } catch (IndexOutOfBoundsException e) {
+            failed = true;
+        }
+
+        // Then
+        assert (failed);
+    }
+
+    @Test
+    public void testHomogeneousNumbersAreUnboxedUntilAnotherTypeIsWritten() {
+        // Given
+        SparseArray integers = new SparseArray();
+        SparseArray reals = SparseArray.fromList(List.of(RuntimeValue.ofReal(0.5), RuntimeValue.ofReal(1.5)));
+        for (int i = 1; i <= 100; i++) {
+            integers.set(i, RuntimeValue.ofInt(i * 1000));
+        }
+
+        // When
+        SparseArray.Layout integersBefore = integers.getLayout();
+        SparseArray.Layout realsBefore = reals.getLayout();
+        integers.set(50, RuntimeValue.ofReal(2.5));
+        reals.set(3, RuntimeValue.ofReal(3.5));
+        reals.set(5, RuntimeValue.ofReal(5.5));
+
+        // Then
+        assert (integersBefore == SparseArray.Layout.INTEGERS);
+        assert (realsBefore == SparseArray.Layout.REALS);
+        assert (integers.getLayout() == SparseArray.Layout.VALUES);
+        assert (integers.get(49).asInt() == 49000);
+        assert (integers.get(50).asReal() == 2.5);
+        assert (integers.get(100).asInt() == 100000);
+        assert (reals.getLayout() == SparseArray.Layout.VALUES);
+        assert (reals.get(3).asReal() == 3.5);
+        assert (reals.get(4).getType() == RuntimeValue.RuntimeValueType.EMPTY);
+        assert (reals.toString().equals("[1=0.5, 2=1.5, 3=3.5, 5=5.5, ]"));
+    }
+
+    @Test
+    public void testRepeatedConcatenationSharesTheVector() {
+        // Given
+        SparseArray array = new SparseArray();
+        SparseArray last = SparseArray.fromList(List.of(RuntimeValue.ofInt(0)));
+        SparseArray one = SparseArray.fromList(List.of(RuntimeValue.ofInt(1)));
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            last = array;
+            array = SparseArray.concatenate(array, SparseArray.fromList(List.of(RuntimeValue.ofInt(i))));
+        }
+        SparseArray grown = SparseArray.concatenate(array, one);
+        array.set(1, RuntimeValue.ofValue("a"));
+        array.set(1003, RuntimeValue.ofInt(3));
+
+        // Then
+        assert (array.getLayout() == SparseArray.Layout.VECTOR);
+        assert (last.get(1).asInt() == 0);
+        assert (last.get(1000).getType() == RuntimeValue.RuntimeValueType.EMPTY);
+        assert (grown.get(1).asInt() == 0);
+        assert (grown.get(1001).asInt() == 1);
+        assert (grown.get(1003).getType() == RuntimeValue.RuntimeValueType.EMPTY);
+        assert (array.get(1).getValue().equals("a"));
+        assert (array.get(999).asInt() == 998);
+        assert (array.get(1002).getType() == RuntimeValue.RuntimeValueType.EMPTY);
+        assert (array.get(1003).asInt() == 3);
+    }
+
+    @Test
+    public void testMapTracksHighestIndex() {
+        // Given
+        SparseArray sparse = new SparseArray();
+        sparse.set(1, RuntimeValue.ofInt(1));
+        sparse.set(100_000, RuntimeValue.ofInt(2));
+        sparse.set(50, RuntimeValue.ofInt(3));
+
+        // When
+        SparseArray concatenated = SparseArray.concatenate(sparse, sparse);
+
+        // Then
+        assert (concatenated.get(100_001).asInt() == 1);
+        assert (concatenated.get(100_050).asInt() == 3);
+        assert (concatenated.get(200_000).asInt() == 2);
+    }
+}
@@ -0,0 +1,73 @@
+package com.projectd.interpreter.runtime.register;
+
+import com.projectd.interpreter.runtime.EngineComparisonTest;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/** Compares the register machine with every function compiled on its first call against the tree walker */
+public class JitCompilerTest extends EngineComparisonTest {
+
+    @Override
+    protected RuntimeExecutor newExecutor(RuntimeIOHandler io) {
+        return new RegisterMachine(1, io);
+    }
+
+    /** Errors raised in compiled code */
+    @Override
+    protected List<String> engineRuntimeErrors() {
+        return List.of(
+                "var f := func (a) => a[0]; print f([1]), f([1])",
+                "var f := func (a) => a[1]; print f([1]), f({a := 1})",
+                "var f := func (t) is t.a := 2 end; print f({a := 1}), f({a := 1})",
+                "var f := func (p) => p(1); print f(func (x) => x), f(1)",
+                "var f := func (n) is for i in 1 .. n loop print i end end; f(2); f(\"s\")",
+                "var f := func (n) is if n then print 1 end end; f(1 = 1); f(1)",
+                "var f := func (n) => n + v; print f(1)");
+    }
+
+    @Test
+    public void testHotFunctionsAreCompiled() {
+        // Given
+        String input = """
+                var fib := func (n) is if n < 2 then return n end return fib(n - 1) + fib(n - 2) end
+                var sum := func (a) is
+                  var s := 0
+                  for i in 1 .. 3 loop s := s + a[i] * i end
+                  var j := 0
+                  while j < 2 loop j := j + 1; s := s - -j end
+                  return s
+                end
+                var show := func (p) is var t := {v := p}; print "sees", x, p, t.v, (p is int ) end
+                var x := "top"
+                for k in 1 .. 20 loop print fib(k), sum([k, 2, 3]), show(k) end
+                """;
+        RegisterMachine[] machine = new RegisterMachine[1];
+
+        // When
+        assertSameOutput(io -> machine[0] = new RegisterMachine(3, io), lines(input));
+
+        // Then
+        assert (machine[0].getCompiledFunctions() == 3);
+    }
+
+    @Test
+    public void testFailedGuardsResumeInInterpreter() {
+        // Given
+        String input = """
+                var add := func (a, b) => a + b
+                var less := func (a, b) is var c := a < b; return c end
+                var neg := func (a) is var b := -a; return b end
+                var get := func (a, i) => a[i]
+                for i in 1 .. 3 loop print add(i, i * 2), less(i, 2), neg(i), get([i, 2], 1) end
+                print add(1.5, 2), add("s", "t"), add([1], [2, 3]), less(1.5, 2), neg(2.5)
+                for i in 1 .. 30 loop print add(i + 0.5, i), add(i, i), less(i, 1.5) end
+                print add(1, "s")
+                """;
+
+        // Then
+        assertSameOutput(io -> new RegisterMachine(2, io), lines(input));
+    }
+}
@@ -0,0 +1,75 @@
+package com.projectd.interpreter.runtime.register;
+
+import com.projectd.interpreter.runtime.EngineComparisonTest;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class RegisterMachineTest extends EngineComparisonTest {
+
+    @Override
+    protected RuntimeExecutor newExecutor(RuntimeIOHandler io) {
+        return new RegisterMachine(RegisterMachine.DEFAULT_JIT_THRESHOLD, io);
+    }
+
+    @Override
+    protected List<String> engineRuntimeErrors() {
+        return List.of(
+                "var x := 1; if x = 1 then var u := 2 end print u",
+                "for i in 1 .. i loop print i end",
+                "var g := func (p) => p + v; g(1)");
+    }
+
+    @Test
+    public void testReturnsUnwindLoopsAndScopes() {
+        // Given
+        String input = """
+                var f := func (n) is
+                  for i in 1 .. n loop
+                    while i > 0 loop if i = 3 then return i * 10 end i := i - 1 end
+                  end
+                  print "unreachable"
+                end
+                print f(5)
+                for i in 1 .. 4 loop if i = 2 then return i end print "top", i end
+                print "after loop", f(4) + f(3)
+                var h := func (p) => f(p) + 1
+                print h(3)
+                var s := func (n) is if n = 0 then return 0 end return n + s(n - 1) end
+                print s(400)
+                """;
+
+        // Then
+        assertSameOutput(lines(input));
+    }
+
+    @Test
+    public void testDynamicScopingIsKept() {
+        // Given
+        String input = """
+                var show := func (p) is print "sees", x, p end
+                var caller := func (q) is var x := q * 2; show(q); x := x + 1; show(x) end
+                caller(1)
+                var x := "top"
+                show(0)
+                var i := 0, k := 10
+                while i < 3 loop
+                  print "k", k
+                  var k := i; i := i + 1
+                end
+                var j := 0
+                while j < 3 loop print j; var j := j + 5 end
+                var y := 1
+                if y = 1 then var y := 2; print y; y := y + 1; print y end
+                print y
+                for n in 1 .. 3 loop var y := y + n; print y end
+                var z := 1, w := z + 1, z := w * 3
+                print z, w
+                """;
+
+        // Then
+        assertSameOutput(lines(input));
+    }
+}
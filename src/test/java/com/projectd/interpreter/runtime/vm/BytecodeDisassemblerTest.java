@@ -0,0 +1,48 @@
+package com.projectd.interpreter.runtime.vm;
+
+import com.projectd.interpreter.lex.TableDrivenLexicalAnalyser;
+import com.projectd.interpreter.syntax.SyntaxAnalyserImpl;
+import com.projectd.interpreter.syntax.SyntaxAnalyserOptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class BytecodeDisassemblerTest {
+
+    @Test
+    public void testListsInstructionsJumpsAndFunctions() {
+        // Given
+        String input = """
+                var f := func (n) => n * 2
+                var i := 0
+                while i < 3 loop i := i + f(i) end
+                print i
+                """;
+        List<String> sourceLines = Arrays.stream(input.split("\\r?\\n")).toList();
+
+        // When
+        Chunk program = new BytecodeCompiler().compileProgram(new SyntaxAnalyserImpl(
+                new TableDrivenLexicalAnalyser().analyseToBuffer(sourceLines), SyntaxAnalyserOptions.DEFAULT).buildAstTree());
+        String listing = new BytecodeDisassembler().disassemble(program);
+        List<String> lines = listing.lines().toList();
+
+        // Then
+        assert (lines.get(0).equals("== <program> =="));
+        assert (listing.contains("DECLARE_ASSIGN") && listing.contains("; f"));
+        assert (listing.contains("COMPARE") && listing.contains("; LESS"));
+        assert (listing.contains("CALL") && listing.contains("PRINT"));
+        assert (listing.contains("== <func at lineNum=0"));
+        assert (listing.contains("MULTIPLY"));
+
+        String exit = lines.stream().filter(line -> line.contains("JUMP_IF_FALSE")).findFirst().orElseThrow();
+        String loop = lines.stream().filter(line -> line.contains("JUMP_IF_TRUE")).findFirst().orElseThrow();
+        String loopTarget = targetOf(loop);
+        assert (lines.stream().anyMatch(line -> line.startsWith(loopTarget + " LOAD")));
+        assert (Integer.parseInt(targetOf(exit)) > Integer.parseInt(loop.substring(0, 4)));
+    }
+
+    private static String targetOf(String jump) {
+        return jump.substring(jump.indexOf("-> ") + 3);
+    }
+}
@@ -0,0 +1,37 @@
+package com.projectd.interpreter.runtime.vm;
+
+import com.projectd.interpreter.runtime.EngineComparisonTest;
+import com.projectd.interpreter.runtime.RuntimeIOHandler;
+import com.projectd.interpreter.runtime.contract.RuntimeExecutor;
+import org.junit.jupiter.api.Test;
+
+public class VirtualMachineTest extends EngineComparisonTest {
+
+    @Override
+    protected RuntimeExecutor newExecutor(RuntimeIOHandler io) {
+        return new VirtualMachine(io);
+    }
+
+    @Test
+    public void testReturnsUnwindLoopsAndScopes() {
+        // Given
+        String input = """
+                var f := func (n) is
+                  for i in 1 .. n loop
+                    while i > 0 loop if i = 3 then return i * 10 end i := i - 1 end
+                  end
+                  print "unreachable"
+                end
+                print f(5)
+                for i in 1 .. 4 loop if i = 2 then return i end print "top", i end
+                print "after loop", f(4) + f(3)
+                var h := func (p) => f(p) + 1
+                print h(3)
+                var s := func (n) is if n = 0 then return 0 end return n + s(n - 1) end
+                print s(400)
+                """;
+
+        // Then
+        assertSameOutput(lines(input));
+    }
+}
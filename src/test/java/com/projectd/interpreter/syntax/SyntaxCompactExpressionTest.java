@@ -0,0 +1,143 @@
+package com.projectd.interpreter.syntax;
+
+import com.projectd.interpreter.lex.TableDrivenLexicalAnalyser;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenCode;
+import com.projectd.interpreter.shared.exception.BaseInterpreterException;
+import com.projectd.interpreter.syntax.tree.AstGrammarNode;
+import com.projectd.interpreter.syntax.tree.AstGrammarNodeType;
+import com.projectd.interpreter.syntax.tree.AstNode;
+import com.projectd.interpreter.syntax.tree.AstTokenNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class SyntaxCompactExpressionTest {
+
+    private static final SyntaxAnalyserOptions COMPACT = SyntaxAnalyserOptions.builder().compactExpressions(true).build();
+    private static final SyntaxAnalyserOptions COMPACT_PREDICTIVE = SyntaxAnalyserOptions.builder()
+            .compactExpressions(true)
+            .predictive(true)
+            .packrat(SyntaxAnalyserOptions.PackratMode.STATEMENT)
+            .build();
+
+    @Test
+    public void testPrecedenceAndLeftAssociativity() {
+        // When
+        AstNode expression = parseExpression("print 1 - 2 - 3 * x and not y");
+
+        // Then
+        assert (isOperation(expression, AstGrammarNodeType.BINARY_OPERATION, LexTokenCode.AND));
+        AstNode difference = expression.getChildren().get(0);
+        assert (isOperation(difference, AstGrammarNodeType.BINARY_OPERATION, LexTokenCode.SUBTRACTION));
+        assert (isOperation(difference.getChildren().get(0), AstGrammarNodeType.BINARY_OPERATION, LexTokenCode.SUBTRACTION));
+        assert (isOperation(difference.getChildren().get(2), AstGrammarNodeType.BINARY_OPERATION, LexTokenCode.MULTIPLICATION));
+        assert (isOperation(expression.getChildren().get(2), AstGrammarNodeType.UNARY_OPERATION, LexTokenCode.NOT));
+    }
+
+    @Test
+    public void testOperandsAreNotWrapped() {
+        // When
+        AstNode literal = parseExpression("print 1");
+        AstNode parenthesised = parseExpression("print ((x))");
+        AstNode typeCheck = parseExpression("print -x is int");
+
+        // Then
+        assert (((AstGrammarNode) literal).getGrammarType() == AstGrammarNodeType.LITERAL);
+        assert (((AstGrammarNode) parenthesised).getGrammarType() == AstGrammarNodeType.PRIMARY);
+        assert (((AstGrammarNode) typeCheck).getGrammarType() == AstGrammarNodeType.TYPE_CHECK);
+        assert (isOperation(typeCheck.getChildren().get(0), AstGrammarNodeType.UNARY_OPERATION, LexTokenCode.SUBTRACTION));
+    }
+
+    @Test
+    public void testParentsPointToEnclosingOperation() {
+        // When
+        AstNode expression = parseExpression("print a + b[1] * 2");
+
+        // Then
+        AstNode product = expression.getChildren().get(2);
+        AstNode expected = new AstGrammarNode(AstGrammarNodeType.BINARY_OPERATION, expression, product.getChildren());
+        assert (product.equals(expected));
+    }
+
+    @Test
+    public void testExamplesBuildSmallerTrees() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        assert (!examples.isEmpty());
+        for (Path example : examples) {
+            List<LexToken> tokens = new TableDrivenLexicalAnalyser().analyse(Files.readAllLines(example));
+
+            AstNode expected = new SyntaxAnalyserImpl(tokens).buildAstTree();
+            AstNode compact = new SyntaxAnalyserImpl(tokens, COMPACT).buildAstTree();
+
+            assert (compact.getChildren().size() == expected.getChildren().size());
+            assert (countNodes(compact) * 5 < countNodes(expected) * 3);
+            assert (compact.toString().equals(new SyntaxAnalyserImpl(tokens, COMPACT_PREDICTIVE).buildAstTree().toString()));
+        }
+    }
+
+    @Test
+    public void testSameStatementsAreRecognised() {
+        // Given
+        List<String> inputs = List.of(
+                "print 1 +",
+                "print 1 + 2 *",
+                "print a < b < c",
+                "print x and a < b < c",
+                "print a < b + ",
+                "print -1",
+                "print (1 + 2",
+                "x := y + z * (2 - w) is int",
+                "print a <= b and c /= d or e = f xor g > h");
+
+        // Then
+        for (String input : inputs) {
+            List<LexToken> tokens = new TableDrivenLexicalAnalyser().analyse(List.of(input));
+            String expected = parse(new SyntaxAnalyserImpl(tokens));
+            String result = parse(new SyntaxAnalyserImpl(tokens, COMPACT));
+
+            assert (expected.startsWith("PROGRAM") == result.startsWith("PROGRAM"));
+            if (!expected.startsWith("PROGRAM")) {
+                assert (expected.equals(result));
+            }
+        }
+    }
+
+    private static AstNode parseExpression(String input) {
+        List<LexToken> tokens = new TableDrivenLexicalAnalyser().analyse(List.of(input));
+        AstNode program = new SyntaxAnalyserImpl(tokens, COMPACT).buildAstTree();
+        AstNode print = program.getChildren().get(0).getChildren().get(0);
+        return print.getChildren().get(1);
+    }
+
+    private static boolean isOperation(AstNode node, AstGrammarNodeType type, LexTokenCode operator) {
+        if (!(node instanceof AstGrammarNode grammarNode) || grammarNode.getGrammarType() != type) {
+            return false;
+        }
+        int operatorIndex = type == AstGrammarNodeType.UNARY_OPERATION ? 0 : 1;
+        return node.getChildren().get(operatorIndex) instanceof AstTokenNode token && token.getToken().getCode() == operator;
+    }
+
+    private static int countNodes(AstNode node) {
+        if (node instanceof AstTokenNode) {
+            return 1;
+        }
+        return 1 + node.getChildren().stream().mapToInt(SyntaxCompactExpressionTest::countNodes).sum();
+    }
+
+    private static String parse(SyntaxAnalyser analyser) {
+        try {
+            return analyser.buildAstTree().toString();
+        } catch (BaseInterpreterException e) {
+            return e.toString();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.projectd.interpreter.syntax;
+
+import com.projectd.interpreter.lex.TableDrivenLexicalAnalyser;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.shared.exception.BaseInterpreterException;
+import com.projectd.interpreter.syntax.SyntaxAnalyserOptions.PackratMode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class SyntaxPackratTest {
+
+    private static final List<SyntaxAnalyserOptions> PACKRAT_OPTIONS = List.of(
+            SyntaxAnalyserOptions.builder().packrat(PackratMode.STATEMENT).build(),
+            SyntaxAnalyserOptions.builder().packrat(PackratMode.UNBOUNDED).build(),
+            SyntaxAnalyserOptions.builder().packrat(PackratMode.STATEMENT).predictive(true).build());
+
+    @Test
+    public void testExamplesBuildIdenticalTrees() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        assert (!examples.isEmpty());
+        for (Path example : examples) {
+            assertSameParse(Files.readAllLines(example));
+        }
+    }
+
+    @Test
+    public void testBacktrackedConstructsBuildIdenticalTrees() {
+        // Given
+        String input = """
+                a[1][2].x(1, t.y(2)) := b[1].z(3) + -a[1][2].x(1, t.y(2))
+                a[1][2].x(1, t.y(2))
+                print f(g(h(1), 2), 3), f(g(h(1), 2), 3) is func
+                var t := {x := a.b.c, a.b.c, y := func (p) => p.q[1]}
+                if a.b[1] then a.b[1] := a.b[2] else a.b[2] := a.b[1] end
+                """;
+
+        // Then
+        assertSameParse(Arrays.stream(input.split("\\r?\\n")).toList());
+    }
+
+    @Test
+    public void testSyntaxErrorsAreReportedIdentically() {
+        // Given
+        List<String> inputs = List.of(
+                "a[1].x( := 2",
+                "print f(g(1, 2)",
+                "a.b.c := := 1",
+                "var t := {a := b.c,}",
+                "x := 1 +");
+
+        // Then
+        for (String input : inputs) {
+            assertSameParse(List.of(input));
+        }
+    }
+
+    private static void assertSameParse(List<String> sourceLines) {
+        List<LexToken> tokens = new TableDrivenLexicalAnalyser().analyse(sourceLines);
+
+        String expected = parse(new SyntaxAnalyserImpl(tokens));
+        for (SyntaxAnalyserOptions options : PACKRAT_OPTIONS) {
+            assert (expected.equals(parse(new SyntaxAnalyserImpl(tokens, options))));
+            assert (expected.equals(parse(new SyntaxAnalyserImpl(new TableDrivenLexicalAnalyser().analyseToBuffer(sourceLines), options))));
+        }
+    }
+
+    private static String parse(SyntaxAnalyser analyser) {
+        try {
+            return analyser.buildAstTree().toString();
+        } catch (BaseInterpreterException e) {
+            return e.toString();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.projectd.interpreter.syntax;
+
+import com.projectd.interpreter.lex.TableDrivenLexicalAnalyser;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.shared.exception.BaseInterpreterException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class SyntaxPredictiveTest {
+
+    private static final SyntaxAnalyserOptions PREDICTIVE = SyntaxAnalyserOptions.builder().predictive(true).build();
+
+    @Test
+    public void testExamplesBuildIdenticalTrees() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        assert (!examples.isEmpty());
+        for (Path example : examples) {
+            assertSameParse(Files.readAllLines(example));
+        }
+    }
+
+    @Test
+    public void testConstructsBuildIdenticalTrees() {
+        // Given
+        String input = """
+                var a := [1, 2, 3], t := {x := 1, 2, y := func (p, q) => p + q}, e := []
+                a[1] := -t.x + not t.2 is int * (3 / 4.5) - readInt
+                t.y(1, 2) := {}
+                if a[1] >= 2 and true xor false or "s" /= "t" then print a, t else return end
+                for i in 1 .. 3 loop var j := i; print j end
+                while a[1] < 10 loop a[1] := a[1] + 1 end
+                var f := func is return end
+                return
+                """;
+
+        // Then
+        assertSameParse(Arrays.stream(input.split("\\r?\\n")).toList());
+    }
+
+    @Test
+    public void testSyntaxErrorsAreReportedIdentically() {
+        // Given
+        List<String> inputs = List.of(
+                "var x := ",
+                "print 1 +",
+                "if x then print x",
+                "x := := 2",
+                "for i in 1 .. loop end",
+                "end",
+                "var t := {a := 1,}");
+
+        // Then
+        for (String input : inputs) {
+            assertSameParse(List.of(input));
+        }
+    }
+
+    private static void assertSameParse(List<String> sourceLines) {
+        List<LexToken> tokens = new TableDrivenLexicalAnalyser().analyse(sourceLines);
+
+        String expected = parse(new SyntaxAnalyserImpl(tokens));
+        String result = parse(new SyntaxAnalyserImpl(tokens, PREDICTIVE));
+
+        assert (expected.equals(result));
+    }
+
+    private static String parse(SyntaxAnalyser analyser) {
+        try {
+            return analyser.buildAstTree().toString();
+        } catch (BaseInterpreterException e) {
+            return e.toString();
+        }
+    }
+}
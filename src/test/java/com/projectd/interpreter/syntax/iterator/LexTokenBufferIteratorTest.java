@@ -0,0 +1,63 @@
+package com.projectd.interpreter.syntax.iterator;
+
+import com.projectd.interpreter.lex.TableDrivenLexicalAnalyser;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenBuffer;
+import com.projectd.interpreter.lex.token.LexTokenCode;
+import com.projectd.interpreter.syntax.SyntaxAnalyserImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class LexTokenBufferIteratorTest {
+
+    @Test
+    public void testSkippedCodesAndRollback() {
+        // Given
+        LexTokenBuffer buffer = new LexTokenBuffer();
+        buffer.addToken(LexTokenCode.SEMICOLON, 0, 0);
+        buffer.addIdentifier("a", 0, 1);
+        buffer.addToken(LexTokenCode.SEMICOLON, 0, 2);
+        buffer.addToken(LexTokenCode.SEMICOLON, 0, 3);
+        buffer.addIdentifier("b", 0, 4);
+        buffer.addToken(LexTokenCode.SEMICOLON, 0, 5);
+
+        // When
+        LexTokenBufferIterator iterator = new LexTokenBufferIterator(buffer, Set.of(LexTokenCode.SEMICOLON));
+        LexToken first = iterator.next();
+        iterator.checkpoint();
+        LexToken second = iterator.next();
+        boolean exhausted = !iterator.hasNext();
+        iterator.rollback();
+        LexToken replayed = iterator.next();
+
+        // Then
+        assert (first.getSpan().getPos() == 1);
+        assert (second.getSpan().getPos() == 4);
+        assert (exhausted);
+        assert (replayed.getSpan().getPos() == 4);
+    }
+
+    @Test
+    public void testExamplesParseLikeTokenLists() throws IOException {
+        List<Path> examples;
+        try (Stream<Path> files = Files.list(Path.of("example"))) {
+            examples = files.sorted().toList();
+        }
+
+        for (Path example : examples) {
+            List<String> sourceLines = Files.readAllLines(example);
+            TableDrivenLexicalAnalyser lexer = new TableDrivenLexicalAnalyser();
+
+            String expected = new SyntaxAnalyserImpl(lexer.analyse(sourceLines)).buildAstTree().toString();
+            String result = new SyntaxAnalyserImpl(lexer.analyseToBuffer(sourceLines)).buildAstTree().toString();
+
+            assert (expected.equals(result));
+        }
+    }
+}
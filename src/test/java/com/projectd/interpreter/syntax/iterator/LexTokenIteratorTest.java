@@ -0,0 +1,85 @@
+package com.projectd.interpreter.syntax.iterator;
+
+import com.projectd.interpreter.lex.token.LexLiteralToken;
+import com.projectd.interpreter.lex.token.LexToken;
+import com.projectd.interpreter.lex.token.LexTokenSpan;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+public class LexTokenIteratorTest {
+
+    @Test
+    public void testNestedRollbackOverStreamingSource() {
+        // Given
+        LexTokenIterator iterator = new LexTokenIterator(tokens(6));
+
+        // When
+        iterator.next();
+        iterator.checkpoint();
+        iterator.next();
+        iterator.checkpoint();
+        iterator.next();
+        iterator.next();
+        iterator.rollback();
+        int afterInnerRollback = valueOf(iterator.next());
+        iterator.rollback();
+        int afterOuterRollback = valueOf(iterator.next());
+
+        // Then
+        assert (afterInnerRollback == 2);
+        assert (afterOuterRollback == 1);
+    }
+
+    @Test
+    public void testDiscardedCheckpointKeepsPosition() {
+        // Given
+        LexTokenIterator iterator = new LexTokenIterator(tokens(4));
+
+        // When
+        iterator.checkpoint();
+        iterator.next();
+        iterator.checkpoint();
+        iterator.next();
+        iterator.discardCheckpoint();
+        iterator.rollback();
+        int replayed = valueOf(iterator.next()) + valueOf(iterator.next()) + valueOf(iterator.next()) + valueOf(iterator.next());
+
+        // Then
+        assert (replayed == 6);
+        assert (!iterator.hasNext());
+    }
+
+    @Test
+    public void testSourceIsConsumedLazily() {
+        // Given
+        Iterator<LexToken> source = tokens(1000);
+        LexTokenIterator iterator = new LexTokenIterator(source);
+
+        // When
+        iterator.checkpoint();
+        iterator.next();
+        iterator.next();
+        iterator.rollback();
+        iterator.next();
+
+        // Then
+        assert (source.hasNext());
+        assert (valueOf(source.next()) == 2);
+    }
+
+    private static Iterator<LexToken> tokens(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> (LexToken) LexLiteralToken.ofValue(i, LexTokenSpan.of(0, i)))
+                .iterator();
+    }
+
+    private static int valueOf(LexToken token) {
+        if (token instanceof LexLiteralToken literal && literal.getValue() instanceof Integer value) {
+            return value;
+        }
+        throw new NoSuchElementException();
+    }
+}